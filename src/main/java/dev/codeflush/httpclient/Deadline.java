@@ -0,0 +1,81 @@
+package dev.codeflush.httpclient;
+
+import java.util.concurrent.TimeUnit;
+
+public final class Deadline {
+
+    private static final ThreadLocal<Deadline> CURRENT = new ThreadLocal<>();
+
+    private final long nanoTime;
+
+    private Deadline(long nanoTime) {
+        this.nanoTime = nanoTime;
+    }
+
+    public static Deadline after(long duration, TimeUnit unit) {
+        return new Deadline(System.nanoTime() + unit.toNanos(duration));
+    }
+
+    public static Deadline after(long millis) {
+        return after(millis, TimeUnit.MILLISECONDS);
+    }
+
+    // the deadline of the exchange (or Scope) running on this thread, null if there is none
+    public static Deadline current() {
+        return CURRENT.get();
+    }
+
+    public static Deadline earliest(Deadline a, Deadline b) {
+        if (a == null) {
+            return b;
+        }
+
+        if (b == null) {
+            return a;
+        }
+
+        return (a.nanoTime - b.nanoTime <= 0L) ? a : b;
+    }
+
+    public long remainingNanos() {
+        return this.nanoTime - System.nanoTime();
+    }
+
+    public long remainingMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(remainingNanos());
+    }
+
+    public boolean isExpired() {
+        return remainingNanos() <= 0L;
+    }
+
+    // every request executed on this thread until the scope is closed inherits this deadline
+    public Scope activate() {
+        Scope scope = new Scope(CURRENT.get());
+        CURRENT.set(earliest(this, scope.previous));
+        return scope;
+    }
+
+    @Override
+    public String toString() {
+        return "Deadline{remaining=" + remainingMillis() + "ms}";
+    }
+
+    public static final class Scope implements AutoCloseable {
+
+        private final Deadline previous;
+
+        private Scope(Deadline previous) {
+            this.previous = previous;
+        }
+
+        @Override
+        public void close() {
+            if (this.previous == null) {
+                CURRENT.remove();
+            } else {
+                CURRENT.set(this.previous);
+            }
+        }
+    }
+}
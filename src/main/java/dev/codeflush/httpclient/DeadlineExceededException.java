@@ -0,0 +1,15 @@
+package dev.codeflush.httpclient;
+
+import java.io.InterruptedIOException;
+
+public class DeadlineExceededException extends InterruptedIOException {
+
+    public DeadlineExceededException(String message) {
+        super(message);
+    }
+
+    public DeadlineExceededException(String message, Throwable cause) {
+        super(message);
+        initCause(cause);
+    }
+}
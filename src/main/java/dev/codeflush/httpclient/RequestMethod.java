@@ -2,15 +2,16 @@ package dev.codeflush.httpclient;
 
 public interface RequestMethod {
 
-    RequestMethodWithoutBody HEAD = new RequestMethodWithoutBody("HEAD");
-    RequestMethodWithoutBody GET = new RequestMethodWithoutBody("GET");
-    RequestMethodWithBody POST = new RequestMethodWithBody("POST");
-    RequestMethodWithBody PUT = new RequestMethodWithBody("PUT");
-    RequestMethodWithBody PATCH = new RequestMethodWithBody("PATCH");
-    RequestMethodWithoutBody DELETE = new RequestMethodWithoutBody("DELETE");
+    RequestMethodWithoutBody HEAD = new RequestMethodWithoutBody("HEAD", true);
+    RequestMethodWithoutBody GET = new RequestMethodWithoutBody("GET", true);
+    RequestMethodWithBody POST = new RequestMethodWithBody("POST", false);
+    RequestMethodWithBody PUT = new RequestMethodWithBody("PUT", true);
+    RequestMethodWithBody PATCH = new RequestMethodWithBody("PATCH", false);
+    RequestMethodWithoutBody DELETE = new RequestMethodWithoutBody("DELETE", true);
 
     String getName();
     boolean supportsRequestBody();
+    boolean isIdempotent();
 
     RequestMethod[] VALUES = new RequestMethod[]{HEAD, GET, POST, PUT, PATCH, DELETE};
     static RequestMethod[] values() {
@@ -20,9 +21,11 @@ public interface RequestMethod {
     class RequestMethodWithBody implements RequestMethod {
 
         private final String name;
+        private final boolean idempotent;
 
-        private RequestMethodWithBody(String name) {
+        private RequestMethodWithBody(String name, boolean idempotent) {
             this.name = name;
+            this.idempotent = idempotent;
         }
 
         @Override
@@ -30,6 +33,11 @@ public interface RequestMethod {
             return this.name;
         }
 
+        @Override
+        public boolean isIdempotent() {
+            return this.idempotent;
+        }
+
         @Override
         public boolean supportsRequestBody() {
             return true;
@@ -39,9 +47,11 @@ public interface RequestMethod {
     class RequestMethodWithoutBody implements RequestMethod {
 
         private final String name;
+        private final boolean idempotent;
 
-        private RequestMethodWithoutBody(String name) {
+        private RequestMethodWithoutBody(String name, boolean idempotent) {
             this.name = name;
+            this.idempotent = idempotent;
         }
 
         @Override
@@ -49,6 +59,11 @@ public interface RequestMethod {
             return this.name;
         }
 
+        @Override
+        public boolean isIdempotent() {
+            return this.idempotent;
+        }
+
         @Override
         public boolean supportsRequestBody() {
             return false;
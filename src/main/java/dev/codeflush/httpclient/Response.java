@@ -50,6 +50,21 @@ public class Response<T> {
         return this.headers;
     }
 
+    // HttpURLConnection keeps the header names as sent by the server
+    public String getHeader(String name) {
+        if (this.headers == null) {
+            return null;
+        }
+
+        for (Map.Entry<String, List<String>> entry : this.headers.entrySet()) {
+            if (name.equalsIgnoreCase(entry.getKey()) && entry.getValue() != null && !entry.getValue().isEmpty()) {
+                return entry.getValue().get(0);
+            }
+        }
+
+        return null;
+    }
+
     public String getContentType() {
         return contentType;
     }
@@ -0,0 +1,150 @@
+package dev.codeflush.httpclient;
+
+import java.io.Closeable;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.ref.PhantomReference;
+import java.lang.ref.ReferenceQueue;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+public class ResponseBody implements Closeable {
+
+    private static final ReferenceQueue<ResponseBody> QUEUE = new ReferenceQueue<>();
+    private static final Set<Tracker> TRACKERS = ConcurrentHashMap.newKeySet();
+    private static final AtomicLong LEAK_COUNT = new AtomicLong();
+    private static volatile Consumer<String> leakListener = null;
+
+    private final Source source;
+    private final Tracker tracker;
+    private final AtomicBoolean consumed;
+
+    public ResponseBody(InputStream stream, String description) {
+        reportLeaks();
+
+        this.source = new Source(Objects.requireNonNull(stream), description);
+        this.tracker = new Tracker(this, this.source);
+        this.consumed = new AtomicBoolean(false);
+
+        TRACKERS.add(this.tracker);
+    }
+
+    public static long getLeakCount() {
+        reportLeaks();
+        return LEAK_COUNT.get();
+    }
+
+    public static void setLeakListener(Consumer<String> listener) {
+        leakListener = listener;
+    }
+
+    public InputStream getInputStream() {
+        if (!this.consumed.compareAndSet(false, true)) {
+            throw new IllegalStateException("the body can only be consumed once");
+        }
+
+        return new BodyInputStream(this.source.stream);
+    }
+
+    public ReadableByteChannel getChannel() {
+        return Channels.newChannel(getInputStream());
+    }
+
+    public boolean isClosed() {
+        return this.source.closed.get();
+    }
+
+    @Override
+    public void close() throws IOException {
+        TRACKERS.remove(this.tracker);
+        this.tracker.clear();
+        this.source.close();
+    }
+
+    private static void reportLeaks() {
+        Tracker tracker;
+
+        while ((tracker = (Tracker) QUEUE.poll()) != null) {
+            if (TRACKERS.remove(tracker) && !tracker.source.closed.get()) {
+                LEAK_COUNT.incrementAndGet();
+
+                Consumer<String> listener = leakListener;
+                if (listener != null) {
+                    listener.accept(tracker.source.description);
+                }
+
+                try {
+                    tracker.source.close();
+                } catch (IOException ignored) {
+                }
+            }
+        }
+    }
+
+    private static class Source {
+
+        private final InputStream stream;
+        private final String description;
+        private final AtomicBoolean closed;
+
+        private Source(InputStream stream, String description) {
+            this.stream = stream;
+            this.description = description;
+            this.closed = new AtomicBoolean(false);
+        }
+
+        private void close() throws IOException {
+            if (this.closed.compareAndSet(false, true)) {
+                this.stream.close();
+            }
+        }
+    }
+
+    private static class Tracker extends PhantomReference<ResponseBody> {
+
+        private final Source source;
+
+        private Tracker(ResponseBody referent, Source source) {
+            super(referent, QUEUE);
+            this.source = source;
+        }
+    }
+
+    // keeps the ResponseBody reachable as long as the stream is in use
+    private class BodyInputStream extends FilterInputStream {
+
+        private BodyInputStream(InputStream in) {
+            super(in);
+        }
+
+        @Override
+        public int read() throws IOException {
+            return closeOnEOF(super.read());
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            return closeOnEOF(super.read(b, off, len));
+        }
+
+        @Override
+        public void close() throws IOException {
+            ResponseBody.this.close();
+        }
+
+        private int closeOnEOF(int result) throws IOException {
+            if (result == -1) {
+                close();
+            }
+
+            return result;
+        }
+    }
+}
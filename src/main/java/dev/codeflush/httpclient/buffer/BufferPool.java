@@ -0,0 +1,209 @@
+package dev.codeflush.httpclient.buffer;
+
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.nio.ByteBuffer;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+// buffers are pooled in power-of-two size classes; released buffers go to a small cache of the releasing thread
+// first and to a bounded global free list after that, buffers that fit in neither are left to the GC
+public class BufferPool {
+
+    public static final String LEAK_DETECTION_PROPERTY = "dev.codeflush.httpclient.buffer.leakDetection";
+    public static final int DEFAULT_BUFFER_SIZE = 8192;
+
+    private static final int DEFAULT_MIN_SIZE = 4096;
+    private static final int DEFAULT_MAX_SIZE = 256 * 1024;
+    private static final int DEFAULT_THREAD_LOCAL_CAPACITY = 4;
+    private static final int DEFAULT_GLOBAL_CAPACITY = 64;
+
+    private static final BufferPool HEAP = new BufferPool(false);
+    private static final BufferPool DIRECT = new BufferPool(true);
+
+    private final boolean direct;
+    private final int minShift;
+    private final int maxSize;
+    private final int threadLocalCapacity;
+    private final int globalCapacity;
+    private final ConcurrentLinkedQueue<PooledBuffer>[] free;
+    private final AtomicIntegerArray freeCounts;
+    private final ThreadLocal<PooledBuffer[][]> caches;
+    private final ThreadLocal<int[]> cacheCounts;
+    private final BufferPoolMetrics metrics;
+    private final boolean leakDetection;
+    private final Set<LeakTracker> trackers;
+    private final ReferenceQueue<PooledBuffer> collected;
+    private volatile Throwable lastLeak;
+
+    @SuppressWarnings("unchecked")
+    public BufferPool(boolean direct, int minSize, int maxSize, int threadLocalCapacity, int globalCapacity, boolean leakDetection) {
+        if (minSize < 1 || maxSize < minSize || threadLocalCapacity < 0 || globalCapacity < 0) {
+            throw new IllegalArgumentException("invalid pool dimensions");
+        }
+
+        this.direct = direct;
+        this.minShift = shift(minSize);
+        this.maxSize = 1 << shift(maxSize);
+        this.threadLocalCapacity = threadLocalCapacity;
+        this.globalCapacity = globalCapacity;
+
+        int sizeClasses = shift(maxSize) - this.minShift + 1;
+        this.free = new ConcurrentLinkedQueue[sizeClasses];
+        for (int i = 0; i < sizeClasses; i++) {
+            this.free[i] = new ConcurrentLinkedQueue<>();
+        }
+
+        this.freeCounts = new AtomicIntegerArray(sizeClasses);
+        this.caches = ThreadLocal.withInitial(() -> new PooledBuffer[sizeClasses][threadLocalCapacity]);
+        this.cacheCounts = ThreadLocal.withInitial(() -> new int[sizeClasses]);
+        this.metrics = new BufferPoolMetrics();
+        this.leakDetection = leakDetection;
+        this.trackers = ConcurrentHashMap.newKeySet();
+        this.collected = new ReferenceQueue<>();
+        this.lastLeak = null;
+    }
+
+    // leak detection is enabled with the system property, e.g. for tests
+    public BufferPool(boolean direct) {
+        this(direct, DEFAULT_MIN_SIZE, DEFAULT_MAX_SIZE, DEFAULT_THREAD_LOCAL_CAPACITY, DEFAULT_GLOBAL_CAPACITY, Boolean.getBoolean(LEAK_DETECTION_PROPERTY));
+    }
+
+    // the pool of heap buffers used by the built-in request bodies and parsers
+    public static BufferPool heap() {
+        return HEAP;
+    }
+
+    public static BufferPool direct() {
+        return DIRECT;
+    }
+
+    public boolean isDirect() {
+        return this.direct;
+    }
+
+    public boolean isLeakDetection() {
+        return this.leakDetection;
+    }
+
+    public BufferPoolMetrics getMetrics() {
+        return this.metrics;
+    }
+
+    public PooledBuffer acquire() {
+        return acquire(DEFAULT_BUFFER_SIZE);
+    }
+
+    // a buffer with at least the given capacity
+    public PooledBuffer acquire(int minCapacity) {
+        if (this.leakDetection) {
+            checkLeaks();
+        }
+
+        if (minCapacity > this.maxSize) {
+            this.metrics.onUnpooled();
+            return track(new PooledBuffer(this, allocate(minCapacity), -1));
+        }
+
+        int sizeClass = Math.max(0, shift(minCapacity) - this.minShift);
+        PooledBuffer buffer = null;
+
+        int[] counts = this.cacheCounts.get();
+        if (counts[sizeClass] > 0) {
+            PooledBuffer[] cache = this.caches.get()[sizeClass];
+            int index = --counts[sizeClass];
+            buffer = cache[index];
+            cache[index] = null;
+            this.metrics.onThreadLocalHit();
+        } else if ((buffer = this.free[sizeClass].poll()) != null) {
+            this.freeCounts.decrementAndGet(sizeClass);
+            this.metrics.onGlobalHit();
+        } else {
+            buffer = new PooledBuffer(this, allocate(1 << (sizeClass + this.minShift)), sizeClass);
+            this.metrics.onAllocated();
+        }
+
+        return track(buffer);
+    }
+
+    // counts the buffers that were collected without being released
+    public long checkLeaks() {
+        LeakTracker tracker;
+
+        while ((tracker = (LeakTracker) this.collected.poll()) != null) {
+            if (this.trackers.remove(tracker)) {
+                this.metrics.onLeak();
+                this.lastLeak = tracker.acquiredAt;
+            }
+        }
+
+        return this.metrics.getLeaks();
+    }
+
+    // the stack trace of the acquisition of the last leaked buffer
+    public Throwable getLastLeak() {
+        return this.lastLeak;
+    }
+
+    void release(PooledBuffer buffer) {
+        this.metrics.onReleased();
+
+        LeakTracker tracker = buffer.tracker;
+        if (tracker != null) {
+            buffer.tracker = null;
+            this.trackers.remove(tracker);
+            tracker.clear();
+        }
+
+        int sizeClass = buffer.getSizeClass();
+        if (sizeClass < 0) {
+            return;
+        }
+
+        int[] counts = this.cacheCounts.get();
+        if (counts[sizeClass] < this.threadLocalCapacity) {
+            this.caches.get()[sizeClass][counts[sizeClass]++] = buffer;
+            return;
+        }
+
+        if (this.freeCounts.incrementAndGet(sizeClass) <= this.globalCapacity) {
+            this.free[sizeClass].offer(buffer);
+        } else {
+            this.freeCounts.decrementAndGet(sizeClass);
+            this.metrics.onDropped();
+        }
+    }
+
+    private PooledBuffer track(PooledBuffer buffer) {
+        buffer.markAcquired();
+
+        if (this.leakDetection) {
+            LeakTracker tracker = new LeakTracker(buffer, this.collected);
+            buffer.tracker = tracker;
+            this.trackers.add(tracker);
+        }
+
+        return buffer;
+    }
+
+    private ByteBuffer allocate(int capacity) {
+        return this.direct ? ByteBuffer.allocateDirect(capacity) : ByteBuffer.allocate(capacity);
+    }
+
+    // log2 of the next power of two
+    private static int shift(int size) {
+        return (size <= 1) ? 0 : 32 - Integer.numberOfLeadingZeros(size - 1);
+    }
+
+    static final class LeakTracker extends WeakReference<PooledBuffer> {
+
+        private final Throwable acquiredAt;
+
+        private LeakTracker(PooledBuffer buffer, ReferenceQueue<PooledBuffer> queue) {
+            super(buffer, queue);
+            this.acquiredAt = new Throwable("buffer of " + buffer.capacity() + " bytes acquired here");
+        }
+    }
+}
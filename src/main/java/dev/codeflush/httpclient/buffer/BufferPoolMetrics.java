@@ -0,0 +1,99 @@
+package dev.codeflush.httpclient.buffer;
+
+import java.util.concurrent.atomic.LongAdder;
+
+public class BufferPoolMetrics {
+
+    private final LongAdder acquired;
+    private final LongAdder threadLocalHits;
+    private final LongAdder globalHits;
+    private final LongAdder allocated;
+    private final LongAdder unpooled;
+    private final LongAdder released;
+    private final LongAdder dropped;
+    private final LongAdder leaks;
+
+    BufferPoolMetrics() {
+        this.acquired = new LongAdder();
+        this.threadLocalHits = new LongAdder();
+        this.globalHits = new LongAdder();
+        this.allocated = new LongAdder();
+        this.unpooled = new LongAdder();
+        this.released = new LongAdder();
+        this.dropped = new LongAdder();
+        this.leaks = new LongAdder();
+    }
+
+    void onThreadLocalHit() {
+        this.acquired.increment();
+        this.threadLocalHits.increment();
+    }
+
+    void onGlobalHit() {
+        this.acquired.increment();
+        this.globalHits.increment();
+    }
+
+    void onAllocated() {
+        this.acquired.increment();
+        this.allocated.increment();
+    }
+
+    void onUnpooled() {
+        this.acquired.increment();
+        this.unpooled.increment();
+    }
+
+    void onReleased() {
+        this.released.increment();
+    }
+
+    void onDropped() {
+        this.dropped.increment();
+    }
+
+    void onLeak() {
+        this.leaks.increment();
+    }
+
+    public long getAcquired() {
+        return this.acquired.sum();
+    }
+
+    public long getThreadLocalHits() {
+        return this.threadLocalHits.sum();
+    }
+
+    public long getGlobalHits() {
+        return this.globalHits.sum();
+    }
+
+    // new buffers of a size class because no free one was available
+    public long getAllocated() {
+        return this.allocated.sum();
+    }
+
+    // buffers larger than the largest size class, they are never pooled
+    public long getUnpooled() {
+        return this.unpooled.sum();
+    }
+
+    public long getReleased() {
+        return this.released.sum();
+    }
+
+    // released buffers that didn't fit into the full global free list
+    public long getDropped() {
+        return this.dropped.sum();
+    }
+
+    // buffers that were garbage collected without being released, only counted with leak detection
+    public long getLeaks() {
+        return this.leaks.sum();
+    }
+
+    public double getHitRate() {
+        long acquired = getAcquired();
+        return (acquired == 0L) ? 0.0 : (double) (getThreadLocalHits() + getGlobalHits()) / acquired;
+    }
+}
@@ -0,0 +1,62 @@
+package dev.codeflush.httpclient.buffer;
+
+import java.nio.ByteBuffer;
+
+// a buffer borrowed from a BufferPool, it must not be used anymore after close() returned it to the pool
+public final class PooledBuffer implements AutoCloseable {
+
+    private final BufferPool pool;
+    private final ByteBuffer buffer;
+    private final int sizeClass;
+    private volatile boolean released;
+    BufferPool.LeakTracker tracker;
+
+    PooledBuffer(BufferPool pool, ByteBuffer buffer, int sizeClass) {
+        this.pool = pool;
+        this.buffer = buffer;
+        this.sizeClass = sizeClass;
+        this.released = true;
+        this.tracker = null;
+    }
+
+    public int capacity() {
+        return this.buffer.capacity();
+    }
+
+    public boolean isDirect() {
+        return this.buffer.isDirect();
+    }
+
+    // the backing array of a heap buffer
+    public byte[] array() {
+        if (this.buffer.isDirect()) {
+            throw new UnsupportedOperationException("direct buffers have no accessible array");
+        }
+
+        return this.buffer.array();
+    }
+
+    // the whole buffer, cleared
+    public ByteBuffer byteBuffer() {
+        this.buffer.clear();
+        return this.buffer;
+    }
+
+    int getSizeClass() {
+        return this.sizeClass;
+    }
+
+    void markAcquired() {
+        this.released = false;
+    }
+
+    @Override
+    public void close() {
+        if (this.released) {
+            return;
+        }
+
+        this.released = true;
+        this.pool.release(this);
+    }
+}
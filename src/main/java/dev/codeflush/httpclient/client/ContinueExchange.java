@@ -0,0 +1,496 @@
+package dev.codeflush.httpclient.client;
+
+import dev.codeflush.httpclient.Endpoint;
+import dev.codeflush.httpclient.jfr.ExchangeRecording;
+import dev.codeflush.httpclient.request.body.RequestBody;
+import dev.codeflush.httpclient.resolver.HappyEyeballs;
+
+import javax.net.ssl.HostnameVerifier;
+import javax.net.ssl.SSLParameters;
+import javax.net.ssl.SSLPeerUnverifiedException;
+import javax.net.ssl.SSLSocket;
+import javax.net.ssl.SSLSocketFactory;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.FilterInputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ProtocolException;
+import java.net.Socket;
+import java.net.SocketTimeoutException;
+import java.net.URL;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+
+// a single HTTP/1.1 exchange on an own connection for requests that expect 100-continue. HttpURLConnection can't be
+// used for them: it waits a fixed 5 seconds for "100 Continue" (or fails on its read timeout), hides the response of a
+// rejection and sends the whole request a second time when the headers of the rejection are read.
+// The connection is closed after the exchange, uploads large enough for this don't benefit from keep-alive.
+final class ContinueExchange {
+
+    private static final int MAX_LINE_LENGTH = 64 * 1024;
+
+    private final URL url;
+    private final int port;
+    private volatile Socket socket;
+    // only for plain http, file bodies are then copied to the socket by the kernel
+    private SocketChannel channel;
+    private InputStream in;
+    private int status;
+    private Map<String, List<String>> headers;
+
+    ContinueExchange(URL url) {
+        this.url = url;
+        this.port = (url.getPort() == -1) ? url.getDefaultPort() : url.getPort();
+        this.socket = null;
+        this.channel = null;
+        this.in = null;
+        this.status = -1;
+        this.headers = Collections.emptyMap();
+    }
+
+    // hostnameVerifier: null verifies the host name as part of the handshake like HttpsURLConnection does by default
+    void connect(List<InetAddress> addresses, int connectTimeoutMillis, SSLSocketFactory sslSocketFactory, HostnameVerifier hostnameVerifier) throws IOException {
+        if (!Endpoint.HTTPS.equalsIgnoreCase(this.url.getProtocol())) {
+            this.channel = connectChannel(addresses, connectTimeoutMillis);
+            this.socket = this.channel.socket();
+            return;
+        }
+
+        Socket plain = HappyEyeballs.connect(addresses, this.port, connectTimeoutMillis, HappyEyeballs.DEFAULT_ATTEMPT_DELAY_MILLIS);
+        this.socket = plain;
+
+        SSLSocket ssl = (SSLSocket) sslSocketFactory.createSocket(plain, this.url.getHost(), this.port, true);
+        this.socket = ssl;
+
+        if (hostnameVerifier == null) {
+            SSLParameters parameters = ssl.getSSLParameters();
+            parameters.setEndpointIdentificationAlgorithm("HTTPS");
+            ssl.setSSLParameters(parameters);
+        }
+
+        // the handshake is bounded by the connect timeout like the TCP connect before it
+        ssl.setSoTimeout(connectTimeoutMillis);
+        ssl.startHandshake();
+
+        if (hostnameVerifier != null && !hostnameVerifier.verify(this.url.getHost(), ssl.getSession())) {
+            throw new SSLPeerUnverifiedException("hostname " + this.url.getHost() + " not verified");
+        }
+    }
+
+    // sends the headers and waits up to continueTimeoutMillis for the server to accept them, the body is only sent
+    // when the server answers with "100 Continue" or doesn't answer at all
+    void send(String method, Map<String, String> requestHeaders, RequestBody body, long contentLength, int continueTimeoutMillis, int readTimeoutMillis, ExchangeRecording recording) throws IOException {
+        Socket socket = this.socket;
+        this.in = new BufferedInputStream(socket.getInputStream());
+        OutputStream out = new BufferedOutputStream(socket.getOutputStream());
+
+        out.write(head(method, requestHeaders, body.getContentType(), contentLength).getBytes(StandardCharsets.ISO_8859_1));
+        out.flush();
+
+        socket.setSoTimeout(continueTimeoutMillis);
+
+        try {
+            if (readInterim(true)) {
+                recording.sent();
+                return;
+            }
+        } catch (SocketTimeoutException e) {
+            // the server ignores the expectation, RFC 7231 5.1.1 says to send the body anyway
+        }
+
+        if (this.channel != null) {
+            // the head is flushed already, the channel writes behind it
+            body.write(this.channel);
+            recording.countSent(contentLength);
+        } else {
+            OutputStream bodyOut = recording.countSent(new UnclosableOutputStream(out));
+            body.write(bodyOut);
+            bodyOut.flush();
+        }
+
+        recording.sent();
+
+        socket.setSoTimeout(readTimeoutMillis);
+
+        // a late "100 Continue" is skipped as well
+        readInterim(false);
+    }
+
+    int getStatus() {
+        return this.status;
+    }
+
+    Map<String, List<String>> getHeaders() {
+        return this.headers;
+    }
+
+    // the last value like HttpURLConnection.getHeaderField(String)
+    String getHeader(String name) {
+        String result = null;
+
+        for (Map.Entry<String, List<String>> entry : this.headers.entrySet()) {
+            if (name.equalsIgnoreCase(entry.getKey()) && !entry.getValue().isEmpty()) {
+                result = entry.getValue().get(entry.getValue().size() - 1);
+            }
+        }
+
+        return result;
+    }
+
+    // the body of the final response, closing it closes the connection
+    InputStream getBody() throws IOException {
+        InputStream body;
+        String transferEncoding = getHeader("Transfer-Encoding");
+        String contentLength = getHeader("Content-Length");
+
+        if (this.status == 204 || this.status == 304) {
+            body = new BoundedInputStream(this.in, 0L);
+        } else if (transferEncoding != null && transferEncoding.toLowerCase().contains("chunked")) {
+            body = new ChunkedInputStream(this.in);
+        } else if (contentLength != null) {
+            body = new BoundedInputStream(this.in, parseContentLength(contentLength));
+        } else {
+            // delimited by the end of the connection
+            body = this.in;
+        }
+
+        return new FilterInputStream(body) {
+            @Override
+            public void close() throws IOException {
+                ContinueExchange.this.close();
+            }
+        };
+    }
+
+    void close() throws IOException {
+        Socket socket = this.socket;
+
+        if (socket != null) {
+            socket.close();
+        }
+    }
+
+    // closing the socket from another thread aborts blocking reads and writes
+    void abort() {
+        try {
+            close();
+        } catch (IOException ignored) {
+        }
+    }
+
+    private SocketChannel connectChannel(List<InetAddress> addresses, int connectTimeoutMillis) throws IOException {
+        return HappyEyeballs.race(addresses, connectTimeoutMillis, HappyEyeballs.DEFAULT_ATTEMPT_DELAY_MILLIS, new HappyEyeballs.Connector<SocketChannel>() {
+            @Override
+            public SocketChannel open(InetAddress address) throws IOException {
+                return SocketChannel.open();
+            }
+
+            // the socket of a blocking channel supports the connect timeout, the channel itself doesn't
+            @Override
+            public void connect(SocketChannel channel, InetAddress address) throws IOException {
+                channel.socket().connect(new InetSocketAddress(address, ContinueExchange.this.port), connectTimeoutMillis);
+            }
+
+            @Override
+            public void discard(SocketChannel channel) {
+                try {
+                    channel.close();
+                } catch (IOException ignored) {
+                }
+            }
+        });
+    }
+
+    private String head(String method, Map<String, String> requestHeaders, String contentType, long contentLength) {
+        String target = this.url.getFile();
+        boolean defaultPort = this.url.getPort() == -1 || this.url.getPort() == this.url.getDefaultPort();
+
+        // request headers win over the ones of the exchange, except for the framing of the body
+        Map<String, String> fields = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+        fields.put("Host", defaultPort ? this.url.getHost() : this.url.getHost() + ":" + this.port);
+        fields.put("User-Agent", "Java/" + System.getProperty("java.version"));
+        fields.put("Accept", "*/*");
+        fields.put("Content-Type", contentType);
+        fields.putAll(requestHeaders);
+        fields.put("Content-Length", Long.toString(contentLength));
+        fields.put("Expect", "100-continue");
+        fields.put("Connection", "close");
+        fields.remove("Transfer-Encoding");
+
+        StringBuilder head = new StringBuilder(256);
+        head.append(method).append(' ').append(target.isEmpty() ? "/" : target).append(" HTTP/1.1\r\n");
+
+        for (Map.Entry<String, String> field : fields.entrySet()) {
+            if (field.getValue() != null) {
+                head.append(field.getKey()).append(": ").append(field.getValue()).append("\r\n");
+            }
+        }
+
+        return head.append("\r\n").toString();
+    }
+
+    // HttpURLConnection rejects headers that would end the line they are written on, so does this exchange: names have
+    // to be tokens (RFC 7230 3.2.6) and values must not contain CR, LF or NUL
+    static void checkHeaders(Map<String, String> headers) {
+        for (Map.Entry<String, String> header : headers.entrySet()) {
+            String name = header.getKey();
+            String value = header.getValue();
+
+            if (name == null || name.isEmpty() || !name.chars().allMatch(ContinueExchange::isTokenChar)) {
+                throw new IllegalArgumentException("Illegal character(s) in message header field: " + name);
+            }
+
+            if (value != null && value.chars().anyMatch((c) -> c == '\r' || c == '\n' || c == 0)) {
+                throw new IllegalArgumentException("Illegal character(s) in message header value: " + value);
+            }
+        }
+    }
+
+    private static boolean isTokenChar(int c) {
+        return c > ' ' && c < 0x7F && "()<>@,;:\\\"/[]?={}".indexOf(c) == -1;
+    }
+
+    // reads responses until a final one or (if continueAllowed) "100 Continue", returns true for a final response
+    private boolean readInterim(boolean continueAllowed) throws IOException {
+        while (true) {
+            String statusLine = readLine();
+            int status = parseStatus(statusLine);
+            Map<String, List<String>> headers = readHeaders(statusLine);
+
+            if (status >= 200) {
+                this.status = status;
+                this.headers = headers;
+                return true;
+            }
+
+            if (status == 100 && continueAllowed) {
+                return false;
+            }
+        }
+    }
+
+    private Map<String, List<String>> readHeaders(String statusLine) throws IOException {
+        Map<String, List<String>> headers = new LinkedHashMap<>();
+        // HttpURLConnection reports the status line under the null key
+        headers.put(null, Collections.singletonList(statusLine));
+
+        for (String line = readLine(); !line.isEmpty(); line = readLine()) {
+            int colon = line.indexOf(':');
+
+            if (colon <= 0) {
+                throw new ProtocolException("invalid header line: " + line);
+            }
+
+            headers.computeIfAbsent(line.substring(0, colon).trim(), (key) -> new ArrayList<>()).add(line.substring(colon + 1).trim());
+        }
+
+        return headers.entrySet().stream().collect(Collectors.toMap(
+                Map.Entry::getKey,
+                (entry) -> Collections.unmodifiableList(entry.getValue()),
+                (a, b) -> a,
+                LinkedHashMap::new
+        ));
+    }
+
+    private String readLine() throws IOException {
+        return readLine(this.in);
+    }
+
+    private static String readLine(InputStream in) throws IOException {
+        ByteArrayOutputStream line = new ByteArrayOutputStream(64);
+        int b;
+
+        while ((b = in.read()) != '\n') {
+            if (b == -1) {
+                throw new EOFException("connection closed before the end of the line");
+            }
+
+            if (line.size() >= MAX_LINE_LENGTH) {
+                throw new ProtocolException("line longer than " + MAX_LINE_LENGTH + " bytes");
+            }
+
+            line.write(b);
+        }
+
+        String result = new String(line.toByteArray(), StandardCharsets.ISO_8859_1);
+        return result.endsWith("\r") ? result.substring(0, result.length() - 1) : result;
+    }
+
+    private static int parseStatus(String statusLine) throws ProtocolException {
+        String[] parts = statusLine.split(" ", 3);
+
+        if (parts.length >= 2 && parts[0].startsWith("HTTP/")) {
+            try {
+                return Integer.parseInt(parts[1]);
+            } catch (NumberFormatException ignored) {
+            }
+        }
+
+        throw new ProtocolException("invalid status line: " + statusLine);
+    }
+
+    private static long parseContentLength(String value) throws ProtocolException {
+        try {
+            return Long.parseLong(value.trim());
+        } catch (NumberFormatException e) {
+            throw new ProtocolException("invalid Content-Length: " + value);
+        }
+    }
+
+    private static final class UnclosableOutputStream extends FilterOutputStream {
+
+        private UnclosableOutputStream(OutputStream out) {
+            super(out);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            this.out.write(b, off, len);
+        }
+
+        // the socket stays open for the response
+        @Override
+        public void close() throws IOException {
+            flush();
+        }
+    }
+
+    private static final class BoundedInputStream extends FilterInputStream {
+
+        private long remaining;
+
+        private BoundedInputStream(InputStream in, long length) {
+            super(in);
+            this.remaining = length;
+        }
+
+        @Override
+        public int read() throws IOException {
+            if (this.remaining <= 0L) {
+                return -1;
+            }
+
+            int b = super.read();
+
+            if (b == -1) {
+                throw new EOFException("connection closed with " + this.remaining + " bytes of the body left");
+            }
+
+            this.remaining--;
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            if (this.remaining <= 0L) {
+                return -1;
+            }
+
+            int read = super.read(b, off, (int) Math.min(len, this.remaining));
+
+            if (read == -1) {
+                throw new EOFException("connection closed with " + this.remaining + " bytes of the body left");
+            }
+
+            this.remaining -= read;
+            return read;
+        }
+
+        @Override
+        public long skip(long n) throws IOException {
+            long skipped = super.skip(Math.min(n, this.remaining));
+            this.remaining -= skipped;
+            return skipped;
+        }
+
+        @Override
+        public int available() throws IOException {
+            return (int) Math.min(super.available(), this.remaining);
+        }
+    }
+
+    private static final class ChunkedInputStream extends InputStream {
+
+        private final InputStream in;
+        // bytes left in the current chunk, -1 before the first chunk
+        private long remaining;
+        private boolean eof;
+
+        private ChunkedInputStream(InputStream in) {
+            this.in = in;
+            this.remaining = -1L;
+            this.eof = false;
+        }
+
+        @Override
+        public int read() throws IOException {
+            byte[] b = new byte[1];
+            return (read(b, 0, 1) == -1) ? -1 : (b[0] & 0xFF);
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            if (len == 0) {
+                return 0;
+            }
+
+            if (this.remaining <= 0L && !nextChunk()) {
+                return -1;
+            }
+
+            int read = this.in.read(b, off, (int) Math.min(len, this.remaining));
+
+            if (read == -1) {
+                throw new EOFException("connection closed within a chunk");
+            }
+
+            this.remaining -= read;
+            return read;
+        }
+
+        private boolean nextChunk() throws IOException {
+            if (this.eof) {
+                return false;
+            }
+
+            // the CRLF after the data of the previous chunk
+            if (this.remaining == 0L) {
+                readLine(this.in);
+            }
+
+            String line = readLine(this.in);
+            int extension = line.indexOf(';');
+
+            try {
+                this.remaining = Long.parseLong((extension == -1 ? line : line.substring(0, extension)).trim(), 16);
+            } catch (NumberFormatException e) {
+                throw new ProtocolException("invalid chunk size: " + line);
+            }
+
+            if (this.remaining == 0L) {
+                // trailers
+                while (!readLine(this.in).isEmpty()) {
+                }
+
+                this.eof = true;
+                return false;
+            }
+
+            return true;
+        }
+    }
+}
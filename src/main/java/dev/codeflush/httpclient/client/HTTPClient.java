@@ -1,6 +1,8 @@
 package dev.codeflush.httpclient.client;
 
 import dev.codeflush.httpclient.Response;
+import dev.codeflush.httpclient.ResponseBody;
+import dev.codeflush.httpclient.parser.ResponseBodyParser;
 import dev.codeflush.httpclient.request.Request;
 import dev.codeflush.httpclient.parser.ResponseParser;
 
@@ -9,4 +11,8 @@ import java.io.IOException;
 public interface HTTPClient {
 
     <T> Response<T> execute(Request request, ResponseParser<? extends T> parser) throws IOException;
+
+    default Response<ResponseBody> stream(Request request) throws IOException {
+        return execute(request, new ResponseBodyParser());
+    }
 }
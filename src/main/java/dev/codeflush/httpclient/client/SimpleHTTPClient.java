@@ -1,24 +1,52 @@
 package dev.codeflush.httpclient.client;
 
+import dev.codeflush.httpclient.Deadline;
+import dev.codeflush.httpclient.DeadlineExceededException;
 import dev.codeflush.httpclient.InputStreamSupplier;
 import dev.codeflush.httpclient.RequestMethod;
 import dev.codeflush.httpclient.Response;
+import dev.codeflush.httpclient.client.progress.Transfer;
+import dev.codeflush.httpclient.jfr.ExchangeEvents;
+import dev.codeflush.httpclient.jfr.ExchangeRecording;
 import dev.codeflush.httpclient.parser.ResponseParser;
+import dev.codeflush.httpclient.request.ExpectContinue;
 import dev.codeflush.httpclient.request.Request;
+import dev.codeflush.httpclient.request.Timeouts;
 import dev.codeflush.httpclient.request.body.RequestBody;
-
+import dev.codeflush.httpclient.resolver.HappyEyeballs;
+import dev.codeflush.httpclient.resolver.Resolver;
+import dev.codeflush.httpclient.resolver.ResolvingSSLSocketFactory;
+import dev.codeflush.httpclient.resolver.SystemResolver;
+import dev.codeflush.httpclient.tls.TlsConfig;
+import dev.codeflush.httpclient.tls.TlsMetrics;
+import dev.codeflush.httpclient.tls.TlsSocketFactory;
+
+import javax.net.ssl.HttpsURLConnection;
+import javax.net.ssl.SSLSocketFactory;
+import java.io.FilterInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
 import java.lang.reflect.Field;
 import java.lang.reflect.Modifier;
 import java.net.HttpURLConnection;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.MalformedURLException;
+import java.net.ProtocolException;
+import java.net.Proxy;
+import java.net.ProxySelector;
+import java.net.URISyntaxException;
 import java.net.URL;
 import java.net.URLConnection;
 import java.util.*;
 
 public class SimpleHTTPClient implements HTTPClient {
 
+    // smaller bodies are buffered by HttpURLConnection, which lets it repeat them for redirects and authentication
+    private static final long STREAMING_THRESHOLD_BYTES = 1024L * 1024L;
+    private static final int MAX_REDIRECTS = Integer.getInteger("http.maxRedirects", 20);
+
     static {
         try {
             Field methodsField = HttpURLConnection.class.getDeclaredField("methods");
@@ -45,51 +73,338 @@ public class SimpleHTTPClient implements HTTPClient {
     }
 
     private final Map<String, String> headers;
+    private final Timeouts timeouts;
+    private final Resolver resolver;
+    private final TlsConfig tlsConfig;
+    private final TlsSocketFactory tlsSocketFactory;
+    private final SSLSocketFactory sslSocketFactory;
+    private final ExpectContinue expectContinue;
+
+    // a resolver other than the SystemResolver replaces the name resolution of the JVM for this client
+    public SimpleHTTPClient(Map<String, String> headers, Timeouts timeouts, Resolver resolver, TlsConfig tlsConfig, ExpectContinue expectContinue) {
+        this.headers = Objects.requireNonNull(headers);
+        this.timeouts = Objects.requireNonNull(timeouts);
+        this.resolver = (resolver instanceof SystemResolver) ? null : resolver;
+        this.tlsConfig = Objects.requireNonNull(tlsConfig);
+        this.tlsSocketFactory = new TlsSocketFactory(tlsConfig);
+        this.sslSocketFactory = (this.resolver == null) ? this.tlsSocketFactory : new ResolvingSSLSocketFactory(this.tlsSocketFactory, this.resolver);
+        this.expectContinue = Objects.requireNonNull(expectContinue);
+    }
+
+    public SimpleHTTPClient(Map<String, String> headers, Timeouts timeouts, Resolver resolver, TlsConfig tlsConfig) {
+        this(headers, timeouts, resolver, tlsConfig, ExpectContinue.DEFAULT);
+    }
+
+    public SimpleHTTPClient(Map<String, String> headers, Timeouts timeouts, Resolver resolver) {
+        this(headers, timeouts, resolver, TlsConfig.DEFAULT);
+    }
+
+    public SimpleHTTPClient(Map<String, String> headers, Timeouts timeouts, TlsConfig tlsConfig) {
+        this(headers, timeouts, null, tlsConfig);
+    }
+
+    public SimpleHTTPClient(Map<String, String> headers, Timeouts timeouts) {
+        this(headers, timeouts, null, TlsConfig.DEFAULT);
+    }
 
     public SimpleHTTPClient(Map<String, String> headers) {
-        this.headers = Objects.requireNonNull(headers);
+        this(headers, Timeouts.NONE);
+    }
+
+    public SimpleHTTPClient(Timeouts timeouts) {
+        this(Collections.emptyMap(), timeouts);
     }
 
     public SimpleHTTPClient() {
         this(Collections.emptyMap());
     }
 
+    public Timeouts getTimeouts() {
+        return this.timeouts;
+    }
+
+    public Resolver getResolver() {
+        return (this.resolver == null) ? Resolver.system() : this.resolver;
+    }
+
+    public TlsConfig getTlsConfig() {
+        return this.tlsConfig;
+    }
+
+    // the factory of the TLS connections of this client, handshakes through it share the session cache and metrics
+    public TlsSocketFactory getTlsSocketFactory() {
+        return this.tlsSocketFactory;
+    }
+
+    public TlsMetrics getTlsMetrics() {
+        return this.tlsSocketFactory.getMetrics();
+    }
+
+    public ExpectContinue getExpectContinue() {
+        return this.expectContinue;
+    }
+
     @Override
     public <T> Response<T> execute(Request request, ResponseParser<? extends T> parser) throws IOException {
+        Timeouts timeouts = request.getTimeouts().orElse(this.timeouts);
+        Deadline deadline = Deadline.earliest(request.getDeadline(), Deadline.current());
+
+        if (timeouts.getTimeoutMillis() > 0L) {
+            deadline = Deadline.earliest(deadline, Deadline.after(timeouts.getTimeoutMillis()));
+        }
+
+        if (deadline == null) {
+            return execute(request, parser, timeouts, null);
+        }
+
+        if (deadline.isExpired()) {
+            throw new DeadlineExceededException("deadline exceeded before " + request.getRequestURL() + " was requested");
+        }
+
+        // requests executed while parsing inherit the deadline
+        try (Deadline.Scope scope = deadline.activate()) {
+            return execute(request, parser, timeouts, deadline);
+        }
+    }
+
+    // every redirect this client follows itself is an exchange of its own, the response belongs to the original request
+    private <T> Response<T> execute(Request request, ResponseParser<? extends T> parser, Timeouts timeouts, Deadline deadline) throws IOException {
+        Request current = request;
+
+        for (int redirects = 0; ; redirects++) {
+            Redirect redirect = new Redirect(redirects);
+            Response<T> response = execute(current, parser, timeouts, deadline, redirect);
+
+            if (redirect.next == null) {
+                return (current == request) ? response : new Response<>(this, request, parser, response.getResponseCode(), response.getHeaders(), response.getContentType(), response.getContentTypeCharset(), response.getValue());
+            }
+
+            current = redirect.next;
+        }
+    }
+
+    // null if the exchange was redirected to redirect.next
+    private <T> Response<T> execute(Request request, ResponseParser<? extends T> parser, Timeouts timeouts, Deadline deadline, Redirect redirect) throws IOException {
         URL url = request.getRequestURL();
-        URLConnection _conn = url.openConnection();
+        ExchangeRecording recording = ExchangeEvents.begin(request);
+
+        try {
+            if (expectsContinue(request, url)) {
+                ContinueExchange exchange = new ContinueExchange(url);
+                return watched(exchange::abort, url, deadline, parser, (watchdog) -> execute(exchange, request, parser, timeouts, deadline, watchdog, recording, redirect));
+            }
+
+            HttpURLConnection conn = openConnection(url, request, timeouts, deadline);
+            return watched(conn::disconnect, url, deadline, parser, (watchdog) -> execute(conn, request, parser, watchdog, recording, redirect));
+        } catch (IOException | RuntimeException e) {
+            recording.failed(e);
+            throw e;
+        } finally {
+            recording.end();
+        }
+    }
 
+    // the socket timeouts only cover single blocking calls, the watchdog covers the whole exchange
+    private <T> Response<T> watched(Runnable abort, URL url, Deadline deadline, ResponseParser<? extends T> parser, WatchedExchange<T> exchange) throws IOException {
+        // lets the stall detection abort the exchange, the streams can't be closed while a read or write blocks
+        Transfer transfer = Transfer.current();
+
+        if (transfer != null) {
+            transfer.onAbort(abort);
+        }
+
+        Watchdog watchdog = (deadline == null) ? null : new Watchdog(abort, url, deadline);
+        boolean keepWatching = false;
+
+        try {
+            Response<T> response = exchange.execute(watchdog);
+            keepWatching = response != null && parser.keepsStreamOpen();
+
+            return response;
+        } catch (IOException e) {
+            if (watchdog != null && watchdog.isExceeded()) {
+                throw watchdog.exceeded(e);
+            }
+
+            throw e;
+        } finally {
+            if (watchdog != null && !keepWatching) {
+                watchdog.cancel();
+            }
+        }
+    }
+
+    // only bodies of a known length, the exchange connects directly so requests through a proxy keep using
+    // HttpURLConnection and send the body right away
+    private boolean expectsContinue(Request request, URL url) {
+        RequestBody body = request.getMethod().supportsRequestBody() ? request.getBody() : null;
+
+        if (body == null || !body.getContentLength().isPresent() || !this.expectContinue.isExpected(request, body.getContentLength().get())) {
+            return false;
+        }
+
+        ProxySelector selector = ProxySelector.getDefault();
+
+        if (selector == null) {
+            return true;
+        }
+
+        try {
+            return selector.select(url.toURI()).stream().allMatch((proxy) -> proxy.type() == Proxy.Type.DIRECT);
+        } catch (URISyntaxException | IllegalArgumentException e) {
+            return false;
+        }
+    }
+
+    private HttpURLConnection openConnection(URL url, Request request, Timeouts timeouts, Deadline deadline) throws IOException {
+        if (this.resolver == null || !"http".equalsIgnoreCase(url.getProtocol())) {
+            HttpURLConnection conn = prepare(url.openConnection(), request, timeouts, deadline);
+
+            if (conn instanceof HttpsURLConnection) {
+                HttpsURLConnection httpsConn = (HttpsURLConnection) conn;
+                httpsConn.setSSLSocketFactory(this.sslSocketFactory);
+
+                if (this.tlsConfig.getHostnameVerifier() != null) {
+                    httpsConn.setHostnameVerifier(this.tlsConfig.getHostnameVerifier());
+                }
+            }
+
+            return conn;
+        }
+
+        // plain http offers no hook to connect the socket ourselves, so the resolved address is used as proxy instead:
+        // the request line then contains the absolute URL and the Host header stays the same.
+        // The connections to the addresses race each other like the sockets of https connections.
+        int port = (url.getPort() == -1) ? url.getDefaultPort() : url.getPort();
+
+        return HappyEyeballs.race(this.resolver.resolve(url.getHost()), timeoutFor(timeouts.getConnectTimeoutMillis(), deadline), HappyEyeballs.DEFAULT_ATTEMPT_DELAY_MILLIS, new HappyEyeballs.Connector<HttpURLConnection>() {
+            @Override
+            public HttpURLConnection open(InetAddress address) throws IOException {
+                // without the host name, HttpURLConnection would resolve the name of the "proxy" again
+                InetAddress literal = InetAddress.getByAddress(address.getAddress());
+                Proxy proxy = new Proxy(Proxy.Type.HTTP, new InetSocketAddress(literal, port));
+                return prepare(url.openConnection(proxy), request, timeouts, deadline);
+            }
+
+            @Override
+            public void connect(HttpURLConnection conn, InetAddress address) throws IOException {
+                conn.connect();
+            }
+
+            // a pending connect can't be aborted, the race disconnects it again once it completes
+            @Override
+            public void discard(HttpURLConnection conn) {
+                conn.disconnect();
+            }
+        });
+    }
+
+    private HttpURLConnection prepare(URLConnection _conn, Request request, Timeouts timeouts, Deadline deadline) throws IOException {
         if (!(_conn instanceof HttpURLConnection)) {
             throw new IllegalArgumentException("not a http request");
         }
 
         HttpURLConnection conn = (HttpURLConnection) _conn;
+        conn.setConnectTimeout(timeoutFor(timeouts.getConnectTimeoutMillis(), deadline));
+        conn.setReadTimeout(timeoutFor(timeouts.getReadTimeoutMillis(), deadline));
+
         addHeaders(conn, this.headers);
         addHeaders(conn, request.getHeaders());
+        conn.setRequestMethod(request.getMethod().getName());
+
+        // must be set before the connection is connected
+        RequestBody body = request.getMethod().supportsRequestBody() ? request.getBody() : null;
+
+        if (body != null) {
+            conn.setRequestProperty("Content-Type", body.getContentType());
+
+            // Content-Length is a restricted header, without a streaming mode HttpURLConnection buffers the whole
+            // body in memory to compute it. It can't repeat a streamed body, so this client follows their redirects
+            if (body.getContentLength().filter((length) -> length > STREAMING_THRESHOLD_BYTES).isPresent()) {
+                conn.setFixedLengthStreamingMode(body.getContentLength().get());
+                conn.setInstanceFollowRedirects(false);
+            }
+
+            conn.setDoOutput(true);
+        }
+
+        return conn;
+    }
+
+    private <T> Response<T> execute(ContinueExchange exchange, Request request, ResponseParser<? extends T> parser, Timeouts timeouts, Deadline deadline, Watchdog watchdog, ExchangeRecording recording, Redirect redirect) throws IOException {
+        URL url = request.getRequestURL();
+        RequestBody body = request.getBody();
+        int readTimeout = timeoutFor(timeouts.getReadTimeoutMillis(), deadline);
+        int continueTimeout = timeoutFor(this.expectContinue.getTimeoutMillis(), deadline);
+
+        if (readTimeout > 0) {
+            continueTimeout = Math.min(continueTimeout, readTimeout);
+        }
 
+        Map<String, String> headers = new LinkedHashMap<>(this.headers);
+        headers.putAll(request.getHeaders());
+        // before anything is connected, like HttpURLConnection.setRequestProperty
+        ContinueExchange.checkHeaders(headers);
+
+        try {
+            List<InetAddress> addresses = getResolver().resolve(url.getHost());
+            exchange.connect(addresses, timeoutFor(timeouts.getConnectTimeoutMillis(), deadline), this.tlsSocketFactory, this.tlsConfig.getHostnameVerifier());
+            exchange.send(request.getMethod().getName(), headers, body, body.getContentLength().get(), continueTimeout, readTimeout, recording);
+
+            int responseCode = exchange.getStatus();
+            recording.responded(responseCode);
+            // followed like the redirects of HttpURLConnection, whatever the size of the body
+            redirect.next = redirect(request, responseCode, exchange.getHeader("Location"), redirect.count);
+
+            if (redirect.next != null) {
+                exchange.close();
+                return null;
+            }
+
+            return respond(request, parser, responseCode, exchange.getHeaders(), exchange.getHeader("Content-Type"), exchange::getBody, watchdog, recording);
+        } catch (IOException | RuntimeException e) {
+            exchange.close();
+            throw e;
+        }
+    }
+
+    private <T> Response<T> execute(HttpURLConnection conn, Request request, ResponseParser<? extends T> parser, Watchdog watchdog, ExchangeRecording recording, Redirect redirect) throws IOException {
         RequestMethod method = request.getMethod();
-        conn.setRequestMethod(method.getName());
+        recording.connect(conn);
 
         if (method.supportsRequestBody()) {
             RequestBody body = request.getBody();
 
             if (body != null) {
-                conn.setRequestProperty("Content-Type", body.getContentType());
-                body.getContentLength().map(Object::toString).ifPresent((v) -> conn.setRequestProperty("Content-Length", v));
-
-                conn.setDoOutput(true);
-
-                try (OutputStream out = conn.getOutputStream()) {
+                // HttpURLConnection only offers an OutputStream, so bodies are written through the stream path
+                try (OutputStream out = recording.countSent(conn.getOutputStream())) {
                     body.write(out);
                 }
             }
         }
 
+        recording.sent();
+
         int responseCode = conn.getResponseCode();
-        Map<String, List<String>> responseHeaders = conn.getHeaderFields();
-        String[] contentTypeFields = parseContentType(conn.getHeaderField("Content-Type"));
-        String contentType = contentTypeFields[0];
-        String charset = contentTypeFields[1];
+        recording.responded(responseCode);
+
+        if (!conn.getInstanceFollowRedirects()) {
+            redirect.next = redirect(request, responseCode, conn.getHeaderField("Location"), redirect.count);
+
+            if (redirect.next != null) {
+                // the body of the redirect isn't needed, closing the stream returns the connection to the keep-alive cache
+                conn.getInputStream().close();
+                return null;
+            }
+        }
+
+        Transfer transfer = Transfer.current();
+
+        // disconnecting now closes the response stream, which blocks while a read is pending. A stalled read fails once it
+        // returns or the read timeout fires
+        if (transfer != null) {
+            transfer.onAbort(null);
+        }
 
         InputStreamSupplier inputStreamSupplier;
         if (responseCode < 400) {
@@ -98,15 +413,95 @@ public class SimpleHTTPClient implements HTTPClient {
             inputStreamSupplier = conn::getErrorStream;
         }
 
+        return respond(request, parser, responseCode, conn.getHeaderFields(), conn.getHeaderField("Content-Type"), inputStreamSupplier, watchdog, recording);
+    }
+
+    // the rules of HttpURLConnection: 300-307 except 304, 305 and 306 with a Location of the same protocol. A POST
+    // becomes a GET without body unless the status is 307, other requests keep their method and their body, which has
+    // to be repeatable. Credentials and cookies aren't sent to another host or port. Returns null if not followed.
+    private static Request redirect(Request request, int status, String location, int redirects) throws IOException {
+        if (!HttpURLConnection.getFollowRedirects() || status < 300 || status > 307 || status == 304 || status == 305 || status == 306 || location == null) {
+            return null;
+        }
+
+        URL from = request.getRequestURL();
+        URL to;
+
+        try {
+            to = new URL(location);
+
+            if (!from.getProtocol().equalsIgnoreCase(to.getProtocol())) {
+                return null;
+            }
+        } catch (MalformedURLException e) {
+            to = new URL(from, location);
+        }
+
+        if (redirects >= MAX_REDIRECTS) {
+            throw new ProtocolException("Server redirected too many times (" + MAX_REDIRECTS + ")");
+        }
+
+        RequestMethod method = request.getMethod();
+        RequestBody body = method.supportsRequestBody() ? request.getBody() : null;
+
+        if (method == RequestMethod.POST && status != 307 && !Boolean.getBoolean("http.strictPostRedirect")) {
+            method = RequestMethod.GET;
+            body = null;
+        } else if (body != null && !body.isRepeatable()) {
+            return null;
+        }
+
+        Map<String, String> headers = request.getHeaders();
+
+        if (!to.getHost().equalsIgnoreCase(from.getHost()) || port(to) != port(from)) {
+            headers = new LinkedHashMap<>(headers);
+            headers.keySet().removeIf((name) -> "Authorization".equalsIgnoreCase(name) || "Cookie".equalsIgnoreCase(name) || "Cookie2".equalsIgnoreCase(name));
+        }
+
+        return request.redirectTo(to, method, headers, body);
+    }
+
+    private static int port(URL url) {
+        return (url.getPort() == -1) ? url.getDefaultPort() : url.getPort();
+    }
+
+    private <T> Response<T> respond(Request request, ResponseParser<? extends T> parser, int responseCode, Map<String, List<String>> responseHeaders, String contentTypeRaw, InputStreamSupplier inputStreamSupplier, Watchdog watchdog, ExchangeRecording recording) throws IOException {
+        String[] contentTypeFields = parseContentType(contentTypeRaw);
+        String contentType = contentTypeFields[0];
+        String charset = contentTypeFields[1];
+
         T value;
-        try (InputStream stream = inputStreamSupplier.getInputStream()) {
-            if (stream != null) {
-                value = parser.parse(this, request, responseCode, stream, responseHeaders, contentType, charset);
+        InputStream stream = inputStreamSupplier.getInputStream();
+
+        if (stream != null) {
+            stream = recording.countReceived(stream);
+        }
+
+        if (watchdog != null) {
+            if (stream == null) {
+                watchdog.cancel();
             } else {
-                value = parser.getFallback(this, request);
+                stream = watchdog.watch(stream);
             }
         }
 
+        if (stream == null) {
+            value = parser.getFallback(this, request);
+        } else if (parser.keepsStreamOpen()) {
+            try {
+                value = parser.parse(this, request, responseCode, stream, responseHeaders, contentType, charset);
+            } catch (IOException | RuntimeException e) {
+                stream.close();
+                throw e;
+            }
+        } else {
+            try (InputStream in = stream) {
+                value = parser.parse(this, request, responseCode, in, responseHeaders, contentType, charset);
+            }
+        }
+
+        recording.parsed();
+
         return new Response<>(this, request, parser, responseCode, responseHeaders, contentType, charset, value);
     }
 
@@ -134,6 +529,17 @@ public class SimpleHTTPClient implements HTTPClient {
         return new String[]{contentType, charset};
     }
 
+    private static int timeoutFor(long timeoutMillis, Deadline deadline) {
+        long result = Math.max(0L, timeoutMillis);
+
+        if (deadline != null) {
+            long remaining = Math.max(1L, deadline.remainingMillis());
+            result = (result == 0L) ? remaining : Math.min(result, remaining);
+        }
+
+        return (int) Math.min(result, Integer.MAX_VALUE);
+    }
+
     private static String[] splitSafeAt(String src, String target) {
         int index = src.indexOf(target);
         String[] result = new String[2];
@@ -154,4 +560,99 @@ public class SimpleHTTPClient implements HTTPClient {
             conn.setRequestProperty(entry.getKey(), entry.getValue());
         }
     }
+
+    private interface WatchedExchange<T> {
+
+        Response<T> execute(Watchdog watchdog) throws IOException;
+    }
+
+    // where an exchange that HttpURLConnection doesn't follow itself was redirected to
+    private static final class Redirect {
+
+        private final int count;
+        private Request next;
+
+        private Redirect(int count) {
+            this.count = count;
+            this.next = null;
+        }
+    }
+
+    private static final class Watchdog implements Runnable {
+
+        private final Runnable abort;
+        private final URL url;
+        private final Deadline deadline;
+        private final TimerWheel.Timeout timeout;
+
+        private Watchdog(Runnable abort, URL url, Deadline deadline) {
+            this.abort = abort;
+            this.url = url;
+            this.deadline = deadline;
+            this.timeout = TimerWheel.shared().schedule(this, deadline.remainingMillis());
+        }
+
+        // disconnecting from another thread aborts blocking reads and writes on the socket
+        @Override
+        public void run() {
+            this.abort.run();
+        }
+
+        private boolean isExceeded() {
+            return this.timeout.isExpired() || this.deadline.isExpired();
+        }
+
+        private DeadlineExceededException exceeded(IOException cause) {
+            if (cause instanceof DeadlineExceededException) {
+                return (DeadlineExceededException) cause;
+            }
+
+            return new DeadlineExceededException("deadline exceeded for " + this.url, cause);
+        }
+
+        private void cancel() {
+            this.timeout.cancel();
+        }
+
+        private InputStream watch(InputStream stream) {
+            return new FilterInputStream(stream) {
+                @Override
+                public int read() throws IOException {
+                    try {
+                        return super.read();
+                    } catch (IOException e) {
+                        throw translate(e);
+                    }
+                }
+
+                @Override
+                public int read(byte[] b, int off, int len) throws IOException {
+                    try {
+                        return super.read(b, off, len);
+                    } catch (IOException e) {
+                        throw translate(e);
+                    }
+                }
+
+                @Override
+                public long skip(long n) throws IOException {
+                    try {
+                        return super.skip(n);
+                    } catch (IOException e) {
+                        throw translate(e);
+                    }
+                }
+
+                @Override
+                public void close() throws IOException {
+                    cancel();
+                    super.close();
+                }
+            };
+        }
+
+        private IOException translate(IOException e) {
+            return isExceeded() ? exceeded(e) : e;
+        }
+    }
 }
@@ -0,0 +1,173 @@
+package dev.codeflush.httpclient.client;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+// hashed timer wheel: a single thread serves all timeouts with a resolution of one tick,
+// scheduling and cancelling never block
+public final class TimerWheel {
+
+    private static final TimerWheel SHARED = new TimerWheel(10L, 512, "httpclient-timer");
+
+    private final long tickNanos;
+    private final int mask;
+    private final List<List<Timeout>> wheel;
+    private final Queue<Timeout> pending;
+    private final String threadName;
+    private final AtomicBoolean started;
+    private final long startNanos;
+    private volatile Thread worker;
+    private volatile boolean idle;
+    private long tick;
+    private int size;
+
+    public TimerWheel(long tickMillis, int ticksPerWheel, String threadName) {
+        if (tickMillis < 1L || ticksPerWheel < 1 || Integer.bitCount(ticksPerWheel) != 1) {
+            throw new IllegalArgumentException("tickMillis must be positive and ticksPerWheel a power of two");
+        }
+
+        this.tickNanos = TimeUnit.MILLISECONDS.toNanos(tickMillis);
+        this.mask = ticksPerWheel - 1;
+        this.wheel = new ArrayList<>(ticksPerWheel);
+        this.pending = new ConcurrentLinkedQueue<>();
+        this.threadName = threadName;
+        this.started = new AtomicBoolean(false);
+        this.startNanos = System.nanoTime();
+        this.worker = null;
+        this.idle = false;
+        this.tick = 0L;
+        this.size = 0;
+
+        for (int i = 0; i < ticksPerWheel; i++) {
+            this.wheel.add(new ArrayList<>());
+        }
+    }
+
+    public static TimerWheel shared() {
+        return SHARED;
+    }
+
+    public Timeout schedule(Runnable task, long delayMillis) {
+        Timeout timeout = new Timeout(task, System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(Math.max(0L, delayMillis)));
+        this.pending.add(timeout);
+
+        if (this.started.compareAndSet(false, true)) {
+            Thread thread = new Thread(this::run, this.threadName);
+            thread.setDaemon(true);
+            this.worker = thread;
+            thread.start();
+        } else if (this.idle) {
+            LockSupport.unpark(this.worker);
+        }
+
+        return timeout;
+    }
+
+    private void run() {
+        while (true) {
+            if (this.size == 0 && this.pending.isEmpty()) {
+                this.idle = true;
+
+                // re-check after publishing idle so a concurrent schedule() can't be missed
+                if (this.pending.isEmpty()) {
+                    LockSupport.park(this);
+                }
+
+                this.idle = false;
+                this.tick = Math.max(this.tick, (System.nanoTime() - this.startNanos) / this.tickNanos);
+                continue;
+            }
+
+            long sleepNanos = this.startNanos + (this.tick + 1L) * this.tickNanos - System.nanoTime();
+            if (sleepNanos > 0L) {
+                LockSupport.parkNanos(this, sleepNanos);
+                continue;
+            }
+
+            transferPending();
+            expire(this.wheel.get((int) (this.tick & this.mask)));
+            this.tick++;
+        }
+    }
+
+    private void transferPending() {
+        Timeout timeout;
+
+        while ((timeout = this.pending.poll()) != null) {
+            if (timeout.state.get() != Timeout.PENDING) {
+                continue;
+            }
+
+            long dueTick = Math.max(this.tick, (timeout.deadlineNanos - this.startNanos + this.tickNanos - 1L) / this.tickNanos);
+            timeout.rounds = (dueTick - this.tick) / this.wheel.size();
+            this.wheel.get((int) (dueTick & this.mask)).add(timeout);
+            this.size++;
+        }
+    }
+
+    private void expire(List<Timeout> bucket) {
+        int kept = 0;
+
+        for (int i = 0; i < bucket.size(); i++) {
+            Timeout timeout = bucket.get(i);
+
+            if (timeout.state.get() != Timeout.PENDING) {
+                continue;
+            }
+
+            if (timeout.rounds > 0L) {
+                timeout.rounds--;
+                bucket.set(kept++, timeout);
+                continue;
+            }
+
+            timeout.expire();
+        }
+
+        this.size -= bucket.size() - kept;
+        bucket.subList(kept, bucket.size()).clear();
+    }
+
+    public static final class Timeout {
+
+        private static final int PENDING = 0;
+        private static final int CANCELLED = 1;
+        private static final int EXPIRED = 2;
+
+        private final Runnable task;
+        private final long deadlineNanos;
+        private final AtomicInteger state;
+        private long rounds;
+
+        private Timeout(Runnable task, long deadlineNanos) {
+            this.task = task;
+            this.deadlineNanos = deadlineNanos;
+            this.state = new AtomicInteger(PENDING);
+            this.rounds = 0L;
+        }
+
+        // returns false if the task already ran
+        public boolean cancel() {
+            return this.state.compareAndSet(PENDING, CANCELLED) || this.state.get() == CANCELLED;
+        }
+
+        public boolean isExpired() {
+            return this.state.get() == EXPIRED;
+        }
+
+        private void expire() {
+            if (this.state.compareAndSet(PENDING, EXPIRED)) {
+                try {
+                    this.task.run();
+                } catch (RuntimeException ignored) {
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,143 @@
+package dev.codeflush.httpclient.client.accounting;
+
+import dev.codeflush.httpclient.Response;
+import dev.codeflush.httpclient.client.HTTPClient;
+import dev.codeflush.httpclient.parser.ResponseParser;
+import dev.codeflush.httpclient.request.Request;
+import dev.codeflush.httpclient.request.body.RequestBody;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URL;
+import java.nio.channels.WritableByteChannel;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+
+// measures the thread of the caller: the body must be written and the response parsed on it, so this should wrap the
+// SimpleHTTPClient directly instead of clients moving the exchange to other threads (hedging)
+public class AccountingHTTPClient implements HTTPClient {
+
+    private final HTTPClient delegate;
+    private final ResourceAccounting accounting;
+
+    public AccountingHTTPClient(HTTPClient delegate, ResourceAccounting accounting) {
+        this.delegate = Objects.requireNonNull(delegate);
+        this.accounting = Objects.requireNonNull(accounting);
+    }
+
+    public ResourceAccounting getAccounting() {
+        return this.accounting;
+    }
+
+    @Override
+    public <T> Response<T> execute(Request request, ResponseParser<? extends T> parser) throws IOException {
+        Response<T> response;
+
+        if (this.accounting.sample()) {
+            Sample encode = Sample.start();
+            URL url = request.getRequestURL();
+            Counters counters = this.accounting.counters(request.getHostAndPort(), url.getPath().isEmpty() ? "/" : url.getPath());
+            encode.stop(counters, Phase.ENCODE);
+
+            Request measured = (request.getBody() == null) ? request : request.withBody(new MeasuredBody(request.getBody(), counters));
+            response = this.delegate.execute(measured, new MeasuredParser<>(parser, counters));
+        } else {
+            response = this.delegate.execute(request, parser);
+        }
+
+        return new Response<>(this, request, parser, response.getResponseCode(), response.getHeaders(), response.getContentType(), response.getContentTypeCharset(), response.getValue());
+    }
+
+    private static final class MeasuredBody implements RequestBody {
+
+        private final RequestBody body;
+        private final Counters counters;
+
+        private MeasuredBody(RequestBody body, Counters counters) {
+            this.body = body;
+            this.counters = counters;
+        }
+
+        @Override
+        public String getContentType() {
+            return this.body.getContentType();
+        }
+
+        @Override
+        public boolean isRepeatable() {
+            return this.body.isRepeatable();
+        }
+
+        @Override
+        public Optional<Integer> getContentLength() {
+            return this.body.getContentLength();
+        }
+
+        @Override
+        public RequestBody unwrap() {
+            return this.body;
+        }
+
+        @Override
+        public void write(OutputStream out) throws IOException {
+            Sample sample = Sample.start();
+
+            try {
+                this.body.write(out);
+            } finally {
+                sample.stop(this.counters, Phase.WRITE);
+            }
+        }
+
+        @Override
+        public void write(WritableByteChannel channel) throws IOException {
+            Sample sample = Sample.start();
+
+            try {
+                this.body.write(channel);
+            } finally {
+                sample.stop(this.counters, Phase.WRITE);
+            }
+        }
+    }
+
+    private static final class MeasuredParser<T> implements ResponseParser<T> {
+
+        private final ResponseParser<? extends T> parser;
+        private final Counters counters;
+
+        private MeasuredParser(ResponseParser<? extends T> parser, Counters counters) {
+            this.parser = parser;
+            this.counters = counters;
+        }
+
+        @Override
+        public T parse(HTTPClient client, Request request, int responseCode, InputStream stream, Map<String, List<String>> headers, String contentType, String charset) throws IOException {
+            Sample sample = Sample.start();
+
+            try {
+                return this.parser.parse(client, request, responseCode, stream, headers, contentType, charset);
+            } finally {
+                sample.stop(this.counters, Phase.PARSE);
+            }
+        }
+
+        @Override
+        public T getFallback(HTTPClient client, Request request) throws IOException {
+            return this.parser.getFallback(client, request);
+        }
+
+        @Override
+        public boolean keepsStreamOpen() {
+            return this.parser.keepsStreamOpen();
+        }
+
+        @Override
+        public ResponseParser<? extends T> unwrap() {
+            return this.parser;
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package dev.codeflush.httpclient.client.accounting;
+
+import java.util.concurrent.atomic.LongAdder;
+
+final class Counters {
+
+    private final String host;
+    private final String path;
+    private final LongAdder sampled;
+    private final LongAdder[] cpuNanos;
+    private final LongAdder[] allocatedBytes;
+
+    Counters(String host, String path) {
+        this.host = host;
+        this.path = path;
+        this.sampled = new LongAdder();
+        this.cpuNanos = new LongAdder[Phase.values().length];
+        this.allocatedBytes = new LongAdder[Phase.values().length];
+
+        for (int i = 0; i < this.cpuNanos.length; i++) {
+            this.cpuNanos[i] = new LongAdder();
+            this.allocatedBytes[i] = new LongAdder();
+        }
+    }
+
+    void onSampled() {
+        this.sampled.increment();
+    }
+
+    void add(Phase phase, long cpuNanos, long allocatedBytes) {
+        this.cpuNanos[phase.ordinal()].add(cpuNanos);
+        this.allocatedBytes[phase.ordinal()].add(allocatedBytes);
+    }
+
+    ResourceUsage snapshot(double sampleRate) {
+        long[] cpuNanos = new long[this.cpuNanos.length];
+        long[] allocatedBytes = new long[this.allocatedBytes.length];
+
+        for (int i = 0; i < cpuNanos.length; i++) {
+            cpuNanos[i] = this.cpuNanos[i].sum();
+            allocatedBytes[i] = this.allocatedBytes[i].sum();
+        }
+
+        return new ResourceUsage(this.host, this.path, this.sampled.sum(), sampleRate, cpuNanos, allocatedBytes);
+    }
+}
@@ -0,0 +1,10 @@
+package dev.codeflush.httpclient.client.accounting;
+
+public enum Phase {
+    // building the request URL with the encoded parameters
+    ENCODE,
+    // RequestBody.write
+    WRITE,
+    // ResponseParser.parse
+    PARSE
+}
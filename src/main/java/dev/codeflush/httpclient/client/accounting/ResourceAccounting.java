@@ -0,0 +1,143 @@
+package dev.codeflush.httpclient.client.accounting;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+
+// CPU time and allocations of the sampled requests, aggregated by host and path. Only every 1/sampleRate-th request is
+// measured, the others pay for a random number only
+public class ResourceAccounting {
+
+    // paths beyond maxKeys are aggregated under this path
+    public static final String OTHER = "(other)";
+
+    private final double sampleRate;
+    private final int maxKeys;
+    private final LongAdder requests;
+    private final LongAdder sampled;
+    private final ConcurrentMap<Key, Counters> counters;
+
+    public ResourceAccounting(double sampleRate, int maxKeys) {
+        if (sampleRate < 0.0 || sampleRate > 1.0) {
+            throw new IllegalArgumentException("the sample rate must be between 0 and 1");
+        }
+
+        if (maxKeys < 1) {
+            throw new IllegalArgumentException("maxKeys must be at least 1");
+        }
+
+        this.sampleRate = sampleRate;
+        this.maxKeys = maxKeys;
+        this.requests = new LongAdder();
+        this.sampled = new LongAdder();
+        this.counters = new ConcurrentHashMap<>();
+    }
+
+    public ResourceAccounting(double sampleRate) {
+        this(sampleRate, 1000);
+    }
+
+    public ResourceAccounting() {
+        this(0.1);
+    }
+
+    // false if the JVM measures neither CPU time nor allocations per thread
+    public static boolean isSupported() {
+        return ThreadResources.isSupported();
+    }
+
+    public double getSampleRate() {
+        return this.sampleRate;
+    }
+
+    public long getRequests() {
+        return this.requests.sum();
+    }
+
+    public long getSampledRequests() {
+        return this.sampled.sum();
+    }
+
+    // sorted by allocated bytes, the largest first
+    public List<ResourceUsage> snapshot() {
+        List<ResourceUsage> snapshot = new ArrayList<>(this.counters.size());
+        this.counters.values().forEach((counters) -> snapshot.add(counters.snapshot(this.sampleRate)));
+        snapshot.sort(Comparator.comparingLong((ResourceUsage usage) -> usage.getAllocatedBytes()).reversed());
+
+        return snapshot;
+    }
+
+    public ResourceUsage get(String host, String path) {
+        Counters counters = this.counters.get(new Key(host, path));
+        return (counters == null) ? null : counters.snapshot(this.sampleRate);
+    }
+
+    public void reset() {
+        this.counters.clear();
+        this.requests.reset();
+        this.sampled.reset();
+    }
+
+    boolean sample() {
+        this.requests.increment();
+
+        if (this.sampleRate < 1.0 && ThreadLocalRandom.current().nextDouble() >= this.sampleRate) {
+            return false;
+        }
+
+        this.sampled.increment();
+        return true;
+    }
+
+    Counters counters(String host, String path) {
+        Key key = new Key(host, path);
+        Counters counters = this.counters.get(key);
+
+        if (counters == null) {
+            // the limit is approximate under contention, it only has to stop unbounded growth
+            if (this.counters.size() >= this.maxKeys) {
+                key = new Key(host, OTHER);
+            }
+
+            counters = this.counters.computeIfAbsent(key, (k) -> new Counters(k.host, k.path));
+        }
+
+        counters.onSampled();
+        return counters;
+    }
+
+    private static final class Key {
+
+        private final String host;
+        private final String path;
+
+        private Key(String host, String path) {
+            this.host = Objects.requireNonNull(host);
+            this.path = Objects.requireNonNull(path);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+
+            if (!(o instanceof Key)) {
+                return false;
+            }
+
+            Key key = (Key) o;
+            return this.host.equals(key.host) && this.path.equals(key.path);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * this.host.hashCode() + this.path.hashCode();
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package dev.codeflush.httpclient.client.accounting;
+
+// the resources used by the sampled requests to one path of a host
+public class ResourceUsage {
+
+    private final String host;
+    private final String path;
+    private final long sampledRequests;
+    private final double sampleRate;
+    private final long[] cpuNanos;
+    private final long[] allocatedBytes;
+
+    ResourceUsage(String host, String path, long sampledRequests, double sampleRate, long[] cpuNanos, long[] allocatedBytes) {
+        this.host = host;
+        this.path = path;
+        this.sampledRequests = sampledRequests;
+        this.sampleRate = sampleRate;
+        this.cpuNanos = cpuNanos;
+        this.allocatedBytes = allocatedBytes;
+    }
+
+    // "host:port"
+    public String getHost() {
+        return this.host;
+    }
+
+    public String getPath() {
+        return this.path;
+    }
+
+    public long getSampledRequests() {
+        return this.sampledRequests;
+    }
+
+    public long getEstimatedRequests() {
+        return Math.round(this.sampledRequests / this.sampleRate);
+    }
+
+    public long getCpuNanos(Phase phase) {
+        return this.cpuNanos[phase.ordinal()];
+    }
+
+    public long getAllocatedBytes(Phase phase) {
+        return this.allocatedBytes[phase.ordinal()];
+    }
+
+    public long getCpuNanos() {
+        long sum = 0L;
+
+        for (long value : this.cpuNanos) {
+            sum += value;
+        }
+
+        return sum;
+    }
+
+    public long getAllocatedBytes() {
+        long sum = 0L;
+
+        for (long value : this.allocatedBytes) {
+            sum += value;
+        }
+
+        return sum;
+    }
+
+    public double getCpuNanosPerRequest() {
+        return (this.sampledRequests == 0L) ? 0.0 : (double) getCpuNanos() / this.sampledRequests;
+    }
+
+    public double getAllocatedBytesPerRequest() {
+        return (this.sampledRequests == 0L) ? 0.0 : (double) getAllocatedBytes() / this.sampledRequests;
+    }
+
+    @Override
+    public String toString() {
+        return "ResourceUsage[" + this.host + this.path + ", sampled=" + this.sampledRequests + ", cpuNanos=" + getCpuNanos() + ", allocatedBytes=" + getAllocatedBytes() + "]";
+    }
+}
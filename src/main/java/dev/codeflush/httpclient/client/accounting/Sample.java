@@ -0,0 +1,21 @@
+package dev.codeflush.httpclient.client.accounting;
+
+// resources used by the current thread from start() until stop()
+final class Sample {
+
+    private final long cpuNanos;
+    private final long allocatedBytes;
+
+    private Sample() {
+        this.cpuNanos = ThreadResources.cpuNanos();
+        this.allocatedBytes = ThreadResources.allocatedBytes();
+    }
+
+    static Sample start() {
+        return new Sample();
+    }
+
+    void stop(Counters counters, Phase phase) {
+        counters.add(phase, ThreadResources.cpuNanos() - this.cpuNanos, ThreadResources.allocatedBytes() - this.allocatedBytes);
+    }
+}
@@ -0,0 +1,52 @@
+package dev.codeflush.httpclient.client.accounting;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+
+// CPU time and allocated bytes of the current thread. Allocations are only available on HotSpot based JVMs
+// (com.sun.management.ThreadMXBean), -1 otherwise
+final class ThreadResources {
+
+    private static final ThreadMXBean THREADS = ManagementFactory.getThreadMXBean();
+    private static final com.sun.management.ThreadMXBean HOTSPOT_THREADS = hotspot();
+    private static final boolean CPU_TIME = isCpuTimeSupported();
+
+    private ThreadResources() {
+    }
+
+    static boolean isSupported() {
+        return CPU_TIME || HOTSPOT_THREADS != null;
+    }
+
+    static long cpuNanos() {
+        return CPU_TIME ? THREADS.getCurrentThreadCpuTime() : -1L;
+    }
+
+    static long allocatedBytes() {
+        return (HOTSPOT_THREADS == null) ? -1L : HOTSPOT_THREADS.getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+
+    private static boolean isCpuTimeSupported() {
+        try {
+            return THREADS.isCurrentThreadCpuTimeSupported() && THREADS.isThreadCpuTimeEnabled();
+        } catch (UnsupportedOperationException e) {
+            return false;
+        }
+    }
+
+    private static com.sun.management.ThreadMXBean hotspot() {
+        try {
+            if (THREADS instanceof com.sun.management.ThreadMXBean) {
+                com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) THREADS;
+
+                if (threads.isThreadAllocatedMemorySupported() && threads.isThreadAllocatedMemoryEnabled()) {
+                    return threads;
+                }
+            }
+        } catch (LinkageError | UnsupportedOperationException e) {
+            // not a HotSpot based JVM
+        }
+
+        return null;
+    }
+}
@@ -0,0 +1,173 @@
+package dev.codeflush.httpclient.client.balance;
+
+import dev.codeflush.httpclient.Endpoint;
+import dev.codeflush.httpclient.RequestMethod;
+import dev.codeflush.httpclient.request.Request;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+
+// a set of interchangeable endpoints; selection only reads a volatile snapshot of the members that are not ejected,
+// the snapshot is rebuilt under a lock when a member is ejected or its ejection ends, which is rare
+public class EndpointGroup {
+
+    private static final long NONE_EJECTED = Long.MIN_VALUE;
+
+    private final Member[] members;
+    private final LoadBalancingStrategy strategy;
+    private final OutlierDetection outlierDetection;
+    private volatile Member[] available;
+    private volatile long nextRestoreNanos;
+
+    public EndpointGroup(List<Endpoint> endpoints, LoadBalancingStrategy strategy, OutlierDetection outlierDetection) {
+        if (endpoints.isEmpty()) {
+            throw new IllegalArgumentException("at least one endpoint is required");
+        }
+
+        this.members = endpoints.stream().map(Member::new).toArray(Member[]::new);
+        this.strategy = Objects.requireNonNull(strategy);
+        this.outlierDetection = Objects.requireNonNull(outlierDetection);
+        this.available = this.members;
+        this.nextRestoreNanos = NONE_EJECTED;
+    }
+
+    public EndpointGroup(List<Endpoint> endpoints, LoadBalancingStrategy strategy) {
+        this(endpoints, strategy, OutlierDetection.DEFAULT);
+    }
+
+    public EndpointGroup(List<Endpoint> endpoints) {
+        this(endpoints, LoadBalancingStrategy.powerOfTwoChoices());
+    }
+
+    public static EndpointGroup of(Endpoint... endpoints) {
+        return new EndpointGroup(Arrays.asList(endpoints));
+    }
+
+    public List<Member> getMembers() {
+        return Collections.unmodifiableList(Arrays.asList(this.members));
+    }
+
+    public List<Member> getAvailable() {
+        restoreIfDue();
+        return Collections.unmodifiableList(Arrays.asList(this.available));
+    }
+
+    public OutlierDetection getOutlierDetection() {
+        return this.outlierDetection;
+    }
+
+    public Member select() {
+        restoreIfDue();
+        return this.strategy.select(this.available);
+    }
+
+    // requests are built against the first member, the LoadBalancingHTTPClient sends them to the selected one
+    public Endpoint getEndpoint() {
+        return this.members[0].getEndpoint();
+    }
+
+    public Endpoint resolve(String... children) {
+        return getEndpoint().resolve(children);
+    }
+
+    public Request.Builder<?> request(RequestMethod.RequestMethodWithoutBody method) {
+        return getEndpoint().request(method);
+    }
+
+    public Request.BuilderWithBody<?> request(RequestMethod.RequestMethodWithBody method) {
+        return getEndpoint().request(method);
+    }
+
+    public Request.Builder<?> head() {
+        return request(RequestMethod.HEAD);
+    }
+
+    public Request.Builder<?> get() {
+        return request(RequestMethod.GET);
+    }
+
+    public Request.BuilderWithBody<?> post() {
+        return request(RequestMethod.POST);
+    }
+
+    public Request.BuilderWithBody<?> put() {
+        return request(RequestMethod.PUT);
+    }
+
+    public Request.BuilderWithBody<?> patch() {
+        return request(RequestMethod.PATCH);
+    }
+
+    public Request.Builder<?> delete() {
+        return request(RequestMethod.DELETE);
+    }
+
+    void onStart(Member member) {
+        member.onStart();
+    }
+
+    // rttNanos is negative if no latency sample should be taken
+    void onComplete(Member member, long rttNanos, boolean failure) {
+        int failures = member.onComplete(rttNanos, failure);
+
+        if (failures >= this.outlierDetection.getConsecutiveFailures()) {
+            eject(member);
+        }
+    }
+
+    private synchronized void eject(Member member) {
+        if (member.isEjected()) {
+            return;
+        }
+
+        int ejected = this.members.length - this.available.length;
+        if (ejected + 1 > (this.members.length * this.outlierDetection.getMaxEjectionPercent()) / 100) {
+            return;
+        }
+
+        long until = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(this.outlierDetection.ejectionMillis(member.getEjections()));
+        member.eject(until);
+        rebuild();
+    }
+
+    private void restoreIfDue() {
+        long next = this.nextRestoreNanos;
+
+        if (next != NONE_EJECTED && System.nanoTime() - next >= 0L) {
+            restore();
+        }
+    }
+
+    private synchronized void restore() {
+        long now = System.nanoTime();
+
+        for (Member member : this.members) {
+            if (member.isEjected() && now - member.getEjectedUntilNanos() >= 0L) {
+                member.restore();
+            }
+        }
+
+        rebuild();
+    }
+
+    private void rebuild() {
+        List<Member> available = new ArrayList<>(this.members.length);
+        long next = NONE_EJECTED;
+
+        for (Member member : this.members) {
+            if (!member.isEjected()) {
+                available.add(member);
+            } else if (next == NONE_EJECTED || member.getEjectedUntilNanos() - next < 0L) {
+                next = member.getEjectedUntilNanos();
+            }
+        }
+
+        // with everything ejected all members are used again rather than failing every request
+        this.available = available.isEmpty() ? this.members : available.toArray(new Member[0]);
+        this.nextRestoreNanos = next;
+    }
+}
@@ -0,0 +1,65 @@
+package dev.codeflush.httpclient.client.balance;
+
+import dev.codeflush.httpclient.Endpoint;
+import dev.codeflush.httpclient.Response;
+import dev.codeflush.httpclient.client.HTTPClient;
+import dev.codeflush.httpclient.parser.ResponseParser;
+import dev.codeflush.httpclient.request.Request;
+
+import java.io.IOException;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.util.Objects;
+
+// sends every request to a member of the group, protocol, host and port of the request are replaced with the ones of
+// the selected member while path and query are kept
+public class LoadBalancingHTTPClient implements HTTPClient {
+
+    private final HTTPClient delegate;
+    private final EndpointGroup group;
+
+    public LoadBalancingHTTPClient(HTTPClient delegate, EndpointGroup group) {
+        this.delegate = Objects.requireNonNull(delegate);
+        this.group = Objects.requireNonNull(group);
+    }
+
+    public EndpointGroup getGroup() {
+        return this.group;
+    }
+
+    @Override
+    public <T> Response<T> execute(Request request, ResponseParser<? extends T> parser) throws IOException {
+        Member member = this.group.select();
+        Request target = request.withEndpoint(retarget(request.getEndpoint(), member.getEndpoint()));
+
+        this.group.onStart(member);
+        long start = System.nanoTime();
+        long rttNanos = -1L;
+        boolean failure = true;
+
+        try {
+            Response<T> response = this.delegate.execute(target, parser);
+            failure = this.group.getOutlierDetection().isFailure(response.getResponseCode());
+
+            // failures are often fast and must not make a member look attractive
+            if (!failure) {
+                rttNanos = System.nanoTime() - start;
+            }
+
+            return new Response<>(this, response.getRequest(), response.getParser(), response.getResponseCode(), response.getHeaders(), response.getContentType(), response.getContentTypeCharset(), response.getValue());
+        } finally {
+            this.group.onComplete(member, rttNanos, failure);
+        }
+    }
+
+    private static Endpoint retarget(Endpoint endpoint, Endpoint member) {
+        URL url = endpoint.getURL();
+        URL base = member.getURL();
+
+        try {
+            return new Endpoint(new URL(base.getProtocol(), base.getHost(), base.getPort(), url.getFile()));
+        } catch (MalformedURLException e) {
+            throw new RuntimeException(e);
+        }
+    }
+}
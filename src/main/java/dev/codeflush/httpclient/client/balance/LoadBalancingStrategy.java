@@ -0,0 +1,23 @@
+package dev.codeflush.httpclient.client.balance;
+
+// picks one of the available members, the array is never empty and must not be modified;
+// implementations are called concurrently for every request and must not block
+public interface LoadBalancingStrategy {
+
+    Member select(Member[] members);
+
+    static LoadBalancingStrategy roundRobin() {
+        return new RoundRobinStrategy();
+    }
+
+    // the member with fewer outstanding requests out of two random ones, which is O(1) and avoids the herding of a
+    // full scan where every caller picks the same least loaded member
+    static LoadBalancingStrategy leastOutstanding() {
+        return new TwoChoicesStrategy(Member::getOutstanding);
+    }
+
+    // the member with the lower ewma latency weighted by its outstanding requests out of two random ones
+    static LoadBalancingStrategy powerOfTwoChoices() {
+        return new TwoChoicesStrategy(Member::cost);
+    }
+}
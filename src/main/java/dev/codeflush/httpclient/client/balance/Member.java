@@ -0,0 +1,116 @@
+package dev.codeflush.httpclient.client.balance;
+
+import dev.codeflush.httpclient.Endpoint;
+
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class Member {
+
+    private static final double EWMA_ALPHA = 0.2;
+
+    private final Endpoint endpoint;
+    private final AtomicInteger outstanding;
+    private final AtomicInteger consecutiveFailures;
+    // double bits of the latency ewma in nanos, 0 until the first sample
+    private final AtomicLong ewmaNanos;
+    private volatile long ejectedUntilNanos;
+    private volatile boolean ejected;
+    private volatile int ejections;
+
+    Member(Endpoint endpoint) {
+        this.endpoint = Objects.requireNonNull(endpoint);
+        this.outstanding = new AtomicInteger();
+        this.consecutiveFailures = new AtomicInteger();
+        this.ewmaNanos = new AtomicLong(Double.doubleToRawLongBits(0.0));
+        this.ejectedUntilNanos = 0L;
+        this.ejected = false;
+        this.ejections = 0;
+    }
+
+    public Endpoint getEndpoint() {
+        return this.endpoint;
+    }
+
+    public int getOutstanding() {
+        return this.outstanding.get();
+    }
+
+    public int getConsecutiveFailures() {
+        return this.consecutiveFailures.get();
+    }
+
+    public double getLatencyMillis() {
+        return ewma() / TimeUnit.MILLISECONDS.toNanos(1L);
+    }
+
+    public boolean isEjected() {
+        return this.ejected;
+    }
+
+    public int getEjections() {
+        return this.ejections;
+    }
+
+    // expected latency of one more request, members without samples are the cheapest so they are probed first
+    double cost() {
+        return ewma() * (this.outstanding.get() + 1);
+    }
+
+    void onStart() {
+        this.outstanding.incrementAndGet();
+    }
+
+    // returns the number of consecutive failures including this one
+    int onComplete(long rttNanos, boolean failure) {
+        this.outstanding.decrementAndGet();
+
+        if (rttNanos >= 0L) {
+            sample(rttNanos);
+        }
+
+        if (!failure) {
+            this.consecutiveFailures.set(0);
+            return 0;
+        }
+
+        return this.consecutiveFailures.incrementAndGet();
+    }
+
+    void eject(long untilNanos) {
+        this.ejectedUntilNanos = untilNanos;
+        this.ejections++;
+        this.ejected = true;
+        this.consecutiveFailures.set(0);
+    }
+
+    void restore() {
+        this.ejected = false;
+    }
+
+    long getEjectedUntilNanos() {
+        return this.ejectedUntilNanos;
+    }
+
+    private double ewma() {
+        return Double.longBitsToDouble(this.ewmaNanos.get());
+    }
+
+    private void sample(long rttNanos) {
+        long current;
+        long next;
+
+        do {
+            current = this.ewmaNanos.get();
+            double value = Double.longBitsToDouble(current);
+            next = Double.doubleToRawLongBits((value == 0.0) ? rttNanos : value + (rttNanos - value) * EWMA_ALPHA);
+        } while (!this.ewmaNanos.compareAndSet(current, next));
+    }
+
+    @Override
+    public String toString() {
+        return "Member[" + this.endpoint.getURL() + "]";
+    }
+}
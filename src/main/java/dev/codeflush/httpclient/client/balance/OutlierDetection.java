@@ -0,0 +1,108 @@
+package dev.codeflush.httpclient.client.balance;
+
+import java.util.Objects;
+import java.util.function.IntPredicate;
+
+public class OutlierDetection {
+
+    public static final OutlierDetection DEFAULT = builder().build();
+    public static final OutlierDetection DISABLED = builder().consecutiveFailures(Integer.MAX_VALUE).build();
+
+    private final int consecutiveFailures;
+    private final long baseEjectionMillis;
+    private final long maxEjectionMillis;
+    private final int maxEjectionPercent;
+    private final IntPredicate failureStatus;
+
+    private OutlierDetection(Builder builder) {
+        this.consecutiveFailures = builder.consecutiveFailures;
+        this.baseEjectionMillis = builder.baseEjectionMillis;
+        this.maxEjectionMillis = builder.maxEjectionMillis;
+        this.maxEjectionPercent = builder.maxEjectionPercent;
+        this.failureStatus = builder.failureStatus;
+    }
+
+    public int getConsecutiveFailures() {
+        return this.consecutiveFailures;
+    }
+
+    public long getBaseEjectionMillis() {
+        return this.baseEjectionMillis;
+    }
+
+    public long getMaxEjectionMillis() {
+        return this.maxEjectionMillis;
+    }
+
+    public int getMaxEjectionPercent() {
+        return this.maxEjectionPercent;
+    }
+
+    public boolean isFailure(int responseCode) {
+        return this.failureStatus.test(responseCode);
+    }
+
+    // the ejection time grows with every ejection of the same member
+    long ejectionMillis(int previousEjections) {
+        long millis = this.baseEjectionMillis * (previousEjections + 1L);
+        return (millis < 0L) ? this.maxEjectionMillis : Math.min(millis, this.maxEjectionMillis);
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public static class Builder {
+
+        private int consecutiveFailures;
+        private long baseEjectionMillis;
+        private long maxEjectionMillis;
+        private int maxEjectionPercent;
+        private IntPredicate failureStatus;
+
+        private Builder() {
+            this.consecutiveFailures = 5;
+            this.baseEjectionMillis = 30_000L;
+            this.maxEjectionMillis = 300_000L;
+            this.maxEjectionPercent = 50;
+            this.failureStatus = (code) -> code >= 500;
+        }
+
+        public Builder consecutiveFailures(int consecutiveFailures) {
+            if (consecutiveFailures < 1) {
+                throw new IllegalArgumentException("consecutiveFailures must be positive");
+            }
+
+            this.consecutiveFailures = consecutiveFailures;
+            return this;
+        }
+
+        public Builder ejection(long baseEjectionMillis, long maxEjectionMillis) {
+            if (baseEjectionMillis < 1L || maxEjectionMillis < baseEjectionMillis) {
+                throw new IllegalArgumentException("ejection times must be positive and max >= base");
+            }
+
+            this.baseEjectionMillis = baseEjectionMillis;
+            this.maxEjectionMillis = maxEjectionMillis;
+            return this;
+        }
+
+        public Builder maxEjectionPercent(int maxEjectionPercent) {
+            if (maxEjectionPercent < 0 || maxEjectionPercent > 100) {
+                throw new IllegalArgumentException("maxEjectionPercent must be in [0, 100]");
+            }
+
+            this.maxEjectionPercent = maxEjectionPercent;
+            return this;
+        }
+
+        public Builder failureStatus(IntPredicate failureStatus) {
+            this.failureStatus = Objects.requireNonNull(failureStatus);
+            return this;
+        }
+
+        public OutlierDetection build() {
+            return new OutlierDetection(this);
+        }
+    }
+}
@@ -0,0 +1,17 @@
+package dev.codeflush.httpclient.client.balance;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+class RoundRobinStrategy implements LoadBalancingStrategy {
+
+    private final AtomicInteger next;
+
+    RoundRobinStrategy() {
+        this.next = new AtomicInteger();
+    }
+
+    @Override
+    public Member select(Member[] members) {
+        return members[Math.floorMod(this.next.getAndIncrement(), members.length)];
+    }
+}
@@ -0,0 +1,34 @@
+package dev.codeflush.httpclient.client.balance;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.ToDoubleFunction;
+
+class TwoChoicesStrategy implements LoadBalancingStrategy {
+
+    private final ToDoubleFunction<Member> cost;
+
+    TwoChoicesStrategy(ToDoubleFunction<Member> cost) {
+        this.cost = cost;
+    }
+
+    @Override
+    public Member select(Member[] members) {
+        if (members.length == 1) {
+            return members[0];
+        }
+
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int first = random.nextInt(members.length);
+        int second = random.nextInt(members.length - 1);
+
+        // two distinct members
+        if (second >= first) {
+            second++;
+        }
+
+        Member a = members[first];
+        Member b = members[second];
+
+        return (this.cost.applyAsDouble(b) < this.cost.applyAsDouble(a)) ? b : a;
+    }
+}
@@ -0,0 +1,240 @@
+package dev.codeflush.httpclient.client.batch;
+
+import dev.codeflush.httpclient.Endpoint;
+import dev.codeflush.httpclient.Response;
+import dev.codeflush.httpclient.client.HTTPClient;
+import dev.codeflush.httpclient.client.SimpleHTTPClient;
+import dev.codeflush.httpclient.parser.ResponseParser;
+import dev.codeflush.httpclient.parser.multipart.MultipartReader;
+import dev.codeflush.httpclient.parser.multipart.Part;
+import dev.codeflush.httpclient.request.Request;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+
+// many requests sent as application/http parts of one multipart/mixed POST, the multipart/mixed response is split
+// back into one Response per request. Parts are matched by Content-ID ("response-item-N"), in order otherwise.
+// Not thread-safe, see RequestBatcher
+public class Batch {
+
+    private static final int MAX_LINE_LENGTH = 8192;
+
+    private final Endpoint endpoint;
+    private final List<Item<?>> items;
+
+    public Batch(Endpoint endpoint) {
+        this.endpoint = Objects.requireNonNull(endpoint);
+        this.items = new ArrayList<>();
+    }
+
+    public Endpoint getEndpoint() {
+        return this.endpoint;
+    }
+
+    // the part stream is only valid while the part is read, so parsers that keep the stream open are not supported
+    public <T> CompletableFuture<Response<T>> add(Request request, ResponseParser<? extends T> parser) {
+        Objects.requireNonNull(request);
+
+        if (parser.keepsStreamOpen()) {
+            throw new IllegalArgumentException("parsers that keep the stream open can't be batched");
+        }
+
+        Item<T> item = new Item<>(request, parser);
+        this.items.add(item);
+
+        return item.future;
+    }
+
+    public int size() {
+        return this.items.size();
+    }
+
+    public boolean isEmpty() {
+        return this.items.isEmpty();
+    }
+
+    // every future is completed when this returns; if the exchange fails as a whole all pending futures fail with the
+    // same exception and it is rethrown
+    public void execute(HTTPClient client) throws IOException {
+        List<HttpRequestPart> parts = new ArrayList<>(this.items.size());
+        List<Item<?>> sent = new ArrayList<>(this.items.size());
+
+        for (Item<?> item : this.items) {
+            try {
+                parts.add(new HttpRequestPart("item-" + sent.size(), item.request));
+                sent.add(item);
+            } catch (IOException | RuntimeException e) {
+                item.future.completeExceptionally(e);
+            }
+        }
+
+        if (sent.isEmpty()) {
+            return;
+        }
+
+        Request envelope = this.endpoint.post()
+                .header("Accept", "multipart/mixed")
+                .body(new BatchRequestBody(parts))
+                .build();
+
+        try {
+            client.execute(envelope, new Demultiplexer(sent));
+        } catch (IOException | RuntimeException e) {
+            sent.forEach((item) -> item.future.completeExceptionally(e));
+            throw e;
+        }
+
+        for (int i = 0; i < sent.size(); i++) {
+            sent.get(i).future.completeExceptionally(new IOException("no response for item-" + i + " in the batch"));
+        }
+    }
+
+    private static final class Demultiplexer implements ResponseParser<Void> {
+
+        private final List<Item<?>> items;
+
+        private Demultiplexer(List<Item<?>> items) {
+            this.items = items;
+        }
+
+        @Override
+        public Void parse(HTTPClient client, Request request, int responseCode, InputStream stream, Map<String, List<String>> headers, String contentType, String charset) throws IOException {
+            if (responseCode < 200 || responseCode >= 300) {
+                throw new IOException("the batch failed with status " + responseCode);
+            }
+
+            String boundary = MultipartReader.boundaryOf(getHeader(headers, "Content-Type"));
+
+            if (boundary == null) {
+                throw new IOException("no multipart boundary in the Content-Type " + contentType);
+            }
+
+            try (MultipartReader reader = new MultipartReader(stream, boundary)) {
+                Part part;
+
+                while ((part = reader.next()) != null) {
+                    Item<?> item = match(part);
+
+                    if (item != null) {
+                        // a broken part only fails its own request, the remaining parts are still read
+                        try {
+                            item.complete(client, part.getInputStream());
+                        } catch (IOException | RuntimeException e) {
+                            item.future.completeExceptionally(e);
+                        }
+                    }
+                }
+            }
+
+            return null;
+        }
+
+        private Item<?> match(Part part) {
+            String contentId = part.getHeader("Content-ID");
+
+            if (contentId != null) {
+                contentId = contentId.trim();
+
+                if (contentId.startsWith("<") && contentId.endsWith(">")) {
+                    contentId = contentId.substring(1, contentId.length() - 1);
+                }
+
+                int index = contentId.lastIndexOf("item-");
+
+                if (index != -1) {
+                    try {
+                        int itemIndex = Integer.parseInt(contentId.substring(index + "item-".length()));
+                        return (itemIndex >= 0 && itemIndex < this.items.size()) ? this.items.get(itemIndex) : null;
+                    } catch (NumberFormatException ignored) {
+                    }
+                }
+            }
+
+            return (part.getIndex() < this.items.size()) ? this.items.get(part.getIndex()) : null;
+        }
+    }
+
+    private static final class Item<T> {
+
+        private final Request request;
+        private final ResponseParser<? extends T> parser;
+        private final CompletableFuture<Response<T>> future;
+
+        private Item(Request request, ResponseParser<? extends T> parser) {
+            this.request = request;
+            this.parser = Objects.requireNonNull(parser);
+            this.future = new CompletableFuture<>();
+        }
+
+        // the part is a complete HTTP response: status line, headers, body
+        private void complete(HTTPClient client, InputStream in) throws IOException {
+            String statusLine = readLine(in);
+            String[] status = (statusLine == null) ? new String[0] : statusLine.split(" ", 3);
+            int responseCode;
+
+            try {
+                responseCode = Integer.parseInt(status[1]);
+            } catch (ArrayIndexOutOfBoundsException | NumberFormatException e) {
+                throw new IOException("malformed status line in the batch: " + statusLine);
+            }
+
+            Map<String, List<String>> headers = new LinkedHashMap<>();
+            String line;
+
+            while ((line = readLine(in)) != null && !line.isEmpty()) {
+                int colon = line.indexOf(':');
+
+                if (colon > 0) {
+                    headers.computeIfAbsent(line.substring(0, colon).trim(), (key) -> new ArrayList<>()).add(line.substring(colon + 1).trim());
+                }
+            }
+
+            String[] contentTypeFields = SimpleHTTPClient.parseContentType(getHeader(headers, "Content-Type"));
+            T value = this.parser.parse(client, this.request, responseCode, in, headers, contentTypeFields[0], contentTypeFields[1]);
+
+            this.future.complete(new Response<>(client, this.request, this.parser, responseCode, headers, contentTypeFields[0], contentTypeFields[1], value));
+        }
+    }
+
+    // a CRLF (or LF) terminated line without the terminator, null at the end of the stream
+    private static String readLine(InputStream in) throws IOException {
+        ByteArrayOutputStream line = new ByteArrayOutputStream(64);
+        int b;
+
+        while ((b = in.read()) != -1 && b != '\n') {
+            if (line.size() >= MAX_LINE_LENGTH) {
+                throw new IOException("header line in the batch exceeds " + MAX_LINE_LENGTH + " bytes");
+            }
+
+            line.write(b);
+        }
+
+        if (b == -1 && line.size() == 0) {
+            return null;
+        }
+
+        byte[] bytes = line.toByteArray();
+        int length = (bytes.length > 0 && bytes[bytes.length - 1] == '\r') ? bytes.length - 1 : bytes.length;
+
+        return new String(bytes, 0, length, StandardCharsets.ISO_8859_1);
+    }
+
+    private static String getHeader(Map<String, List<String>> headers, String name) {
+        for (Map.Entry<String, List<String>> entry : headers.entrySet()) {
+            if (name.equalsIgnoreCase(entry.getKey()) && !entry.getValue().isEmpty()) {
+                return entry.getValue().get(0);
+            }
+        }
+
+        return null;
+    }
+}
@@ -0,0 +1,19 @@
+package dev.codeflush.httpclient.client.batch;
+
+import dev.codeflush.httpclient.request.body.MultipartRequestBody;
+
+import java.util.Collection;
+
+final class BatchRequestBody extends MultipartRequestBody<HttpRequestPart> {
+
+    BatchRequestBody(Collection<HttpRequestPart> parts) {
+        super("mixed", parts);
+    }
+
+    @Override
+    protected String partHeaders(HttpRequestPart part) {
+        return "Content-Type: " + part.getContentType() + "\r\n"
+                + "Content-Transfer-Encoding: binary\r\n"
+                + "Content-ID: <" + part.getContentId() + ">\r\n";
+    }
+}
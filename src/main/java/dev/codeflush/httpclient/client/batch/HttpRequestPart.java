@@ -0,0 +1,87 @@
+package dev.codeflush.httpclient.client.batch;
+
+import dev.codeflush.httpclient.request.Request;
+import dev.codeflush.httpclient.request.body.ByteArrayRequestBody;
+import dev.codeflush.httpclient.request.body.RequestBody;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.Optional;
+
+// one request serialized as an application/http part (RFC 7230 message format).
+// The request is serialized once, small bodies are the point of batching
+final class HttpRequestPart implements RequestBody {
+
+    private final String contentId;
+    private final ByteArrayRequestBody message;
+
+    HttpRequestPart(String contentId, Request request) throws IOException {
+        this.contentId = contentId;
+        this.message = new ByteArrayRequestBody("application/http; msgtype=request", serialize(request));
+    }
+
+    String getContentId() {
+        return this.contentId;
+    }
+
+    @Override
+    public String getContentType() {
+        return this.message.getContentType();
+    }
+
+    @Override
+    public boolean isRepeatable() {
+        return true;
+    }
+
+    @Override
+    public Optional<Integer> getContentLength() {
+        return this.message.getContentLength();
+    }
+
+    @Override
+    public void write(OutputStream out) throws IOException {
+        this.message.write(out);
+    }
+
+    private static byte[] serialize(Request request) throws IOException {
+        URL url = request.getRequestURL();
+        StringBuilder sb = new StringBuilder();
+        sb.append(request.getMethod().getName()).append(' ').append(url.getFile().isEmpty() ? "/" : url.getFile()).append(" HTTP/1.1\r\n");
+        sb.append("Host: ").append(url.getHost());
+
+        if (url.getPort() != -1) {
+            sb.append(':').append(url.getPort());
+        }
+
+        sb.append("\r\n");
+
+        for (Map.Entry<String, String> entry : request.getHeaders().entrySet()) {
+            sb.append(entry.getKey()).append(": ").append(entry.getValue()).append("\r\n");
+        }
+
+        RequestBody body = request.getBody();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        if (body == null) {
+            out.write(sb.append("\r\n").toString().getBytes(StandardCharsets.UTF_8));
+        } else {
+            ByteArrayOutputStream content = new ByteArrayOutputStream(body.getContentLength().orElse(256));
+            body.write(content);
+
+            if (body.getContentType() != null) {
+                sb.append("Content-Type: ").append(body.getContentType()).append("\r\n");
+            }
+
+            sb.append("Content-Length: ").append(content.size()).append("\r\n\r\n");
+            out.write(sb.toString().getBytes(StandardCharsets.UTF_8));
+            content.writeTo(out);
+        }
+
+        return out.toByteArray();
+    }
+}
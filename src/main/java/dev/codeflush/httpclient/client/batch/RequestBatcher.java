@@ -0,0 +1,185 @@
+package dev.codeflush.httpclient.client.batch;
+
+import dev.codeflush.httpclient.Endpoint;
+import dev.codeflush.httpclient.Response;
+import dev.codeflush.httpclient.client.HTTPClient;
+import dev.codeflush.httpclient.client.TimerWheel;
+import dev.codeflush.httpclient.parser.ResponseParser;
+import dev.codeflush.httpclient.request.Request;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+// collects submitted requests into a Batch that is sent once it holds maxBatchSize requests or windowMillis after
+// its first request, whichever comes first. Batches are sent on the executor, never on the submitting thread
+public class RequestBatcher implements Closeable {
+
+    private static final AtomicInteger THREAD_COUNT = new AtomicInteger();
+
+    private final HTTPClient client;
+    private final Endpoint endpoint;
+    private final int maxBatchSize;
+    private final long windowMillis;
+    private final Executor executor;
+    // the executor created by the batcher itself, null if it was passed in
+    private final ExecutorService ownedExecutor;
+    private final LongAdder batches;
+    private final LongAdder requests;
+    private Batch current;
+    private TimerWheel.Timeout window;
+    private boolean closed;
+
+    private RequestBatcher(HTTPClient client, Endpoint endpoint, int maxBatchSize, long windowMillis, Executor executor, ExecutorService ownedExecutor) {
+        if (maxBatchSize < 1) {
+            throw new IllegalArgumentException("maxBatchSize must be at least 1");
+        }
+
+        this.client = Objects.requireNonNull(client);
+        this.endpoint = Objects.requireNonNull(endpoint);
+        this.maxBatchSize = maxBatchSize;
+        this.windowMillis = Math.max(0L, windowMillis);
+        this.executor = (executor == null) ? ownedExecutor : executor;
+        this.ownedExecutor = ownedExecutor;
+        this.batches = new LongAdder();
+        this.requests = new LongAdder();
+        this.current = null;
+        this.window = null;
+        this.closed = false;
+    }
+
+    public RequestBatcher(HTTPClient client, Endpoint endpoint, int maxBatchSize, long windowMillis, Executor executor) {
+        this(client, endpoint, maxBatchSize, windowMillis, Objects.requireNonNull(executor), null);
+    }
+
+    public RequestBatcher(HTTPClient client, Endpoint endpoint, int maxBatchSize, long windowMillis) {
+        this(client, endpoint, maxBatchSize, windowMillis, null, defaultExecutor());
+    }
+
+    public long getBatches() {
+        return this.batches.sum();
+    }
+
+    public long getRequests() {
+        return this.requests.sum();
+    }
+
+    public double getAverageBatchSize() {
+        long batches = this.batches.sum();
+        return (batches == 0L) ? 0.0 : (double) this.requests.sum() / batches;
+    }
+
+    public <T> CompletableFuture<Response<T>> submit(Request request, ResponseParser<? extends T> parser) {
+        Batch full = null;
+        CompletableFuture<Response<T>> future;
+
+        synchronized (this) {
+            if (this.closed) {
+                throw new IllegalStateException("the batcher is closed");
+            }
+
+            // checked before a batch is started, Batch.add would leave it open with its window running
+            if (parser.keepsStreamOpen()) {
+                throw new IllegalArgumentException("parsers that keep the stream open can't be batched");
+            }
+
+            if (this.current == null) {
+                Batch batch = new Batch(this.endpoint);
+                this.current = batch;
+                this.window = TimerWheel.shared().schedule(() -> flush(batch), this.windowMillis);
+            }
+
+            future = this.current.add(request, parser);
+
+            if (this.current.size() >= this.maxBatchSize) {
+                full = take();
+            }
+        }
+
+        if (full != null) {
+            send(full);
+        }
+
+        return future;
+    }
+
+    // sends the pending requests now
+    public void flush() {
+        Batch batch;
+
+        synchronized (this) {
+            batch = take();
+        }
+
+        if (batch != null) {
+            send(batch);
+        }
+    }
+
+    // flushes the pending requests, submitting afterwards fails. The batches already sent still complete.
+    @Override
+    public void close() {
+        synchronized (this) {
+            this.closed = true;
+        }
+
+        flush();
+
+        if (this.ownedExecutor != null) {
+            this.ownedExecutor.shutdown();
+        }
+    }
+
+    // called by the window timer, the batch may already have been sent because it became full
+    private void flush(Batch batch) {
+        synchronized (this) {
+            if (this.current != batch) {
+                return;
+            }
+
+            take();
+        }
+
+        send(batch);
+    }
+
+    private Batch take() {
+        Batch batch = this.current;
+
+        if (this.window != null) {
+            this.window.cancel();
+        }
+
+        this.current = null;
+        this.window = null;
+
+        return batch;
+    }
+
+    private void send(Batch batch) {
+        this.batches.increment();
+        this.requests.add(batch.size());
+
+        this.executor.execute(() -> {
+            try {
+                batch.execute(this.client);
+            } catch (IOException | RuntimeException ignored) {
+                // the futures of the batch carry the failure
+            }
+        });
+    }
+
+    private static ExecutorService defaultExecutor() {
+        return Executors.newCachedThreadPool((runnable) -> {
+            Thread thread = new Thread(runnable, "httpclient-batch-" + THREAD_COUNT.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+}
@@ -0,0 +1,127 @@
+package dev.codeflush.httpclient.client.breaker;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+
+public class CircuitBreaker {
+
+    public enum State {
+        CLOSED,
+        OPEN,
+        HALF_OPEN
+    }
+
+    private final String host;
+    private final CircuitBreakerConfig config;
+    private final SlidingWindow window;
+    private final AtomicReference<Phase> phase;
+    private final LongAdder rejected;
+
+    CircuitBreaker(String host, CircuitBreakerConfig config) {
+        this.host = host;
+        this.config = config;
+        this.window = new SlidingWindow(config.getWindowSeconds());
+        this.phase = new AtomicReference<>(new Phase(State.CLOSED, 0L));
+        this.rejected = new LongAdder();
+    }
+
+    public String getHost() {
+        return this.host;
+    }
+
+    public State getState() {
+        return this.phase.get().state;
+    }
+
+    public long getRejected() {
+        return this.rejected.sum();
+    }
+
+    public double getFailureRate() {
+        long[] snapshot = this.window.snapshot(System.nanoTime());
+        return (snapshot[0] == 0L) ? 0.0 : snapshot[1] / (double) snapshot[0];
+    }
+
+    public double getSlowCallRate() {
+        long[] snapshot = this.window.snapshot(System.nanoTime());
+        return (snapshot[0] == 0L) ? 0.0 : snapshot[2] / (double) snapshot[0];
+    }
+
+    // returns the phase the call was admitted in, the result must be reported with it
+    Phase acquire() throws CircuitBreakerOpenException {
+        Phase current = this.phase.get();
+
+        if (current.state == State.CLOSED) {
+            return current;
+        }
+
+        if (current.state == State.OPEN) {
+            long openNanos = TimeUnit.MILLISECONDS.toNanos(this.config.getOpenDurationMillis());
+
+            if (System.nanoTime() - current.sinceNanos < openNanos) {
+                this.rejected.increment();
+                throw new CircuitBreakerOpenException(this.host);
+            }
+
+            this.phase.compareAndSet(current, new Phase(State.HALF_OPEN, System.nanoTime()));
+            current = this.phase.get();
+
+            if (current.state == State.CLOSED) {
+                return current;
+            }
+        }
+
+        if (current.state != State.HALF_OPEN || current.probes.incrementAndGet() > this.config.getHalfOpenProbes()) {
+            this.rejected.increment();
+            throw new CircuitBreakerOpenException(this.host);
+        }
+
+        return current;
+    }
+
+    void onResult(Phase admittedIn, long durationNanos, boolean failure) {
+        boolean slow = durationNanos >= TimeUnit.MILLISECONDS.toNanos(this.config.getSlowCallDurationMillis());
+
+        if (admittedIn.state == State.HALF_OPEN) {
+            if (failure || slow) {
+                this.phase.compareAndSet(admittedIn, new Phase(State.OPEN, System.nanoTime()));
+            } else if (admittedIn.successes.incrementAndGet() >= this.config.getHalfOpenProbes()) {
+                this.window.reset();
+                this.phase.compareAndSet(admittedIn, new Phase(State.CLOSED, System.nanoTime()));
+            }
+
+            return;
+        }
+
+        long now = System.nanoTime();
+        this.window.record(now, failure, slow);
+
+        // the window is only evaluated if this call could have crossed a threshold
+        if ((failure || slow) && admittedIn == this.phase.get()) {
+            long[] snapshot = this.window.snapshot(now);
+
+            if (snapshot[0] >= this.config.getMinimumCalls()
+                    && (snapshot[1] >= snapshot[0] * this.config.getFailureRateThreshold()
+                    || snapshot[2] >= snapshot[0] * this.config.getSlowCallRateThreshold())) {
+                this.phase.compareAndSet(admittedIn, new Phase(State.OPEN, now));
+            }
+        }
+    }
+
+    static final class Phase {
+
+        private final State state;
+        private final long sinceNanos;
+        private final AtomicInteger probes;
+        private final AtomicInteger successes;
+
+        private Phase(State state, long sinceNanos) {
+            this.state = state;
+            this.sinceNanos = sinceNanos;
+            this.probes = new AtomicInteger();
+            this.successes = new AtomicInteger();
+        }
+    }
+}
@@ -0,0 +1,140 @@
+package dev.codeflush.httpclient.client.breaker;
+
+import java.util.Objects;
+import java.util.function.IntPredicate;
+
+public class CircuitBreakerConfig {
+
+    public static final CircuitBreakerConfig DEFAULT = builder().build();
+
+    private final double failureRateThreshold;
+    private final double slowCallRateThreshold;
+    private final long slowCallDurationMillis;
+    private final int windowSeconds;
+    private final int minimumCalls;
+    private final long openDurationMillis;
+    private final int halfOpenProbes;
+    private final IntPredicate failureStatus;
+
+    private CircuitBreakerConfig(Builder builder) {
+        this.failureRateThreshold = builder.failureRateThreshold;
+        this.slowCallRateThreshold = builder.slowCallRateThreshold;
+        this.slowCallDurationMillis = builder.slowCallDurationMillis;
+        this.windowSeconds = builder.windowSeconds;
+        this.minimumCalls = builder.minimumCalls;
+        this.openDurationMillis = builder.openDurationMillis;
+        this.halfOpenProbes = builder.halfOpenProbes;
+        this.failureStatus = builder.failureStatus;
+    }
+
+    public double getFailureRateThreshold() {
+        return this.failureRateThreshold;
+    }
+
+    public double getSlowCallRateThreshold() {
+        return this.slowCallRateThreshold;
+    }
+
+    public long getSlowCallDurationMillis() {
+        return this.slowCallDurationMillis;
+    }
+
+    public int getWindowSeconds() {
+        return this.windowSeconds;
+    }
+
+    public int getMinimumCalls() {
+        return this.minimumCalls;
+    }
+
+    public long getOpenDurationMillis() {
+        return this.openDurationMillis;
+    }
+
+    public int getHalfOpenProbes() {
+        return this.halfOpenProbes;
+    }
+
+    public boolean isFailure(int responseCode) {
+        return this.failureStatus.test(responseCode);
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public static class Builder {
+
+        private double failureRateThreshold;
+        private double slowCallRateThreshold;
+        private long slowCallDurationMillis;
+        private int windowSeconds;
+        private int minimumCalls;
+        private long openDurationMillis;
+        private int halfOpenProbes;
+        private IntPredicate failureStatus;
+
+        private Builder() {
+            this.failureRateThreshold = 0.5;
+            this.slowCallRateThreshold = 1.0;
+            this.slowCallDurationMillis = 5000L;
+            this.windowSeconds = 10;
+            this.minimumCalls = 20;
+            this.openDurationMillis = 30_000L;
+            this.halfOpenProbes = 5;
+            this.failureStatus = (code) -> code >= 500;
+        }
+
+        public Builder failureRateThreshold(double failureRateThreshold) {
+            this.failureRateThreshold = rate(failureRateThreshold);
+            return this;
+        }
+
+        public Builder slowCallRateThreshold(double slowCallRateThreshold, long slowCallDurationMillis) {
+            this.slowCallRateThreshold = rate(slowCallRateThreshold);
+            this.slowCallDurationMillis = slowCallDurationMillis;
+            return this;
+        }
+
+        public Builder window(int windowSeconds, int minimumCalls) {
+            if (windowSeconds < 1 || minimumCalls < 1) {
+                throw new IllegalArgumentException("window and minimumCalls must be positive");
+            }
+
+            this.windowSeconds = windowSeconds;
+            this.minimumCalls = minimumCalls;
+            return this;
+        }
+
+        public Builder openDuration(long openDurationMillis) {
+            this.openDurationMillis = openDurationMillis;
+            return this;
+        }
+
+        public Builder halfOpenProbes(int halfOpenProbes) {
+            if (halfOpenProbes < 1) {
+                throw new IllegalArgumentException("at least one probe is required");
+            }
+
+            this.halfOpenProbes = halfOpenProbes;
+            return this;
+        }
+
+        public Builder failureStatus(IntPredicate failureStatus) {
+            this.failureStatus = Objects.requireNonNull(failureStatus);
+            return this;
+        }
+
+        public CircuitBreakerConfig build() {
+            return new CircuitBreakerConfig(this);
+        }
+
+        private static double rate(double rate) {
+            if (rate <= 0.0 || rate > 1.0) {
+                throw new IllegalArgumentException("rate must be in (0, 1]");
+            }
+
+            return rate;
+        }
+    }
+}
@@ -0,0 +1,17 @@
+package dev.codeflush.httpclient.client.breaker;
+
+import java.io.IOException;
+
+public class CircuitBreakerOpenException extends IOException {
+
+    private final String host;
+
+    public CircuitBreakerOpenException(String host) {
+        super("circuit breaker for " + host + " is open");
+        this.host = host;
+    }
+
+    public String getHost() {
+        return this.host;
+    }
+}
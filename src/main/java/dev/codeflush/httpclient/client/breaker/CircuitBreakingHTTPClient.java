@@ -0,0 +1,61 @@
+package dev.codeflush.httpclient.client.breaker;
+
+import dev.codeflush.httpclient.Response;
+import dev.codeflush.httpclient.client.HTTPClient;
+import dev.codeflush.httpclient.parser.ResponseParser;
+import dev.codeflush.httpclient.request.Request;
+
+import java.io.IOException;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+public class CircuitBreakingHTTPClient implements HTTPClient {
+
+    private final HTTPClient delegate;
+    private final CircuitBreakerConfig config;
+    private final ConcurrentMap<String, CircuitBreaker> breakers;
+
+    public CircuitBreakingHTTPClient(HTTPClient delegate, CircuitBreakerConfig config) {
+        this.delegate = Objects.requireNonNull(delegate);
+        this.config = Objects.requireNonNull(config);
+        this.breakers = new ConcurrentHashMap<>();
+    }
+
+    public CircuitBreakingHTTPClient(HTTPClient delegate) {
+        this(delegate, CircuitBreakerConfig.DEFAULT);
+    }
+
+    public CircuitBreaker getCircuitBreaker(String host) {
+        return this.breakers.get(host);
+    }
+
+    public Collection<CircuitBreaker> getCircuitBreakers() {
+        return Collections.unmodifiableCollection(this.breakers.values());
+    }
+
+    @Override
+    public <T> Response<T> execute(Request request, ResponseParser<? extends T> parser) throws IOException {
+        String host = request.getHostAndPort();
+        CircuitBreaker breaker = this.breakers.get(host);
+
+        if (breaker == null) {
+            breaker = this.breakers.computeIfAbsent(host, (key) -> new CircuitBreaker(key, this.config));
+        }
+
+        CircuitBreaker.Phase phase = breaker.acquire();
+        long start = System.nanoTime();
+        boolean failure = true;
+
+        try {
+            Response<T> response = this.delegate.execute(request, parser);
+            failure = this.config.isFailure(response.getResponseCode());
+
+            return new Response<>(this, response.getRequest(), response.getParser(), response.getResponseCode(), response.getHeaders(), response.getContentType(), response.getContentTypeCharset(), response.getValue());
+        } finally {
+            breaker.onResult(phase, System.nanoTime() - start, failure);
+        }
+    }
+}
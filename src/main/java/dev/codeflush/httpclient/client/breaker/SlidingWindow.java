@@ -0,0 +1,70 @@
+package dev.codeflush.httpclient.client.breaker;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+// one bucket per second, each bucket being [second, calls, failures, slow calls] in a single array;
+// a call racing with the reset of its bucket may get lost, which doesn't matter for a rate
+class SlidingWindow {
+
+    private static final int STRIDE = 4;
+    private static final int SECOND = 0;
+    private static final int CALLS = 1;
+    private static final int FAILURES = 2;
+    private static final int SLOW = 3;
+
+    private final int size;
+    private final AtomicLongArray buckets;
+
+    SlidingWindow(int seconds) {
+        this.size = seconds;
+        this.buckets = new AtomicLongArray(seconds * STRIDE);
+        reset();
+    }
+
+    void record(long nowNanos, boolean failure, boolean slow) {
+        long second = TimeUnit.NANOSECONDS.toSeconds(nowNanos);
+        int offset = (int) Math.floorMod(second, (long) this.size) * STRIDE;
+        long bucketSecond = this.buckets.get(offset + SECOND);
+
+        if (bucketSecond != second && this.buckets.compareAndSet(offset + SECOND, bucketSecond, second)) {
+            this.buckets.set(offset + CALLS, 0L);
+            this.buckets.set(offset + FAILURES, 0L);
+            this.buckets.set(offset + SLOW, 0L);
+        }
+
+        this.buckets.incrementAndGet(offset + CALLS);
+
+        if (failure) {
+            this.buckets.incrementAndGet(offset + FAILURES);
+        }
+
+        if (slow) {
+            this.buckets.incrementAndGet(offset + SLOW);
+        }
+    }
+
+    // [calls, failures, slow calls] of the last seconds
+    long[] snapshot(long nowNanos) {
+        long second = TimeUnit.NANOSECONDS.toSeconds(nowNanos);
+        long[] result = new long[3];
+
+        for (int offset = 0; offset < this.buckets.length(); offset += STRIDE) {
+            long bucketSecond = this.buckets.get(offset + SECOND);
+
+            if (bucketSecond > second - this.size && bucketSecond <= second) {
+                result[0] += this.buckets.get(offset + CALLS);
+                result[1] += this.buckets.get(offset + FAILURES);
+                result[2] += this.buckets.get(offset + SLOW);
+            }
+        }
+
+        return result;
+    }
+
+    void reset() {
+        for (int offset = 0; offset < this.buckets.length(); offset += STRIDE) {
+            this.buckets.set(offset + SECOND, Long.MIN_VALUE);
+        }
+    }
+}
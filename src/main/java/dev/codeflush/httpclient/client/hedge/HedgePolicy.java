@@ -0,0 +1,127 @@
+package dev.codeflush.httpclient.client.hedge;
+
+import dev.codeflush.httpclient.RequestMethod;
+
+import java.util.Objects;
+import java.util.function.Predicate;
+
+public class HedgePolicy {
+
+    public static final HedgePolicy DEFAULT = builder().build();
+
+    private final long fixedDelayMillis;
+    private final double percentile;
+    private final long minDelayMillis;
+    private final long maxDelayMillis;
+    private final int minSamples;
+    private final int maxOutstandingHedges;
+    private final Predicate<RequestMethod> hedgeableMethods;
+
+    private HedgePolicy(Builder builder) {
+        this.fixedDelayMillis = builder.fixedDelayMillis;
+        this.percentile = builder.percentile;
+        this.minDelayMillis = builder.minDelayMillis;
+        this.maxDelayMillis = builder.maxDelayMillis;
+        this.minSamples = builder.minSamples;
+        this.maxOutstandingHedges = builder.maxOutstandingHedges;
+        this.hedgeableMethods = builder.hedgeableMethods;
+    }
+
+    public boolean isFixedDelay() {
+        return this.fixedDelayMillis >= 0L;
+    }
+
+    public long getFixedDelayMillis() {
+        return this.fixedDelayMillis;
+    }
+
+    public double getPercentile() {
+        return this.percentile;
+    }
+
+    public long getMinDelayMillis() {
+        return this.minDelayMillis;
+    }
+
+    public long getMaxDelayMillis() {
+        return this.maxDelayMillis;
+    }
+
+    public int getMinSamples() {
+        return this.minSamples;
+    }
+
+    public int getMaxOutstandingHedges() {
+        return this.maxOutstandingHedges;
+    }
+
+    public boolean isHedgeable(RequestMethod method) {
+        return this.hedgeableMethods.test(method);
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public static class Builder {
+
+        private long fixedDelayMillis;
+        private double percentile;
+        private long minDelayMillis;
+        private long maxDelayMillis;
+        private int minSamples;
+        private int maxOutstandingHedges;
+        private Predicate<RequestMethod> hedgeableMethods;
+
+        private Builder() {
+            this.fixedDelayMillis = -1L;
+            this.percentile = 0.95;
+            this.minDelayMillis = 10L;
+            this.maxDelayMillis = 1000L;
+            this.minSamples = 100;
+            this.maxOutstandingHedges = 10;
+            this.hedgeableMethods = RequestMethod::isIdempotent;
+        }
+
+        public Builder fixedDelay(long delayMillis) {
+            if (delayMillis < 0L) {
+                throw new IllegalArgumentException("delay must not be negative");
+            }
+
+            this.fixedDelayMillis = delayMillis;
+            return this;
+        }
+
+        // until minSamples responses were observed maxDelayMillis is used
+        public Builder percentileDelay(double percentile, long minDelayMillis, long maxDelayMillis, int minSamples) {
+            if (percentile <= 0.0 || percentile >= 1.0 || minDelayMillis < 0L || maxDelayMillis < minDelayMillis || minSamples < 1) {
+                throw new IllegalArgumentException("invalid percentile delay");
+            }
+
+            this.fixedDelayMillis = -1L;
+            this.percentile = percentile;
+            this.minDelayMillis = minDelayMillis;
+            this.maxDelayMillis = maxDelayMillis;
+            this.minSamples = minSamples;
+            return this;
+        }
+
+        public Builder maxOutstandingHedges(int maxOutstandingHedges) {
+            if (maxOutstandingHedges < 0) {
+                throw new IllegalArgumentException("maxOutstandingHedges must not be negative");
+            }
+
+            this.maxOutstandingHedges = maxOutstandingHedges;
+            return this;
+        }
+
+        public Builder hedgeableMethods(Predicate<RequestMethod> hedgeableMethods) {
+            this.hedgeableMethods = Objects.requireNonNull(hedgeableMethods);
+            return this;
+        }
+
+        public HedgePolicy build() {
+            return new HedgePolicy(this);
+        }
+    }
+}
@@ -0,0 +1,324 @@
+package dev.codeflush.httpclient.client.hedge;
+
+import dev.codeflush.httpclient.Response;
+import dev.codeflush.httpclient.ResponseBody;
+import dev.codeflush.httpclient.client.HTTPClient;
+import dev.codeflush.httpclient.parser.ResponseBodyParser;
+import dev.codeflush.httpclient.parser.ResponseParser;
+import dev.codeflush.httpclient.request.Request;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.Objects;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+public class HedgingHTTPClient implements HTTPClient, Closeable {
+
+    private static final int LATENCY_WINDOW_SIZE = 1024;
+    private static final AtomicInteger THREAD_COUNT = new AtomicInteger();
+
+    private final HTTPClient delegate;
+    private final HedgePolicy policy;
+    private final Executor executor;
+    private final ExecutorService ownedExecutor;
+    private final LatencyWindow latencies;
+    private final AtomicInteger outstandingHedges;
+    private final LongAdder requests;
+    private final LongAdder hedgesFired;
+    private final LongAdder hedgesWon;
+    private final LongAdder hedgesRejected;
+
+    public HedgingHTTPClient(HTTPClient delegate, HedgePolicy policy, Executor executor) {
+        this(delegate, policy, Objects.requireNonNull(executor), null);
+    }
+
+    public HedgingHTTPClient(HTTPClient delegate, HedgePolicy policy) {
+        this(delegate, policy, null, defaultExecutor());
+    }
+
+    public HedgingHTTPClient(HTTPClient delegate) {
+        this(delegate, HedgePolicy.DEFAULT);
+    }
+
+    // the executor created by this client is shut down on close, one passed in belongs to the caller
+    private HedgingHTTPClient(HTTPClient delegate, HedgePolicy policy, Executor executor, ExecutorService ownedExecutor) {
+        this.delegate = Objects.requireNonNull(delegate);
+        this.policy = Objects.requireNonNull(policy);
+        this.ownedExecutor = ownedExecutor;
+        this.executor = (executor == null) ? ownedExecutor : executor;
+        this.latencies = new LatencyWindow(LATENCY_WINDOW_SIZE, policy.getPercentile());
+        this.outstandingHedges = new AtomicInteger();
+        this.requests = new LongAdder();
+        this.hedgesFired = new LongAdder();
+        this.hedgesWon = new LongAdder();
+        this.hedgesRejected = new LongAdder();
+    }
+
+    public long getHedgeDelayMillis() {
+        if (this.policy.isFixedDelay()) {
+            return this.policy.getFixedDelayMillis();
+        }
+
+        if (this.latencies.getCount() < this.policy.getMinSamples()) {
+            return this.policy.getMaxDelayMillis();
+        }
+
+        return Math.max(this.policy.getMinDelayMillis(), Math.min(this.policy.getMaxDelayMillis(), this.latencies.getPercentile()));
+    }
+
+    public long getRequests() {
+        return this.requests.sum();
+    }
+
+    public long getHedgesFired() {
+        return this.hedgesFired.sum();
+    }
+
+    public long getHedgesWon() {
+        return this.hedgesWon.sum();
+    }
+
+    public long getHedgesRejected() {
+        return this.hedgesRejected.sum();
+    }
+
+    public int getOutstandingHedges() {
+        return this.outstandingHedges.get();
+    }
+
+    @Override
+    public <T> Response<T> execute(Request request, ResponseParser<? extends T> parser) throws IOException {
+        this.requests.increment();
+
+        if (!this.policy.isHedgeable(request.getMethod()) || (request.getBody() != null && !request.getBody().isRepeatable())) {
+            return wrap(this.delegate.execute(request, parser));
+        }
+
+        Exchange exchange = new Exchange(request);
+        Attempt winner;
+
+        try {
+            exchange.submit(false);
+            winner = exchange.poll(getHedgeDelayMillis());
+
+            if (winner == null) {
+                if (tryAcquireHedge()) {
+                    this.hedgesFired.increment();
+                    exchange.submit(true);
+                } else {
+                    this.hedgesRejected.increment();
+                }
+
+                winner = exchange.take();
+            }
+
+            // a failed attempt only fails the request if there is no other attempt left
+            while (winner.failure != null && exchange.hasPending()) {
+                Attempt other = exchange.take();
+                other.addSuppressed(winner.failure);
+                winner = other;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("interrupted while waiting for a response");
+        } finally {
+            exchange.decide();
+        }
+
+        if (winner.failure instanceof IOException) {
+            throw (IOException) winner.failure;
+        } else if (winner.failure instanceof RuntimeException) {
+            throw (RuntimeException) winner.failure;
+        } else if (winner.failure != null) {
+            throw new IOException(winner.failure);
+        }
+
+        if (winner.hedge) {
+            this.hedgesWon.increment();
+        }
+
+        return parse(request, parser, winner.response);
+    }
+
+    @Override
+    public void close() {
+        if (this.ownedExecutor != null) {
+            this.ownedExecutor.shutdown();
+        }
+    }
+
+    private <T> Response<T> parse(Request request, ResponseParser<? extends T> parser, Response<ResponseBody> response) throws IOException {
+        ResponseBody body = response.getValue();
+        T value;
+
+        if (body == null) {
+            value = parser.getFallback(this, request);
+        } else if (parser.keepsStreamOpen()) {
+            try {
+                value = parser.parse(this, request, response.getResponseCode(), body.getInputStream(), response.getHeaders(), response.getContentType(), response.getContentTypeCharset());
+            } catch (IOException | RuntimeException e) {
+                body.close();
+                throw e;
+            }
+        } else {
+            try (ResponseBody closeable = body) {
+                value = parser.parse(this, request, response.getResponseCode(), closeable.getInputStream(), response.getHeaders(), response.getContentType(), response.getContentTypeCharset());
+            }
+        }
+
+        return new Response<>(this, request, parser, response.getResponseCode(), response.getHeaders(), response.getContentType(), response.getContentTypeCharset(), value);
+    }
+
+    private <T> Response<T> wrap(Response<T> response) {
+        return new Response<>(this, response.getRequest(), response.getParser(), response.getResponseCode(), response.getHeaders(), response.getContentType(), response.getContentTypeCharset(), response.getValue());
+    }
+
+    private boolean tryAcquireHedge() {
+        int current;
+        do {
+            current = this.outstandingHedges.get();
+
+            if (current >= this.policy.getMaxOutstandingHedges()) {
+                return false;
+            }
+        } while (!this.outstandingHedges.compareAndSet(current, current + 1));
+
+        return true;
+    }
+
+    private static ExecutorService defaultExecutor() {
+        return Executors.newCachedThreadPool((runnable) -> {
+            Thread thread = new Thread(runnable, "httpclient-hedge-" + THREAD_COUNT.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    private static final class Attempt {
+
+        private final boolean hedge;
+        private final Response<ResponseBody> response;
+        private final Throwable failure;
+
+        private Attempt(boolean hedge, Response<ResponseBody> response, Throwable failure) {
+            this.hedge = hedge;
+            this.response = response;
+            this.failure = failure;
+        }
+
+        private void addSuppressed(Throwable t) {
+            if (this.failure != null && this.failure != t) {
+                this.failure.addSuppressed(t);
+            }
+        }
+
+        private void discard() {
+            if (this.response != null && this.response.getValue() != null) {
+                try {
+                    this.response.getValue().close();
+                } catch (IOException ignored) {
+                }
+            }
+        }
+    }
+
+    private final class Exchange {
+
+        private final Request request;
+        private final BlockingQueue<Attempt> completed;
+        private int pending;
+        private boolean decided;
+
+        private Exchange(Request request) {
+            this.request = request;
+            this.completed = new LinkedBlockingQueue<>();
+            this.pending = 0;
+            this.decided = false;
+        }
+
+        private void submit(boolean hedge) {
+            synchronized (this) {
+                this.pending++;
+            }
+
+            executor.execute(() -> {
+                long start = System.nanoTime();
+                Attempt attempt;
+
+                try {
+                    Response<ResponseBody> response = delegate.execute(this.request, new AttemptParser());
+                    latencies.record(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+                    attempt = new Attempt(hedge, response, null);
+                } catch (Throwable t) {
+                    attempt = new Attempt(hedge, null, t);
+                } finally {
+                    if (hedge) {
+                        outstandingHedges.decrementAndGet();
+                    }
+                }
+
+                complete(attempt);
+            });
+        }
+
+        private void complete(Attempt attempt) {
+            synchronized (this) {
+                if (!this.decided) {
+                    this.completed.add(attempt);
+                    return;
+                }
+            }
+
+            // the loser: its connection is released as soon as it answered
+            attempt.discard();
+        }
+
+        private Attempt poll(long timeoutMillis) throws InterruptedException {
+            return taken(this.completed.poll(timeoutMillis, TimeUnit.MILLISECONDS));
+        }
+
+        private Attempt take() throws InterruptedException {
+            return taken(this.completed.take());
+        }
+
+        private synchronized Attempt taken(Attempt attempt) {
+            if (attempt != null) {
+                this.pending--;
+            }
+
+            return attempt;
+        }
+
+        private synchronized boolean hasPending() {
+            return this.pending > 0;
+        }
+
+        private void decide() {
+            synchronized (this) {
+                this.decided = true;
+            }
+
+            Attempt attempt;
+            while ((attempt = this.completed.poll()) != null) {
+                attempt.discard();
+            }
+        }
+    }
+
+    // like ResponseBodyParser, but keeps "no body" distinguishable so the real parser can return its fallback
+    private static final class AttemptParser extends ResponseBodyParser {
+
+        @Override
+        public ResponseBody getFallback(HTTPClient client, Request request) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package dev.codeflush.httpclient.client.hedge;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+// ring of the most recent latencies; the percentile is recalculated every RECALCULATE_EVERY samples only
+class LatencyWindow {
+
+    private static final int RECALCULATE_EVERY = 64;
+
+    private final AtomicLongArray samples;
+    private final AtomicLong count;
+    private final double percentile;
+    private volatile long cachedPercentile;
+
+    LatencyWindow(int size, double percentile) {
+        this.samples = new AtomicLongArray(size);
+        this.count = new AtomicLong();
+        this.percentile = percentile;
+        this.cachedPercentile = -1L;
+    }
+
+    void record(long latencyMillis) {
+        long n = this.count.getAndIncrement();
+        this.samples.set((int) (n % this.samples.length()), latencyMillis);
+
+        if ((n + 1) % RECALCULATE_EVERY == 0) {
+            recalculate();
+        }
+    }
+
+    long getCount() {
+        return this.count.get();
+    }
+
+    long getPercentile() {
+        if (this.cachedPercentile < 0L && this.count.get() > 0L) {
+            recalculate();
+        }
+
+        return this.cachedPercentile;
+    }
+
+    private void recalculate() {
+        int size = (int) Math.min(this.count.get(), this.samples.length());
+        long[] copy = new long[size];
+
+        for (int i = 0; i < size; i++) {
+            copy[i] = this.samples.get(i);
+        }
+
+        Arrays.sort(copy);
+        this.cachedPercentile = copy[Math.min(size - 1, (int) Math.ceil(this.percentile * size) - 1)];
+    }
+}
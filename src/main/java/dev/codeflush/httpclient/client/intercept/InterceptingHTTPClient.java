@@ -0,0 +1,210 @@
+package dev.codeflush.httpclient.client.intercept;
+
+import dev.codeflush.httpclient.Response;
+import dev.codeflush.httpclient.client.HTTPClient;
+import dev.codeflush.httpclient.parser.ResponseParser;
+import dev.codeflush.httpclient.request.Request;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.UnaryOperator;
+
+// runs the interceptors from a flat array: one Chain per call walks it by index, instead of one decorator (and its
+// execute frames) per concern. The last stage is the delegate
+public class InterceptingHTTPClient implements HTTPClient {
+
+    private final HTTPClient delegate;
+    private final Interceptor[] interceptors;
+    private final boolean network;
+    private final String[] names;
+    private final LongAdder[] calls;
+    private final LongAdder[] selfNanos;
+    private final InterceptingHTTPClient networkClient;
+
+    private InterceptingHTTPClient(HTTPClient delegate, List<? extends Interceptor> interceptors, boolean network, InterceptingHTTPClient networkClient) {
+        this.delegate = Objects.requireNonNull(delegate);
+        this.interceptors = interceptors.toArray(new Interceptor[0]);
+        this.network = network;
+        this.names = new String[this.interceptors.length + 1];
+        this.calls = new LongAdder[this.names.length];
+        this.selfNanos = new LongAdder[this.names.length];
+        this.networkClient = networkClient;
+
+        for (int i = 0; i < this.names.length; i++) {
+            this.names[i] = (i < this.interceptors.length) ? this.interceptors[i].name() : delegate.getClass().getSimpleName();
+            this.calls[i] = new LongAdder();
+            this.selfNanos[i] = new LongAdder();
+        }
+    }
+
+    public InterceptingHTTPClient(HTTPClient delegate, List<? extends Interceptor> interceptors) {
+        this(delegate, interceptors, false, null);
+    }
+
+    public InterceptingHTTPClient(HTTPClient delegate, Interceptor... interceptors) {
+        this(delegate, Arrays.asList(interceptors));
+    }
+
+    public static Builder builder(HTTPClient transport) {
+        return new Builder(transport);
+    }
+
+    // the stages in the order they run, the network stages (if built with network interceptors) last
+    public List<StageTiming> getTimings() {
+        List<StageTiming> networkTimings = (this.networkClient == null) ? Collections.emptyList() : this.networkClient.getTimings();
+        long networkNanos = networkTimings.stream().mapToLong(StageTiming::getSelfNanos).sum();
+        List<StageTiming> timings = new ArrayList<>();
+
+        for (int i = 0; i < this.names.length; i++) {
+            long selfNanos = this.selfNanos[i].sum();
+
+            if (i == this.interceptors.length && this.networkClient != null) {
+                // the delegate is the network chain itself, its stages follow
+                if (this.delegate == this.networkClient) {
+                    continue;
+                }
+
+                // the decorators around the network chain; concurrent attempts (hedging) may overlap
+                selfNanos = Math.max(0L, selfNanos - networkNanos);
+            }
+
+            timings.add(new StageTiming(this.names[i], this.network, this.calls[i].sum(), selfNanos));
+        }
+
+        timings.addAll(networkTimings);
+
+        return Collections.unmodifiableList(timings);
+    }
+
+    @Override
+    public <T> Response<T> execute(Request request, ResponseParser<? extends T> parser) throws IOException {
+        Response<T> response = new RealChain<T>(this, parser).proceed(request);
+
+        // short-circuit responses are created for this client already, only responses of the delegate are rewrapped
+        if (response.getClient() == this) {
+            return response;
+        }
+
+        return new Response<>(this, request, parser, response.getResponseCode(), response.getHeaders(), response.getContentType(), response.getContentTypeCharset(), response.getValue());
+    }
+
+    private void record(int stage, long selfNanos) {
+        this.calls[stage].increment();
+        this.selfNanos[stage].add(selfNanos);
+    }
+
+    private static final class RealChain<T> implements Interceptor.Chain<T> {
+
+        private final InterceptingHTTPClient client;
+        private final ResponseParser<? extends T> parser;
+        private Request request;
+        private int index;
+        // the total time of the stages after the current one, subtracted from its own time
+        private long downstreamNanos;
+
+        private RealChain(InterceptingHTTPClient client, ResponseParser<? extends T> parser) {
+            this.client = client;
+            this.parser = Objects.requireNonNull(parser);
+            this.request = null;
+            this.index = 0;
+            this.downstreamNanos = 0L;
+        }
+
+        @Override
+        public Request request() {
+            return this.request;
+        }
+
+        @Override
+        public ResponseParser<? extends T> parser() {
+            return this.parser;
+        }
+
+        @Override
+        public InterceptingHTTPClient client() {
+            return this.client;
+        }
+
+        // the next stage sees the state of the chain as if it was the first, the state of this stage is restored after
+        @Override
+        public Response<T> proceed(Request request) throws IOException {
+            Objects.requireNonNull(request);
+
+            int stage = this.index;
+            Request previous = this.request;
+            long outerDownstreamNanos = this.downstreamNanos;
+
+            this.request = request;
+            this.downstreamNanos = 0L;
+            long start = System.nanoTime();
+
+            try {
+                if (stage == this.client.interceptors.length) {
+                    return this.client.delegate.execute(request, this.parser);
+                }
+
+                Interceptor interceptor = this.client.interceptors[stage];
+                this.index = stage + 1;
+                Response<T> response = interceptor.intercept(this);
+
+                if (response == null) {
+                    throw new IllegalStateException(interceptor.name() + " returned no response");
+                }
+
+                return response;
+            } finally {
+                long elapsed = System.nanoTime() - start;
+                this.client.record(stage, elapsed - this.downstreamNanos);
+
+                this.index = stage;
+                this.request = previous;
+                this.downstreamNanos = outerDownstreamNanos + elapsed;
+            }
+        }
+    }
+
+    // application interceptors run once per call; network interceptors run around the transport, below the
+    // decorators, so they see every attempt of a retrying client
+    public static class Builder {
+
+        private final HTTPClient transport;
+        private final List<Interceptor> application;
+        private final List<Interceptor> network;
+        private UnaryOperator<HTTPClient> decorator;
+
+        private Builder(HTTPClient transport) {
+            this.transport = Objects.requireNonNull(transport);
+            this.application = new ArrayList<>();
+            this.network = new ArrayList<>();
+            this.decorator = UnaryOperator.identity();
+        }
+
+        public Builder addInterceptor(Interceptor interceptor) {
+            this.application.add(Objects.requireNonNull(interceptor));
+            return this;
+        }
+
+        public Builder addNetworkInterceptor(Interceptor interceptor) {
+            this.network.add(Objects.requireNonNull(interceptor));
+            return this;
+        }
+
+        // the decorators between the network and the application interceptors, e.g. a RetryingHTTPClient
+        public Builder decorate(UnaryOperator<HTTPClient> decorator) {
+            this.decorator = Objects.requireNonNull(decorator);
+            return this;
+        }
+
+        public InterceptingHTTPClient build() {
+            InterceptingHTTPClient networkClient = this.network.isEmpty() ? null : new InterceptingHTTPClient(this.transport, this.network, true, null);
+            HTTPClient decorated = this.decorator.apply((networkClient == null) ? this.transport : networkClient);
+
+            return new InterceptingHTTPClient(decorated, this.application, false, networkClient);
+        }
+    }
+}
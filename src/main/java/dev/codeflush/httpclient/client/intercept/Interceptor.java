@@ -0,0 +1,73 @@
+package dev.codeflush.httpclient.client.intercept;
+
+import dev.codeflush.httpclient.Response;
+import dev.codeflush.httpclient.parser.ResponseParser;
+import dev.codeflush.httpclient.request.Request;
+
+import java.io.IOException;
+import java.util.Objects;
+import java.util.function.Consumer;
+import java.util.function.UnaryOperator;
+
+// inspects or rewrites the request, calls chain.proceed() (any number of times) or short-circuits by returning a
+// Response of its own, and inspects or rewrites the response
+public interface Interceptor {
+
+    <T> Response<T> intercept(Chain<T> chain) throws IOException;
+
+    // the name of the stage in the timings
+    default String name() {
+        String name = getClass().getSimpleName();
+        return name.isEmpty() ? getClass().getName() : name;
+    }
+
+    static Interceptor onRequest(String name, UnaryOperator<Request> rewrite) {
+        Objects.requireNonNull(name);
+        Objects.requireNonNull(rewrite);
+
+        return new Interceptor() {
+            @Override
+            public <T> Response<T> intercept(Chain<T> chain) throws IOException {
+                return chain.proceed(rewrite.apply(chain.request()));
+            }
+
+            @Override
+            public String name() {
+                return name;
+            }
+        };
+    }
+
+    static Interceptor onResponse(String name, Consumer<Response<?>> consumer) {
+        Objects.requireNonNull(name);
+        Objects.requireNonNull(consumer);
+
+        return new Interceptor() {
+            @Override
+            public <T> Response<T> intercept(Chain<T> chain) throws IOException {
+                Response<T> response = chain.proceed(chain.request());
+                consumer.accept(response);
+
+                return response;
+            }
+
+            @Override
+            public String name() {
+                return name;
+            }
+        };
+    }
+
+    static Interceptor header(String key, String value) {
+        return onRequest("header " + key, (request) -> request.withHeader(key, value));
+    }
+
+    interface Chain<T> {
+
+        Request request();
+        ResponseParser<? extends T> parser();
+        // the client executing the chain, used to create short-circuit responses
+        InterceptingHTTPClient client();
+        Response<T> proceed(Request request) throws IOException;
+    }
+}
@@ -0,0 +1,44 @@
+package dev.codeflush.httpclient.client.intercept;
+
+import java.util.concurrent.TimeUnit;
+
+// the time spent inside one stage of the chain, without the time of the stages after it
+public class StageTiming {
+
+    private final String name;
+    private final boolean network;
+    private final long calls;
+    private final long selfNanos;
+
+    StageTiming(String name, boolean network, long calls, long selfNanos) {
+        this.name = name;
+        this.network = network;
+        this.calls = calls;
+        this.selfNanos = selfNanos;
+    }
+
+    public String getName() {
+        return this.name;
+    }
+
+    public boolean isNetwork() {
+        return this.network;
+    }
+
+    public long getCalls() {
+        return this.calls;
+    }
+
+    public long getSelfNanos() {
+        return this.selfNanos;
+    }
+
+    public double getAverageSelfMillis() {
+        return (this.calls == 0L) ? 0.0 : (double) this.selfNanos / this.calls / TimeUnit.MILLISECONDS.toNanos(1L);
+    }
+
+    @Override
+    public String toString() {
+        return "StageTiming[" + this.name + ", calls=" + this.calls + ", averageSelfMillis=" + getAverageSelfMillis() + "]";
+    }
+}
@@ -0,0 +1,50 @@
+package dev.codeflush.httpclient.client.limit;
+
+import java.util.concurrent.TimeUnit;
+
+// additive increase, multiplicative decrease: +1 per successful sample while the limit is in use, * backoffRatio per drop
+public class AIMDLimit implements LimitAlgorithm {
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final double backoffRatio;
+    private final long timeoutNanos;
+    private volatile int limit;
+
+    public AIMDLimit(int initialLimit, int minLimit, int maxLimit, double backoffRatio, long timeoutMillis) {
+        if (minLimit < 1 || maxLimit < minLimit || initialLimit < minLimit || initialLimit > maxLimit) {
+            throw new IllegalArgumentException("invalid limits");
+        }
+
+        if (backoffRatio <= 0.0 || backoffRatio >= 1.0) {
+            throw new IllegalArgumentException("backoffRatio must be between 0 and 1");
+        }
+
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.backoffRatio = backoffRatio;
+        this.timeoutNanos = TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+        this.limit = initialLimit;
+    }
+
+    public AIMDLimit() {
+        this(20, 1, 200, 0.9, 5000L);
+    }
+
+    @Override
+    public int getLimit() {
+        return this.limit;
+    }
+
+    @Override
+    public synchronized void onSample(long rttNanos, int inFlight, boolean dropped) {
+        int current = this.limit;
+
+        if (dropped || rttNanos > this.timeoutNanos) {
+            this.limit = Math.max(this.minLimit, Math.min(current - 1, (int) (current * this.backoffRatio)));
+        } else if (inFlight * 2 >= current) {
+            // only grow if the limit is actually the bottleneck
+            this.limit = Math.min(this.maxLimit, current + 1);
+        }
+    }
+}
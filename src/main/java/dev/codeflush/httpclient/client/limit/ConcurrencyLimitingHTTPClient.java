@@ -0,0 +1,73 @@
+package dev.codeflush.httpclient.client.limit;
+
+import dev.codeflush.httpclient.Response;
+import dev.codeflush.httpclient.client.HTTPClient;
+import dev.codeflush.httpclient.parser.ResponseParser;
+import dev.codeflush.httpclient.request.Request;
+
+import java.io.IOException;
+import java.net.HttpURLConnection;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Supplier;
+
+public class ConcurrencyLimitingHTTPClient implements HTTPClient {
+
+    private static final int HTTP_TOO_MANY_REQUESTS = 429;
+
+    private final HTTPClient delegate;
+    private final Supplier<? extends LimitAlgorithm> algorithmSupplier;
+    private final int maxQueueSize;
+    private final long maxWaitMillis;
+    private final ConcurrentMap<String, HostLimiter> limiters;
+
+    // maxWaitMillis = 0 rejects every request exceeding the limit immediately
+    public ConcurrencyLimitingHTTPClient(HTTPClient delegate, Supplier<? extends LimitAlgorithm> algorithmSupplier, int maxQueueSize, long maxWaitMillis) {
+        this.delegate = Objects.requireNonNull(delegate);
+        this.algorithmSupplier = Objects.requireNonNull(algorithmSupplier);
+        this.maxQueueSize = maxQueueSize;
+        this.maxWaitMillis = maxWaitMillis;
+        this.limiters = new ConcurrentHashMap<>();
+    }
+
+    public ConcurrencyLimitingHTTPClient(HTTPClient delegate, Supplier<? extends LimitAlgorithm> algorithmSupplier) {
+        this(delegate, algorithmSupplier, 50, 100L);
+    }
+
+    public ConcurrencyLimitingHTTPClient(HTTPClient delegate) {
+        this(delegate, AIMDLimit::new);
+    }
+
+    public HostLimiter getLimiter(String host) {
+        return this.limiters.get(host);
+    }
+
+    public Collection<HostLimiter> getLimiters() {
+        return Collections.unmodifiableCollection(this.limiters.values());
+    }
+
+    @Override
+    public <T> Response<T> execute(Request request, ResponseParser<? extends T> parser) throws IOException {
+        HostLimiter limiter = this.limiters.computeIfAbsent(
+                request.getHostAndPort(),
+                (host) -> new HostLimiter(host, this.algorithmSupplier.get(), this.maxQueueSize, this.maxWaitMillis)
+        );
+
+        limiter.acquire();
+
+        long start = System.nanoTime();
+        boolean dropped = true;
+
+        try {
+            Response<T> response = this.delegate.execute(request, parser);
+            dropped = response.getResponseCode() == HTTP_TOO_MANY_REQUESTS || response.getResponseCode() == HttpURLConnection.HTTP_UNAVAILABLE;
+
+            return new Response<>(this, response.getRequest(), response.getParser(), response.getResponseCode(), response.getHeaders(), response.getContentType(), response.getContentTypeCharset(), response.getValue());
+        } finally {
+            limiter.release(System.nanoTime() - start, dropped);
+        }
+    }
+}
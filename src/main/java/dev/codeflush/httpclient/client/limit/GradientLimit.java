@@ -0,0 +1,80 @@
+package dev.codeflush.httpclient.client.limit;
+
+// compares a short-term with a long-term average of the latency: once requests queue up at the server the short-term
+// average rises above the long-term one and the limit shrinks by that gradient
+public class GradientLimit implements LimitAlgorithm {
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final double shortSmoothing;
+    private final double longSmoothing;
+    private final double tolerance;
+    private double shortRtt;
+    private double longRtt;
+    private double estimatedLimit;
+    private volatile int limit;
+
+    public GradientLimit(int initialLimit, int minLimit, int maxLimit, int shortWindow, int longWindow, double tolerance) {
+        if (minLimit < 1 || maxLimit < minLimit || initialLimit < minLimit || initialLimit > maxLimit) {
+            throw new IllegalArgumentException("invalid limits");
+        }
+
+        if (shortWindow < 1 || longWindow <= shortWindow || tolerance < 1.0) {
+            throw new IllegalArgumentException("invalid windows or tolerance");
+        }
+
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.shortSmoothing = 2.0 / (shortWindow + 1);
+        this.longSmoothing = 2.0 / (longWindow + 1);
+        this.tolerance = tolerance;
+        this.shortRtt = 0.0;
+        this.longRtt = 0.0;
+        this.estimatedLimit = initialLimit;
+        this.limit = initialLimit;
+    }
+
+    public GradientLimit() {
+        this(20, 1, 200, 10, 600, 1.5);
+    }
+
+    @Override
+    public int getLimit() {
+        return this.limit;
+    }
+
+    @Override
+    public synchronized void onSample(long rttNanos, int inFlight, boolean dropped) {
+        if (dropped) {
+            this.estimatedLimit = Math.max(this.minLimit, this.estimatedLimit * 0.9);
+            this.limit = (int) this.estimatedLimit;
+            return;
+        }
+
+        if (this.longRtt == 0.0) {
+            this.shortRtt = rttNanos;
+            this.longRtt = rttNanos;
+        } else {
+            this.shortRtt += this.shortSmoothing * (rttNanos - this.shortRtt);
+            this.longRtt += this.longSmoothing * (rttNanos - this.longRtt);
+        }
+
+        // the long-term average follows a recovered server faster than it followed the degradation
+        if (this.longRtt / this.shortRtt > 2.0) {
+            this.longRtt *= 0.95;
+        }
+
+        // an idle client learns nothing about the capacity of the server
+        if (inFlight < this.estimatedLimit / 2) {
+            return;
+        }
+
+        double gradient = Math.max(0.5, Math.min(1.0, this.tolerance * this.longRtt / this.shortRtt));
+        double queueSize = Math.sqrt(this.estimatedLimit);
+        double newLimit = this.estimatedLimit * gradient + queueSize;
+
+        // smooth the change so a single outlier doesn't halve the limit
+        this.estimatedLimit = Math.max(this.minLimit, Math.min(this.maxLimit, 0.8 * this.estimatedLimit + 0.2 * newLimit));
+        this.limit = (int) this.estimatedLimit;
+    }
+}
@@ -0,0 +1,106 @@
+package dev.codeflush.httpclient.client.limit;
+
+import java.io.InterruptedIOException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+public class HostLimiter {
+
+    private final String host;
+    private final LimitAlgorithm algorithm;
+    private final int maxQueueSize;
+    private final long maxWaitNanos;
+    private final AtomicInteger inFlight;
+    private final AtomicInteger queued;
+    private final ReentrantLock lock;
+    private final Condition released;
+
+    HostLimiter(String host, LimitAlgorithm algorithm, int maxQueueSize, long maxWaitMillis) {
+        this.host = host;
+        this.algorithm = algorithm;
+        this.maxQueueSize = maxQueueSize;
+        this.maxWaitNanos = TimeUnit.MILLISECONDS.toNanos(maxWaitMillis);
+        this.inFlight = new AtomicInteger();
+        this.queued = new AtomicInteger();
+        this.lock = new ReentrantLock();
+        this.released = this.lock.newCondition();
+    }
+
+    public String getHost() {
+        return this.host;
+    }
+
+    public int getLimit() {
+        return this.algorithm.getLimit();
+    }
+
+    public int getInFlight() {
+        return this.inFlight.get();
+    }
+
+    public int getQueueDepth() {
+        return this.queued.get();
+    }
+
+    void acquire() throws LimitExceededException, InterruptedIOException {
+        if (tryAcquire()) {
+            return;
+        }
+
+        if (this.maxWaitNanos <= 0L || this.queued.incrementAndGet() > this.maxQueueSize) {
+            if (this.maxWaitNanos > 0L) {
+                this.queued.decrementAndGet();
+            }
+
+            throw new LimitExceededException(this.host, getLimit());
+        }
+
+        this.lock.lock();
+        try {
+            long remaining = this.maxWaitNanos;
+
+            while (!tryAcquire()) {
+                if (remaining <= 0L) {
+                    throw new LimitExceededException(this.host, getLimit());
+                }
+
+                remaining = this.released.awaitNanos(remaining);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("interrupted while waiting for a free slot for " + this.host);
+        } finally {
+            this.queued.decrementAndGet();
+            this.lock.unlock();
+        }
+    }
+
+    void release(long rttNanos, boolean dropped) {
+        int current = this.inFlight.getAndDecrement();
+        this.algorithm.onSample(rttNanos, current, dropped);
+
+        if (this.queued.get() > 0) {
+            this.lock.lock();
+            try {
+                this.released.signal();
+            } finally {
+                this.lock.unlock();
+            }
+        }
+    }
+
+    private boolean tryAcquire() {
+        int current;
+        do {
+            current = this.inFlight.get();
+
+            if (current >= this.algorithm.getLimit()) {
+                return false;
+            }
+        } while (!this.inFlight.compareAndSet(current, current + 1));
+
+        return true;
+    }
+}
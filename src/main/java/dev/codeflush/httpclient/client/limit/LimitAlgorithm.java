@@ -0,0 +1,10 @@
+package dev.codeflush.httpclient.client.limit;
+
+// implementations are shared by all requests to a host and must be threadsafe
+public interface LimitAlgorithm {
+
+    int getLimit();
+
+    // dropped: the request failed or the server signaled overload
+    void onSample(long rttNanos, int inFlight, boolean dropped);
+}
@@ -0,0 +1,23 @@
+package dev.codeflush.httpclient.client.limit;
+
+import java.io.IOException;
+
+public class LimitExceededException extends IOException {
+
+    private final String host;
+    private final int limit;
+
+    public LimitExceededException(String host, int limit) {
+        super("concurrency limit of " + limit + " exceeded for " + host);
+        this.host = host;
+        this.limit = limit;
+    }
+
+    public String getHost() {
+        return this.host;
+    }
+
+    public int getLimit() {
+        return this.limit;
+    }
+}
@@ -0,0 +1,308 @@
+package dev.codeflush.httpclient.client.progress;
+
+import dev.codeflush.httpclient.client.TimerWheel;
+import dev.codeflush.httpclient.request.Request;
+
+import java.io.FilterInputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.SocketTimeoutException;
+import java.util.ArrayDeque;
+import java.util.Iterator;
+import java.util.concurrent.TimeUnit;
+
+// one direction of a transfer. The bytes are counted on the transferring thread, the stall detection runs on the timer
+// thread and only reads the count.
+final class Meter implements Runnable {
+
+    private final Transfer transfer;
+    private final Request request;
+    private final Progress.Direction direction;
+    private final ProgressPolicy policy;
+    private final ProgressListener listener;
+    private final long intervalNanos;
+    private final long windowNanos;
+    private final long checkMillis;
+    private volatile long bytes;
+    private volatile boolean active;
+    private volatile TransferStalledException stalled;
+    private volatile TimerWheel.Timeout check;
+    // (nanoTime, bytes) pairs of the stall checks within the window, only used by the timer thread after the start
+    private volatile ArrayDeque<long[]> samples;
+    private long totalBytes;
+    private long startNanos;
+    private long lastBytesNanos;
+    private long lastNotifyNanos;
+    private long lastNotifyBytes;
+    private double bytesPerSecond;
+
+    Meter(Transfer transfer, Request request, Progress.Direction direction, ProgressPolicy policy, ProgressListener listener) {
+        this.transfer = transfer;
+        this.request = request;
+        this.direction = direction;
+        this.policy = policy;
+        this.listener = listener;
+        this.intervalNanos = TimeUnit.MILLISECONDS.toNanos(policy.getIntervalMillis());
+        this.windowNanos = TimeUnit.MILLISECONDS.toNanos(policy.getStallWindowMillis());
+        this.checkMillis = Math.max(10L, policy.getStallWindowMillis() / 4L);
+        this.samples = null;
+        this.bytes = 0L;
+        this.active = false;
+        this.stalled = null;
+        this.check = null;
+        this.totalBytes = Progress.UNKNOWN;
+        this.bytesPerSecond = 0.0;
+    }
+
+    TransferStalledException getStalled() {
+        return this.stalled;
+    }
+
+    // a retried request starts over
+    void start(long totalBytes) {
+        this.totalBytes = totalBytes;
+        this.startNanos = System.nanoTime();
+        this.lastNotifyNanos = this.startNanos;
+        this.lastBytesNanos = this.startNanos;
+        this.lastNotifyBytes = 0L;
+        this.bytes = 0L;
+        this.bytesPerSecond = 0.0;
+        this.active = true;
+
+        if (this.policy.isStallDetectionEnabled()) {
+            this.samples = new ArrayDeque<>();
+            this.samples.add(new long[]{this.startNanos, 0L});
+            this.check = TimerWheel.shared().schedule(this, this.checkMillis);
+        }
+    }
+
+    void add(long count) throws TransferStalledException {
+        throwIfStalled();
+        this.bytes += count;
+
+        long now = System.nanoTime();
+        this.lastBytesNanos = now;
+
+        if (now - this.lastNotifyNanos >= this.intervalNanos) {
+            notify(now, false);
+        }
+    }
+
+    void finish() {
+        if (stop()) {
+            notify(System.nanoTime(), true);
+        }
+    }
+
+    // returns true if the meter was active
+    boolean stop() {
+        if (!this.active) {
+            return false;
+        }
+
+        this.active = false;
+        TimerWheel.Timeout check = this.check;
+
+        if (check != null) {
+            check.cancel();
+        }
+
+        return true;
+    }
+
+    IOException translate(IOException e) {
+        long now = System.nanoTime();
+
+        // the read timed out and nothing arrived within the window
+        if (this.stalled == null && this.active && e instanceof SocketTimeoutException && this.policy.isStallDetectionEnabled() && now - this.lastBytesNanos >= this.windowNanos) {
+            this.stalled = stalled(now, 0.0);
+            stop();
+        }
+
+        TransferStalledException stalled = this.stalled;
+
+        if (stalled == null || stalled == e) {
+            return e;
+        }
+
+        if (stalled.getCause() == null) {
+            stalled.initCause(e);
+        }
+
+        return stalled;
+    }
+
+    OutputStream wrap(OutputStream out) {
+        return new FilterOutputStream(out) {
+            @Override
+            public void write(int b) throws IOException {
+                try {
+                    this.out.write(b);
+                } catch (IOException e) {
+                    throw translate(e);
+                }
+
+                add(1L);
+            }
+
+            @Override
+            public void write(byte[] b, int off, int len) throws IOException {
+                try {
+                    this.out.write(b, off, len);
+                } catch (IOException e) {
+                    throw translate(e);
+                }
+
+                add(len);
+            }
+
+            @Override
+            public void flush() throws IOException {
+                try {
+                    this.out.flush();
+                } catch (IOException e) {
+                    throw translate(e);
+                }
+            }
+        };
+    }
+
+    // reaching the end or closing the stream finishes the download
+    InputStream wrap(InputStream in) {
+        return new FilterInputStream(in) {
+            @Override
+            public int read() throws IOException {
+                int b;
+
+                try {
+                    b = super.read();
+                } catch (IOException e) {
+                    throw translate(e);
+                }
+
+                if (b == -1) {
+                    finish();
+                } else {
+                    add(1L);
+                }
+
+                return b;
+            }
+
+            @Override
+            public int read(byte[] b, int off, int len) throws IOException {
+                int read;
+
+                try {
+                    read = super.read(b, off, len);
+                } catch (IOException e) {
+                    throw translate(e);
+                }
+
+                if (read == -1) {
+                    finish();
+                } else {
+                    add(read);
+                }
+
+                return read;
+            }
+
+            @Override
+            public long skip(long n) throws IOException {
+                long skipped;
+
+                try {
+                    skipped = super.skip(n);
+                } catch (IOException e) {
+                    throw translate(e);
+                }
+
+                add(skipped);
+                return skipped;
+            }
+
+            @Override
+            public void close() throws IOException {
+                stop();
+                super.close();
+            }
+        };
+    }
+
+    // the stall check on the timer thread
+    @Override
+    public void run() {
+        if (!this.active) {
+            return;
+        }
+
+        ArrayDeque<long[]> samples = this.samples;
+        long now = System.nanoTime();
+        long bytes = this.bytes;
+        samples.addLast(new long[]{now, bytes});
+
+        // keep exactly one sample that is at least as old as the window
+        while (samples.size() > 1 && now - secondOldest(samples)[0] >= this.windowNanos) {
+            samples.removeFirst();
+        }
+
+        long[] oldest = samples.peekFirst();
+
+        if (now - oldest[0] >= this.windowNanos) {
+            double rate = (bytes - oldest[1]) * 1e9 / (now - oldest[0]);
+
+            if (rate < this.policy.getMinBytesPerSecond()) {
+                this.stalled = stalled(now, rate);
+                this.active = false;
+                this.transfer.abort();
+                return;
+            }
+        }
+
+        this.check = TimerWheel.shared().schedule(this, this.checkMillis);
+
+        // stopped while the check was running
+        if (!this.active) {
+            this.check.cancel();
+        }
+    }
+
+    private static long[] secondOldest(ArrayDeque<long[]> samples) {
+        Iterator<long[]> iterator = samples.iterator();
+        iterator.next();
+        return iterator.next();
+    }
+
+    private TransferStalledException stalled(long now, double rate) {
+        return new TransferStalledException(progress(now, false), rate, this.policy.getMinBytesPerSecond(), this.policy.getStallWindowMillis());
+    }
+
+    private void throwIfStalled() throws TransferStalledException {
+        TransferStalledException stalled = this.stalled;
+
+        if (stalled != null) {
+            throw stalled;
+        }
+    }
+
+    private void notify(long now, boolean done) {
+        long bytes = this.bytes;
+        long elapsedNanos = now - this.lastNotifyNanos;
+
+        if (elapsedNanos > 0L) {
+            double rate = (bytes - this.lastNotifyBytes) * 1e9 / elapsedNanos;
+            this.bytesPerSecond = (this.lastNotifyBytes == 0L && this.bytesPerSecond == 0.0) ? rate : this.bytesPerSecond + this.policy.getSmoothing() * (rate - this.bytesPerSecond);
+        }
+
+        this.lastNotifyNanos = now;
+        this.lastNotifyBytes = bytes;
+        this.listener.onProgress(progress(now, done));
+    }
+
+    private Progress progress(long now, boolean done) {
+        return new Progress(this.request, this.direction, this.bytes, this.totalBytes, now - this.startNanos, this.bytesPerSecond, done);
+    }
+}
@@ -0,0 +1,80 @@
+package dev.codeflush.httpclient.client.progress;
+
+import dev.codeflush.httpclient.request.Request;
+
+public class Progress {
+
+    public enum Direction {
+        UPLOAD,
+        DOWNLOAD
+    }
+
+    public static final long UNKNOWN = -1L;
+
+    private final Request request;
+    private final Direction direction;
+    private final long bytes;
+    private final long totalBytes;
+    private final long elapsedNanos;
+    private final double bytesPerSecond;
+    private final boolean done;
+
+    Progress(Request request, Direction direction, long bytes, long totalBytes, long elapsedNanos, double bytesPerSecond, boolean done) {
+        this.request = request;
+        this.direction = direction;
+        this.bytes = bytes;
+        this.totalBytes = totalBytes;
+        this.elapsedNanos = elapsedNanos;
+        this.bytesPerSecond = bytesPerSecond;
+        this.done = done;
+    }
+
+    public Request getRequest() {
+        return this.request;
+    }
+
+    public Direction getDirection() {
+        return this.direction;
+    }
+
+    public long getBytes() {
+        return this.bytes;
+    }
+
+    // from Content-Length or RequestBody.getContentLength(), UNKNOWN without one
+    public long getTotalBytes() {
+        return this.totalBytes;
+    }
+
+    // between 0 and 1, -1 if the total is unknown
+    public double getFraction() {
+        if (this.totalBytes == UNKNOWN) {
+            return -1.0;
+        }
+
+        return (this.totalBytes == 0L) ? 1.0 : Math.min(1.0, (double) this.bytes / this.totalBytes);
+    }
+
+    public long getElapsedMillis() {
+        return this.elapsedNanos / 1_000_000L;
+    }
+
+    // smoothed over the recent notifications
+    public double getBytesPerSecond() {
+        return this.bytesPerSecond;
+    }
+
+    public double getAverageBytesPerSecond() {
+        return (this.elapsedNanos <= 0L) ? 0.0 : this.bytes * 1e9 / this.elapsedNanos;
+    }
+
+    public boolean isDone() {
+        return this.done;
+    }
+
+    @Override
+    public String toString() {
+        return "Progress{" + this.direction + " " + this.request.getRequestURL() + ", " + this.bytes + "/" + this.totalBytes
+                + " bytes, " + (long) this.bytesPerSecond + " B/s" + (this.done ? ", done" : "") + "}";
+    }
+}
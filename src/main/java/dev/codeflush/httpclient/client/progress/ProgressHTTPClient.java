@@ -0,0 +1,181 @@
+package dev.codeflush.httpclient.client.progress;
+
+import dev.codeflush.httpclient.Response;
+import dev.codeflush.httpclient.client.HTTPClient;
+import dev.codeflush.httpclient.parser.ResponseParser;
+import dev.codeflush.httpclient.request.Request;
+import dev.codeflush.httpclient.request.body.RequestBody;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+
+// reports the progress of request bodies and response streams and aborts stalled transfers. The SimpleHTTPClient
+// aborts a stalled upload right away. A blocked read of the response, and any read or write with other clients, fails
+// once it returns or times out.
+public class ProgressHTTPClient implements HTTPClient {
+
+    private final HTTPClient delegate;
+    private final ProgressPolicy policy;
+    private final ProgressListener listener;
+
+    public ProgressHTTPClient(HTTPClient delegate, ProgressPolicy policy, ProgressListener listener) {
+        this.delegate = Objects.requireNonNull(delegate);
+        this.policy = Objects.requireNonNull(policy);
+        this.listener = Objects.requireNonNull(listener);
+    }
+
+    public ProgressHTTPClient(HTTPClient delegate, ProgressListener listener) {
+        this(delegate, ProgressPolicy.DEFAULT, listener);
+    }
+
+    public ProgressPolicy getPolicy() {
+        return this.policy;
+    }
+
+    @Override
+    public <T> Response<T> execute(Request request, ResponseParser<? extends T> parser) throws IOException {
+        return execute(request, parser, this.listener);
+    }
+
+    // reports to the given listener instead of the one of the client, e.g. to show the progress of one download
+    public <T> Response<T> execute(Request request, ResponseParser<? extends T> parser, ProgressListener listener) throws IOException {
+        Transfer transfer = new Transfer(request, this.policy, Objects.requireNonNull(listener));
+        Request measured = (request.getBody() == null) ? request : request.withBody(new ProgressBody(request.getBody(), transfer.getUpload()));
+        Response<T> response;
+        Transfer previous = transfer.activate();
+
+        try {
+            response = this.delegate.execute(measured, new ProgressParser<>(parser, transfer.getDownload()));
+        } catch (IOException e) {
+            // the abort surfaces as whatever the aborted exchange threw
+            TransferStalledException stalled = transfer.getStalled();
+
+            if (stalled == null || stalled == e) {
+                throw e;
+            }
+
+            if (stalled.getCause() == null) {
+                stalled.initCause(e);
+            }
+
+            throw stalled;
+        } finally {
+            Transfer.restore(previous);
+            transfer.getUpload().stop();
+        }
+
+        return new Response<>(this, request, parser, response.getResponseCode(), response.getHeaders(), response.getContentType(), response.getContentTypeCharset(), response.getValue());
+    }
+
+    private static long contentLength(Map<String, List<String>> headers) {
+        for (Map.Entry<String, List<String>> entry : headers.entrySet()) {
+            if ("Content-Length".equalsIgnoreCase(entry.getKey()) && !entry.getValue().isEmpty()) {
+                try {
+                    return Long.parseLong(entry.getValue().get(0).trim());
+                } catch (NumberFormatException e) {
+                    return Progress.UNKNOWN;
+                }
+            }
+        }
+
+        return Progress.UNKNOWN;
+    }
+
+    private static final class ProgressBody implements RequestBody {
+
+        private final RequestBody body;
+        private final Meter meter;
+
+        private ProgressBody(RequestBody body, Meter meter) {
+            this.body = body;
+            this.meter = meter;
+        }
+
+        @Override
+        public String getContentType() {
+            return this.body.getContentType();
+        }
+
+        @Override
+        public boolean isRepeatable() {
+            return this.body.isRepeatable();
+        }
+
+        @Override
+        public Optional<Integer> getContentLength() {
+            return this.body.getContentLength();
+        }
+
+        @Override
+        public RequestBody unwrap() {
+            return this.body;
+        }
+
+        @Override
+        public void write(OutputStream out) throws IOException {
+            this.meter.start(this.body.getContentLength().map(Integer::longValue).orElse(Progress.UNKNOWN));
+            boolean written = false;
+
+            try {
+                this.body.write(this.meter.wrap(out));
+                written = true;
+            } finally {
+                if (written) {
+                    this.meter.finish();
+                } else {
+                    this.meter.stop();
+                }
+            }
+        }
+    }
+
+    private static final class ProgressParser<T> implements ResponseParser<T> {
+
+        private final ResponseParser<? extends T> parser;
+        private final Meter meter;
+
+        private ProgressParser(ResponseParser<? extends T> parser, Meter meter) {
+            this.parser = parser;
+            this.meter = meter;
+        }
+
+        @Override
+        public T parse(HTTPClient client, Request request, int responseCode, InputStream stream, Map<String, List<String>> headers, String contentType, String charset) throws IOException {
+            this.meter.start(contentLength(headers));
+            boolean parsed = false;
+
+            try {
+                T value = this.parser.parse(client, request, responseCode, this.meter.wrap(stream), headers, contentType, charset);
+                parsed = true;
+                return value;
+            } finally {
+                // the stream of a parser keeping it open finishes once it was read or closed
+                if (!parsed) {
+                    this.meter.stop();
+                } else if (!this.parser.keepsStreamOpen()) {
+                    this.meter.finish();
+                }
+            }
+        }
+
+        @Override
+        public T getFallback(HTTPClient client, Request request) throws IOException {
+            return this.parser.getFallback(client, request);
+        }
+
+        @Override
+        public boolean keepsStreamOpen() {
+            return this.parser.keepsStreamOpen();
+        }
+
+        @Override
+        public ResponseParser<? extends T> unwrap() {
+            return this.parser;
+        }
+    }
+}
@@ -0,0 +1,8 @@
+package dev.codeflush.httpclient.client.progress;
+
+@FunctionalInterface
+public interface ProgressListener {
+
+    // called on the thread transferring the bytes, at most once per notification interval and once when done
+    void onProgress(Progress progress);
+}
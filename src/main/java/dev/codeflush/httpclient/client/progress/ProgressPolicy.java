@@ -0,0 +1,98 @@
+package dev.codeflush.httpclient.client.progress;
+
+public class ProgressPolicy {
+
+    public static final ProgressPolicy DEFAULT = builder().build();
+
+    private final long intervalMillis;
+    private final double smoothing;
+    private final long minBytesPerSecond;
+    private final long stallWindowMillis;
+
+    private ProgressPolicy(Builder builder) {
+        this.intervalMillis = builder.intervalMillis;
+        this.smoothing = builder.smoothing;
+        this.minBytesPerSecond = builder.minBytesPerSecond;
+        this.stallWindowMillis = builder.stallWindowMillis;
+    }
+
+    public long getIntervalMillis() {
+        return this.intervalMillis;
+    }
+
+    public double getSmoothing() {
+        return this.smoothing;
+    }
+
+    public boolean isStallDetectionEnabled() {
+        return this.stallWindowMillis > 0L;
+    }
+
+    public long getMinBytesPerSecond() {
+        return this.minBytesPerSecond;
+    }
+
+    public long getStallWindowMillis() {
+        return this.stallWindowMillis;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public static class Builder {
+
+        private long intervalMillis;
+        private double smoothing;
+        private long minBytesPerSecond;
+        private long stallWindowMillis;
+
+        private Builder() {
+            this.intervalMillis = 500L;
+            this.smoothing = 0.3;
+            this.minBytesPerSecond = 0L;
+            this.stallWindowMillis = 0L;
+        }
+
+        // listeners are notified at most once per interval, not once per buffer
+        public Builder interval(long intervalMillis) {
+            if (intervalMillis < 0L) {
+                throw new IllegalArgumentException("intervalMillis must not be negative");
+            }
+
+            this.intervalMillis = intervalMillis;
+            return this;
+        }
+
+        // the weight of the latest interval in the smoothed rate
+        public Builder smoothing(double smoothing) {
+            if (smoothing <= 0.0 || smoothing > 1.0) {
+                throw new IllegalArgumentException("smoothing must be within (0, 1]");
+            }
+
+            this.smoothing = smoothing;
+            return this;
+        }
+
+        // aborts a transfer that moved less than minBytesPerSecond on average within the last windowMillis
+        public Builder stallDetection(long minBytesPerSecond, long windowMillis) {
+            if (minBytesPerSecond <= 0L || windowMillis <= 0L) {
+                throw new IllegalArgumentException("minBytesPerSecond and windowMillis must be positive");
+            }
+
+            this.minBytesPerSecond = minBytesPerSecond;
+            this.stallWindowMillis = windowMillis;
+            return this;
+        }
+
+        public Builder withoutStallDetection() {
+            this.minBytesPerSecond = 0L;
+            this.stallWindowMillis = 0L;
+            return this;
+        }
+
+        public ProgressPolicy build() {
+            return new ProgressPolicy(this);
+        }
+    }
+}
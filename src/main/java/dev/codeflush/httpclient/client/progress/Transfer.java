@@ -0,0 +1,66 @@
+package dev.codeflush.httpclient.client.progress;
+
+import dev.codeflush.httpclient.request.Request;
+
+// the upload and download of one request. It is activated on the thread executing the request, so the client doing the
+// actual exchange can hand over a way to abort it: the streams of HttpURLConnection can't be closed while a read blocks.
+public final class Transfer {
+
+    private static final ThreadLocal<Transfer> CURRENT = new ThreadLocal<>();
+
+    private final Meter upload;
+    private final Meter download;
+    private volatile Runnable abort;
+
+    Transfer(Request request, ProgressPolicy policy, ProgressListener listener) {
+        this.upload = new Meter(this, request, Progress.Direction.UPLOAD, policy, listener);
+        this.download = new Meter(this, request, Progress.Direction.DOWNLOAD, policy, listener);
+        this.abort = null;
+    }
+
+    // the transfer of the request executed on this thread, null if there is none
+    public static Transfer current() {
+        return CURRENT.get();
+    }
+
+    // replaces the abort of a previous exchange, e.g. the one of a failed attempt before a retry
+    public void onAbort(Runnable abort) {
+        this.abort = abort;
+    }
+
+    Meter getUpload() {
+        return this.upload;
+    }
+
+    Meter getDownload() {
+        return this.download;
+    }
+
+    TransferStalledException getStalled() {
+        TransferStalledException stalled = this.upload.getStalled();
+        return (stalled == null) ? this.download.getStalled() : stalled;
+    }
+
+    void abort() {
+        Runnable abort = this.abort;
+
+        if (abort != null) {
+            abort.run();
+        }
+    }
+
+    // returns the transfer to restore afterwards
+    Transfer activate() {
+        Transfer previous = CURRENT.get();
+        CURRENT.set(this);
+        return previous;
+    }
+
+    static void restore(Transfer previous) {
+        if (previous == null) {
+            CURRENT.remove();
+        } else {
+            CURRENT.set(previous);
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package dev.codeflush.httpclient.client.progress;
+
+import java.io.InterruptedIOException;
+
+public class TransferStalledException extends InterruptedIOException {
+
+    private final Progress progress;
+    private final double bytesPerSecond;
+
+    public TransferStalledException(Progress progress, double bytesPerSecond, long minBytesPerSecond, long windowMillis) {
+        super(progress.getDirection().name().toLowerCase() + " of " + progress.getRequest().getRequestURL() + " stalled: "
+                + (long) bytesPerSecond + " B/s within " + windowMillis + "ms, at least " + minBytesPerSecond + " B/s required");
+        this.progress = progress;
+        this.bytesPerSecond = bytesPerSecond;
+    }
+
+    public Progress getProgress() {
+        return this.progress;
+    }
+
+    // the throughput within the window that fell below the floor
+    public double getBytesPerSecond() {
+        return this.bytesPerSecond;
+    }
+}
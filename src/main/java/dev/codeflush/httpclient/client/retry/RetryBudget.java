@@ -0,0 +1,99 @@
+package dev.codeflush.httpclient.client.retry;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+// limits retries to a ratio of the requests plus a small constant rate so a failing server isn't hit with maxAttempts times the load
+public class RetryBudget {
+
+    private static final long UNIT = 1000L;
+
+    private final long depositPerRequest;
+    private final long depositPerSecond;
+    private final long maxBalance;
+    private final AtomicLong balance;
+    private final AtomicLong lastRefill;
+
+    public RetryBudget(double retryRatio, int minRetriesPerSecond, int maxBalance) {
+        if (retryRatio < 0.0 || minRetriesPerSecond < 0 || maxBalance < 0) {
+            throw new IllegalArgumentException("budget parameters must not be negative");
+        }
+
+        this.depositPerRequest = (long) (retryRatio * UNIT);
+        this.depositPerSecond = minRetriesPerSecond * UNIT;
+        this.maxBalance = maxBalance * UNIT;
+        this.balance = new AtomicLong(this.maxBalance);
+        this.lastRefill = new AtomicLong(System.nanoTime());
+    }
+
+    public RetryBudget() {
+        this(0.2, 10, 100);
+    }
+
+    public static RetryBudget unlimited() {
+        return new RetryBudget(0.0, 0, 0) {
+            @Override
+            public void onRequest() {
+            }
+
+            @Override
+            public boolean tryRetry() {
+                return true;
+            }
+        };
+    }
+
+    public void onRequest() {
+        deposit(this.depositPerRequest);
+    }
+
+    public boolean tryRetry() {
+        refill();
+
+        long current;
+        do {
+            current = this.balance.get();
+
+            if (current < UNIT) {
+                return false;
+            }
+        } while (!this.balance.compareAndSet(current, current - UNIT));
+
+        return true;
+    }
+
+    public double getAvailableRetries() {
+        refill();
+        return this.balance.get() / (double) UNIT;
+    }
+
+    private void refill() {
+        if (this.depositPerSecond == 0L) {
+            return;
+        }
+
+        long now = System.nanoTime();
+        long last = this.lastRefill.get();
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(now - last);
+
+        // only the thread that moves lastRefill forward deposits the elapsed time
+        if (elapsedMillis > 0L && this.lastRefill.compareAndSet(last, now)) {
+            deposit(Math.min(this.maxBalance, elapsedMillis * this.depositPerSecond / 1000L));
+        }
+    }
+
+    private void deposit(long amount) {
+        if (amount == 0L) {
+            return;
+        }
+
+        long current;
+        do {
+            current = this.balance.get();
+
+            if (current >= this.maxBalance) {
+                return;
+            }
+        } while (!this.balance.compareAndSet(current, Math.min(this.maxBalance, current + amount)));
+    }
+}
@@ -0,0 +1,69 @@
+package dev.codeflush.httpclient.client.retry;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+public class RetryMetrics {
+
+    private final AtomicLongArray attempts;
+    private final LongAdder requests;
+    private final LongAdder retries;
+    private final LongAdder deniedByBudget;
+    private final LongAdder notRepeatable;
+
+    public RetryMetrics(int maxAttempts) {
+        this.attempts = new AtomicLongArray(maxAttempts + 1);
+        this.requests = new LongAdder();
+        this.retries = new LongAdder();
+        this.deniedByBudget = new LongAdder();
+        this.notRepeatable = new LongAdder();
+    }
+
+    void onCompleted(int attempts) {
+        this.requests.increment();
+        this.attempts.incrementAndGet(Math.min(attempts, this.attempts.length() - 1));
+    }
+
+    void onRetry() {
+        this.retries.increment();
+    }
+
+    void onDeniedByBudget() {
+        this.deniedByBudget.increment();
+    }
+
+    void onNotRepeatable() {
+        this.notRepeatable.increment();
+    }
+
+    public long getRequests() {
+        return this.requests.sum();
+    }
+
+    public long getRetries() {
+        return this.retries.sum();
+    }
+
+    public long getDeniedByBudget() {
+        return this.deniedByBudget.sum();
+    }
+
+    public long getNotRepeatable() {
+        return this.notRepeatable.sum();
+    }
+
+    // number of requests that completed after exactly n attempts
+    public long getRequestsWithAttempts(int n) {
+        return (n < 0 || n >= this.attempts.length()) ? 0L : this.attempts.get(n);
+    }
+
+    public long[] getAttemptsHistogram() {
+        long[] result = new long[this.attempts.length()];
+
+        for (int i = 0; i < result.length; i++) {
+            result[i] = this.attempts.get(i);
+        }
+
+        return result;
+    }
+}
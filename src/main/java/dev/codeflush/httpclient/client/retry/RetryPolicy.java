@@ -0,0 +1,154 @@
+package dev.codeflush.httpclient.client.retry;
+
+import dev.codeflush.httpclient.RequestMethod;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.net.SocketException;
+import java.net.SocketTimeoutException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Predicate;
+
+public class RetryPolicy {
+
+    public static final RetryPolicy DEFAULT = builder().build();
+
+    private final int maxAttempts;
+    private final long baseDelayMillis;
+    private final long maxDelayMillis;
+    private final Set<Integer> retryableStatusCodes;
+    private final Predicate<RequestMethod> retryableMethods;
+    private final Predicate<IOException> retryableExceptions;
+    private final boolean respectRetryAfter;
+
+    private RetryPolicy(Builder builder) {
+        this.maxAttempts = builder.maxAttempts;
+        this.baseDelayMillis = builder.baseDelayMillis;
+        this.maxDelayMillis = builder.maxDelayMillis;
+        this.retryableStatusCodes = Collections.unmodifiableSet(new HashSet<>(builder.retryableStatusCodes));
+        this.retryableMethods = builder.retryableMethods;
+        this.retryableExceptions = builder.retryableExceptions;
+        this.respectRetryAfter = builder.respectRetryAfter;
+    }
+
+    public int getMaxAttempts() {
+        return this.maxAttempts;
+    }
+
+    public long getBaseDelayMillis() {
+        return this.baseDelayMillis;
+    }
+
+    public long getMaxDelayMillis() {
+        return this.maxDelayMillis;
+    }
+
+    public Set<Integer> getRetryableStatusCodes() {
+        return this.retryableStatusCodes;
+    }
+
+    public boolean isRespectRetryAfter() {
+        return this.respectRetryAfter;
+    }
+
+    public boolean isRetryable(RequestMethod method) {
+        return this.retryableMethods.test(method);
+    }
+
+    public boolean isRetryable(int responseCode) {
+        return this.retryableStatusCodes.contains(responseCode);
+    }
+
+    public boolean isRetryable(IOException e) {
+        return this.retryableExceptions.test(e);
+    }
+
+    // "decorrelated jitter": the next delay is random between the base delay and three times the previous delay
+    public long nextDelayMillis(long previousDelayMillis) {
+        long upper = Math.max(this.baseDelayMillis, Math.min(this.maxDelayMillis, previousDelayMillis * 3L));
+
+        if (upper <= this.baseDelayMillis) {
+            return this.baseDelayMillis;
+        }
+
+        return ThreadLocalRandom.current().nextLong(this.baseDelayMillis, upper + 1L);
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public static boolean isTransient(IOException e) {
+        // connect failures, resets and timeouts; unknown hosts or TLS failures won't heal by trying again
+        return e instanceof SocketException || e instanceof SocketTimeoutException || e instanceof EOFException;
+    }
+
+    public static class Builder {
+
+        private int maxAttempts;
+        private long baseDelayMillis;
+        private long maxDelayMillis;
+        private Set<Integer> retryableStatusCodes;
+        private Predicate<RequestMethod> retryableMethods;
+        private Predicate<IOException> retryableExceptions;
+        private boolean respectRetryAfter;
+
+        private Builder() {
+            this.maxAttempts = 3;
+            this.baseDelayMillis = 100L;
+            this.maxDelayMillis = 10_000L;
+            this.retryableStatusCodes = new HashSet<>(Arrays.asList(429, 502, 503, 504));
+            this.retryableMethods = RequestMethod::isIdempotent;
+            this.retryableExceptions = RetryPolicy::isTransient;
+            this.respectRetryAfter = true;
+        }
+
+        public Builder maxAttempts(int maxAttempts) {
+            if (maxAttempts < 1) {
+                throw new IllegalArgumentException("maxAttempts must be at least 1");
+            }
+
+            this.maxAttempts = maxAttempts;
+            return this;
+        }
+
+        public Builder delay(long baseDelayMillis, long maxDelayMillis) {
+            if (baseDelayMillis < 0L || maxDelayMillis < baseDelayMillis) {
+                throw new IllegalArgumentException("invalid delay range");
+            }
+
+            this.baseDelayMillis = baseDelayMillis;
+            this.maxDelayMillis = maxDelayMillis;
+            return this;
+        }
+
+        public Builder retryableStatusCodes(Integer... statusCodes) {
+            this.retryableStatusCodes = new HashSet<>(Arrays.asList(statusCodes));
+            return this;
+        }
+
+        public Builder retryableMethods(Predicate<RequestMethod> retryableMethods) {
+            this.retryableMethods = Objects.requireNonNull(retryableMethods);
+            return this;
+        }
+
+        public Builder retryableExceptions(Predicate<IOException> retryableExceptions) {
+            this.retryableExceptions = Objects.requireNonNull(retryableExceptions);
+            return this;
+        }
+
+        public Builder respectRetryAfter(boolean respectRetryAfter) {
+            this.respectRetryAfter = respectRetryAfter;
+            return this;
+        }
+
+        public RetryPolicy build() {
+            return new RetryPolicy(this);
+        }
+    }
+}
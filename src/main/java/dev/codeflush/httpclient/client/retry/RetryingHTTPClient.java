@@ -0,0 +1,168 @@
+package dev.codeflush.httpclient.client.retry;
+
+import dev.codeflush.httpclient.Response;
+import dev.codeflush.httpclient.client.HTTPClient;
+import dev.codeflush.httpclient.parser.ResponseParser;
+import dev.codeflush.httpclient.request.Request;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.Objects;
+
+public class RetryingHTTPClient implements HTTPClient {
+
+    private final HTTPClient delegate;
+    private final RetryPolicy policy;
+    private final RetryBudget budget;
+    private final RetryMetrics metrics;
+
+    public RetryingHTTPClient(HTTPClient delegate, RetryPolicy policy, RetryBudget budget) {
+        this.delegate = Objects.requireNonNull(delegate);
+        this.policy = Objects.requireNonNull(policy);
+        this.budget = Objects.requireNonNull(budget);
+        this.metrics = new RetryMetrics(policy.getMaxAttempts());
+    }
+
+    public RetryingHTTPClient(HTTPClient delegate, RetryPolicy policy) {
+        this(delegate, policy, new RetryBudget());
+    }
+
+    public RetryingHTTPClient(HTTPClient delegate) {
+        this(delegate, RetryPolicy.DEFAULT);
+    }
+
+    public RetryPolicy getPolicy() {
+        return this.policy;
+    }
+
+    public RetryBudget getBudget() {
+        return this.budget;
+    }
+
+    public RetryMetrics getMetrics() {
+        return this.metrics;
+    }
+
+    @Override
+    public <T> Response<T> execute(Request request, ResponseParser<? extends T> parser) throws IOException {
+        this.budget.onRequest();
+
+        boolean retryable = this.policy.isRetryable(request.getMethod());
+
+        if (retryable && request.getBody() != null && !request.getBody().isRepeatable()) {
+            this.metrics.onNotRepeatable();
+            retryable = false;
+        }
+
+        long delayMillis = this.policy.getBaseDelayMillis();
+        int attempt = 1;
+
+        while (true) {
+            Response<T> response = null;
+            IOException failure = null;
+
+            try {
+                response = this.delegate.execute(request, parser);
+            } catch (IOException e) {
+                failure = e;
+            }
+
+            long retryAfterMillis = -1L;
+            boolean retry = retryable && attempt < this.policy.getMaxAttempts();
+
+            if (retry) {
+                if (failure != null) {
+                    retry = this.policy.isRetryable(failure);
+                } else {
+                    retry = this.policy.isRetryable(response.getResponseCode());
+
+                    if (retry && this.policy.isRespectRetryAfter()) {
+                        retryAfterMillis = parseRetryAfter(response.getHeader("Retry-After"));
+                        // the server asked us to wait longer than we are willing to
+                        retry = retryAfterMillis <= this.policy.getMaxDelayMillis();
+                    }
+                }
+            }
+
+            if (retry && !this.budget.tryRetry()) {
+                this.metrics.onDeniedByBudget();
+                retry = false;
+            }
+
+            if (!retry) {
+                this.metrics.onCompleted(attempt);
+
+                if (failure != null) {
+                    throw failure;
+                }
+
+                return new Response<>(
+                        this,
+                        response.getRequest(),
+                        response.getParser(),
+                        response.getResponseCode(),
+                        response.getHeaders(),
+                        response.getContentType(),
+                        response.getContentTypeCharset(),
+                        response.getValue()
+                );
+            }
+
+            if (response != null) {
+                discard(response.getValue());
+            }
+
+            delayMillis = (retryAfterMillis >= 0L) ? retryAfterMillis : this.policy.nextDelayMillis(delayMillis);
+            this.metrics.onRetry();
+            sleep(delayMillis);
+            attempt++;
+        }
+    }
+
+    // returns -1 if the header is missing or invalid, which falls back to the backoff delay
+    static long parseRetryAfter(String value) {
+        if (value == null || (value = value.trim()).isEmpty()) {
+            return -1L;
+        }
+
+        try {
+            return Math.max(0L, Long.parseLong(value) * 1000L);
+        } catch (NumberFormatException ignored) {
+        }
+
+        try {
+            ZonedDateTime date = ZonedDateTime.parse(value, DateTimeFormatter.RFC_1123_DATE_TIME);
+            return Math.max(0L, date.toInstant().toEpochMilli() - System.currentTimeMillis());
+        } catch (DateTimeParseException ignored) {
+        }
+
+        return -1L;
+    }
+
+    private static void discard(Object value) {
+        // streamed bodies of discarded attempts would otherwise keep their connection
+        if (value instanceof Closeable) {
+            try {
+                ((Closeable) value).close();
+            } catch (IOException ignored) {
+            }
+        }
+    }
+
+    private static void sleep(long millis) throws InterruptedIOException {
+        if (millis <= 0L) {
+            return;
+        }
+
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("interrupted while waiting for the next attempt");
+        }
+    }
+}
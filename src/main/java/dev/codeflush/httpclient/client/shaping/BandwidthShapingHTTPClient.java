@@ -0,0 +1,154 @@
+package dev.codeflush.httpclient.client.shaping;
+
+import dev.codeflush.httpclient.Response;
+import dev.codeflush.httpclient.client.HTTPClient;
+import dev.codeflush.httpclient.parser.ResponseParser;
+import dev.codeflush.httpclient.request.Request;
+import dev.codeflush.httpclient.request.body.RequestBody;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+// limits the bytes per second of request bodies and response streams globally, per host and per transfer. The body
+// is written through a stream, so bodies that could hand a file to the socket channel lose that when shaped.
+public class BandwidthShapingHTTPClient implements HTTPClient {
+
+    private final HTTPClient delegate;
+    private final ShapingPolicy policy;
+    private final Link global;
+    private final ConcurrentMap<String, Link> hosts;
+
+    public BandwidthShapingHTTPClient(HTTPClient delegate, ShapingPolicy policy) {
+        this.delegate = Objects.requireNonNull(delegate);
+        this.policy = Objects.requireNonNull(policy);
+        this.global = policy.createGlobalLink();
+        this.hosts = new ConcurrentHashMap<>();
+    }
+
+    public ShapingPolicy getPolicy() {
+        return this.policy;
+    }
+
+    public Link getGlobal() {
+        return this.global;
+    }
+
+    // null until the first request to a limited host
+    public Link getHost(String host) {
+        return this.hosts.get(host.toLowerCase());
+    }
+
+    public Collection<Link> getHosts() {
+        return Collections.unmodifiableCollection(this.hosts.values());
+    }
+
+    @Override
+    public <T> Response<T> execute(Request request, ResponseParser<? extends T> parser) throws IOException {
+        return execute(request, parser, this.policy.classify(request, parser));
+    }
+
+    // the traffic class of this request instead of the one of the classifier
+    public <T> Response<T> execute(Request request, ResponseParser<? extends T> parser, TrafficClass trafficClass) throws IOException {
+        // unlimited hosts aren't stored, computeIfAbsent doesn't map null
+        Link host = this.hosts.computeIfAbsent(request.getRequestURL().getHost().toLowerCase(), this.policy::createHostLink);
+        Throttle upload = throttle(host, trafficClass, true);
+        Throttle download = throttle(host, trafficClass, false);
+
+        Request shaped = (request.getBody() == null || !upload.isLimited()) ? request : request.withBody(new ShapedBody(request.getBody(), upload));
+        Response<T> response = this.delegate.execute(shaped, download.isLimited() ? new ShapedParser<>(parser, download) : parser);
+
+        return new Response<>(this, request, parser, response.getResponseCode(), response.getHeaders(), response.getContentType(), response.getContentTypeCharset(), response.getValue());
+    }
+
+    private Throttle throttle(Link host, TrafficClass trafficClass, boolean upload) {
+        List<TokenBucket> shared = new ArrayList<>(2);
+
+        if (this.global.get(upload) != null) {
+            shared.add(this.global.get(upload));
+        }
+
+        if (host != null && host.get(upload) != null) {
+            shared.add(host.get(upload));
+        }
+
+        TokenBucket own = Link.bucket(trafficClass.getBytesPerSecond(), this.policy.getBurstBytes());
+        return new Throttle(shared.toArray(new TokenBucket[0]), own, trafficClass.isInteractive());
+    }
+
+    private static final class ShapedBody implements RequestBody {
+
+        private final RequestBody body;
+        private final Throttle throttle;
+
+        private ShapedBody(RequestBody body, Throttle throttle) {
+            this.body = body;
+            this.throttle = throttle;
+        }
+
+        @Override
+        public String getContentType() {
+            return this.body.getContentType();
+        }
+
+        @Override
+        public boolean isRepeatable() {
+            return this.body.isRepeatable();
+        }
+
+        @Override
+        public Optional<Integer> getContentLength() {
+            return this.body.getContentLength();
+        }
+
+        @Override
+        public RequestBody unwrap() {
+            return this.body;
+        }
+
+        @Override
+        public void write(OutputStream out) throws IOException {
+            this.body.write(this.throttle.wrap(out));
+        }
+    }
+
+    private static final class ShapedParser<T> implements ResponseParser<T> {
+
+        private final ResponseParser<? extends T> parser;
+        private final Throttle throttle;
+
+        private ShapedParser(ResponseParser<? extends T> parser, Throttle throttle) {
+            this.parser = parser;
+            this.throttle = throttle;
+        }
+
+        @Override
+        public T parse(HTTPClient client, Request request, int responseCode, InputStream stream, Map<String, List<String>> headers, String contentType, String charset) throws IOException {
+            return this.parser.parse(client, request, responseCode, this.throttle.wrap(stream), headers, contentType, charset);
+        }
+
+        @Override
+        public T getFallback(HTTPClient client, Request request) throws IOException {
+            return this.parser.getFallback(client, request);
+        }
+
+        @Override
+        public boolean keepsStreamOpen() {
+            return this.parser.keepsStreamOpen();
+        }
+
+        @Override
+        public ResponseParser<? extends T> unwrap() {
+            return this.parser;
+        }
+    }
+}
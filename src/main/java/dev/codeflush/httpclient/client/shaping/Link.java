@@ -0,0 +1,41 @@
+package dev.codeflush.httpclient.client.shaping;
+
+// the buckets of one direction-separated link, either all traffic of the client or the traffic to one host.
+// A null bucket means the direction isn't limited.
+public class Link {
+
+    private final String name;
+    private final TokenBucket upload;
+    private final TokenBucket download;
+
+    Link(String name, long uploadBytesPerSecond, long downloadBytesPerSecond, long burstBytes) {
+        this.name = name;
+        this.upload = bucket(uploadBytesPerSecond, burstBytes);
+        this.download = bucket(downloadBytesPerSecond, burstBytes);
+    }
+
+    public String getName() {
+        return this.name;
+    }
+
+    public TokenBucket getUpload() {
+        return this.upload;
+    }
+
+    public TokenBucket getDownload() {
+        return this.download;
+    }
+
+    TokenBucket get(boolean upload) {
+        return upload ? this.upload : this.download;
+    }
+
+    static TokenBucket bucket(long bytesPerSecond, long burstBytes) {
+        return (bytesPerSecond == TrafficClass.UNLIMITED) ? null : new TokenBucket(bytesPerSecond, burstBytes);
+    }
+
+    @Override
+    public String toString() {
+        return "Link{" + this.name + ", upload=" + this.upload + ", download=" + this.download + "}";
+    }
+}
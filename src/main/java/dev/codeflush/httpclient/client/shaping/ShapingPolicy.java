@@ -0,0 +1,185 @@
+package dev.codeflush.httpclient.client.shaping;
+
+import dev.codeflush.httpclient.parser.ResponseParser;
+import dev.codeflush.httpclient.parser.SaveFileResponseParser;
+import dev.codeflush.httpclient.request.Request;
+import dev.codeflush.httpclient.request.body.FileRequestBody;
+import dev.codeflush.httpclient.request.body.InputStreamRequestBody;
+import dev.codeflush.httpclient.request.body.MultipartRequestBody;
+import dev.codeflush.httpclient.request.body.RequestBody;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.function.BiFunction;
+
+public class ShapingPolicy {
+
+    public static final long DEFAULT_BURST_BYTES = 64L * 1024L;
+
+    public static final long DEFAULT_BULK_THRESHOLD_BYTES = 1024L * 1024L;
+
+    // file and stream transfers and bodies that are larger than the threshold or of unknown length are bulk, everything
+    // else is interactive. Decorated bodies and parsers are unwrapped first, multipart bodies are bulk if any part is
+    public static final BiFunction<Request, ResponseParser<?>, TrafficClass> DEFAULT_CLASSIFIER = (request, parser) -> {
+        if (unwrap(parser) instanceof SaveFileResponseParser || isBulk(request.getBody())) {
+            return TrafficClass.BULK;
+        }
+
+        return TrafficClass.INTERACTIVE;
+    };
+
+    private final long globalUploadBytesPerSecond;
+    private final long globalDownloadBytesPerSecond;
+    private final long hostUploadBytesPerSecond;
+    private final long hostDownloadBytesPerSecond;
+    private final Map<String, long[]> hostRates;
+    private final long burstBytes;
+    private final BiFunction<Request, ResponseParser<?>, TrafficClass> classifier;
+
+    private ShapingPolicy(Builder builder) {
+        this.globalUploadBytesPerSecond = builder.globalUploadBytesPerSecond;
+        this.globalDownloadBytesPerSecond = builder.globalDownloadBytesPerSecond;
+        this.hostUploadBytesPerSecond = builder.hostUploadBytesPerSecond;
+        this.hostDownloadBytesPerSecond = builder.hostDownloadBytesPerSecond;
+        this.hostRates = Collections.unmodifiableMap(new HashMap<>(builder.hostRates));
+        this.burstBytes = builder.burstBytes;
+        this.classifier = builder.classifier;
+    }
+
+    public long getGlobalUploadBytesPerSecond() {
+        return this.globalUploadBytesPerSecond;
+    }
+
+    public long getGlobalDownloadBytesPerSecond() {
+        return this.globalDownloadBytesPerSecond;
+    }
+
+    public long getBurstBytes() {
+        return this.burstBytes;
+    }
+
+    public TrafficClass classify(Request request, ResponseParser<?> parser) {
+        return Objects.requireNonNull(this.classifier.apply(request, parser));
+    }
+
+    Link createGlobalLink() {
+        return new Link("*", this.globalUploadBytesPerSecond, this.globalDownloadBytesPerSecond, this.burstBytes);
+    }
+
+    // null if the host isn't limited at all
+    Link createHostLink(String host) {
+        long[] rates = this.hostRates.getOrDefault(host, new long[]{this.hostUploadBytesPerSecond, this.hostDownloadBytesPerSecond});
+
+        if (rates[0] == TrafficClass.UNLIMITED && rates[1] == TrafficClass.UNLIMITED) {
+            return null;
+        }
+
+        return new Link(host, rates[0], rates[1], this.burstBytes);
+    }
+
+    private static boolean isBulk(RequestBody body) {
+        if (body == null) {
+            return false;
+        }
+
+        body = unwrap(body);
+
+        if (body instanceof FileRequestBody || body instanceof InputStreamRequestBody) {
+            return true;
+        }
+
+        if (body instanceof MultipartRequestBody) {
+            for (RequestBody part : ((MultipartRequestBody<?>) body).getParts()) {
+                if (isBulk(part)) {
+                    return true;
+                }
+            }
+        }
+
+        Optional<Integer> length = body.getContentLength();
+        return !length.isPresent() || length.get() > DEFAULT_BULK_THRESHOLD_BYTES;
+    }
+
+    private static RequestBody unwrap(RequestBody body) {
+        RequestBody unwrapped = body.unwrap();
+        return (unwrapped == body) ? body : unwrap(unwrapped);
+    }
+
+    private static ResponseParser<?> unwrap(ResponseParser<?> parser) {
+        ResponseParser<?> unwrapped = parser.unwrap();
+        return (unwrapped == parser) ? parser : unwrap(unwrapped);
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public static class Builder {
+
+        private long globalUploadBytesPerSecond;
+        private long globalDownloadBytesPerSecond;
+        private long hostUploadBytesPerSecond;
+        private long hostDownloadBytesPerSecond;
+        private final Map<String, long[]> hostRates;
+        private long burstBytes;
+        private BiFunction<Request, ResponseParser<?>, TrafficClass> classifier;
+
+        private Builder() {
+            this.globalUploadBytesPerSecond = TrafficClass.UNLIMITED;
+            this.globalDownloadBytesPerSecond = TrafficClass.UNLIMITED;
+            this.hostUploadBytesPerSecond = TrafficClass.UNLIMITED;
+            this.hostDownloadBytesPerSecond = TrafficClass.UNLIMITED;
+            this.hostRates = new HashMap<>();
+            this.burstBytes = DEFAULT_BURST_BYTES;
+            this.classifier = DEFAULT_CLASSIFIER;
+        }
+
+        // 0 (TrafficClass.UNLIMITED) disables the limit of a direction
+        public Builder globalRate(long uploadBytesPerSecond, long downloadBytesPerSecond) {
+            this.globalUploadBytesPerSecond = check(uploadBytesPerSecond);
+            this.globalDownloadBytesPerSecond = check(downloadBytesPerSecond);
+            return this;
+        }
+
+        // the rate of every host without an own rate
+        public Builder hostRate(long uploadBytesPerSecond, long downloadBytesPerSecond) {
+            this.hostUploadBytesPerSecond = check(uploadBytesPerSecond);
+            this.hostDownloadBytesPerSecond = check(downloadBytesPerSecond);
+            return this;
+        }
+
+        public Builder hostRate(String host, long uploadBytesPerSecond, long downloadBytesPerSecond) {
+            this.hostRates.put(host.toLowerCase(), new long[]{check(uploadBytesPerSecond), check(downloadBytesPerSecond)});
+            return this;
+        }
+
+        public Builder burst(long burstBytes) {
+            if (burstBytes < 0L) {
+                throw new IllegalArgumentException("burstBytes must not be negative");
+            }
+
+            this.burstBytes = burstBytes;
+            return this;
+        }
+
+        public Builder classifier(BiFunction<Request, ResponseParser<?>, TrafficClass> classifier) {
+            this.classifier = Objects.requireNonNull(classifier);
+            return this;
+        }
+
+        public ShapingPolicy build() {
+            return new ShapingPolicy(this);
+        }
+
+        private static long check(long bytesPerSecond) {
+            if (bytesPerSecond < 0L) {
+                throw new IllegalArgumentException("bytesPerSecond must not be negative");
+            }
+
+            return bytesPerSecond;
+        }
+    }
+}
@@ -0,0 +1,120 @@
+package dev.codeflush.httpclient.client.shaping;
+
+import java.io.FilterInputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.util.concurrent.TimeUnit;
+
+// the buckets one direction of a single transfer has to pass
+final class Throttle {
+
+    // large writes are split so concurrent transfers take turns instead of one reserving seconds at once
+    static final int SLICE_BYTES = 16 * 1024;
+
+    private final TokenBucket[] shared;
+    private final TokenBucket own;
+    private final boolean interactive;
+
+    Throttle(TokenBucket[] shared, TokenBucket own, boolean interactive) {
+        this.shared = shared;
+        this.own = own;
+        this.interactive = interactive;
+    }
+
+    boolean isLimited() {
+        return this.shared.length > 0 || this.own != null;
+    }
+
+    // interactive transfers only wait for their own bucket, the shared buckets are charged without waiting
+    void acquire(long bytes) throws InterruptedIOException {
+        TokenBucket slowest = null;
+        long waitNanos = 0L;
+
+        if (this.own != null) {
+            waitNanos = this.own.take(bytes);
+            slowest = this.own;
+        }
+
+        for (TokenBucket bucket : this.shared) {
+            long bucketWaitNanos = bucket.take(bytes);
+
+            if (!this.interactive && bucketWaitNanos > waitNanos) {
+                waitNanos = bucketWaitNanos;
+                slowest = bucket;
+            }
+        }
+
+        if (waitNanos > 0L) {
+            slowest.onThrottled(waitNanos);
+
+            try {
+                TimeUnit.NANOSECONDS.sleep(waitNanos);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("interrupted while throttled");
+            }
+        }
+    }
+
+    OutputStream wrap(OutputStream out) {
+        return new FilterOutputStream(out) {
+            @Override
+            public void write(int b) throws IOException {
+                acquire(1L);
+                this.out.write(b);
+            }
+
+            @Override
+            public void write(byte[] b, int off, int len) throws IOException {
+                while (len > 0) {
+                    int slice = Math.min(len, SLICE_BYTES);
+                    acquire(slice);
+                    this.out.write(b, off, slice);
+                    off += slice;
+                    len -= slice;
+                }
+            }
+        };
+    }
+
+    // bytes are paid for after they were read, the next read waits for them
+    InputStream wrap(InputStream in) {
+        return new FilterInputStream(in) {
+            @Override
+            public int read() throws IOException {
+                int b = super.read();
+
+                if (b != -1) {
+                    acquire(1L);
+                }
+
+                return b;
+            }
+
+            @Override
+            public int read(byte[] b, int off, int len) throws IOException {
+                int read = super.read(b, off, Math.min(len, SLICE_BYTES));
+
+                if (read > 0) {
+                    acquire(read);
+                }
+
+                return read;
+            }
+
+            @Override
+            public long skip(long n) throws IOException {
+                long skipped = super.skip(Math.min(n, SLICE_BYTES));
+
+                if (skipped > 0L) {
+                    acquire(skipped);
+                }
+
+                return skipped;
+            }
+        };
+    }
+}
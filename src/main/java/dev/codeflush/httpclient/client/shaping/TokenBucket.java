@@ -0,0 +1,84 @@
+package dev.codeflush.httpclient.client.shaping;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+// a token bucket in the form of the generic cell rate algorithm: the whole state is the point in time at which the
+// bucket is full again, so taking tokens is a single compare-and-set. Callers take the tokens first and then wait for
+// the returned time, concurrent callers queue up in the order of their compare-and-set.
+public class TokenBucket {
+
+    private final long bytesPerSecond;
+    private final long burstBytes;
+    private final double nanosPerByte;
+    private final long burstNanos;
+    private final AtomicLong fullAtNanos;
+    private final LongAdder bytes;
+    private final LongAdder throttledNanos;
+
+    public TokenBucket(long bytesPerSecond, long burstBytes) {
+        if (bytesPerSecond <= 0L || burstBytes < 0L) {
+            throw new IllegalArgumentException("bytesPerSecond must be positive and burstBytes must not be negative");
+        }
+
+        this.bytesPerSecond = bytesPerSecond;
+        this.burstBytes = burstBytes;
+        this.nanosPerByte = (double) TimeUnit.SECONDS.toNanos(1L) / bytesPerSecond;
+        this.burstNanos = (long) (burstBytes * this.nanosPerByte);
+        this.fullAtNanos = new AtomicLong(System.nanoTime());
+        this.bytes = new LongAdder();
+        this.throttledNanos = new LongAdder();
+    }
+
+    public long getBytesPerSecond() {
+        return this.bytesPerSecond;
+    }
+
+    public long getBurstBytes() {
+        return this.burstBytes;
+    }
+
+    // bytes that can be taken right now without waiting, negative while callers wait for tokens
+    public long getAvailableBytes() {
+        long owedNanos = this.fullAtNanos.get() - System.nanoTime();
+        return (long) ((this.burstNanos - Math.max(0L, owedNanos)) / this.nanosPerByte);
+    }
+
+    public long getBytes() {
+        return this.bytes.sum();
+    }
+
+    public double getThrottledMillis() {
+        return this.throttledNanos.sum() / (double) TimeUnit.MILLISECONDS.toNanos(1L);
+    }
+
+    // takes the tokens for the given bytes even if there are not enough and returns the nanos to wait until they
+    // would have been available
+    public long take(long bytes) {
+        long cost = (long) Math.ceil(bytes * this.nanosPerByte);
+        long now;
+        long current;
+        long next;
+
+        do {
+            now = System.nanoTime();
+            current = this.fullAtNanos.get();
+            // an idle bucket doesn't accumulate more than the burst
+            next = ((current - now < 0L) ? now : current) + cost;
+        } while (!this.fullAtNanos.compareAndSet(current, next));
+
+        this.bytes.add(bytes);
+
+        return Math.max(0L, next - now - this.burstNanos);
+    }
+
+    void onThrottled(long nanos) {
+        this.throttledNanos.add(nanos);
+    }
+
+    @Override
+    public String toString() {
+        return "TokenBucket{rate=" + this.bytesPerSecond + "B/s, burst=" + this.burstBytes + "B, bytes=" + getBytes() + "}";
+    }
+}
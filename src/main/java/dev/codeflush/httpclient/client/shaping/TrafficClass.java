@@ -0,0 +1,52 @@
+package dev.codeflush.httpclient.client.shaping;
+
+import java.util.Objects;
+
+// interactive transfers are never delayed by the shared buckets, but their bytes still count against them so bulk
+// transfers make room for them. A rate limits every single transfer of the class on its own.
+public final class TrafficClass {
+
+    public static final long UNLIMITED = 0L;
+
+    public static final TrafficClass INTERACTIVE = new TrafficClass("interactive", true, UNLIMITED);
+    public static final TrafficClass BULK = new TrafficClass("bulk", false, UNLIMITED);
+
+    private final String name;
+    private final boolean interactive;
+    private final long bytesPerSecond;
+
+    private TrafficClass(String name, boolean interactive, long bytesPerSecond) {
+        if (bytesPerSecond < 0L) {
+            throw new IllegalArgumentException("bytesPerSecond must not be negative");
+        }
+
+        this.name = Objects.requireNonNull(name);
+        this.interactive = interactive;
+        this.bytesPerSecond = bytesPerSecond;
+    }
+
+    public static TrafficClass bulk(long bytesPerSecond) {
+        return BULK.withRate(bytesPerSecond);
+    }
+
+    public String getName() {
+        return this.name;
+    }
+
+    public boolean isInteractive() {
+        return this.interactive;
+    }
+
+    public long getBytesPerSecond() {
+        return this.bytesPerSecond;
+    }
+
+    public TrafficClass withRate(long bytesPerSecond) {
+        return new TrafficClass(this.name, this.interactive, bytesPerSecond);
+    }
+
+    @Override
+    public String toString() {
+        return "TrafficClass{" + this.name + ((this.bytesPerSecond == UNLIMITED) ? "" : ", rate=" + this.bytesPerSecond + "B/s") + "}";
+    }
+}
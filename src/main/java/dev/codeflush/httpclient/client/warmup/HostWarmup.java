@@ -0,0 +1,68 @@
+package dev.codeflush.httpclient.client.warmup;
+
+import dev.codeflush.httpclient.Endpoint;
+
+// counts probes, not connections: concurrent HEAD requests may share a connection that became idle in between, and
+// HttpURLConnection doesn't tell which socket served a request
+public class HostWarmup {
+
+    private final Endpoint endpoint;
+    private final String hostAndPort;
+    private final int probes;
+    private final int succeeded;
+    private final double resolveMillis;
+    private final double elapsedMillis;
+    private final Throwable failure;
+
+    HostWarmup(Endpoint endpoint, String hostAndPort, int probes, int succeeded, double resolveMillis, double elapsedMillis, Throwable failure) {
+        this.endpoint = endpoint;
+        this.hostAndPort = hostAndPort;
+        this.probes = probes;
+        this.succeeded = succeeded;
+        this.resolveMillis = resolveMillis;
+        this.elapsedMillis = elapsedMillis;
+        this.failure = failure;
+    }
+
+    public Endpoint getEndpoint() {
+        return this.endpoint;
+    }
+
+    public String getHostAndPort() {
+        return this.hostAndPort;
+    }
+
+    public int getProbes() {
+        return this.probes;
+    }
+
+    public int getSucceeded() {
+        return this.succeeded;
+    }
+
+    public int getFailed() {
+        return this.probes - this.succeeded;
+    }
+
+    public double getResolveMillis() {
+        return this.resolveMillis;
+    }
+
+    public double getElapsedMillis() {
+        return this.elapsedMillis;
+    }
+
+    // the last failure, null if every probe succeeded
+    public Throwable getFailure() {
+        return this.failure;
+    }
+
+    public boolean allSucceeded() {
+        return this.succeeded >= this.probes;
+    }
+
+    @Override
+    public String toString() {
+        return "HostWarmup[" + this.hostAndPort + ", " + "probes=" + this.succeeded + "/" + this.probes + ", elapsedMillis=" + this.elapsedMillis + ((this.failure == null) ? "" : ", failure=" + this.failure) + "]";
+    }
+}
@@ -0,0 +1,303 @@
+package dev.codeflush.httpclient.client.warmup;
+
+import dev.codeflush.httpclient.Endpoint;
+import dev.codeflush.httpclient.Response;
+import dev.codeflush.httpclient.client.HTTPClient;
+import dev.codeflush.httpclient.client.SimpleHTTPClient;
+import dev.codeflush.httpclient.client.TimerWheel;
+import dev.codeflush.httpclient.parser.NoOpResponseParser;
+import dev.codeflush.httpclient.parser.ResponseParser;
+import dev.codeflush.httpclient.request.Request;
+import dev.codeflush.httpclient.resolver.HappyEyeballs;
+import dev.codeflush.httpclient.resolver.Resolver;
+
+import javax.net.ssl.HttpsURLConnection;
+import javax.net.ssl.SSLSocket;
+import javax.net.ssl.SSLSocketFactory;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// opens connections ahead of the first requests: the host name is resolved, then connectionsPerHost connections are
+// opened in parallel, either by concurrent HEAD requests (they stay in the keep-alive cache of HttpURLConnection) or by
+// connecting and handshaking only. Warm hosts get their HEAD requests repeated until this client sends the first
+// request to them, so the idle connections don't expire before they are used
+public class PrewarmingHTTPClient implements HTTPClient, Closeable {
+
+    private static final AtomicInteger THREAD_COUNT = new AtomicInteger();
+
+    private final HTTPClient delegate;
+    private final WarmupPolicy policy;
+    private final Executor executor;
+    private final ExecutorService ownedExecutor;
+    private final Resolver resolver;
+    private final SSLSocketFactory sslSocketFactory;
+    private final ConcurrentMap<String, Refresh> unused;
+
+    // name resolution and handshakes use the resolver and TLS configuration of the delegate if it's a SimpleHTTPClient
+    public PrewarmingHTTPClient(HTTPClient delegate, WarmupPolicy policy, Executor executor) {
+        this(delegate, policy, Objects.requireNonNull(executor), null);
+    }
+
+    public PrewarmingHTTPClient(HTTPClient delegate, WarmupPolicy policy) {
+        this(delegate, policy, null, defaultExecutor());
+    }
+
+    public PrewarmingHTTPClient(HTTPClient delegate) {
+        this(delegate, WarmupPolicy.DEFAULT);
+    }
+
+    // the executor created by this client is shut down on close, one passed in belongs to the caller
+    private PrewarmingHTTPClient(HTTPClient delegate, WarmupPolicy policy, Executor executor, ExecutorService ownedExecutor) {
+        this.delegate = Objects.requireNonNull(delegate);
+        this.policy = Objects.requireNonNull(policy);
+        this.ownedExecutor = ownedExecutor;
+        this.executor = (executor == null) ? ownedExecutor : executor;
+
+        if (delegate instanceof SimpleHTTPClient) {
+            this.resolver = ((SimpleHTTPClient) delegate).getResolver();
+            this.sslSocketFactory = ((SimpleHTTPClient) delegate).getTlsSocketFactory();
+        } else {
+            this.resolver = Resolver.system();
+            this.sslSocketFactory = null;
+        }
+
+        this.unused = new ConcurrentHashMap<>();
+    }
+
+    public WarmupPolicy getPolicy() {
+        return this.policy;
+    }
+
+    // "host:port" of the warmed hosts that didn't receive a request yet
+    public Set<String> getUnusedHosts() {
+        return Collections.unmodifiableSet(this.unused.keySet());
+    }
+
+    // blocks until every host is warmed or the timeout of the policy elapsed
+    public WarmupReport warm(Collection<Endpoint> endpoints) throws InterruptedException {
+        long start = System.nanoTime();
+        long deadline = start + TimeUnit.MILLISECONDS.toNanos(this.policy.getTimeoutMillis());
+        List<Endpoint> ordered = new ArrayList<>(endpoints);
+        List<CompletableFuture<HostWarmup>> futures = new ArrayList<>(ordered.size());
+
+        for (Endpoint endpoint : ordered) {
+            futures.add(warm(endpoint));
+        }
+
+        List<HostWarmup> hosts = new ArrayList<>(ordered.size());
+
+        for (int i = 0; i < ordered.size(); i++) {
+            HostWarmup host;
+
+            try {
+                host = futures.get(i).get(Math.max(0L, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+            } catch (ExecutionException | TimeoutException e) {
+                Endpoint endpoint = ordered.get(i);
+                Throwable failure = (e instanceof TimeoutException) ? new IOException("warm-up timed out") : e.getCause();
+                host = new HostWarmup(endpoint, hostAndPort(endpoint), this.policy.getConnectionsPerHost(), 0, 0.0, millisSince(start), failure);
+            }
+
+            hosts.add(host);
+
+            if (this.policy.isHead() && this.policy.getRefreshMillis() > 0L && host.getSucceeded() > 0) {
+                Refresh refresh = new Refresh(host.getEndpoint());
+
+                if (this.unused.putIfAbsent(host.getHostAndPort(), refresh) == null) {
+                    refresh.schedule();
+                }
+            }
+        }
+
+        return new WarmupReport(hosts, millisSince(start));
+    }
+
+    public WarmupReport warm(Endpoint... endpoints) throws InterruptedException {
+        List<Endpoint> list = new ArrayList<>();
+        Collections.addAll(list, endpoints);
+
+        return warm(list);
+    }
+
+    @Override
+    public <T> Response<T> execute(Request request, ResponseParser<? extends T> parser) throws IOException {
+        if (!this.unused.isEmpty()) {
+            Refresh refresh = this.unused.remove(request.getHostAndPort());
+
+            if (refresh != null) {
+                refresh.cancel();
+            }
+        }
+
+        Response<T> response = this.delegate.execute(request, parser);
+        return new Response<>(this, response.getRequest(), response.getParser(), response.getResponseCode(), response.getHeaders(), response.getContentType(), response.getContentTypeCharset(), response.getValue());
+    }
+
+    // stops refreshing the unused hosts
+    @Override
+    public void close() {
+        this.unused.values().forEach(Refresh::cancel);
+        this.unused.clear();
+
+        if (this.ownedExecutor != null) {
+            this.ownedExecutor.shutdown();
+        }
+    }
+
+    private CompletableFuture<HostWarmup> warm(Endpoint endpoint) {
+        long start = System.nanoTime();
+        String hostAndPort = hostAndPort(endpoint);
+        URL url = endpoint.getURL();
+
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                return this.resolver.resolve(url.getHost());
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }, this.executor).thenCompose((addresses) -> {
+            double resolveMillis = millisSince(start);
+            List<CompletableFuture<Throwable>> connections = new ArrayList<>(this.policy.getConnectionsPerHost());
+
+            for (int i = 0; i < this.policy.getConnectionsPerHost(); i++) {
+                connections.add(CompletableFuture.supplyAsync(() -> connect(endpoint, addresses), this.executor));
+            }
+
+            return CompletableFuture.allOf(connections.toArray(new CompletableFuture[0])).thenApply((ignored) -> {
+                int succeeded = 0;
+                Throwable failure = null;
+
+                for (CompletableFuture<Throwable> connection : connections) {
+                    Throwable result = connection.join();
+
+                    if (result == null) {
+                        succeeded++;
+                    } else {
+                        failure = result;
+                    }
+                }
+
+                return new HostWarmup(endpoint, hostAndPort, this.policy.getConnectionsPerHost(), succeeded, resolveMillis, millisSince(start), failure);
+            });
+        }).exceptionally((e) -> {
+            Throwable failure = (e instanceof CompletionException && e.getCause() != null) ? e.getCause() : e;
+            failure = (failure instanceof UncheckedIOException) ? failure.getCause() : failure;
+
+            return new HostWarmup(endpoint, hostAndPort, this.policy.getConnectionsPerHost(), 0, millisSince(start), millisSince(start), failure);
+        });
+    }
+
+    // null on success, the failure otherwise
+    private Throwable connect(Endpoint endpoint, List<InetAddress> addresses) {
+        try {
+            if (this.policy.isHead()) {
+                // any status will do, the connection is what's needed
+                this.delegate.execute(endpoint.head().timeout(this.policy.getTimeoutMillis()).build(), new NoOpResponseParser());
+                return null;
+            }
+
+            URL url = endpoint.getURL();
+            int port = (url.getPort() == -1) ? url.getDefaultPort() : url.getPort();
+            int timeout = (int) Math.min(Integer.MAX_VALUE, this.policy.getTimeoutMillis());
+
+            try (Socket socket = HappyEyeballs.connect(addresses, port, timeout, HappyEyeballs.DEFAULT_ATTEMPT_DELAY_MILLIS)) {
+                if (Endpoint.HTTPS.equalsIgnoreCase(url.getProtocol())) {
+                    SSLSocketFactory factory = (this.sslSocketFactory == null) ? HttpsURLConnection.getDefaultSSLSocketFactory() : this.sslSocketFactory;
+
+                    try (SSLSocket ssl = (SSLSocket) factory.createSocket(socket, url.getHost(), port, true)) {
+                        ssl.setSoTimeout(timeout);
+                        ssl.startHandshake();
+                    }
+                }
+            }
+
+            return null;
+        } catch (IOException | RuntimeException e) {
+            return e;
+        }
+    }
+
+    private static String hostAndPort(Endpoint endpoint) {
+        return endpoint.get().build().getHostAndPort();
+    }
+
+    private static double millisSince(long startNanos) {
+        return (System.nanoTime() - startNanos) / (double) TimeUnit.MILLISECONDS.toNanos(1L);
+    }
+
+    private static ExecutorService defaultExecutor() {
+        return Executors.newCachedThreadPool((runnable) -> {
+            Thread thread = new Thread(runnable, "httpclient-warmup-" + THREAD_COUNT.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    // repeats the HEAD requests of an unused host, the requests run on the executor, not on the timer thread
+    private final class Refresh {
+
+        private final Endpoint endpoint;
+        private volatile TimerWheel.Timeout timeout;
+        private volatile boolean cancelled;
+
+        private Refresh(Endpoint endpoint) {
+            this.endpoint = endpoint;
+            this.timeout = null;
+            this.cancelled = false;
+        }
+
+        private void schedule() {
+            if (!this.cancelled) {
+                this.timeout = TimerWheel.shared().schedule(this::submit, PrewarmingHTTPClient.this.policy.getRefreshMillis());
+            }
+        }
+
+        private void submit() {
+            try {
+                PrewarmingHTTPClient.this.executor.execute(this::run);
+            } catch (RejectedExecutionException e) {
+                // closed in between
+            }
+        }
+
+        private void run() {
+            if (!this.cancelled) {
+                try {
+                    warm(this.endpoint).whenComplete((host, failure) -> schedule());
+                } catch (RejectedExecutionException e) {
+                    // closed in between
+                }
+            }
+        }
+
+        private void cancel() {
+            this.cancelled = true;
+            TimerWheel.Timeout timeout = this.timeout;
+
+            if (timeout != null) {
+                timeout.cancel();
+            }
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package dev.codeflush.httpclient.client.warmup;
+
+public class WarmupPolicy {
+
+    public static final WarmupPolicy DEFAULT = builder().build();
+
+    private final int connectionsPerHost;
+    private final boolean head;
+    private final long timeoutMillis;
+    private final long refreshMillis;
+
+    private WarmupPolicy(Builder builder) {
+        this.connectionsPerHost = builder.connectionsPerHost;
+        this.head = builder.head;
+        this.timeoutMillis = builder.timeoutMillis;
+        this.refreshMillis = builder.refreshMillis;
+    }
+
+    public int getConnectionsPerHost() {
+        return this.connectionsPerHost;
+    }
+
+    public boolean isHead() {
+        return this.head;
+    }
+
+    public long getTimeoutMillis() {
+        return this.timeoutMillis;
+    }
+
+    public long getRefreshMillis() {
+        return this.refreshMillis;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public static class Builder {
+
+        private int connectionsPerHost;
+        private boolean head;
+        private long timeoutMillis;
+        private long refreshMillis;
+
+        private Builder() {
+            this.connectionsPerHost = 4;
+            this.head = true;
+            this.timeoutMillis = 10_000L;
+            // below the 5 seconds the JDK keeps idle connections without a Keep-Alive header
+            this.refreshMillis = 4_000L;
+        }
+
+        // HttpURLConnection keeps at most http.maxConnections (default 5) idle connections per host
+        public Builder connectionsPerHost(int connectionsPerHost) {
+            if (connectionsPerHost < 1) {
+                throw new IllegalArgumentException("connectionsPerHost must be at least 1");
+            }
+
+            this.connectionsPerHost = connectionsPerHost;
+            return this;
+        }
+
+        // true: concurrent HEAD requests leave keep-alive connections behind for the following requests.
+        // false: the connections are only connected and handshaken, which warms name resolution and the TLS session
+        // cache but leaves no connection to reuse
+        public Builder head(boolean head) {
+            this.head = head;
+            return this;
+        }
+
+        public Builder timeout(long millis) {
+            if (millis <= 0L) {
+                throw new IllegalArgumentException("the timeout must be positive");
+            }
+
+            this.timeoutMillis = millis;
+            return this;
+        }
+
+        // HEAD requests are repeated at this interval until the first request to the host, 0 disables it
+        public Builder refresh(long millis) {
+            this.refreshMillis = Math.max(0L, millis);
+            return this;
+        }
+
+        public WarmupPolicy build() {
+            return new WarmupPolicy(this);
+        }
+    }
+}
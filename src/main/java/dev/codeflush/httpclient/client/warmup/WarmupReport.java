@@ -0,0 +1,37 @@
+package dev.codeflush.httpclient.client.warmup;
+
+import java.util.Collections;
+import java.util.List;
+
+public class WarmupReport {
+
+    private final List<HostWarmup> hosts;
+    private final double elapsedMillis;
+
+    WarmupReport(List<HostWarmup> hosts, double elapsedMillis) {
+        this.hosts = Collections.unmodifiableList(hosts);
+        this.elapsedMillis = elapsedMillis;
+    }
+
+    public List<HostWarmup> getHosts() {
+        return this.hosts;
+    }
+
+    public double getElapsedMillis() {
+        return this.elapsedMillis;
+    }
+
+    // successful probes of all hosts
+    public int getSucceeded() {
+        return this.hosts.stream().mapToInt(HostWarmup::getSucceeded).sum();
+    }
+
+    public boolean allSucceeded() {
+        return this.hosts.stream().allMatch(HostWarmup::allSucceeded);
+    }
+
+    @Override
+    public String toString() {
+        return "WarmupReport[allSucceeded=" + allSucceeded() + ", elapsedMillis=" + this.elapsedMillis + ", hosts=" + this.hosts + "]";
+    }
+}
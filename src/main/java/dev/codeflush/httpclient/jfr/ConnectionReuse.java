@@ -0,0 +1,60 @@
+package dev.codeflush.httpclient.jfr;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.net.HttpURLConnection;
+
+// HttpURLConnection doesn't tell whether the connection came from the keep-alive cache, the internal HttpClient of
+// the JDK implementation does. Without access to it (other implementations, no --add-opens) reuse is reported as false
+final class ConnectionReuse {
+
+    private static final Field HTTPS_DELEGATE;
+    private static final Field HTTP_CLIENT;
+    private static final Method IS_CACHED;
+
+    static {
+        Field httpsDelegate = null;
+        Field httpClient = null;
+        Method isCached = null;
+
+        try {
+            httpClient = Class.forName("sun.net.www.protocol.http.HttpURLConnection").getDeclaredField("http");
+            httpClient.setAccessible(true);
+            isCached = Class.forName("sun.net.www.http.HttpClient").getMethod("isCachedConnection");
+            httpsDelegate = Class.forName("sun.net.www.protocol.https.HttpsURLConnectionImpl").getDeclaredField("delegate");
+            httpsDelegate.setAccessible(true);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            // inaccessible, httpsDelegate stays null if only the https part failed
+        }
+
+        HTTPS_DELEGATE = httpsDelegate;
+        HTTP_CLIENT = (isCached == null) ? null : httpClient;
+        IS_CACHED = isCached;
+    }
+
+    private ConnectionReuse() {
+    }
+
+    static boolean isReused(HttpURLConnection conn) {
+        if (HTTP_CLIENT == null) {
+            return false;
+        }
+
+        try {
+            Object target = conn;
+
+            if (HTTPS_DELEGATE != null && HTTPS_DELEGATE.getDeclaringClass().isInstance(target)) {
+                target = HTTPS_DELEGATE.get(target);
+            }
+
+            if (!HTTP_CLIENT.getDeclaringClass().isInstance(target)) {
+                return false;
+            }
+
+            Object client = HTTP_CLIENT.get(target);
+            return client != null && (Boolean) IS_CACHED.invoke(client);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            return false;
+        }
+    }
+}
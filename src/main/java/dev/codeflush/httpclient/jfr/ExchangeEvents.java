@@ -0,0 +1,31 @@
+package dev.codeflush.httpclient.jfr;
+
+import dev.codeflush.httpclient.request.Request;
+
+// Flight Recorder events for the exchanges of the SimpleHTTPClient. jdk.jfr is only referenced by classes that are
+// loaded if it exists, so older Java 8 runtimes without it still load the client
+public final class ExchangeEvents {
+
+    private static final boolean AVAILABLE = isJfrPresent();
+
+    private ExchangeEvents() {
+    }
+
+    public static boolean isAvailable() {
+        return AVAILABLE;
+    }
+
+    // ExchangeRecording.NONE if Flight Recorder is missing or no recording enables the event
+    public static ExchangeRecording begin(Request request) {
+        return AVAILABLE ? JfrExchangeRecording.begin(request) : ExchangeRecording.NONE;
+    }
+
+    private static boolean isJfrPresent() {
+        try {
+            Class.forName("jdk.jfr.Event", false, ExchangeEvents.class.getClassLoader());
+            return true;
+        } catch (ClassNotFoundException | LinkageError e) {
+            return false;
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package dev.codeflush.httpclient.jfr;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+
+// the phases of one exchange, every method does nothing unless a recording with the event enabled is running
+public class ExchangeRecording {
+
+    static final ExchangeRecording NONE = new ExchangeRecording();
+
+    ExchangeRecording() {
+    }
+
+    public boolean isEnabled() {
+        return false;
+    }
+
+    // connects explicitly to separate the connect from the send phase, only while recording
+    public void connect(HttpURLConnection conn) throws IOException {
+    }
+
+    public OutputStream countSent(OutputStream out) {
+        return out;
+    }
+
+    // for bodies written past any stream, e.g. to a channel
+    public void countSent(long bytes) {
+    }
+
+    public void sent() {
+    }
+
+    public void responded(int status) {
+    }
+
+    public InputStream countReceived(InputStream in) {
+        return in;
+    }
+
+    public void parsed() {
+    }
+
+    public void failed(Throwable failure) {
+    }
+
+    public void end() {
+    }
+}
@@ -0,0 +1,63 @@
+package dev.codeflush.httpclient.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Timespan;
+
+@Name("dev.codeflush.httpclient.HttpExchange")
+@Label("HTTP Exchange")
+@Category({"HTTP Client"})
+@Description("A request executed by the SimpleHTTPClient, from opening the connection until the ResponseParser returned")
+final class HttpExchangeEvent extends Event {
+
+    @Label("Method")
+    String method;
+
+    @Label("Host")
+    @Description("host:port")
+    String host;
+
+    @Label("Path")
+    @Description("The path without the query")
+    String path;
+
+    @Label("Status")
+    @Description("-1 if no response was received")
+    int status;
+
+    @Label("Bytes Sent")
+    @DataAmount
+    long bytesSent;
+
+    @Label("Bytes Received")
+    @DataAmount
+    long bytesReceived;
+
+    @Label("Connection Reused")
+    boolean connectionReused;
+
+    @Label("Connect")
+    @Timespan
+    long connectDuration;
+
+    @Label("Send")
+    @Timespan
+    long sendDuration;
+
+    @Label("Wait")
+    @Description("Time to the first byte of the response after the request was sent")
+    @Timespan
+    long waitDuration;
+
+    @Label("Parse")
+    @Description("Time spent inside the ResponseParser")
+    @Timespan
+    long parseDuration;
+
+    @Label("Error")
+    String error;
+}
@@ -0,0 +1,156 @@
+package dev.codeflush.httpclient.jfr;
+
+import dev.codeflush.httpclient.request.Request;
+
+import java.io.FilterInputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+
+// only loaded if jdk.jfr exists
+final class JfrExchangeRecording extends ExchangeRecording {
+
+    private final HttpExchangeEvent event;
+    private long phaseStart;
+    private long sent;
+    private long received;
+
+    private JfrExchangeRecording(HttpExchangeEvent event) {
+        this.event = event;
+        this.phaseStart = System.nanoTime();
+        this.sent = 0L;
+        this.received = 0L;
+    }
+
+    // the event is dropped right away if it's disabled, that's just an allocation the JIT can remove
+    static ExchangeRecording begin(Request request) {
+        HttpExchangeEvent event = new HttpExchangeEvent();
+
+        if (!event.isEnabled()) {
+            return NONE;
+        }
+
+        URL url = request.getRequestURL();
+        event.method = request.getMethod().getName();
+        event.host = request.getHostAndPort();
+        event.path = url.getPath().isEmpty() ? "/" : url.getPath();
+        event.status = -1;
+        event.begin();
+
+        return new JfrExchangeRecording(event);
+    }
+
+    @Override
+    public boolean isEnabled() {
+        return true;
+    }
+
+    @Override
+    public void connect(HttpURLConnection conn) throws IOException {
+        conn.connect();
+        this.event.connectDuration = lap();
+        this.event.connectionReused = ConnectionReuse.isReused(conn);
+    }
+
+    @Override
+    public OutputStream countSent(OutputStream out) {
+        return new FilterOutputStream(out) {
+            @Override
+            public void write(int b) throws IOException {
+                this.out.write(b);
+                JfrExchangeRecording.this.sent++;
+            }
+
+            @Override
+            public void write(byte[] b, int off, int len) throws IOException {
+                this.out.write(b, off, len);
+                JfrExchangeRecording.this.sent += len;
+            }
+        };
+    }
+
+    @Override
+    public void countSent(long bytes) {
+        this.sent += bytes;
+    }
+
+    @Override
+    public void sent() {
+        this.event.sendDuration = lap();
+        this.event.bytesSent = this.sent;
+    }
+
+    @Override
+    public void responded(int status) {
+        this.event.waitDuration = lap();
+        this.event.status = status;
+    }
+
+    @Override
+    public InputStream countReceived(InputStream in) {
+        return new FilterInputStream(in) {
+            @Override
+            public int read() throws IOException {
+                int b = this.in.read();
+
+                if (b != -1) {
+                    JfrExchangeRecording.this.received++;
+                }
+
+                return b;
+            }
+
+            @Override
+            public int read(byte[] b, int off, int len) throws IOException {
+                int read = this.in.read(b, off, len);
+
+                if (read > 0) {
+                    JfrExchangeRecording.this.received += read;
+                }
+
+                return read;
+            }
+
+            @Override
+            public long skip(long n) throws IOException {
+                long skipped = this.in.skip(n);
+                JfrExchangeRecording.this.received += skipped;
+                return skipped;
+            }
+        };
+    }
+
+    @Override
+    public void parsed() {
+        this.event.parseDuration = lap();
+        this.event.bytesReceived = this.received;
+    }
+
+    @Override
+    public void failed(Throwable failure) {
+        this.event.error = failure.getClass().getName() + ": " + failure.getMessage();
+        this.event.bytesSent = this.sent;
+        this.event.bytesReceived = this.received;
+    }
+
+    @Override
+    public void end() {
+        this.event.end();
+
+        if (this.event.shouldCommit()) {
+            this.event.commit();
+        }
+    }
+
+    // the duration of the phase that ends now
+    private long lap() {
+        long now = System.nanoTime();
+        long duration = now - this.phaseStart;
+        this.phaseStart = now;
+
+        return duration;
+    }
+}
@@ -0,0 +1,105 @@
+package dev.codeflush.httpclient.load;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+// log-linear buckets like HdrHistogram: values below 2^SUB_BUCKET_BITS microseconds are exact, above that every
+// power of two is split into 2^(SUB_BUCKET_BITS - 1) buckets, so the relative error stays below 1/64
+public class LatencyHistogram {
+
+    private static final int SUB_BUCKET_BITS = 7;
+    private static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+    private static final int SUB_BUCKET_HALF = SUB_BUCKET_COUNT >> 1;
+
+    private final AtomicLongArray counts;
+    private final LongAdder count;
+    private final LongAdder sumMicros;
+    private final LongAccumulator minMicros;
+    private final LongAccumulator maxMicros;
+
+    public LatencyHistogram() {
+        this.counts = new AtomicLongArray(indexOf(Long.MAX_VALUE) + 1);
+        this.count = new LongAdder();
+        this.sumMicros = new LongAdder();
+        this.minMicros = new LongAccumulator(Math::min, Long.MAX_VALUE);
+        this.maxMicros = new LongAccumulator(Math::max, 0L);
+    }
+
+    public void recordNanos(long nanos) {
+        recordMicros(TimeUnit.NANOSECONDS.toMicros(nanos));
+    }
+
+    public void recordMicros(long micros) {
+        long value = Math.max(0L, micros);
+
+        this.counts.incrementAndGet(indexOf(value));
+        this.count.increment();
+        this.sumMicros.add(value);
+        this.minMicros.accumulate(value);
+        this.maxMicros.accumulate(value);
+    }
+
+    public long getCount() {
+        return this.count.sum();
+    }
+
+    public double getMeanMillis() {
+        long count = getCount();
+        return (count == 0L) ? 0.0 : (double) this.sumMicros.sum() / count / 1000.0;
+    }
+
+    public double getMinMillis() {
+        return (getCount() == 0L) ? 0.0 : this.minMicros.get() / 1000.0;
+    }
+
+    public double getMaxMillis() {
+        return this.maxMicros.get() / 1000.0;
+    }
+
+    // the highest value equivalent to the bucket holding the percentile (0 - 100), capped by the recorded maximum
+    public double getPercentileMillis(double percentile) {
+        long count = getCount();
+
+        if (count == 0L) {
+            return 0.0;
+        }
+
+        long rank = Math.max(1L, (long) Math.ceil(Math.min(100.0, Math.max(0.0, percentile)) / 100.0 * count));
+        long seen = 0L;
+
+        for (int i = 0; i < this.counts.length(); i++) {
+            seen += this.counts.get(i);
+
+            if (seen >= rank) {
+                return Math.min(highestEquivalentValue(i), this.maxMicros.get()) / 1000.0;
+            }
+        }
+
+        return getMaxMillis();
+    }
+
+    static int indexOf(long value) {
+        if (value < SUB_BUCKET_COUNT) {
+            return (int) value;
+        }
+
+        // value >> shift lies in [SUB_BUCKET_HALF, SUB_BUCKET_COUNT)
+        int shift = (63 - Long.numberOfLeadingZeros(value)) - (SUB_BUCKET_BITS - 1);
+        return shift * SUB_BUCKET_HALF + (int) (value >>> shift);
+    }
+
+    static long highestEquivalentValue(int index) {
+        if (index < SUB_BUCKET_COUNT) {
+            return index;
+        }
+
+        int shift = index / SUB_BUCKET_HALF - 1;
+        long subBucket = index - (long) shift * SUB_BUCKET_HALF;
+        long next = (subBucket + 1) << shift;
+
+        // the last bucket ends at Long.MAX_VALUE
+        return (next <= 0L) ? Long.MAX_VALUE : next - 1;
+    }
+}
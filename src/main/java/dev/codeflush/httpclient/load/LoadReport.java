@@ -0,0 +1,129 @@
+package dev.codeflush.httpclient.load;
+
+import java.util.Collections;
+import java.util.Locale;
+import java.util.Map;
+
+public class LoadReport {
+
+    public static final double[] PERCENTILES = {50.0, 75.0, 90.0, 95.0, 99.0, 99.9, 99.99, 100.0};
+
+    private final double targetRate;
+    private final long durationMillis;
+    private final long warmupRequests;
+    private final LatencyHistogram histogram;
+    private final long errors;
+    private final long unfinished;
+    private final Map<Integer, Long> statusCounts;
+
+    public LoadReport(double targetRate, long durationMillis, long warmupRequests, LatencyHistogram histogram, long errors, long unfinished, Map<Integer, Long> statusCounts) {
+        this.targetRate = targetRate;
+        this.durationMillis = durationMillis;
+        this.warmupRequests = warmupRequests;
+        this.histogram = histogram;
+        this.errors = errors;
+        this.unfinished = unfinished;
+        this.statusCounts = Collections.unmodifiableMap(statusCounts);
+    }
+
+    public double getTargetRate() {
+        return this.targetRate;
+    }
+
+    public long getDurationMillis() {
+        return this.durationMillis;
+    }
+
+    // requests of the warm-up phase, they are not part of the histogram
+    public long getWarmupRequests() {
+        return this.warmupRequests;
+    }
+
+    // steady state latencies from the intended start time
+    public LatencyHistogram getHistogram() {
+        return this.histogram;
+    }
+
+    public long getResponses() {
+        return this.histogram.getCount();
+    }
+
+    // requests that failed with an exception
+    public long getErrors() {
+        return this.errors;
+    }
+
+    // requests still running or queued when the drain timeout elapsed
+    public long getUnfinished() {
+        return this.unfinished;
+    }
+
+    public Map<Integer, Long> getStatusCounts() {
+        return this.statusCounts;
+    }
+
+    // completed requests per second of the steady state
+    public double getThroughput() {
+        return (this.histogram.getCount() + this.errors) * 1000.0 / this.durationMillis;
+    }
+
+    public double getPercentileMillis(double percentile) {
+        return this.histogram.getPercentileMillis(percentile);
+    }
+
+    public String toCsv() {
+        StringBuilder sb = new StringBuilder("percentile,latency_ms\n");
+
+        for (double percentile : PERCENTILES) {
+            sb.append(format(percentile)).append(',').append(format(getPercentileMillis(percentile))).append('\n');
+        }
+
+        return sb.toString();
+    }
+
+    public String toJson() {
+        StringBuilder sb = new StringBuilder("{");
+        sb.append("\"targetRate\":").append(format(this.targetRate));
+        sb.append(",\"throughput\":").append(format(getThroughput()));
+        sb.append(",\"durationMillis\":").append(this.durationMillis);
+        sb.append(",\"warmupRequests\":").append(this.warmupRequests);
+        sb.append(",\"responses\":").append(getResponses());
+        sb.append(",\"errors\":").append(this.errors);
+        sb.append(",\"unfinished\":").append(this.unfinished);
+        sb.append(",\"minMillis\":").append(format(this.histogram.getMinMillis()));
+        sb.append(",\"meanMillis\":").append(format(this.histogram.getMeanMillis()));
+        sb.append(",\"maxMillis\":").append(format(this.histogram.getMaxMillis()));
+        sb.append(",\"percentiles\":{");
+
+        for (int i = 0; i < PERCENTILES.length; i++) {
+            sb.append((i == 0) ? "" : ",").append('"').append(format(PERCENTILES[i])).append("\":").append(format(getPercentileMillis(PERCENTILES[i])));
+        }
+
+        sb.append("},\"statusCounts\":{");
+        String separator = "";
+
+        for (Map.Entry<Integer, Long> entry : this.statusCounts.entrySet()) {
+            sb.append(separator).append('"').append(entry.getKey()).append("\":").append(entry.getValue());
+            separator = ",";
+        }
+
+        return sb.append("}}").toString();
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        sb.append(String.format(Locale.ROOT, "target rate %.1f/s, throughput %.1f/s, %d responses, %d errors, %d unfinished%n", this.targetRate, getThroughput(), getResponses(), this.errors, this.unfinished));
+        sb.append(String.format(Locale.ROOT, "latency min %.3f ms, mean %.3f ms, max %.3f ms%n", this.histogram.getMinMillis(), this.histogram.getMeanMillis(), this.histogram.getMaxMillis()));
+
+        for (double percentile : PERCENTILES) {
+            sb.append(String.format(Locale.ROOT, "%8s%% %12.3f ms%n", format(percentile), getPercentileMillis(percentile)));
+        }
+
+        return sb.toString();
+    }
+
+    private static String format(double value) {
+        return String.format(Locale.ROOT, "%.3f", value).replaceAll("\\.?0+$", "");
+    }
+}
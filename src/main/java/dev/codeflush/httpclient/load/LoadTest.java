@@ -0,0 +1,202 @@
+package dev.codeflush.httpclient.load;
+
+import dev.codeflush.httpclient.Response;
+import dev.codeflush.httpclient.client.HTTPClient;
+import dev.codeflush.httpclient.parser.NoOpResponseParser;
+import dev.codeflush.httpclient.parser.ResponseParser;
+import dev.codeflush.httpclient.request.Request;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+// open model: requests are started at a fixed arrival rate no matter how many are still running. The latency of a
+// request is measured from its intended start time, so time spent waiting for a free worker (queuing delay) is part of
+// it instead of being omitted the way a closed loop of "send, wait, send" does
+public class LoadTest {
+
+    private static final AtomicInteger THREAD_COUNT = new AtomicInteger();
+
+    private final HTTPClient client;
+    private final Request.Template template;
+    private final ResponseParser<?> parser;
+    private final double requestsPerSecond;
+    private final long warmupMillis;
+    private final long durationMillis;
+    private final int maxConcurrency;
+    private final long drainTimeoutMillis;
+
+    private LoadTest(Builder builder) {
+        this.client = builder.client;
+        this.template = builder.template;
+        this.parser = builder.parser;
+        this.requestsPerSecond = builder.requestsPerSecond;
+        this.warmupMillis = builder.warmupMillis;
+        this.durationMillis = builder.durationMillis;
+        this.maxConcurrency = builder.maxConcurrency;
+        this.drainTimeoutMillis = builder.drainTimeoutMillis;
+    }
+
+    public static Builder builder(HTTPClient client, Request.Template template) {
+        return new Builder(client, template);
+    }
+
+    // blocks for the warm-up, the steady state and until the running requests are done (at most the drain timeout)
+    public LoadReport run() throws InterruptedException {
+        Phase warmup = new Phase();
+        Phase steady = new Phase();
+        ExecutorService workers = Executors.newFixedThreadPool(this.maxConcurrency, (runnable) -> {
+            Thread thread = new Thread(runnable, "httpclient-load-" + THREAD_COUNT.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        long intervalNanos = Math.max(1L, (long) (TimeUnit.SECONDS.toNanos(1L) / this.requestsPerSecond));
+        long start = System.nanoTime();
+        long warmupEnd = start + TimeUnit.MILLISECONDS.toNanos(this.warmupMillis);
+        long end = warmupEnd + TimeUnit.MILLISECONDS.toNanos(this.durationMillis);
+
+        try {
+            for (long i = 0L; ; i++) {
+                long intended = start + i * intervalNanos;
+
+                if (intended - end >= 0L) {
+                    break;
+                }
+
+                long wait;
+                while ((wait = intended - System.nanoTime()) > 0L) {
+                    LockSupport.parkNanos(wait);
+
+                    if (Thread.interrupted()) {
+                        throw new InterruptedException();
+                    }
+                }
+
+                Phase phase = (intended - warmupEnd >= 0L) ? steady : warmup;
+                phase.scheduled.increment();
+                // a request that waits in the queue of the workers is late, not omitted
+                workers.execute(() -> call(intended, phase));
+            }
+        } finally {
+            workers.shutdown();
+        }
+
+        if (!workers.awaitTermination(this.drainTimeoutMillis, TimeUnit.MILLISECONDS)) {
+            workers.shutdownNow();
+        }
+
+        long unfinished = steady.scheduled.sum() - steady.histogram.getCount() - steady.errors.sum();
+
+        return new LoadReport(this.requestsPerSecond, this.durationMillis, warmup.scheduled.sum(), steady.histogram, steady.errors.sum(), unfinished, steady.statusCounts());
+    }
+
+    private void call(long intendedNanos, Phase phase) {
+        try {
+            Response<?> response = this.template.build().execute(this.client, this.parser);
+            phase.histogram.recordNanos(System.nanoTime() - intendedNanos);
+            phase.statusCounts.computeIfAbsent(response.getResponseCode(), (key) -> new LongAdder()).increment();
+        } catch (IOException | RuntimeException e) {
+            phase.errors.increment();
+        }
+    }
+
+    private static final class Phase {
+
+        private final LatencyHistogram histogram;
+        private final LongAdder errors;
+        private final LongAdder scheduled;
+        private final Map<Integer, LongAdder> statusCounts;
+
+        private Phase() {
+            this.histogram = new LatencyHistogram();
+            this.errors = new LongAdder();
+            this.scheduled = new LongAdder();
+            this.statusCounts = new ConcurrentHashMap<>();
+        }
+
+        private Map<Integer, Long> statusCounts() {
+            Map<Integer, Long> result = new TreeMap<>();
+            this.statusCounts.forEach((status, count) -> result.put(status, count.sum()));
+            return result;
+        }
+    }
+
+    public static class Builder {
+
+        private final HTTPClient client;
+        private final Request.Template template;
+        private ResponseParser<?> parser;
+        private double requestsPerSecond;
+        private long warmupMillis;
+        private long durationMillis;
+        private int maxConcurrency;
+        private long drainTimeoutMillis;
+
+        private Builder(HTTPClient client, Request.Template template) {
+            this.client = Objects.requireNonNull(client);
+            this.template = Objects.requireNonNull(template);
+            this.parser = new NoOpResponseParser();
+            this.requestsPerSecond = 100.0;
+            this.warmupMillis = 5000L;
+            this.durationMillis = 30000L;
+            this.maxConcurrency = 64;
+            this.drainTimeoutMillis = 30000L;
+        }
+
+        public Builder parser(ResponseParser<?> parser) {
+            this.parser = Objects.requireNonNull(parser);
+            return this;
+        }
+
+        public Builder rate(double requestsPerSecond) {
+            if (requestsPerSecond <= 0.0) {
+                throw new IllegalArgumentException("the rate must be positive");
+            }
+
+            this.requestsPerSecond = requestsPerSecond;
+            return this;
+        }
+
+        public Builder warmup(long millis) {
+            this.warmupMillis = Math.max(0L, millis);
+            return this;
+        }
+
+        public Builder duration(long millis) {
+            if (millis <= 0L) {
+                throw new IllegalArgumentException("the duration must be positive");
+            }
+
+            this.durationMillis = millis;
+            return this;
+        }
+
+        // the number of worker threads, requests beyond it queue up and their queuing delay is recorded
+        public Builder maxConcurrency(int maxConcurrency) {
+            if (maxConcurrency < 1) {
+                throw new IllegalArgumentException("maxConcurrency must be at least 1");
+            }
+
+            this.maxConcurrency = maxConcurrency;
+            return this;
+        }
+
+        public Builder drainTimeout(long millis) {
+            this.drainTimeoutMillis = Math.max(0L, millis);
+            return this;
+        }
+
+        public LoadTest build() {
+            return new LoadTest(this);
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package dev.codeflush.httpclient.parser;
+
+import dev.codeflush.httpclient.client.HTTPClient;
+import dev.codeflush.httpclient.request.Request;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+// a blocking ResponseParser needs the whole body as a stream, so the chunks are collected until completion
+public class BufferingIncrementalResponseParser<T> implements IncrementalResponseParser<T> {
+
+    private final HTTPClient client;
+    private final Request request;
+    private final ResponseParser<? extends T> parser;
+    private int responseCode;
+    private Map<String, List<String>> headers;
+    private String contentType;
+    private String charset;
+    private byte[] buffer;
+    private int size;
+
+    public BufferingIncrementalResponseParser(HTTPClient client, Request request, ResponseParser<? extends T> parser) {
+        this.client = client;
+        this.request = request;
+        this.parser = Objects.requireNonNull(parser);
+        this.buffer = new byte[8192];
+        this.size = 0;
+    }
+
+    @Override
+    public void onHeaders(int responseCode, Map<String, List<String>> headers, String contentType, String charset) {
+        this.responseCode = responseCode;
+        this.headers = headers;
+        this.contentType = contentType;
+        this.charset = charset;
+    }
+
+    @Override
+    public long onChunk(ByteBuffer chunk) {
+        int length = chunk.remaining();
+
+        if (this.size + length > this.buffer.length) {
+            this.buffer = Arrays.copyOf(this.buffer, Math.max(this.buffer.length * 2, this.size + length));
+        }
+
+        chunk.get(this.buffer, this.size, length);
+        this.size += length;
+
+        return UNBOUNDED;
+    }
+
+    @Override
+    public T onComplete() throws IOException {
+        return this.parser.parse(this.client, this.request, this.responseCode, new ByteArrayInputStream(this.buffer, 0, this.size), this.headers, this.contentType, this.charset);
+    }
+
+    @Override
+    public void onError(Throwable t) {
+        this.buffer = null;
+    }
+}
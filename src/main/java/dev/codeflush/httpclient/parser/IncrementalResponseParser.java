@@ -0,0 +1,34 @@
+package dev.codeflush.httpclient.parser;
+
+import dev.codeflush.httpclient.client.HTTPClient;
+import dev.codeflush.httpclient.request.Request;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+public interface IncrementalResponseParser<T> {
+
+    long UNBOUNDED = Long.MAX_VALUE;
+
+    void onHeaders(int responseCode, Map<String, List<String>> headers, String contentType, String charset) throws IOException;
+
+    // the chunk is only valid for the duration of the call, the returned value is the number
+    // of bytes the parser is willing to accept next (0 or less stops the transfer)
+    long onChunk(ByteBuffer chunk) throws IOException;
+
+    T onComplete() throws IOException;
+
+    default void onError(Throwable t) {
+    }
+
+    static <T> ResponseParser<T> toResponseParser(Supplier<? extends IncrementalResponseParser<? extends T>> supplier) {
+        return new IncrementalResponseParserAdapter<>(supplier);
+    }
+
+    static <T> IncrementalResponseParser<T> fromResponseParser(HTTPClient client, Request request, ResponseParser<? extends T> parser) {
+        return new BufferingIncrementalResponseParser<>(client, request, parser);
+    }
+}
@@ -0,0 +1,49 @@
+package dev.codeflush.httpclient.parser;
+
+import dev.codeflush.httpclient.buffer.BufferPool;
+import dev.codeflush.httpclient.buffer.PooledBuffer;
+import dev.codeflush.httpclient.client.HTTPClient;
+import dev.codeflush.httpclient.request.Request;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Supplier;
+
+public class IncrementalResponseParserAdapter<T> implements ResponseParser<T> {
+
+    private final Supplier<? extends IncrementalResponseParser<? extends T>> supplier;
+
+    public IncrementalResponseParserAdapter(Supplier<? extends IncrementalResponseParser<? extends T>> supplier) {
+        this.supplier = Objects.requireNonNull(supplier);
+    }
+
+    @Override
+    public T parse(HTTPClient client, Request request, int responseCode, InputStream stream, Map<String, List<String>> headers, String contentType, String charset) throws IOException {
+        IncrementalResponseParser<? extends T> parser = this.supplier.get();
+
+        try (PooledBuffer pooled = BufferPool.heap().acquire()) {
+            ByteBuffer chunk = pooled.byteBuffer();
+            byte[] buffer = chunk.array();
+
+            parser.onHeaders(responseCode, headers, contentType, charset);
+
+            long demand = IncrementalResponseParser.UNBOUNDED;
+            int bytesRead;
+
+            while (demand > 0 && (bytesRead = stream.read(buffer, 0, (int) Math.min(demand, buffer.length))) != -1) {
+                chunk.clear();
+                chunk.limit(bytesRead);
+                demand = parser.onChunk(chunk);
+            }
+
+            return parser.onComplete();
+        } catch (IOException | RuntimeException e) {
+            parser.onError(e);
+            throw e;
+        }
+    }
+}
@@ -0,0 +1,236 @@
+package dev.codeflush.httpclient.parser;
+
+import dev.codeflush.httpclient.client.HTTPClient;
+import dev.codeflush.httpclient.request.Request;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+
+// splits newline delimited records (NDJSON, CSV without quoted newlines, logs, ...) into batches
+// without copying single records, empty lines are skipped and a trailing '\r' is removed
+public class LineDelimitedResponseParser implements ResponseParser<Long> {
+
+    private static final int DEFAULT_MAX_RECORDS_PER_BATCH = 1024;
+    private static final int DEFAULT_BATCH_BYTES = 1024 * 1024;
+    private static final int MAX_READ_SIZE = 64 * 1024;
+
+    private final Consumer<? super RecordBatch> consumer;
+    private final int maxRecordsPerBatch;
+    private final int batchBytes;
+    private final ForkJoinPool pool;
+    private final int maxInFlightBatches;
+
+    public LineDelimitedResponseParser(Consumer<? super RecordBatch> consumer, int maxRecordsPerBatch, int batchBytes, ForkJoinPool pool, int maxInFlightBatches) {
+        if (maxRecordsPerBatch < 1 || batchBytes < 1 || (pool != null && maxInFlightBatches < 1)) {
+            throw new IllegalArgumentException("batch sizes and in-flight batches must be positive");
+        }
+
+        this.consumer = Objects.requireNonNull(consumer);
+        this.maxRecordsPerBatch = maxRecordsPerBatch;
+        this.batchBytes = batchBytes;
+        this.pool = pool;
+        this.maxInFlightBatches = maxInFlightBatches;
+    }
+
+    public LineDelimitedResponseParser(Consumer<? super RecordBatch> consumer, int maxRecordsPerBatch, int batchBytes) {
+        this(consumer, maxRecordsPerBatch, batchBytes, null, 1);
+    }
+
+    public LineDelimitedResponseParser(Consumer<? super RecordBatch> consumer) {
+        this(consumer, DEFAULT_MAX_RECORDS_PER_BATCH, DEFAULT_BATCH_BYTES);
+    }
+
+    @Override
+    public Long parse(HTTPClient client, Request request, int responseCode, InputStream stream, Map<String, List<String>> headers, String contentType, String charset) throws IOException {
+        Dispatcher dispatcher = new Dispatcher();
+        RecordBatch batch = dispatcher.take();
+        byte[] data = batch.data();
+        int filled = 0;
+        int scanned = 0;
+        int recordStart = 0;
+        long records = 0L;
+
+        try {
+            while (true) {
+                if (filled == data.length) {
+                    if (recordStart == 0) {
+                        throw new IOException("record exceeds the maximum length of " + this.batchBytes + " bytes");
+                    }
+
+                    if (batch.size() == 0) {
+                        // only skipped empty lines before the incomplete record
+                        System.arraycopy(data, recordStart, data, 0, filled - recordStart);
+                    } else {
+                        records += batch.size();
+                        batch = dispatcher.swap(batch, recordStart, filled);
+                        data = batch.data();
+                    }
+
+                    filled -= recordStart;
+                    scanned = filled;
+                    recordStart = 0;
+                }
+
+                int bytesRead = stream.read(data, filled, Math.min(MAX_READ_SIZE, data.length - filled));
+
+                if (bytesRead == -1) {
+                    break;
+                }
+
+                filled += bytesRead;
+
+                for (; scanned < filled; scanned++) {
+                    if (data[scanned] != '\n') {
+                        continue;
+                    }
+
+                    addRecord(batch, data, recordStart, scanned);
+                    recordStart = scanned + 1;
+
+                    if (batch.isFull()) {
+                        records += batch.size();
+                        batch = dispatcher.swap(batch, recordStart, filled);
+                        data = batch.data();
+                        filled -= recordStart;
+                        scanned = -1;
+                        recordStart = 0;
+                    }
+                }
+            }
+
+            addRecord(batch, data, recordStart, filled);
+            records += batch.size();
+
+            if (batch.size() > 0) {
+                dispatcher.dispatch(batch);
+            }
+
+            dispatcher.await();
+        } catch (IOException | RuntimeException e) {
+            dispatcher.awaitQuietly();
+            throw e;
+        }
+
+        return records;
+    }
+
+    private static void addRecord(RecordBatch batch, byte[] data, int start, int end) {
+        if (end > start && data[end - 1] == '\r') {
+            end--;
+        }
+
+        if (end > start) {
+            batch.add(start, end - start);
+        }
+    }
+
+    private class Dispatcher {
+
+        private final Queue<RecordBatch> free;
+        private final Semaphore permits;
+        private final AtomicReference<Throwable> failure;
+        private long sequence;
+
+        private Dispatcher() {
+            this.free = new ConcurrentLinkedQueue<>();
+            this.permits = new Semaphore(maxInFlightBatches);
+            this.failure = new AtomicReference<>();
+            this.sequence = 0L;
+        }
+
+        private RecordBatch take() {
+            RecordBatch batch = this.free.poll();
+
+            if (batch == null) {
+                batch = new RecordBatch(batchBytes, maxRecordsPerBatch);
+            }
+
+            batch.reset(this.sequence++);
+            return batch;
+        }
+
+        // moves the incomplete record at the end of the given batch into a new batch and dispatches the given batch
+        private RecordBatch swap(RecordBatch batch, int from, int to) throws IOException {
+            RecordBatch next = take();
+            System.arraycopy(batch.data(), from, next.data(), 0, to - from);
+            dispatch(batch);
+
+            return next;
+        }
+
+        private void dispatch(RecordBatch batch) throws IOException {
+            checkFailure();
+
+            if (pool == null) {
+                try {
+                    consumer.accept(batch);
+                } finally {
+                    this.free.offer(batch);
+                }
+
+                return;
+            }
+
+            try {
+                this.permits.acquire();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("interrupted while waiting for in-flight batches");
+            }
+
+            pool.execute(() -> {
+                try {
+                    consumer.accept(batch);
+                } catch (Throwable t) {
+                    this.failure.compareAndSet(null, t);
+                } finally {
+                    this.free.offer(batch);
+                    this.permits.release();
+                }
+            });
+        }
+
+        private void await() throws IOException {
+            if (pool != null) {
+                try {
+                    this.permits.acquire(maxInFlightBatches);
+                    this.permits.release(maxInFlightBatches);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new InterruptedIOException("interrupted while waiting for in-flight batches");
+                }
+            }
+
+            checkFailure();
+        }
+
+        private void awaitQuietly() {
+            if (pool != null) {
+                this.permits.acquireUninterruptibly(maxInFlightBatches);
+                this.permits.release(maxInFlightBatches);
+            }
+        }
+
+        private void checkFailure() throws IOException {
+            Throwable t = this.failure.get();
+
+            if (t instanceof RuntimeException) {
+                throw (RuntimeException) t;
+            } else if (t instanceof Error) {
+                throw (Error) t;
+            } else if (t != null) {
+                throw new IOException(t);
+            }
+        }
+    }
+}
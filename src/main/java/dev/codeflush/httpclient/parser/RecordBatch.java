@@ -0,0 +1,72 @@
+package dev.codeflush.httpclient.parser;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+
+// the records are views into a shared buffer that is reused once the consumer returned
+public class RecordBatch {
+
+    private final byte[] data;
+    private final int[] offsets;
+    private final int[] lengths;
+    private int size;
+    private long sequence;
+
+    RecordBatch(int capacity, int maxRecords) {
+        this.data = new byte[capacity];
+        this.offsets = new int[maxRecords];
+        this.lengths = new int[maxRecords];
+        this.size = 0;
+        this.sequence = 0L;
+    }
+
+    public int size() {
+        return this.size;
+    }
+
+    public long getSequence() {
+        return this.sequence;
+    }
+
+    public ByteBuffer get(int index) {
+        checkIndex(index);
+        return ByteBuffer.wrap(this.data, this.offsets[index], this.lengths[index]).slice();
+    }
+
+    public String getString(int index, Charset charset) {
+        checkIndex(index);
+        return new String(this.data, this.offsets[index], this.lengths[index], charset);
+    }
+
+    public InputStream getInputStream(int index) {
+        checkIndex(index);
+        return new ByteArrayInputStream(this.data, this.offsets[index], this.lengths[index]);
+    }
+
+    byte[] data() {
+        return this.data;
+    }
+
+    boolean isFull() {
+        return this.size == this.offsets.length;
+    }
+
+    void add(int offset, int length) {
+        this.offsets[this.size] = offset;
+        this.lengths[this.size] = length;
+        this.size++;
+    }
+
+    void reset(long sequence) {
+        this.size = 0;
+        this.sequence = sequence;
+    }
+
+    private void checkIndex(int index) {
+        if (index < 0 || index >= this.size) {
+            throw new IndexOutOfBoundsException("index " + index + " size " + this.size);
+        }
+    }
+}
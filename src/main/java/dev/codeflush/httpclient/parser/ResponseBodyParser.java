@@ -0,0 +1,37 @@
+package dev.codeflush.httpclient.parser;
+
+import dev.codeflush.httpclient.ResponseBody;
+import dev.codeflush.httpclient.client.HTTPClient;
+import dev.codeflush.httpclient.request.Request;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
+import java.util.Map;
+
+public class ResponseBodyParser implements ResponseParser<ResponseBody> {
+
+    @Override
+    public ResponseBody parse(HTTPClient client, Request request, int responseCode, InputStream stream, Map<String, List<String>> headers, String contentType, String charset) throws IOException {
+        return new ResponseBody(stream, describe(request));
+    }
+
+    @Override
+    public ResponseBody getFallback(HTTPClient client, Request request) throws IOException {
+        return new ResponseBody(new ByteArrayInputStream(new byte[0]), describe(request));
+    }
+
+    @Override
+    public boolean keepsStreamOpen() {
+        return true;
+    }
+
+    private static String describe(Request request) {
+        if (request == null) {
+            return null;
+        }
+
+        return request.getMethod().getName() + " " + request.getRequestURL();
+    }
+}
@@ -14,4 +14,14 @@ public interface ResponseParser<T> {
     default T getFallback(HTTPClient client, Request request) throws IOException {
         return null;
     }
+
+    // when true the parsed value takes over the stream and the client must not close it
+    default boolean keepsStreamOpen() {
+        return false;
+    }
+
+    // decorators return the parser they wrap
+    default ResponseParser<? extends T> unwrap() {
+        return this;
+    }
 }
@@ -1,5 +1,7 @@
 package dev.codeflush.httpclient.parser;
 
+import dev.codeflush.httpclient.buffer.BufferPool;
+import dev.codeflush.httpclient.buffer.PooledBuffer;
 import dev.codeflush.httpclient.client.HTTPClient;
 import dev.codeflush.httpclient.request.Request;
 
@@ -22,8 +24,8 @@ public class SaveFileResponseParser implements ResponseParser<File> {
     @Override
     public File parse(HTTPClient client, Request request, int responseCode, InputStream stream, Map<String, List<String>> headers, String contentType, String charset) throws IOException {
         if (responseCode == HttpURLConnection.HTTP_OK) {
-            try (FileOutputStream out = new FileOutputStream(this.destFile)) {
-                byte[] buffer = new byte[8192];
+            try (FileOutputStream out = new FileOutputStream(this.destFile); PooledBuffer pooled = BufferPool.heap().acquire()) {
+                byte[] buffer = pooled.array();
                 int bytesRead;
 
                 while ((bytesRead = stream.read(buffer)) != -1) {
@@ -1,5 +1,7 @@
 package dev.codeflush.httpclient.parser;
 
+import dev.codeflush.httpclient.buffer.BufferPool;
+import dev.codeflush.httpclient.buffer.PooledBuffer;
 import dev.codeflush.httpclient.request.Request;
 import dev.codeflush.httpclient.client.HTTPClient;
 
@@ -8,11 +10,27 @@ import java.io.InputStream;
 import java.nio.charset.Charset;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 
 public class StringResponseParser implements ResponseParser<String> {
 
     private static final Charset DEFAULT_CHARSET = Charset.defaultCharset();
 
+    private final BufferPool pool;
+
+    // the body is copied through the array of the buffers, direct buffers have none
+    public StringResponseParser(BufferPool pool) {
+        if (Objects.requireNonNull(pool).isDirect()) {
+            throw new IllegalArgumentException("a pool of heap buffers is required");
+        }
+
+        this.pool = pool;
+    }
+
+    public StringResponseParser() {
+        this(BufferPool.heap());
+    }
+
     @Override
     public String parse(HTTPClient client, Request request, int responseCode, InputStream stream, Map<String, List<String>> headers, String contentType, String charsetName) throws IOException {
         Charset charset;
@@ -24,11 +42,13 @@ public class StringResponseParser implements ResponseParser<String> {
 
         StringBuilder sb = new StringBuilder();
 
-        byte[] buffer = new byte[8192];
-        int bytesRead;
+        try (PooledBuffer pooled = this.pool.acquire()) {
+            byte[] buffer = pooled.array();
+            int bytesRead;
 
-        while ((bytesRead = stream.read(buffer)) != -1) {
-            sb.append(new String(buffer, 0, bytesRead, charset));
+            while ((bytesRead = stream.read(buffer)) != -1) {
+                sb.append(new String(buffer, 0, bytesRead, charset));
+            }
         }
 
         return sb.toString();
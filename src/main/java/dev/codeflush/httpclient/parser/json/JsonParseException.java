@@ -0,0 +1,17 @@
+package dev.codeflush.httpclient.parser.json;
+
+import java.io.IOException;
+
+public class JsonParseException extends IOException {
+
+    private final long offset;
+
+    public JsonParseException(String message, long offset) {
+        super(message + " at byte offset " + offset);
+        this.offset = offset;
+    }
+
+    public long getOffset() {
+        return this.offset;
+    }
+}
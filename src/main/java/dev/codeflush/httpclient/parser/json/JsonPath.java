@@ -0,0 +1,115 @@
+package dev.codeflush.httpclient.parser.json;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+// supports the subset "$", ".name", "['name']", "[index]", ".*" and "[*]" of JSONPath
+public class JsonPath {
+
+    private final String expression;
+    private final Segment[] segments;
+
+    private JsonPath(String expression, Segment[] segments) {
+        this.expression = expression;
+        this.segments = segments;
+    }
+
+    public static JsonPath compile(String expression) {
+        Objects.requireNonNull(expression);
+
+        if (!expression.startsWith("$")) {
+            throw new IllegalArgumentException("path must start with '$': " + expression);
+        }
+
+        List<Segment> segments = new ArrayList<>();
+        int i = 1;
+
+        while (i < expression.length()) {
+            char c = expression.charAt(i);
+
+            if (c == '.') {
+                int end = i + 1;
+
+                while (end < expression.length() && expression.charAt(end) != '.' && expression.charAt(end) != '[') {
+                    end++;
+                }
+
+                String name = expression.substring(i + 1, end);
+
+                if (name.isEmpty()) {
+                    throw new IllegalArgumentException("empty field name at index " + i + ": " + expression);
+                }
+
+                segments.add(name.equals("*") ? Segment.WILDCARD : Segment.field(name));
+                i = end;
+            } else if (c == '[') {
+                int end = expression.indexOf(']', i);
+
+                if (end == -1) {
+                    throw new IllegalArgumentException("unclosed '[' at index " + i + ": " + expression);
+                }
+
+                String content = expression.substring(i + 1, end).trim();
+
+                if (content.equals("*")) {
+                    segments.add(Segment.WILDCARD);
+                } else if (content.length() >= 2 && (content.charAt(0) == '\'' || content.charAt(0) == '"') && content.charAt(content.length() - 1) == content.charAt(0)) {
+                    segments.add(Segment.field(content.substring(1, content.length() - 1)));
+                } else {
+                    try {
+                        segments.add(Segment.index(Integer.parseInt(content)));
+                    } catch (NumberFormatException e) {
+                        throw new IllegalArgumentException("invalid index '" + content + "': " + expression, e);
+                    }
+                }
+
+                i = end + 1;
+            } else {
+                throw new IllegalArgumentException("unexpected '" + c + "' at index " + i + ": " + expression);
+            }
+        }
+
+        return new JsonPath(expression, segments.toArray(new Segment[0]));
+    }
+
+    int length() {
+        return this.segments.length;
+    }
+
+    boolean matchesField(int level, JsonTokenizer tokenizer) {
+        Segment segment = this.segments[level];
+        return segment == Segment.WILDCARD || (segment.name != null && tokenizer.textEquals(segment.name));
+    }
+
+    boolean matchesIndex(int level, int index) {
+        Segment segment = this.segments[level];
+        return segment == Segment.WILDCARD || (segment.name == null && segment.index == index);
+    }
+
+    @Override
+    public String toString() {
+        return this.expression;
+    }
+
+    private static class Segment {
+
+        private static final Segment WILDCARD = new Segment(null, -1);
+
+        private final String name;
+        private final int index;
+
+        private Segment(String name, int index) {
+            this.name = name;
+            this.index = index;
+        }
+
+        private static Segment field(String name) {
+            return new Segment(name, -1);
+        }
+
+        private static Segment index(int index) {
+            return new Segment(null, index);
+        }
+    }
+}
@@ -0,0 +1,9 @@
+package dev.codeflush.httpclient.parser.json;
+
+import java.io.IOException;
+
+@FunctionalInterface
+public interface JsonReader<T> {
+
+    T read(JsonTokenizer tokenizer) throws IOException;
+}
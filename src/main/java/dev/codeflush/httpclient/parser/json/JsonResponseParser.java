@@ -0,0 +1,34 @@
+package dev.codeflush.httpclient.parser.json;
+
+import dev.codeflush.httpclient.client.HTTPClient;
+import dev.codeflush.httpclient.parser.ResponseParser;
+import dev.codeflush.httpclient.request.Request;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UnsupportedEncodingException;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+public class JsonResponseParser<T> implements ResponseParser<T> {
+
+    private final JsonReader<? extends T> reader;
+
+    public JsonResponseParser(JsonReader<? extends T> reader) {
+        this.reader = Objects.requireNonNull(reader);
+    }
+
+    @Override
+    public T parse(HTTPClient client, Request request, int responseCode, InputStream stream, Map<String, List<String>> headers, String contentType, String charset) throws IOException {
+        checkCharset(charset);
+        return this.reader.read(new JsonTokenizer(stream));
+    }
+
+    // the tokenizer decodes UTF-8 (and therefore ASCII) only
+    static void checkCharset(String charset) throws UnsupportedEncodingException {
+        if (charset != null && !charset.equalsIgnoreCase("UTF-8") && !charset.equalsIgnoreCase("UTF8") && !charset.equalsIgnoreCase("US-ASCII")) {
+            throw new UnsupportedEncodingException("unsupported charset for json: " + charset);
+        }
+    }
+}
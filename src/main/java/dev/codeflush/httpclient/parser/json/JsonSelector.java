@@ -0,0 +1,124 @@
+package dev.codeflush.httpclient.parser.json;
+
+import java.io.IOException;
+import java.util.Arrays;
+
+// only descends into containers on the selected path, everything else is skipped without being decoded
+public class JsonSelector {
+
+    private final JsonTokenizer tokenizer;
+    private final JsonPath path;
+    private boolean[] arrays;
+    private int[] indices;
+    private int level;
+    private int selectedDepth;
+    private boolean done;
+
+    JsonSelector(JsonTokenizer tokenizer, JsonPath path) {
+        this.tokenizer = tokenizer;
+        this.path = path;
+        this.arrays = new boolean[8];
+        this.indices = new int[8];
+        this.level = 0;
+        this.selectedDepth = -1;
+        this.done = false;
+    }
+
+    // positions the tokenizer at the first token of the next selected value, a selected object or array
+    // may be consumed completely or not at all before calling next() again
+    public boolean next() throws IOException {
+        if (this.done) {
+            return false;
+        }
+
+        skipRemainderOfSelection();
+
+        while (true) {
+            JsonToken token = this.tokenizer.next();
+
+            switch (token) {
+                case END_DOCUMENT:
+                    this.done = true;
+                    return false;
+                case END_OBJECT:
+                case END_ARRAY:
+                    this.level--;
+                    break;
+                case FIELD_NAME:
+                    if (!this.path.matchesField(this.level - 1, this.tokenizer)) {
+                        this.tokenizer.next();
+                        this.tokenizer.skipChildren();
+                        break;
+                    }
+
+                    token = this.tokenizer.next();
+                    if (onValue(token)) {
+                        return true;
+                    }
+
+                    break;
+                default:
+                    if (this.level > 0 && this.arrays[this.level - 1]) {
+                        int index = this.indices[this.level - 1]++;
+
+                        if (!this.path.matchesIndex(this.level - 1, index)) {
+                            this.tokenizer.skipChildren();
+                            break;
+                        }
+                    }
+
+                    if (onValue(token)) {
+                        return true;
+                    }
+
+                    break;
+            }
+        }
+    }
+
+    public JsonTokenizer getTokenizer() {
+        return this.tokenizer;
+    }
+
+    private boolean onValue(JsonToken token) throws IOException {
+        if (this.level == this.path.length()) {
+            this.selectedDepth = token.isStructStart() ? this.tokenizer.getDepth() : -1;
+            return true;
+        }
+
+        if (token.isStructStart()) {
+            enter(token == JsonToken.START_ARRAY);
+        }
+
+        return false;
+    }
+
+    private void enter(boolean array) {
+        if (this.level == this.arrays.length) {
+            this.arrays = Arrays.copyOf(this.arrays, this.level * 2);
+            this.indices = Arrays.copyOf(this.indices, this.level * 2);
+        }
+
+        this.arrays[this.level] = array;
+        this.indices[this.level] = 0;
+        this.level++;
+    }
+
+    private void skipRemainderOfSelection() throws IOException {
+        if (this.selectedDepth == -1) {
+            return;
+        }
+
+        while (this.tokenizer.getDepth() >= this.selectedDepth) {
+            JsonToken current = this.tokenizer.current();
+
+            if (current.isStructStart()) {
+                this.tokenizer.skipChildren();
+            } else {
+                this.tokenizer.next();
+            }
+        }
+
+        this.selectedDepth = -1;
+    }
+}
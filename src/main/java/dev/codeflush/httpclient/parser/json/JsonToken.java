@@ -0,0 +1,28 @@
+package dev.codeflush.httpclient.parser.json;
+
+public enum JsonToken {
+
+    START_OBJECT,
+    END_OBJECT,
+    START_ARRAY,
+    END_ARRAY,
+    FIELD_NAME,
+    STRING,
+    NUMBER,
+    TRUE,
+    FALSE,
+    NULL,
+    END_DOCUMENT;
+
+    public boolean isStructStart() {
+        return this == START_OBJECT || this == START_ARRAY;
+    }
+
+    public boolean isStructEnd() {
+        return this == END_OBJECT || this == END_ARRAY;
+    }
+
+    public boolean isScalarValue() {
+        return this == STRING || this == NUMBER || this == TRUE || this == FALSE || this == NULL;
+    }
+}
@@ -0,0 +1,651 @@
+package dev.codeflush.httpclient.parser.json;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.Objects;
+
+public class JsonTokenizer implements Closeable {
+
+    private static final int DEFAULT_BUFFER_SIZE = 8192;
+
+    private static final byte IN_OBJECT = 1;
+    private static final byte IN_ARRAY = 2;
+
+    private static final int EXPECT_VALUE = 0;
+    private static final int EXPECT_FIRST_FIELD = 1;
+    private static final int EXPECT_FIRST_ELEMENT = 2;
+    private static final int EXPECT_COLON = 3;
+    private static final int AFTER_VALUE = 4;
+
+    private final InputStream in;
+    private final byte[] buffer;
+    private int position;
+    private int limit;
+    private long bufferOffset;
+
+    private byte[] containers;
+    private int depth;
+    private int state;
+
+    private char[] text;
+    private int textLength;
+    private boolean integral;
+    private JsonToken current;
+
+    public JsonTokenizer(InputStream in, int bufferSize) {
+        this.in = Objects.requireNonNull(in);
+        this.buffer = new byte[bufferSize];
+        this.position = 0;
+        this.limit = 0;
+        this.bufferOffset = 0L;
+        this.containers = new byte[16];
+        this.depth = 0;
+        this.state = EXPECT_VALUE;
+        this.text = new char[64];
+        this.textLength = 0;
+        this.current = null;
+    }
+
+    public JsonTokenizer(InputStream in) {
+        this(in, DEFAULT_BUFFER_SIZE);
+    }
+
+    public JsonToken current() {
+        return this.current;
+    }
+
+    public int getDepth() {
+        return this.depth;
+    }
+
+    public long getOffset() {
+        return this.bufferOffset + this.position;
+    }
+
+    public JsonToken next() throws IOException {
+        if (this.current == JsonToken.END_DOCUMENT) {
+            return JsonToken.END_DOCUMENT;
+        }
+
+        int c = nextNonWhitespace();
+
+        switch (this.state) {
+            case EXPECT_VALUE:
+                return this.current = readValue(c);
+            case EXPECT_FIRST_FIELD:
+                if (c == '}') {
+                    return this.current = pop(IN_OBJECT, JsonToken.END_OBJECT);
+                }
+
+                return this.current = readFieldName(c);
+            case EXPECT_FIRST_ELEMENT:
+                if (c == ']') {
+                    return this.current = pop(IN_ARRAY, JsonToken.END_ARRAY);
+                }
+
+                return this.current = readValue(c);
+            case EXPECT_COLON:
+                if (c != ':') {
+                    throw unexpected(c, "':'");
+                }
+
+                return this.current = readValue(nextNonWhitespace());
+            case AFTER_VALUE:
+                if (this.depth == 0) {
+                    if (c != -1) {
+                        throw unexpected(c, "end of input");
+                    }
+
+                    return this.current = JsonToken.END_DOCUMENT;
+                }
+
+                byte container = this.containers[this.depth - 1];
+
+                if (c == ',') {
+                    if (container == IN_OBJECT) {
+                        return this.current = readFieldName(nextNonWhitespace());
+                    } else {
+                        return this.current = readValue(nextNonWhitespace());
+                    }
+                } else if (c == '}' && container == IN_OBJECT) {
+                    return this.current = pop(IN_OBJECT, JsonToken.END_OBJECT);
+                } else if (c == ']' && container == IN_ARRAY) {
+                    return this.current = pop(IN_ARRAY, JsonToken.END_ARRAY);
+                }
+
+                throw unexpected(c, container == IN_OBJECT ? "',' or '}'" : "',' or ']'");
+            default:
+                throw new IllegalStateException();
+        }
+    }
+
+    // skips the object or array the tokenizer is positioned at without decoding its content,
+    // the tokenizer is positioned at the corresponding END_OBJECT or END_ARRAY afterwards
+    public void skipChildren() throws IOException {
+        if (this.current != JsonToken.START_OBJECT && this.current != JsonToken.START_ARRAY) {
+            return;
+        }
+
+        int nesting = 1;
+
+        while (nesting > 0) {
+            int c = read();
+
+            switch (c) {
+                case -1:
+                    throw new JsonParseException("unexpected end of input", getOffset());
+                case '"':
+                    skipString();
+                    break;
+                case '{':
+                case '[':
+                    nesting++;
+                    break;
+                case '}':
+                case ']':
+                    nesting--;
+
+                    if (nesting == 0) {
+                        byte expected = (c == '}') ? IN_OBJECT : IN_ARRAY;
+                        this.current = pop(expected, (c == '}') ? JsonToken.END_OBJECT : JsonToken.END_ARRAY);
+                    }
+
+                    break;
+                default:
+                    break;
+            }
+        }
+    }
+
+    // visits the value starting at the current token (or the next token if the current one isn't the start of a value)
+    public void accept(JsonVisitor visitor) throws IOException {
+        JsonToken token = this.current;
+
+        if (token == null || !(token.isStructStart() || token.isScalarValue())) {
+            token = next();
+        }
+
+        if (token.isScalarValue()) {
+            visitor.onValue(token, this);
+            return;
+        }
+
+        int startDepth = this.depth;
+
+        while (true) {
+            switch (token) {
+                case START_OBJECT:
+                    visitor.onStartObject();
+                    break;
+                case END_OBJECT:
+                    visitor.onEndObject();
+                    break;
+                case START_ARRAY:
+                    visitor.onStartArray();
+                    break;
+                case END_ARRAY:
+                    visitor.onEndArray();
+                    break;
+                case FIELD_NAME:
+                    visitor.onFieldName(this);
+                    break;
+                case END_DOCUMENT:
+                    throw new JsonParseException("unexpected end of input", getOffset());
+                default:
+                    visitor.onValue(token, this);
+                    break;
+            }
+
+            if (token.isStructEnd() && this.depth == startDepth - 1) {
+                return;
+            }
+
+            token = next();
+        }
+    }
+
+    public JsonSelector select(JsonPath path) {
+        return new JsonSelector(this, path);
+    }
+
+    public String getText() {
+        if (this.current == null) {
+            return null;
+        }
+
+        switch (this.current) {
+            case FIELD_NAME:
+            case STRING:
+            case NUMBER:
+                return new String(this.text, 0, this.textLength);
+            case TRUE:
+                return "true";
+            case FALSE:
+                return "false";
+            case NULL:
+                return "null";
+            default:
+                return null;
+        }
+    }
+
+    public boolean textEquals(String str) {
+        if (str.length() != this.textLength) {
+            return false;
+        }
+
+        for (int i = 0; i < this.textLength; i++) {
+            if (this.text[i] != str.charAt(i)) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    public boolean getBoolean() {
+        if (this.current == JsonToken.TRUE) {
+            return true;
+        } else if (this.current == JsonToken.FALSE) {
+            return false;
+        }
+
+        throw new IllegalStateException("current token is not a boolean but " + this.current);
+    }
+
+    public long getLong() {
+        requireNumber();
+
+        if (this.integral && this.textLength <= 18) {
+            boolean negative = this.text[0] == '-';
+            long result = 0L;
+
+            for (int i = negative ? 1 : 0; i < this.textLength; i++) {
+                result = result * 10 + (this.text[i] - '0');
+            }
+
+            return negative ? -result : result;
+        }
+
+        return getDecimal().longValueExact();
+    }
+
+    public int getInt() {
+        long value = getLong();
+
+        if (value < Integer.MIN_VALUE || value > Integer.MAX_VALUE) {
+            throw new ArithmeticException("value out of int range: " + value);
+        }
+
+        return (int) value;
+    }
+
+    public double getDouble() {
+        requireNumber();
+        return Double.parseDouble(new String(this.text, 0, this.textLength));
+    }
+
+    public BigDecimal getDecimal() {
+        requireNumber();
+        return new BigDecimal(this.text, 0, this.textLength);
+    }
+
+    @Override
+    public void close() throws IOException {
+        this.in.close();
+    }
+
+    private void requireNumber() {
+        if (this.current != JsonToken.NUMBER) {
+            throw new IllegalStateException("current token is not a number but " + this.current);
+        }
+    }
+
+    private JsonToken readFieldName(int c) throws IOException {
+        if (c != '"') {
+            throw unexpected(c, "field name");
+        }
+
+        readString();
+        this.state = EXPECT_COLON;
+
+        return JsonToken.FIELD_NAME;
+    }
+
+    private JsonToken readValue(int c) throws IOException {
+        switch (c) {
+            case '{':
+                push(IN_OBJECT);
+                this.state = EXPECT_FIRST_FIELD;
+                return JsonToken.START_OBJECT;
+            case '[':
+                push(IN_ARRAY);
+                this.state = EXPECT_FIRST_ELEMENT;
+                return JsonToken.START_ARRAY;
+            case '"':
+                readString();
+                this.state = AFTER_VALUE;
+                return JsonToken.STRING;
+            case 't':
+                readLiteral("rue");
+                this.state = AFTER_VALUE;
+                return JsonToken.TRUE;
+            case 'f':
+                readLiteral("alse");
+                this.state = AFTER_VALUE;
+                return JsonToken.FALSE;
+            case 'n':
+                readLiteral("ull");
+                this.state = AFTER_VALUE;
+                return JsonToken.NULL;
+            default:
+                if (c == '-' || (c >= '0' && c <= '9')) {
+                    readNumber(c);
+                    this.state = AFTER_VALUE;
+                    return JsonToken.NUMBER;
+                }
+
+                throw unexpected(c, "value");
+        }
+    }
+
+    private void push(byte container) {
+        if (this.depth == this.containers.length) {
+            this.containers = Arrays.copyOf(this.containers, this.containers.length * 2);
+        }
+
+        this.containers[this.depth++] = container;
+    }
+
+    private JsonToken pop(byte expected, JsonToken token) throws JsonParseException {
+        if (this.depth == 0 || this.containers[this.depth - 1] != expected) {
+            throw new JsonParseException("unbalanced " + token, getOffset());
+        }
+
+        this.depth--;
+        this.state = AFTER_VALUE;
+
+        return token;
+    }
+
+    private void readLiteral(String rest) throws IOException {
+        for (int i = 0; i < rest.length(); i++) {
+            int c = read();
+
+            if (c != rest.charAt(i)) {
+                throw unexpected(c, "'" + rest.charAt(i) + "'");
+            }
+        }
+    }
+
+    private void readNumber(int c) throws IOException {
+        this.textLength = 0;
+        this.integral = true;
+
+        if (c == '-') {
+            appendText('-');
+            c = read();
+        }
+
+        if (c == '0') {
+            appendText('0');
+            c = peek();
+        } else if (c >= '1' && c <= '9') {
+            appendText((char) c);
+            c = readDigits();
+        } else {
+            throw unexpected(c, "digit");
+        }
+
+        if (c == '.') {
+            this.integral = false;
+            this.position++;
+            appendText('.');
+            requireDigit(read());
+            c = readDigits();
+        }
+
+        if (c == 'e' || c == 'E') {
+            this.integral = false;
+            this.position++;
+            appendText('e');
+            c = read();
+
+            if (c == '+' || c == '-') {
+                appendText((char) c);
+                c = read();
+            }
+
+            requireDigit(c);
+            readDigits();
+        }
+    }
+
+    private void requireDigit(int c) throws JsonParseException {
+        if (c < '0' || c > '9') {
+            throw unexpected(c, "digit");
+        }
+
+        appendText((char) c);
+    }
+
+    // appends all following digits and returns the first non-digit without consuming it
+    private int readDigits() throws IOException {
+        while (true) {
+            int c = peek();
+
+            if (c < '0' || c > '9') {
+                return c;
+            }
+
+            this.position++;
+            appendText((char) c);
+        }
+    }
+
+    private void readString() throws IOException {
+        this.textLength = 0;
+
+        while (true) {
+            if (this.position == this.limit && !fill()) {
+                throw new JsonParseException("unterminated string", getOffset());
+            }
+
+            // fast path for plain ascii
+            byte[] buf = this.buffer;
+            int pos = this.position;
+            int end = this.limit;
+
+            while (pos < end) {
+                byte b = buf[pos];
+
+                if (b == '"' || b == '\\' || b < 0x20) {
+                    break;
+                }
+
+                appendText((char) b);
+                pos++;
+            }
+
+            this.position = pos;
+
+            if (pos == end) {
+                continue;
+            }
+
+            int c = read();
+
+            if (c == '"') {
+                return;
+            } else if (c == '\\') {
+                readEscape();
+            } else if (c < 0x20 && c >= 0) {
+                throw new JsonParseException("unescaped control character in string", getOffset() - 1);
+            } else {
+                readMultiByte(c);
+            }
+        }
+    }
+
+    private void readEscape() throws IOException {
+        int c = read();
+
+        switch (c) {
+            case '"':
+            case '\\':
+            case '/':
+                appendText((char) c);
+                break;
+            case 'b':
+                appendText('\b');
+                break;
+            case 'f':
+                appendText('\f');
+                break;
+            case 'n':
+                appendText('\n');
+                break;
+            case 'r':
+                appendText('\r');
+                break;
+            case 't':
+                appendText('\t');
+                break;
+            case 'u':
+                int value = 0;
+
+                for (int i = 0; i < 4; i++) {
+                    int h = read();
+                    int digit = Character.digit(h, 16);
+
+                    if (h == -1 || digit == -1) {
+                        throw unexpected(h, "hex digit");
+                    }
+
+                    value = (value << 4) | digit;
+                }
+
+                appendText((char) value);
+                break;
+            default:
+                throw unexpected(c, "escape sequence");
+        }
+    }
+
+    private void readMultiByte(int first) throws IOException {
+        int b = first & 0xFF;
+        int codePoint;
+        int continuationBytes;
+        int min;
+
+        if (b >= 0xC2 && b <= 0xDF) {
+            codePoint = b & 0x1F;
+            continuationBytes = 1;
+            min = 0x80;
+        } else if (b >= 0xE0 && b <= 0xEF) {
+            codePoint = b & 0x0F;
+            continuationBytes = 2;
+            min = 0x800;
+        } else if (b >= 0xF0 && b <= 0xF4) {
+            codePoint = b & 0x07;
+            continuationBytes = 3;
+            min = 0x10000;
+        } else {
+            throw new JsonParseException("invalid UTF-8 start byte", getOffset() - 1);
+        }
+
+        for (int i = 0; i < continuationBytes; i++) {
+            int c = read();
+
+            if (c == -1 || (c & 0xC0) != 0x80) {
+                throw new JsonParseException("invalid UTF-8 continuation byte", getOffset() - 1);
+            }
+
+            codePoint = (codePoint << 6) | (c & 0x3F);
+        }
+
+        if (codePoint < min || codePoint > Character.MAX_CODE_POINT || (codePoint >= 0xD800 && codePoint <= 0xDFFF)) {
+            throw new JsonParseException("invalid UTF-8 sequence", getOffset());
+        }
+
+        if (codePoint >= 0x10000) {
+            appendText(Character.highSurrogate(codePoint));
+            appendText(Character.lowSurrogate(codePoint));
+        } else {
+            appendText((char) codePoint);
+        }
+    }
+
+    private void skipString() throws IOException {
+        while (true) {
+            int c = read();
+
+            if (c == -1) {
+                throw new JsonParseException("unterminated string", getOffset());
+            } else if (c == '\\') {
+                read();
+            } else if (c == '"') {
+                return;
+            }
+        }
+    }
+
+    private void appendText(char c) {
+        if (this.textLength == this.text.length) {
+            this.text = Arrays.copyOf(this.text, this.text.length * 2);
+        }
+
+        this.text[this.textLength++] = c;
+    }
+
+    private int nextNonWhitespace() throws IOException {
+        while (true) {
+            int c = read();
+
+            if (c != ' ' && c != '\n' && c != '\r' && c != '\t') {
+                return c;
+            }
+        }
+    }
+
+    private int read() throws IOException {
+        if (this.position == this.limit && !fill()) {
+            return -1;
+        }
+
+        return this.buffer[this.position++] & 0xFF;
+    }
+
+    private int peek() throws IOException {
+        if (this.position == this.limit && !fill()) {
+            return -1;
+        }
+
+        return this.buffer[this.position] & 0xFF;
+    }
+
+    private boolean fill() throws IOException {
+        this.bufferOffset += this.limit;
+        this.position = 0;
+        this.limit = 0;
+
+        int bytesRead;
+        while ((bytesRead = this.in.read(this.buffer)) == 0) {
+        }
+
+        if (bytesRead == -1) {
+            return false;
+        }
+
+        this.limit = bytesRead;
+        return true;
+    }
+
+    private JsonParseException unexpected(int c, String expected) {
+        String found = (c == -1) ? "end of input" : ("'" + (char) c + "'");
+        return new JsonParseException("expected " + expected + " but found " + found, getOffset());
+    }
+}
@@ -0,0 +1,25 @@
+package dev.codeflush.httpclient.parser.json;
+
+import java.io.IOException;
+
+// names and values are read from the tokenizer on demand so no String is created for ignored values
+public interface JsonVisitor {
+
+    default void onStartObject() throws IOException {
+    }
+
+    default void onEndObject() throws IOException {
+    }
+
+    default void onStartArray() throws IOException {
+    }
+
+    default void onEndArray() throws IOException {
+    }
+
+    default void onFieldName(JsonTokenizer tokenizer) throws IOException {
+    }
+
+    default void onValue(JsonToken token, JsonTokenizer tokenizer) throws IOException {
+    }
+}
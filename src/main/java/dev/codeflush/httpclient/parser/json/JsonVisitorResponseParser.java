@@ -0,0 +1,51 @@
+package dev.codeflush.httpclient.parser.json;
+
+import dev.codeflush.httpclient.client.HTTPClient;
+import dev.codeflush.httpclient.parser.ResponseParser;
+import dev.codeflush.httpclient.request.Request;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Supplier;
+
+public class JsonVisitorResponseParser<V extends JsonVisitor> implements ResponseParser<V> {
+
+    private final Supplier<? extends V> visitorSupplier;
+    private final JsonPath path;
+
+    public JsonVisitorResponseParser(Supplier<? extends V> visitorSupplier, JsonPath path) {
+        this.visitorSupplier = Objects.requireNonNull(visitorSupplier);
+        this.path = path;
+    }
+
+    public JsonVisitorResponseParser(Supplier<? extends V> visitorSupplier, String path) {
+        this(visitorSupplier, JsonPath.compile(path));
+    }
+
+    public JsonVisitorResponseParser(Supplier<? extends V> visitorSupplier) {
+        this(visitorSupplier, (JsonPath) null);
+    }
+
+    @Override
+    public V parse(HTTPClient client, Request request, int responseCode, InputStream stream, Map<String, List<String>> headers, String contentType, String charset) throws IOException {
+        JsonResponseParser.checkCharset(charset);
+
+        JsonTokenizer tokenizer = new JsonTokenizer(stream);
+        V visitor = this.visitorSupplier.get();
+
+        if (this.path == null) {
+            tokenizer.accept(visitor);
+        } else {
+            JsonSelector selector = tokenizer.select(this.path);
+
+            while (selector.next()) {
+                tokenizer.accept(visitor);
+            }
+        }
+
+        return visitor;
+    }
+}
@@ -0,0 +1,343 @@
+package dev.codeflush.httpclient.parser.multipart;
+
+import dev.codeflush.httpclient.buffer.BufferPool;
+import dev.codeflush.httpclient.buffer.PooledBuffer;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+// reads the parts of a multipart body (RFC 2046) one after another, only a window of the stream is buffered.
+// The delimiter "\r\n--boundary" is searched with Boyer-Moore-Horspool; the stream is treated as if it started with
+// "\r\n", so the first delimiter needs no special case
+public class MultipartReader implements Closeable {
+
+    private static final int BUFFER_SIZE = 16 * 1024;
+
+    private final InputStream in;
+    private final byte[] delimiter;
+    private final int[] shift;
+    private final PooledBuffer pooled;
+    private final byte[] buffer;
+    private int position;
+    private int limit;
+    private int scanFrom;
+    private boolean eof;
+    private boolean finished;
+    private PartInputStream current;
+    private int index;
+
+    public MultipartReader(InputStream in, String boundary) {
+        this.in = Objects.requireNonNull(in);
+
+        if (boundary.isEmpty() || boundary.length() > 70) {
+            throw new IllegalArgumentException("a boundary must have 1 to 70 characters");
+        }
+
+        this.delimiter = ("\r\n--" + boundary).getBytes(StandardCharsets.ISO_8859_1);
+        this.shift = new int[256];
+
+        for (int i = 0; i < this.shift.length; i++) {
+            this.shift[i] = this.delimiter.length;
+        }
+
+        for (int i = 0; i < this.delimiter.length - 1; i++) {
+            this.shift[this.delimiter[i] & 0xff] = this.delimiter.length - 1 - i;
+        }
+
+        this.pooled = BufferPool.heap().acquire(BUFFER_SIZE);
+        this.buffer = this.pooled.array();
+        this.buffer[0] = '\r';
+        this.buffer[1] = '\n';
+        this.position = 0;
+        this.limit = 2;
+        this.scanFrom = 0;
+        this.eof = false;
+        this.finished = false;
+        // the preamble is skipped like the rest of a part
+        this.current = new PartInputStream();
+        this.index = 0;
+    }
+
+    // the boundary parameter of a Content-Type header value, null if there is none
+    public static String boundaryOf(String contentType) {
+        if (contentType == null) {
+            return null;
+        }
+
+        int index = 0;
+
+        while ((index = contentType.indexOf(';', index)) != -1) {
+            int equals = contentType.indexOf('=', index);
+            if (equals == -1) {
+                return null;
+            }
+
+            String name = contentType.substring(index + 1, equals).trim();
+            int start = equals + 1;
+            int end;
+            String value;
+
+            // quoted values may contain ';'
+            if (start < contentType.length() && contentType.charAt(start) == '"') {
+                end = contentType.indexOf('"', start + 1);
+                end = (end == -1) ? contentType.length() : end;
+                value = contentType.substring(start + 1, end);
+            } else {
+                end = contentType.indexOf(';', start);
+                end = (end == -1) ? contentType.length() : end;
+                value = contentType.substring(start, end).trim();
+            }
+
+            if (name.equalsIgnoreCase("boundary")) {
+                return value.isEmpty() ? null : value;
+            }
+
+            index = end;
+        }
+
+        return null;
+    }
+
+    // the next part, null after the closing delimiter; the stream of the previous part is skipped and invalidated
+    public Part next() throws IOException {
+        if (this.finished) {
+            return null;
+        }
+
+        this.current.skipRemaining();
+
+        if (!readDelimiterSuffix()) {
+            this.finished = true;
+            return null;
+        }
+
+        Map<String, List<String>> headers = readHeaders();
+        this.current = new PartInputStream();
+
+        return new Part(this.index++, headers, this.current);
+    }
+
+    @Override
+    public void close() {
+        this.finished = true;
+        this.pooled.close();
+    }
+
+    // "--" marks the closing delimiter, otherwise optional whitespace and CRLF follow the delimiter
+    private boolean readDelimiterSuffix() throws IOException {
+        while (this.limit - this.position < 2) {
+            if (!fill()) {
+                throw new IOException("multipart body ended after a delimiter");
+            }
+        }
+
+        if (this.buffer[this.position] == '-' && this.buffer[this.position + 1] == '-') {
+            this.position += 2;
+            return false;
+        }
+
+        if (!readLine().trim().isEmpty()) {
+            throw new IOException("malformed multipart delimiter");
+        }
+
+        return true;
+    }
+
+    private Map<String, List<String>> readHeaders() throws IOException {
+        Map<String, List<String>> headers = new LinkedHashMap<>();
+        String line;
+
+        while (!(line = readLine()).isEmpty()) {
+            int colon = line.indexOf(':');
+
+            if (colon <= 0) {
+                throw new IOException("malformed part header: " + line);
+            }
+
+            String name = line.substring(0, colon).trim();
+            headers.computeIfAbsent(name, (key) -> new ArrayList<>(1)).add(line.substring(colon + 1).trim());
+        }
+
+        return headers;
+    }
+
+    private String readLine() throws IOException {
+        int from = this.position;
+
+        while (true) {
+            for (int i = from; i < this.limit; i++) {
+                if (this.buffer[i] == '\n') {
+                    int end = (i > this.position && this.buffer[i - 1] == '\r') ? i - 1 : i;
+                    String line = new String(this.buffer, this.position, end - this.position, StandardCharsets.ISO_8859_1);
+                    this.position = i + 1;
+
+                    return line;
+                }
+            }
+
+            from = this.limit - this.position;
+
+            if (!fill()) {
+                throw new IOException((this.limit - this.position == this.buffer.length) ? "part headers too large" : "multipart body ended within the part headers");
+            }
+
+            from += this.position;
+        }
+    }
+
+    // number of part bytes at the current position before the next delimiter, 0 if the delimiter is at the position
+    private int partBytes() throws IOException {
+        while (true) {
+            int found = search();
+
+            if (found != -1) {
+                return found - this.position;
+            }
+
+            // the tail could be the start of a delimiter
+            int safe = this.limit - this.position - (this.delimiter.length - 1);
+            if (safe > 0) {
+                return safe;
+            }
+
+            if (!fill()) {
+                throw new IOException("multipart body ended without the closing delimiter");
+            }
+        }
+    }
+
+    private int search() {
+        int m = this.delimiter.length;
+        int i = Math.max(this.position, this.scanFrom);
+
+        while (i <= this.limit - m) {
+            int j = m - 1;
+
+            while (j >= 0 && this.buffer[i + j] == this.delimiter[j]) {
+                j--;
+            }
+
+            if (j < 0) {
+                return i;
+            }
+
+            i += this.shift[this.buffer[i + m - 1] & 0xff];
+        }
+
+        // everything before can't be the start of a delimiter anymore
+        this.scanFrom = Math.max(this.position, this.limit - m + 1);
+        return -1;
+    }
+
+    private boolean fill() throws IOException {
+        if (this.eof) {
+            return false;
+        }
+
+        if (this.position > 0) {
+            System.arraycopy(this.buffer, this.position, this.buffer, 0, this.limit - this.position);
+            this.limit -= this.position;
+            this.scanFrom = Math.max(0, this.scanFrom - this.position);
+            this.position = 0;
+        }
+
+        if (this.limit == this.buffer.length) {
+            return false;
+        }
+
+        int bytesRead = this.in.read(this.buffer, this.limit, this.buffer.length - this.limit);
+
+        if (bytesRead == -1) {
+            this.eof = true;
+            return false;
+        }
+
+        this.limit += bytesRead;
+        return true;
+    }
+
+    private final class PartInputStream extends InputStream {
+
+        private boolean done;
+
+        private PartInputStream() {
+            this.done = false;
+        }
+
+        @Override
+        public int read() throws IOException {
+            if (available(1) == 0) {
+                return -1;
+            }
+
+            return buffer[position++] & 0xff;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            if (len == 0) {
+                return 0;
+            }
+
+            int n = available(len);
+            if (n == 0) {
+                return -1;
+            }
+
+            System.arraycopy(buffer, position, b, off, n);
+            position += n;
+
+            return n;
+        }
+
+        @Override
+        public long skip(long n) throws IOException {
+            int skipped = available((int) Math.min(n, Integer.MAX_VALUE));
+            position += skipped;
+
+            return skipped;
+        }
+
+        @Override
+        public int available() {
+            if (this.done) {
+                return 0;
+            }
+
+            int found = search();
+            return Math.max(0, (found == -1) ? limit - position - (delimiter.length - 1) : found - position);
+        }
+
+        private int available(int max) throws IOException {
+            if (this.done) {
+                return 0;
+            }
+
+            int n = partBytes();
+
+            if (n == 0) {
+                // consume the delimiter, the suffix is read by next()
+                position += delimiter.length;
+                scanFrom = position;
+                this.done = true;
+            }
+
+            return Math.min(n, max);
+        }
+
+        private void skipRemaining() throws IOException {
+            while (!this.done) {
+                // available() moves the position itself when it reaches the delimiter
+                int n = available(Integer.MAX_VALUE);
+                position += n;
+            }
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package dev.codeflush.httpclient.parser.multipart;
+
+import dev.codeflush.httpclient.client.HTTPClient;
+import dev.codeflush.httpclient.parser.ResponseParser;
+import dev.codeflush.httpclient.request.Request;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+// multipart/mixed, multipart/byteranges, ...: every part is handed to the PartParser while it is read from the
+// response, only the results are kept
+public class MultipartResponseParser<T> implements ResponseParser<List<T>> {
+
+    private final PartParser<? extends T> partParser;
+
+    public MultipartResponseParser(PartParser<? extends T> partParser) {
+        this.partParser = Objects.requireNonNull(partParser);
+    }
+
+    @Override
+    public List<T> parse(HTTPClient client, Request request, int responseCode, InputStream stream, Map<String, List<String>> headers, String contentType, String charset) throws IOException {
+        String boundary = MultipartReader.boundaryOf(getHeader(headers, "Content-Type"));
+
+        if (boundary == null) {
+            throw new IOException("no multipart boundary in the Content-Type " + contentType);
+        }
+
+        List<T> results = new ArrayList<>();
+
+        try (MultipartReader reader = new MultipartReader(stream, boundary)) {
+            Part part;
+
+            while ((part = reader.next()) != null) {
+                results.add(this.partParser.parse(part));
+            }
+        }
+
+        return results;
+    }
+
+    private static String getHeader(Map<String, List<String>> headers, String name) {
+        for (Map.Entry<String, List<String>> entry : headers.entrySet()) {
+            if (name.equalsIgnoreCase(entry.getKey()) && !entry.getValue().isEmpty()) {
+                return entry.getValue().get(0);
+            }
+        }
+
+        return null;
+    }
+}
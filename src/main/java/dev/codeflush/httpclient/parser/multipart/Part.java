@@ -0,0 +1,53 @@
+package dev.codeflush.httpclient.parser.multipart;
+
+import dev.codeflush.httpclient.client.SimpleHTTPClient;
+
+import java.io.InputStream;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+// the stream ends at the end of the part and is only valid until the next part is read
+public class Part {
+
+    private final int index;
+    private final Map<String, List<String>> headers;
+    private final InputStream stream;
+
+    Part(int index, Map<String, List<String>> headers, InputStream stream) {
+        this.index = index;
+        this.headers = Collections.unmodifiableMap(headers);
+        this.stream = stream;
+    }
+
+    public int getIndex() {
+        return this.index;
+    }
+
+    public Map<String, List<String>> getHeaders() {
+        return this.headers;
+    }
+
+    // case-insensitive, the first value
+    public String getHeader(String name) {
+        for (Map.Entry<String, List<String>> entry : this.headers.entrySet()) {
+            if (entry.getKey().equalsIgnoreCase(name) && !entry.getValue().isEmpty()) {
+                return entry.getValue().get(0);
+            }
+        }
+
+        return null;
+    }
+
+    public String getContentType() {
+        return SimpleHTTPClient.parseContentType(getHeader("Content-Type"))[0];
+    }
+
+    public String getCharset() {
+        return SimpleHTTPClient.parseContentType(getHeader("Content-Type"))[1];
+    }
+
+    public InputStream getInputStream() {
+        return this.stream;
+    }
+}
@@ -0,0 +1,9 @@
+package dev.codeflush.httpclient.parser.multipart;
+
+import java.io.IOException;
+
+@FunctionalInterface
+public interface PartParser<T> {
+
+    T parse(Part part) throws IOException;
+}
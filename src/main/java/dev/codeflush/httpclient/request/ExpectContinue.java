@@ -0,0 +1,62 @@
+package dev.codeflush.httpclient.request;
+
+public final class ExpectContinue {
+
+    public static final long DEFAULT_THRESHOLD_BYTES = 1024L * 1024L;
+    public static final long DEFAULT_TIMEOUT_MILLIS = 1000L;
+
+    // bodies above 1 MiB wait up to a second for the server to accept the headers
+    public static final ExpectContinue DEFAULT = new ExpectContinue(DEFAULT_THRESHOLD_BYTES, DEFAULT_TIMEOUT_MILLIS);
+    // only requests that opt in explicitly
+    public static final ExpectContinue OPT_IN = new ExpectContinue(Long.MAX_VALUE, DEFAULT_TIMEOUT_MILLIS);
+
+    private final long thresholdBytes;
+    private final long timeoutMillis;
+
+    private ExpectContinue(long thresholdBytes, long timeoutMillis) {
+        if (thresholdBytes < 0L) {
+            throw new IllegalArgumentException("thresholdBytes must not be negative");
+        }
+
+        if (timeoutMillis <= 0L) {
+            throw new IllegalArgumentException("timeoutMillis must be positive");
+        }
+
+        this.thresholdBytes = thresholdBytes;
+        this.timeoutMillis = timeoutMillis;
+    }
+
+    // timeoutMillis: how long to wait for "100 Continue" before the body is sent anyway, servers that don't
+    // implement the expectation never answer
+    public static ExpectContinue of(long thresholdBytes, long timeoutMillis) {
+        return new ExpectContinue(thresholdBytes, timeoutMillis);
+    }
+
+    public long getThresholdBytes() {
+        return this.thresholdBytes;
+    }
+
+    public long getTimeoutMillis() {
+        return this.timeoutMillis;
+    }
+
+    public ExpectContinue withTimeout(long timeoutMillis) {
+        return new ExpectContinue(this.thresholdBytes, timeoutMillis);
+    }
+
+    // the setting of the request wins, otherwise bodies larger than the threshold expect 100-continue
+    public boolean isExpected(Request request, long contentLength) {
+        Boolean requested = request.getExpectContinue();
+
+        if (requested != null) {
+            return requested;
+        }
+
+        return contentLength > this.thresholdBytes;
+    }
+
+    @Override
+    public String toString() {
+        return "ExpectContinue{threshold=" + this.thresholdBytes + ", timeout=" + this.timeoutMillis + "}";
+    }
+}
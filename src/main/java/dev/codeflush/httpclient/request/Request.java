@@ -1,8 +1,10 @@
 package dev.codeflush.httpclient.request;
 
+import dev.codeflush.httpclient.Deadline;
 import dev.codeflush.httpclient.Endpoint;
 import dev.codeflush.httpclient.RequestMethod;
 import dev.codeflush.httpclient.Response;
+import dev.codeflush.httpclient.ResponseBody;
 import dev.codeflush.httpclient.client.HTTPClient;
 import dev.codeflush.httpclient.request.body.RequestBody;
 import dev.codeflush.httpclient.parser.ResponseParser;
@@ -13,6 +15,7 @@ import java.net.MalformedURLException;
 import java.net.URL;
 import java.net.URLEncoder;
 import java.nio.charset.Charset;
+import java.util.Collections;
 import java.util.LinkedHashMap;
 import java.util.Map;
 import java.util.Objects;
@@ -26,20 +29,39 @@ public class Request {
     private final Map<String, String> urlParameters;
     private final Map<String, String> headers;
     private final RequestBody body;
+    private final Timeouts timeouts;
+    private final Deadline deadline;
+    private final Boolean expectContinue;
     private final Object lock;
     private volatile URL requestURL;
 
-    public Request(Endpoint endpoint, RequestMethod method, Charset charset, Map<String, String> urlParameters, Map<String, String> headers, RequestBody body) {
+    // expectContinue: null lets the client decide based on the content length
+    public Request(Endpoint endpoint, RequestMethod method, Charset charset, Map<String, String> urlParameters, Map<String, String> headers, RequestBody body, Timeouts timeouts, Deadline deadline, Boolean expectContinue) {
         this.endpoint = Objects.requireNonNull(endpoint);
         this.method = Objects.requireNonNull(method);
         this.charset = Objects.requireNonNull(charset);
         this.urlParameters = Objects.requireNonNull(urlParameters);
         this.headers = Objects.requireNonNull(headers);
         this.body = body;
+        this.timeouts = Objects.requireNonNull(timeouts);
+        this.deadline = deadline;
+        this.expectContinue = expectContinue;
         this.lock = new Object();
         this.requestURL = null;
     }
 
+    public Request(Endpoint endpoint, RequestMethod method, Charset charset, Map<String, String> urlParameters, Map<String, String> headers, RequestBody body, Timeouts timeouts, Deadline deadline) {
+        this(endpoint, method, charset, urlParameters, headers, body, timeouts, deadline, null);
+    }
+
+    public Request(Endpoint endpoint, RequestMethod method, Charset charset, Map<String, String> urlParameters, Map<String, String> headers, RequestBody body) {
+        this(endpoint, method, charset, urlParameters, headers, body, Timeouts.DEFAULT, null);
+    }
+
+    public Endpoint getEndpoint() {
+        return this.endpoint;
+    }
+
     public RequestMethod getMethod() {
         return this.method;
     }
@@ -52,6 +74,18 @@ public class Request {
         return this.body;
     }
 
+    public Timeouts getTimeouts() {
+        return this.timeouts;
+    }
+
+    public Deadline getDeadline() {
+        return this.deadline;
+    }
+
+    public Boolean getExpectContinue() {
+        return this.expectContinue;
+    }
+
     public URL getRequestURL() {
         if (this.requestURL == null) {
             synchronized (this.lock) {
@@ -64,10 +98,45 @@ public class Request {
         return this.requestURL;
     }
 
+    // "host:port" with the default port of the protocol if none is given
+    public String getHostAndPort() {
+        URL url = getRequestURL();
+        int port = (url.getPort() == -1) ? url.getDefaultPort() : url.getPort();
+
+        return url.getHost() + ":" + port;
+    }
+
+    // the same request against another endpoint, used to re-target a request to another host
+    public Request withEndpoint(Endpoint endpoint) {
+        return new Request(endpoint, this.method, this.charset, this.urlParameters, this.headers, this.body, this.timeouts, this.deadline, this.expectContinue);
+    }
+
+    // the same request with one more header, an existing header with the same name is replaced
+    public Request withHeader(String key, String value) {
+        Map<String, String> headers = new LinkedHashMap<>(this.headers);
+        headers.put(Objects.requireNonNull(key), Objects.requireNonNull(value));
+
+        return new Request(this.endpoint, this.method, this.charset, this.urlParameters, headers, this.body, this.timeouts, this.deadline, this.expectContinue);
+    }
+
+    // the same request with another body, used to wrap the body of a request
+    public Request withBody(RequestBody body) {
+        return new Request(this.endpoint, this.method, this.charset, this.urlParameters, this.headers, body, this.timeouts, this.deadline, this.expectContinue);
+    }
+
+    // the request a redirect leads to, the URL replaces the endpoint and the parameters
+    public Request redirectTo(URL url, RequestMethod method, Map<String, String> headers, RequestBody body) {
+        return new Request(new Endpoint(url), method, this.charset, Collections.emptyMap(), headers, body, this.timeouts, this.deadline, this.expectContinue);
+    }
+
     public <T> Response<T> execute(HTTPClient client, ResponseParser<? extends T> parser) throws IOException {
         return client.execute(this, parser);
     }
 
+    public Response<ResponseBody> stream(HTTPClient client) throws IOException {
+        return client.stream(this);
+    }
+
     private URL buildRequestURL() {
         URL url = this.endpoint.getURL();
 
@@ -127,11 +196,19 @@ public class Request {
         T parameter(String key);
         T headers(Map<String, String> headers);
         T header(String key, String value);
+        T timeouts(Timeouts timeouts);
+        T connectTimeout(long millis);
+        T readTimeout(long millis);
+        T timeout(long millis);
+        T deadline(Deadline deadline);
         Template template();
         Request build();
         default <R> Response<R> execute(HTTPClient client, ResponseParser<R> parser) throws IOException {
             return build().execute(client, parser);
         }
+        default Response<ResponseBody> stream(HTTPClient client) throws IOException {
+            return build().stream(client);
+        }
     }
 
     public interface Template {
@@ -150,6 +227,8 @@ public class Request {
 
         TemplateWithBody template();
         T body(RequestBody body);
+        // sends "Expect: 100-continue" and only writes the body once the server accepted the headers
+        T expectContinue(boolean expectContinue);
     }
 
     public interface TemplateWithBody extends Template {
@@ -165,6 +244,9 @@ public class Request {
         protected Map<String, String> urlParameters;
         protected Map<String, String> headers;
         protected RequestBody body;
+        protected Timeouts timeouts;
+        protected Deadline deadline;
+        protected Boolean expectContinue;
 
         public ABuilder(Endpoint endpoint, RequestMethod method) {
             this.endpoint = endpoint;
@@ -173,6 +255,9 @@ public class Request {
             this.urlParameters = new LinkedHashMap<>();
             this.headers = new LinkedHashMap<>();
             this.body = null;
+            this.timeouts = Timeouts.DEFAULT;
+            this.deadline = null;
+            this.expectContinue = null;
         }
 
         @Override
@@ -210,9 +295,36 @@ public class Request {
             return self();
         }
 
+        @Override
+        public T timeouts(Timeouts timeouts) {
+            this.timeouts = Objects.requireNonNull(timeouts);
+            return self();
+        }
+
+        @Override
+        public T connectTimeout(long millis) {
+            return timeouts(this.timeouts.withConnectTimeout(millis));
+        }
+
+        @Override
+        public T readTimeout(long millis) {
+            return timeouts(this.timeouts.withReadTimeout(millis));
+        }
+
+        @Override
+        public T timeout(long millis) {
+            return timeouts(this.timeouts.withTimeout(millis));
+        }
+
+        @Override
+        public T deadline(Deadline deadline) {
+            this.deadline = deadline;
+            return self();
+        }
+
         @Override
         public Request build() {
-            return new Request(this.endpoint, this.method, this.charset, this.urlParameters, this.headers, this.body);
+            return new Request(this.endpoint, this.method, this.charset, this.urlParameters, this.headers, this.body, this.timeouts, this.deadline, this.expectContinue);
         }
 
         protected abstract T self();
@@ -225,13 +337,15 @@ public class Request {
         private final Charset charset;
         private final Map<String, String> urlParameters;
         private final Map<String, String> headers;
+        private final Timeouts timeouts;
 
-        public ATemplate(Endpoint endpoint, RequestMethod method, Charset charset, Map<String, String> urlParameters, Map<String, String> headers) {
+        public ATemplate(Endpoint endpoint, RequestMethod method, Charset charset, Map<String, String> urlParameters, Map<String, String> headers, Timeouts timeouts) {
             this.endpoint = endpoint;
             this.method = method;
             this.charset = charset;
             this.urlParameters = urlParameters;
             this.headers = headers;
+            this.timeouts = timeouts;
         }
 
         @Override
@@ -239,7 +353,8 @@ public class Request {
             return createBuilder(this.endpoint, this.method)
                     .charset(this.charset)
                     .parameters(this.urlParameters)
-                    .headers(this.headers);
+                    .headers(this.headers)
+                    .timeouts(this.timeouts);
         }
 
         protected abstract T createBuilder(Endpoint endpoint, RequestMethod method);
@@ -253,7 +368,7 @@ public class Request {
 
         @Override
         public Template template() {
-            return new TemplateImpl(this.endpoint, this.method, this.charset, this.urlParameters, this.headers);
+            return new TemplateImpl(this.endpoint, this.method, this.charset, this.urlParameters, this.headers, this.timeouts);
         }
 
         @Override
@@ -264,8 +379,8 @@ public class Request {
 
     private static class TemplateImpl extends ATemplate<BuilderImpl> {
 
-        public TemplateImpl(Endpoint endpoint, RequestMethod method, Charset charset, Map<String, String> urlParameters, Map<String, String> headers) {
-            super(endpoint, method, charset, urlParameters, headers);
+        public TemplateImpl(Endpoint endpoint, RequestMethod method, Charset charset, Map<String, String> urlParameters, Map<String, String> headers, Timeouts timeouts) {
+            super(endpoint, method, charset, urlParameters, headers, timeouts);
         }
 
         @Override
@@ -287,9 +402,15 @@ public class Request {
             return this;
         }
 
+        @Override
+        public BuilderWithBodyImpl expectContinue(boolean expectContinue) {
+            this.expectContinue = expectContinue;
+            return this;
+        }
+
         @Override
         public TemplateWithBody template() {
-            return new TemplateWithBodyImpl(this.endpoint, this.method, this.charset, this.urlParameters, this.headers, this.body);
+            return new TemplateWithBodyImpl(this.endpoint, this.method, this.charset, this.urlParameters, this.headers, this.timeouts, this.body, this.expectContinue);
         }
 
         @Override
@@ -301,15 +422,19 @@ public class Request {
     private static class TemplateWithBodyImpl extends ATemplate<BuilderWithBodyImpl> implements TemplateWithBody {
 
         private final RequestBody body;
+        private final Boolean expectContinue;
 
-        public TemplateWithBodyImpl(Endpoint endpoint, RequestMethod method, Charset charset, Map<String, String> urlParameters, Map<String, String> headers, RequestBody body) {
-            super(endpoint, method, charset, urlParameters, headers);
+        public TemplateWithBodyImpl(Endpoint endpoint, RequestMethod method, Charset charset, Map<String, String> urlParameters, Map<String, String> headers, Timeouts timeouts, RequestBody body, Boolean expectContinue) {
+            super(endpoint, method, charset, urlParameters, headers, timeouts);
             this.body = body;
+            this.expectContinue = expectContinue;
         }
 
         @Override
         public BuilderWithBodyImpl enrich() {
-            return super.enrich().body(this.body);
+            BuilderWithBodyImpl builder = super.enrich().body(this.body);
+            builder.expectContinue = this.expectContinue;
+            return builder;
         }
 
         @Override
@@ -0,0 +1,72 @@
+package dev.codeflush.httpclient.request;
+
+public final class Timeouts {
+
+    // use the value of the client (or the enclosing Timeouts)
+    public static final long INHERIT = -1L;
+    public static final long INFINITE = 0L;
+
+    public static final Timeouts DEFAULT = new Timeouts(INHERIT, INHERIT, INHERIT);
+    public static final Timeouts NONE = new Timeouts(INFINITE, INFINITE, INFINITE);
+
+    private final long connectTimeoutMillis;
+    private final long readTimeoutMillis;
+    private final long timeoutMillis;
+
+    private Timeouts(long connectTimeoutMillis, long readTimeoutMillis, long timeoutMillis) {
+        this.connectTimeoutMillis = check(connectTimeoutMillis);
+        this.readTimeoutMillis = check(readTimeoutMillis);
+        this.timeoutMillis = check(timeoutMillis);
+    }
+
+    // timeoutMillis covers the whole exchange: connecting, writing the body, waiting for and parsing the response
+    public static Timeouts of(long connectTimeoutMillis, long readTimeoutMillis, long timeoutMillis) {
+        return new Timeouts(connectTimeoutMillis, readTimeoutMillis, timeoutMillis);
+    }
+
+    public long getConnectTimeoutMillis() {
+        return this.connectTimeoutMillis;
+    }
+
+    public long getReadTimeoutMillis() {
+        return this.readTimeoutMillis;
+    }
+
+    public long getTimeoutMillis() {
+        return this.timeoutMillis;
+    }
+
+    public Timeouts withConnectTimeout(long connectTimeoutMillis) {
+        return new Timeouts(connectTimeoutMillis, this.readTimeoutMillis, this.timeoutMillis);
+    }
+
+    public Timeouts withReadTimeout(long readTimeoutMillis) {
+        return new Timeouts(this.connectTimeoutMillis, readTimeoutMillis, this.timeoutMillis);
+    }
+
+    public Timeouts withTimeout(long timeoutMillis) {
+        return new Timeouts(this.connectTimeoutMillis, this.readTimeoutMillis, timeoutMillis);
+    }
+
+    // replaces every inherited value with the one of the given Timeouts
+    public Timeouts orElse(Timeouts other) {
+        return new Timeouts(
+                (this.connectTimeoutMillis == INHERIT) ? other.connectTimeoutMillis : this.connectTimeoutMillis,
+                (this.readTimeoutMillis == INHERIT) ? other.readTimeoutMillis : this.readTimeoutMillis,
+                (this.timeoutMillis == INHERIT) ? other.timeoutMillis : this.timeoutMillis
+        );
+    }
+
+    @Override
+    public String toString() {
+        return "Timeouts{connect=" + this.connectTimeoutMillis + ", read=" + this.readTimeoutMillis + ", total=" + this.timeoutMillis + "}";
+    }
+
+    private static long check(long millis) {
+        if (millis < INHERIT) {
+            throw new IllegalArgumentException("timeouts must be -1 (inherit), 0 (infinite) or positive");
+        }
+
+        return millis;
+    }
+}
@@ -2,6 +2,8 @@ package dev.codeflush.httpclient.request.body;
 
 import java.io.IOException;
 import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
 import java.util.Optional;
 
 public class ByteArrayRequestBody implements RequestBody {
@@ -28,4 +30,9 @@ public class ByteArrayRequestBody implements RequestBody {
     public void write(OutputStream out) throws IOException {
         out.write(this.bytes);
     }
+
+    @Override
+    public void write(WritableByteChannel channel) throws IOException {
+        ByteBuffers.writeFully(channel, ByteBuffer.wrap(this.bytes));
+    }
 }
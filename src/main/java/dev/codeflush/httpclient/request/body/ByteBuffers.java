@@ -0,0 +1,18 @@
+package dev.codeflush.httpclient.request.body;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+
+final class ByteBuffers {
+
+    private ByteBuffers() {
+    }
+
+    // non-blocking channels may accept only part of the buffer
+    static void writeFully(WritableByteChannel channel, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+}
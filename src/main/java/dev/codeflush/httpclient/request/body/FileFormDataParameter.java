@@ -0,0 +1,23 @@
+package dev.codeflush.httpclient.request.body;
+
+import java.io.File;
+
+public class FileFormDataParameter extends FileRequestBody implements FormDataParameter {
+
+    private final String name;
+
+    public FileFormDataParameter(String name, String contentType, File file) {
+        super(contentType, file);
+        this.name = name;
+    }
+
+    @Override
+    public String getName() {
+        return this.name;
+    }
+
+    @Override
+    public boolean isBinaryTransferEncoding() {
+        return true;
+    }
+}
@@ -0,0 +1,73 @@
+package dev.codeflush.httpclient.request.body;
+
+import dev.codeflush.httpclient.buffer.BufferPool;
+import dev.codeflush.httpclient.buffer.PooledBuffer;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.Objects;
+import java.util.Optional;
+
+public class FileRequestBody implements RequestBody {
+
+    private final String contentType;
+    private final File file;
+
+    public FileRequestBody(String contentType, File file) {
+        this.contentType = contentType;
+        this.file = Objects.requireNonNull(file);
+    }
+
+    public File getFile() {
+        return this.file;
+    }
+
+    @Override
+    public String getContentType() {
+        return this.contentType;
+    }
+
+    // unknown for files that don't exist (yet) or exceed the int range
+    @Override
+    public Optional<Integer> getContentLength() {
+        long length = this.file.length();
+        return ((length == 0L && !this.file.isFile()) || length > Integer.MAX_VALUE) ? Optional.empty() : Optional.of((int) length);
+    }
+
+    @Override
+    public void write(OutputStream out) throws IOException {
+        try (FileChannel in = FileChannel.open(this.file.toPath(), StandardOpenOption.READ); PooledBuffer pooled = BufferPool.heap().acquire()) {
+            ByteBuffer buffer = pooled.byteBuffer();
+
+            while (in.read(buffer) != -1) {
+                out.write(buffer.array(), 0, buffer.position());
+                buffer.clear();
+            }
+        }
+    }
+
+    // FileChannel.transferTo lets the kernel copy straight from the page cache if the target is a socket or file channel
+    @Override
+    public void write(WritableByteChannel channel) throws IOException {
+        try (FileChannel in = FileChannel.open(this.file.toPath(), StandardOpenOption.READ)) {
+            long size = in.size();
+            long position = 0L;
+
+            while (position < size) {
+                long transferred = in.transferTo(position, size - position, channel);
+
+                // the file was truncated meanwhile
+                if (transferred <= 0L && position >= in.size()) {
+                    break;
+                }
+
+                position += transferred;
+            }
+        }
+    }
+}
@@ -1,7 +1,7 @@
 package dev.codeflush.httpclient.request.body;
 
 import java.io.File;
-import java.io.FileInputStream;
+import java.io.InputStream;
 import java.nio.charset.Charset;
 
 public interface FormDataParameter extends RequestBody {
@@ -10,13 +10,17 @@ public interface FormDataParameter extends RequestBody {
     boolean isBinaryTransferEncoding();
 
     static FormDataParameter forFile(String name, String contentType, File file) {
-        return new InputStreamFormDataParameter(name, contentType, () -> new FileInputStream(file));
+        return new FileFormDataParameter(name, contentType, file);
     }
 
     static FormDataParameter forFile(String name, File file) {
         return forFile(name, "application/octet-stream", file);
     }
 
+    static FormDataParameter forStream(String name, String contentType, InputStream stream) {
+        return new InputStreamFormDataParameter(name, contentType, () -> stream, false);
+    }
+
     static FormDataParameter forBytes(String name, String contentType, byte[] bytes) {
         return new ByteArrayFormDataParameter(name, contentType, bytes);
     }
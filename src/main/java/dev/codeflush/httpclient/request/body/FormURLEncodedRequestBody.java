@@ -2,7 +2,10 @@ package dev.codeflush.httpclient.request.body;
 
 import java.io.IOException;
 import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
 import java.util.Objects;
+import java.util.Optional;
 
 public class FormURLEncodedRequestBody implements RequestBody {
 
@@ -19,8 +22,18 @@ public class FormURLEncodedRequestBody implements RequestBody {
         return this.contentType;
     }
 
+    @Override
+    public Optional<Integer> getContentLength() {
+        return Optional.of(this.body.length);
+    }
+
     @Override
     public void write(OutputStream out) throws IOException {
         out.write(this.body);
     }
+
+    @Override
+    public void write(WritableByteChannel channel) throws IOException {
+        ByteBuffers.writeFully(channel, ByteBuffer.wrap(this.body));
+    }
 }
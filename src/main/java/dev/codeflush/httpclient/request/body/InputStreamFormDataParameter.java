@@ -6,11 +6,15 @@ public class InputStreamFormDataParameter extends InputStreamRequestBody impleme
 
     private final String name;
 
-    public InputStreamFormDataParameter(String name, String contentType, InputStreamSupplier inputStreamSupplier) {
-        super(contentType, inputStreamSupplier);
+    public InputStreamFormDataParameter(String name, String contentType, InputStreamSupplier inputStreamSupplier, boolean repeatable) {
+        super(contentType, inputStreamSupplier, repeatable);
         this.name = name;
     }
 
+    public InputStreamFormDataParameter(String name, String contentType, InputStreamSupplier inputStreamSupplier) {
+        this(name, contentType, inputStreamSupplier, false);
+    }
+
     @Override
     public String getName() {
         return this.name;
@@ -1,19 +1,40 @@
 package dev.codeflush.httpclient.request.body;
 
 import dev.codeflush.httpclient.InputStreamSupplier;
+import dev.codeflush.httpclient.buffer.BufferPool;
+import dev.codeflush.httpclient.buffer.PooledBuffer;
 
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.util.Objects;
 
 public class InputStreamRequestBody implements RequestBody {
 
     private final String contentType;
     private final InputStreamSupplier inputStreamSupplier;
+    private final boolean repeatable;
+    private final BufferPool pool;
+
+    // the stream is copied through the array of the buffers, direct buffers have none
+    public InputStreamRequestBody(String contentType, InputStreamSupplier inputStreamSupplier, boolean repeatable, BufferPool pool) {
+        if (Objects.requireNonNull(pool).isDirect()) {
+            throw new IllegalArgumentException("a pool of heap buffers is required");
+        }
 
-    public InputStreamRequestBody(String contentType, InputStreamSupplier inputStreamSupplier) {
         this.contentType = contentType;
         this.inputStreamSupplier = inputStreamSupplier;
+        this.repeatable = repeatable;
+        this.pool = pool;
+    }
+
+    public InputStreamRequestBody(String contentType, InputStreamSupplier inputStreamSupplier, boolean repeatable) {
+        this(contentType, inputStreamSupplier, repeatable, BufferPool.heap());
+    }
+
+    // a supplier may hand out the same stream again, so only bodies declared repeatable are retried or redirected
+    public InputStreamRequestBody(String contentType, InputStreamSupplier inputStreamSupplier) {
+        this(contentType, inputStreamSupplier, false);
     }
 
     @Override
@@ -21,10 +42,15 @@ public class InputStreamRequestBody implements RequestBody {
         return this.contentType;
     }
 
+    @Override
+    public boolean isRepeatable() {
+        return this.repeatable;
+    }
+
     @Override
     public void write(OutputStream out) throws IOException {
-        try (InputStream in = this.inputStreamSupplier.getInputStream()) {
-            byte[] buffer = new byte[8192];
+        try (InputStream in = this.inputStreamSupplier.getInputStream(); PooledBuffer pooled = this.pool.acquire()) {
+            byte[] buffer = pooled.array();
             int bytesRead;
 
             while ((bytesRead = in.read(buffer)) != -1) {
@@ -0,0 +1,97 @@
+package dev.codeflush.httpclient.request.body;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.UUID;
+
+// the multipart encoding (RFC 2046) shared by the subtypes, they only provide the headers of a part
+public abstract class MultipartRequestBody<P extends RequestBody> implements RequestBody {
+
+    private static final byte[] CRLF = "\r\n".getBytes(StandardCharsets.UTF_8);
+
+    private final String subtype;
+    private final Collection<? extends P> parts;
+    private final String boundary;
+
+    protected MultipartRequestBody(String subtype, Collection<? extends P> parts) {
+        this.subtype = Objects.requireNonNull(subtype);
+        this.parts = Objects.requireNonNull(parts);
+        this.boundary = UUID.randomUUID().toString().replace("-", "");
+    }
+
+    // every header line terminated with CRLF
+    protected abstract String partHeaders(P part);
+
+    public String getBoundary() {
+        return this.boundary;
+    }
+
+    public Collection<? extends P> getParts() {
+        return this.parts;
+    }
+
+    @Override
+    public String getContentType() {
+        return "multipart/" + this.subtype + "; boundary=" + this.boundary;
+    }
+
+    @Override
+    public boolean isRepeatable() {
+        return this.parts.stream().allMatch(RequestBody::isRepeatable);
+    }
+
+    // known if the length of every part is known
+    @Override
+    public Optional<Integer> getContentLength() {
+        long length = closingBoundary().length;
+
+        for (P part : this.parts) {
+            Optional<Integer> partLength = part.getContentLength();
+
+            if (!partLength.isPresent()) {
+                return Optional.empty();
+            }
+
+            length += partHeader(part).length + partLength.get() + CRLF.length;
+        }
+
+        return (length > Integer.MAX_VALUE) ? Optional.empty() : Optional.of((int) length);
+    }
+
+    @Override
+    public void write(OutputStream out) throws IOException {
+        for (P part : this.parts) {
+            out.write(partHeader(part));
+            part.write(out);
+            out.write(CRLF);
+        }
+
+        out.write(closingBoundary());
+    }
+
+    // file parts are transferred by the channel path of the part itself
+    @Override
+    public void write(WritableByteChannel channel) throws IOException {
+        for (P part : this.parts) {
+            ByteBuffers.writeFully(channel, ByteBuffer.wrap(partHeader(part)));
+            part.write(channel);
+            ByteBuffers.writeFully(channel, ByteBuffer.wrap(CRLF));
+        }
+
+        ByteBuffers.writeFully(channel, ByteBuffer.wrap(closingBoundary()));
+    }
+
+    private byte[] partHeader(P part) {
+        return ("--" + this.boundary + "\r\n" + partHeaders(part) + "\r\n").getBytes(StandardCharsets.UTF_8);
+    }
+
+    private byte[] closingBoundary() {
+        return ("--" + this.boundary + "--\r\n").getBytes(StandardCharsets.UTF_8);
+    }
+}
@@ -2,6 +2,8 @@ package dev.codeflush.httpclient.request.body;
 
 import java.io.*;
 import java.net.URLEncoder;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
 import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
 import java.util.Map;
@@ -15,15 +17,30 @@ public interface RequestBody {
         return Optional.empty();
     }
     void write(OutputStream out) throws IOException;
+    // bodies that can hand their content to a channel without copying it through the heap override this
+    default void write(WritableByteChannel channel) throws IOException {
+        write(Channels.newOutputStream(channel));
+    }
+    default boolean isRepeatable() {
+        return true;
+    }
+    // decorators return the body they wrap, so it can be told what the request actually sends
+    default RequestBody unwrap() {
+        return this;
+    }
 
     static RequestBody forFile(String contentType, File file) {
-        return new InputStreamRequestBody(contentType, () -> new FileInputStream(file));
+        return new FileRequestBody(contentType, file);
     }
 
     static RequestBody forFile(File file) {
         return forFile("application/octet-stream", file);
     }
 
+    static RequestBody forStream(String contentType, InputStream stream) {
+        return new InputStreamRequestBody(contentType, () -> stream, false);
+    }
+
     static RequestBody forBytes(String contentType, byte[] bytes) {
         return new ByteArrayRequestBody(contentType, bytes);
     }
@@ -0,0 +1,170 @@
+package dev.codeflush.httpclient.resolver;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+// InetAddress doesn't expose the TTL of the records, so the TTL is configured here.
+// Expired entries are served for up to maxStaleMillis while they are refreshed in the background,
+// which also keeps them alive while the delegate fails (stale-on-error).
+public class CachingResolver implements Resolver {
+
+    private static final AtomicInteger THREAD_COUNT = new AtomicInteger();
+
+    private final Resolver delegate;
+    private final long ttlNanos;
+    private final long maxStaleNanos;
+    private final boolean rotate;
+    private final Executor refreshExecutor;
+    private final ConcurrentMap<String, Entry> cache;
+    private final LongAdder hits;
+    private final LongAdder staleHits;
+    private final LongAdder misses;
+    private final LongAdder refreshFailures;
+
+    public CachingResolver(Resolver delegate, long ttlMillis, long maxStaleMillis, boolean rotate, Executor refreshExecutor) {
+        if (ttlMillis < 0L || maxStaleMillis < 0L) {
+            throw new IllegalArgumentException("ttl and maxStale must not be negative");
+        }
+
+        this.delegate = Objects.requireNonNull(delegate);
+        this.ttlNanos = TimeUnit.MILLISECONDS.toNanos(ttlMillis);
+        this.maxStaleNanos = TimeUnit.MILLISECONDS.toNanos(maxStaleMillis);
+        this.rotate = rotate;
+        this.refreshExecutor = Objects.requireNonNull(refreshExecutor);
+        this.cache = new ConcurrentHashMap<>();
+        this.hits = new LongAdder();
+        this.staleHits = new LongAdder();
+        this.misses = new LongAdder();
+        this.refreshFailures = new LongAdder();
+    }
+
+    public CachingResolver(Resolver delegate, long ttlMillis, long maxStaleMillis) {
+        this(delegate, ttlMillis, maxStaleMillis, true, Executors.newCachedThreadPool((runnable) -> {
+            Thread thread = new Thread(runnable, "httpclient-resolver-" + THREAD_COUNT.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }));
+    }
+
+    public CachingResolver(Resolver delegate) {
+        this(delegate, 30_000L, 300_000L);
+    }
+
+    @Override
+    public List<InetAddress> resolve(String host) throws UnknownHostException {
+        String key = host.toLowerCase();
+        Entry entry = this.cache.get(key);
+        long now = System.nanoTime();
+
+        if (entry != null) {
+            long age = now - entry.resolvedAt;
+
+            if (age < this.ttlNanos) {
+                this.hits.increment();
+                return entry.next();
+            }
+
+            if (age < this.ttlNanos + this.maxStaleNanos) {
+                this.staleHits.increment();
+                refresh(key, entry);
+                return entry.next();
+            }
+        }
+
+        this.misses.increment();
+        return store(key, this.delegate.resolve(host)).next();
+    }
+
+    public void invalidate(String host) {
+        this.cache.remove(host.toLowerCase());
+    }
+
+    public long getHits() {
+        return this.hits.sum();
+    }
+
+    public long getStaleHits() {
+        return this.staleHits.sum();
+    }
+
+    public long getMisses() {
+        return this.misses.sum();
+    }
+
+    public long getRefreshFailures() {
+        return this.refreshFailures.sum();
+    }
+
+    private void refresh(String key, Entry entry) {
+        if (!entry.refreshing.compareAndSet(false, true)) {
+            return;
+        }
+
+        this.refreshExecutor.execute(() -> {
+            try {
+                store(key, this.delegate.resolve(key));
+            } catch (UnknownHostException | RuntimeException e) {
+                this.refreshFailures.increment();
+            } finally {
+                entry.refreshing.set(false);
+            }
+        });
+    }
+
+    private Entry store(String key, List<InetAddress> addresses) throws UnknownHostException {
+        if (addresses == null || addresses.isEmpty()) {
+            throw new UnknownHostException(key);
+        }
+
+        Entry entry = new Entry(addresses, System.nanoTime(), this.rotate);
+        this.cache.put(key, entry);
+
+        return entry;
+    }
+
+    private static final class Entry {
+
+        private final List<InetAddress> addresses;
+        private final long resolvedAt;
+        private final boolean rotate;
+        private final AtomicInteger offset;
+        private final AtomicBoolean refreshing;
+
+        private Entry(List<InetAddress> addresses, long resolvedAt, boolean rotate) {
+            this.addresses = new ArrayList<>(addresses);
+            this.resolvedAt = resolvedAt;
+            this.rotate = rotate;
+            this.offset = new AtomicInteger();
+            this.refreshing = new AtomicBoolean(false);
+        }
+
+        // every call starts with the next address (round-robin)
+        private List<InetAddress> next() {
+            int size = this.addresses.size();
+
+            if (!this.rotate || size == 1) {
+                return this.addresses;
+            }
+
+            int start = Math.floorMod(this.offset.getAndIncrement(), size);
+            List<InetAddress> result = new ArrayList<>(size);
+
+            for (int i = 0; i < size; i++) {
+                result.add(this.addresses.get((start + i) % size));
+            }
+
+            return result;
+        }
+    }
+}
@@ -0,0 +1,254 @@
+package dev.codeflush.httpclient.resolver;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.net.ConnectException;
+import java.net.Inet6Address;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.net.SocketTimeoutException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// RFC 8305 style connection racing: the attempts alternate between the address families and a new attempt is started
+// whenever the previous one failed or didn't succeed within the attempt delay, the first established connection wins
+public final class HappyEyeballs {
+
+    public static final long DEFAULT_ATTEMPT_DELAY_MILLIS = 250L;
+
+    private static final AtomicInteger THREAD_COUNT = new AtomicInteger();
+    private static final ExecutorService EXECUTOR = Executors.newCachedThreadPool((runnable) -> {
+        Thread thread = new Thread(runnable, "httpclient-connect-" + THREAD_COUNT.incrementAndGet());
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private HappyEyeballs() {
+    }
+
+    // keeps the order within each family, starting with the family of the first address
+    public static List<InetAddress> interleave(List<InetAddress> addresses) {
+        if (addresses.size() <= 1) {
+            return addresses;
+        }
+
+        boolean firstIsV6 = addresses.get(0) instanceof Inet6Address;
+        List<InetAddress> first = new ArrayList<>();
+        List<InetAddress> second = new ArrayList<>();
+
+        for (InetAddress address : addresses) {
+            ((address instanceof Inet6Address) == firstIsV6 ? first : second).add(address);
+        }
+
+        List<InetAddress> result = new ArrayList<>(addresses.size());
+
+        for (int i = 0; i < Math.max(first.size(), second.size()); i++) {
+            if (i < first.size()) {
+                result.add(first.get(i));
+            }
+
+            if (i < second.size()) {
+                result.add(second.get(i));
+            }
+        }
+
+        return result;
+    }
+
+    public static Socket connect(List<InetAddress> addresses, int port, int timeoutMillis, long attemptDelayMillis) throws IOException {
+        return race(addresses, timeoutMillis, attemptDelayMillis, new Connector<Socket>() {
+            @Override
+            public Socket open(InetAddress address) {
+                return new Socket();
+            }
+
+            @Override
+            public void connect(Socket socket, InetAddress address) throws IOException {
+                socket.connect(new InetSocketAddress(address, port), timeoutMillis);
+            }
+
+            // closing a socket aborts its pending connect
+            @Override
+            public void discard(Socket socket) {
+                try {
+                    socket.close();
+                } catch (IOException ignored) {
+                }
+            }
+        });
+    }
+
+    // races whatever the connector opens for the addresses, e.g. connections using the address as proxy
+    public static <C> C race(List<InetAddress> addresses, int timeoutMillis, long attemptDelayMillis, Connector<C> connector) throws IOException {
+        List<InetAddress> ordered = interleave(addresses);
+
+        if (ordered.size() == 1) {
+            C candidate = connector.open(ordered.get(0));
+
+            try {
+                connector.connect(candidate, ordered.get(0));
+                return candidate;
+            } catch (IOException e) {
+                connector.discard(candidate);
+                throw e;
+            }
+        }
+
+        return new Race<>(ordered, timeoutMillis, attemptDelayMillis, connector).run();
+    }
+
+    public interface Connector<C> {
+
+        C open(InetAddress address) throws IOException;
+
+        void connect(C candidate, InetAddress address) throws IOException;
+
+        // also called for candidates that are still connecting
+        void discard(C candidate);
+    }
+
+    private static final class Race<C> {
+
+        private final List<InetAddress> addresses;
+        private final int timeoutMillis;
+        private final long attemptDelayMillis;
+        private final Connector<C> connector;
+        private final BlockingQueue<Object> results;
+        private final List<C> candidates;
+        private boolean decided;
+
+        private Race(List<InetAddress> addresses, int timeoutMillis, long attemptDelayMillis, Connector<C> connector) {
+            this.addresses = addresses;
+            this.timeoutMillis = timeoutMillis;
+            this.attemptDelayMillis = attemptDelayMillis;
+            this.connector = connector;
+            this.results = new LinkedBlockingQueue<>();
+            this.candidates = new ArrayList<>();
+            this.decided = false;
+        }
+
+        @SuppressWarnings("unchecked")
+        private C run() throws IOException {
+            long deadline = (this.timeoutMillis > 0) ? System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(this.timeoutMillis) : Long.MAX_VALUE;
+            IOException failure = null;
+            int started = 0;
+            int finished = 0;
+
+            start(this.addresses.get(started++));
+
+            try {
+                while (finished < this.addresses.size()) {
+                    long remaining = (deadline == Long.MAX_VALUE) ? Long.MAX_VALUE : deadline - System.nanoTime();
+                    if (remaining <= 0L) {
+                        break;
+                    }
+
+                    long wait = (started < this.addresses.size()) ? Math.min(remaining, TimeUnit.MILLISECONDS.toNanos(this.attemptDelayMillis)) : remaining;
+                    Object result = this.results.poll(wait, TimeUnit.NANOSECONDS);
+
+                    if (result == null) {
+                        // the running attempts take too long, start the next one in parallel
+                        if (started < this.addresses.size()) {
+                            start(this.addresses.get(started++));
+                        }
+
+                        continue;
+                    }
+
+                    finished++;
+
+                    if (!(result instanceof IOException)) {
+                        return win((C) result);
+                    }
+
+                    if (failure == null) {
+                        failure = (IOException) result;
+                    } else {
+                        failure.addSuppressed((IOException) result);
+                    }
+
+                    // don't wait for the attempt delay after a failure
+                    if (started < this.addresses.size()) {
+                        start(this.addresses.get(started++));
+                    }
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("interrupted while connecting");
+            } finally {
+                abort();
+            }
+
+            if (failure == null || finished < this.addresses.size()) {
+                SocketTimeoutException timeout = new SocketTimeoutException("connect timed out");
+                if (failure != null) {
+                    timeout.addSuppressed(failure);
+                }
+
+                throw timeout;
+            }
+
+            throw failure;
+        }
+
+        private void start(InetAddress address) {
+            C candidate;
+
+            try {
+                candidate = this.connector.open(address);
+            } catch (IOException e) {
+                this.results.add(e);
+                return;
+            }
+
+            synchronized (this) {
+                this.candidates.add(candidate);
+            }
+
+            EXECUTOR.execute(() -> {
+                try {
+                    this.connector.connect(candidate, address);
+
+                    synchronized (this) {
+                        // lost the race while connecting
+                        if (this.decided) {
+                            this.connector.discard(candidate);
+                            return;
+                        }
+
+                        this.results.add(candidate);
+                    }
+                } catch (IOException e) {
+                    this.connector.discard(candidate);
+                    this.results.add((e instanceof ConnectException) ? e : new ConnectException(address + ": " + e.getMessage()));
+                }
+            });
+        }
+
+        private synchronized C win(C winner) {
+            this.candidates.remove(winner);
+            return winner;
+        }
+
+        private synchronized void abort() {
+            if (this.decided) {
+                return;
+            }
+
+            this.decided = true;
+
+            for (C candidate : this.candidates) {
+                this.connector.discard(candidate);
+            }
+
+            this.results.clear();
+        }
+    }
+}
@@ -0,0 +1,15 @@
+package dev.codeflush.httpclient.resolver;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.util.List;
+
+public interface Resolver {
+
+    // the returned list is never empty
+    List<InetAddress> resolve(String host) throws UnknownHostException;
+
+    static Resolver system() {
+        return SystemResolver.INSTANCE;
+    }
+}
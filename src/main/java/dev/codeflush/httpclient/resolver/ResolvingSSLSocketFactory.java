@@ -0,0 +1,71 @@
+package dev.codeflush.httpclient.resolver;
+
+import javax.net.ssl.SSLSocketFactory;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.util.Objects;
+
+// HttpsURLConnection connects the socket returned by createSocket() itself and layers TLS on top of it with
+// createSocket(Socket, String, int, boolean) if it isn't a SSLSocket already; both steps are intercepted here
+public class ResolvingSSLSocketFactory extends SSLSocketFactory {
+
+    private final SSLSocketFactory delegate;
+    private final Resolver resolver;
+    private final long attemptDelayMillis;
+
+    public ResolvingSSLSocketFactory(SSLSocketFactory delegate, Resolver resolver, long attemptDelayMillis) {
+        this.delegate = Objects.requireNonNull(delegate);
+        this.resolver = Objects.requireNonNull(resolver);
+        this.attemptDelayMillis = attemptDelayMillis;
+    }
+
+    public ResolvingSSLSocketFactory(SSLSocketFactory delegate, Resolver resolver) {
+        this(delegate, resolver, HappyEyeballs.DEFAULT_ATTEMPT_DELAY_MILLIS);
+    }
+
+    @Override
+    public Socket createSocket() {
+        return new ResolvingSocket(this.resolver, this.attemptDelayMillis);
+    }
+
+    @Override
+    public Socket createSocket(Socket s, String host, int port, boolean autoClose) throws IOException {
+        if (s instanceof ResolvingSocket) {
+            s = ((ResolvingSocket) s).getConnected();
+        }
+
+        return this.delegate.createSocket(s, host, port, autoClose);
+    }
+
+    @Override
+    public Socket createSocket(String host, int port) throws IOException {
+        Socket socket = HappyEyeballs.connect(this.resolver.resolve(host), port, 0, this.attemptDelayMillis);
+        return this.delegate.createSocket(socket, host, port, true);
+    }
+
+    @Override
+    public Socket createSocket(String host, int port, InetAddress localHost, int localPort) throws IOException {
+        return this.delegate.createSocket(host, port, localHost, localPort);
+    }
+
+    @Override
+    public Socket createSocket(InetAddress host, int port) throws IOException {
+        return this.delegate.createSocket(host, port);
+    }
+
+    @Override
+    public Socket createSocket(InetAddress address, int port, InetAddress localAddress, int localPort) throws IOException {
+        return this.delegate.createSocket(address, port, localAddress, localPort);
+    }
+
+    @Override
+    public String[] getDefaultCipherSuites() {
+        return this.delegate.getDefaultCipherSuites();
+    }
+
+    @Override
+    public String[] getSupportedCipherSuites() {
+        return this.delegate.getSupportedCipherSuites();
+    }
+}
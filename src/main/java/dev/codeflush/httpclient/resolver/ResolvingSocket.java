@@ -0,0 +1,184 @@
+package dev.codeflush.httpclient.resolver;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.net.SocketAddress;
+import java.net.SocketException;
+
+// an unconnected socket that resolves the host with a Resolver and races the addresses when it is connected;
+// everything else is delegated to the socket that won
+class ResolvingSocket extends Socket {
+
+    private final Resolver resolver;
+    private final long attemptDelayMillis;
+    private volatile Socket connected;
+    private volatile boolean closed;
+    private int soTimeout;
+    private boolean tcpNoDelay;
+
+    ResolvingSocket(Resolver resolver, long attemptDelayMillis) {
+        this.resolver = resolver;
+        this.attemptDelayMillis = attemptDelayMillis;
+        this.connected = null;
+        this.closed = false;
+        this.soTimeout = 0;
+        this.tcpNoDelay = false;
+    }
+
+    Socket getConnected() throws SocketException {
+        if (this.connected == null) {
+            throw new SocketException("Socket is not connected");
+        }
+
+        return this.connected;
+    }
+
+    @Override
+    public void connect(SocketAddress endpoint) throws IOException {
+        connect(endpoint, 0);
+    }
+
+    @Override
+    public void connect(SocketAddress endpoint, int timeout) throws IOException {
+        if (!(endpoint instanceof InetSocketAddress)) {
+            throw new IllegalArgumentException("unsupported address type");
+        }
+
+        if (this.closed) {
+            throw new SocketException("Socket is closed");
+        }
+
+        // the address may already be resolved by the JVM, only the host name is used
+        InetSocketAddress address = (InetSocketAddress) endpoint;
+        Socket socket = HappyEyeballs.connect(this.resolver.resolve(address.getHostString()), address.getPort(), timeout, this.attemptDelayMillis);
+        socket.setSoTimeout(this.soTimeout);
+        socket.setTcpNoDelay(this.tcpNoDelay);
+        this.connected = socket;
+
+        if (this.closed) {
+            socket.close();
+            throw new SocketException("Socket is closed");
+        }
+    }
+
+    @Override
+    public boolean isConnected() {
+        return this.connected != null;
+    }
+
+    @Override
+    public boolean isBound() {
+        return this.connected != null;
+    }
+
+    @Override
+    public boolean isClosed() {
+        return this.closed;
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        this.closed = true;
+
+        if (this.connected != null) {
+            this.connected.close();
+        }
+    }
+
+    @Override
+    public InputStream getInputStream() throws IOException {
+        return getConnected().getInputStream();
+    }
+
+    @Override
+    public OutputStream getOutputStream() throws IOException {
+        return getConnected().getOutputStream();
+    }
+
+    @Override
+    public void shutdownInput() throws IOException {
+        getConnected().shutdownInput();
+    }
+
+    @Override
+    public void shutdownOutput() throws IOException {
+        getConnected().shutdownOutput();
+    }
+
+    @Override
+    public InetAddress getInetAddress() {
+        return (this.connected == null) ? null : this.connected.getInetAddress();
+    }
+
+    @Override
+    public int getPort() {
+        return (this.connected == null) ? 0 : this.connected.getPort();
+    }
+
+    @Override
+    public SocketAddress getRemoteSocketAddress() {
+        return (this.connected == null) ? null : this.connected.getRemoteSocketAddress();
+    }
+
+    @Override
+    public InetAddress getLocalAddress() {
+        return (this.connected == null) ? null : this.connected.getLocalAddress();
+    }
+
+    @Override
+    public int getLocalPort() {
+        return (this.connected == null) ? -1 : this.connected.getLocalPort();
+    }
+
+    @Override
+    public SocketAddress getLocalSocketAddress() {
+        return (this.connected == null) ? null : this.connected.getLocalSocketAddress();
+    }
+
+    @Override
+    public synchronized void setSoTimeout(int timeout) throws SocketException {
+        this.soTimeout = timeout;
+
+        if (this.connected != null) {
+            this.connected.setSoTimeout(timeout);
+        }
+    }
+
+    @Override
+    public synchronized int getSoTimeout() throws SocketException {
+        return (this.connected == null) ? this.soTimeout : this.connected.getSoTimeout();
+    }
+
+    @Override
+    public synchronized void setTcpNoDelay(boolean on) throws SocketException {
+        this.tcpNoDelay = on;
+
+        if (this.connected != null) {
+            this.connected.setTcpNoDelay(on);
+        }
+    }
+
+    @Override
+    public synchronized boolean getTcpNoDelay() throws SocketException {
+        return (this.connected == null) ? this.tcpNoDelay : this.connected.getTcpNoDelay();
+    }
+
+    @Override
+    public void setKeepAlive(boolean on) throws SocketException {
+        getConnected().setKeepAlive(on);
+    }
+
+    @Override
+    public boolean getKeepAlive() throws SocketException {
+        return getConnected().getKeepAlive();
+    }
+
+    @Override
+    public String toString() {
+        return (this.connected == null) ? "ResolvingSocket[unconnected]" : "ResolvingSocket[" + this.connected + "]";
+    }
+}
@@ -0,0 +1,85 @@
+package dev.codeflush.httpclient.resolver;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+// fixed host to address mappings, e.g. for tests that must not depend on DNS
+public class StaticResolver implements Resolver {
+
+    private final Map<String, List<InetAddress>> hosts;
+    private final Resolver fallback;
+
+    public StaticResolver(Resolver fallback) {
+        this.hosts = new ConcurrentHashMap<>();
+        this.fallback = fallback;
+    }
+
+    public StaticResolver() {
+        this(null);
+    }
+
+    // the addresses must be IP literals, they are never looked up
+    public StaticResolver add(String host, String... addresses) {
+        List<InetAddress> result = new ArrayList<>(addresses.length);
+
+        for (String address : addresses) {
+            result.add(parseLiteral(host, address));
+        }
+
+        return add(host, result);
+    }
+
+    public StaticResolver add(String host, List<InetAddress> addresses) {
+        if (addresses.isEmpty()) {
+            throw new IllegalArgumentException("at least one address is required");
+        }
+
+        this.hosts.put(normalize(host), Collections.unmodifiableList(new ArrayList<>(addresses)));
+        return this;
+    }
+
+    public StaticResolver remove(String host) {
+        this.hosts.remove(normalize(host));
+        return this;
+    }
+
+    @Override
+    public List<InetAddress> resolve(String host) throws UnknownHostException {
+        List<InetAddress> addresses = this.hosts.get(normalize(host));
+
+        if (addresses != null) {
+            return addresses;
+        }
+
+        if (this.fallback != null) {
+            return this.fallback.resolve(host);
+        }
+
+        throw new UnknownHostException(host);
+    }
+
+    private static String normalize(String host) {
+        return Objects.requireNonNull(host).toLowerCase();
+    }
+
+    private static InetAddress parseLiteral(String host, String address) {
+        String literal = address.startsWith("[") && address.endsWith("]") ? address.substring(1, address.length() - 1) : address;
+
+        if (!literal.contains(":") && !literal.matches("[0-9.]+")) {
+            throw new IllegalArgumentException("not an IP literal: " + address);
+        }
+
+        try {
+            // literals are parsed, not resolved
+            return InetAddress.getByAddress(host, InetAddress.getByName(literal).getAddress());
+        } catch (UnknownHostException e) {
+            throw new IllegalArgumentException("not an IP literal: " + address, e);
+        }
+    }
+}
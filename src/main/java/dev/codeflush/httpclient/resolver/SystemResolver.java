@@ -0,0 +1,17 @@
+package dev.codeflush.httpclient.resolver;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.util.Arrays;
+import java.util.List;
+
+// uses the resolution (and the global cache) of the JVM
+public class SystemResolver implements Resolver {
+
+    public static final SystemResolver INSTANCE = new SystemResolver();
+
+    @Override
+    public List<InetAddress> resolve(String host) throws UnknownHostException {
+        return Arrays.asList(InetAddress.getAllByName(host));
+    }
+}
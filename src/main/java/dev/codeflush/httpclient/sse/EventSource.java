@@ -0,0 +1,177 @@
+package dev.codeflush.httpclient.sse;
+
+import dev.codeflush.httpclient.Response;
+import dev.codeflush.httpclient.ResponseBody;
+import dev.codeflush.httpclient.client.HTTPClient;
+import dev.codeflush.httpclient.request.Request;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.HttpURLConnection;
+import java.util.Objects;
+
+public class EventSource implements Runnable, Closeable {
+
+    public static final long DEFAULT_RETRY_MILLIS = 3000L;
+
+    private final HTTPClient client;
+    private final Request.Template template;
+    private final ServerSentEventListener listener;
+    private final Object lock;
+    private volatile String lastEventId;
+    private volatile long retryMillis;
+    private volatile boolean closed;
+    private ResponseBody currentBody;
+
+    public EventSource(HTTPClient client, Request.Template template, ServerSentEventListener listener, long retryMillis) {
+        this.client = Objects.requireNonNull(client);
+        this.template = Objects.requireNonNull(template);
+        this.listener = Objects.requireNonNull(listener);
+        this.lock = new Object();
+        this.lastEventId = "";
+        this.retryMillis = retryMillis;
+        this.closed = false;
+        this.currentBody = null;
+    }
+
+    public EventSource(HTTPClient client, Request.Template template, ServerSentEventListener listener) {
+        this(client, template, listener, DEFAULT_RETRY_MILLIS);
+    }
+
+    public String getLastEventId() {
+        return this.lastEventId;
+    }
+
+    public long getRetryMillis() {
+        return this.retryMillis;
+    }
+
+    public boolean isClosed() {
+        return this.closed;
+    }
+
+    // blocks until the EventSource is closed or the server refuses the stream
+    @Override
+    public void run() {
+        try {
+            while (!this.closed) {
+                try {
+                    if (!receive()) {
+                        return;
+                    }
+                } catch (IOException | RuntimeException e) {
+                    if (this.closed) {
+                        return;
+                    }
+
+                    this.listener.onError(e);
+                }
+
+                awaitRetry();
+            }
+        } finally {
+            this.closed = true;
+            this.listener.onClosed();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        ResponseBody body;
+
+        synchronized (this.lock) {
+            this.closed = true;
+            body = this.currentBody;
+            this.lock.notifyAll();
+        }
+
+        if (body != null) {
+            body.close();
+        }
+    }
+
+    // returns false if the stream must not be reconnected
+    private boolean receive() throws IOException {
+        Request.Builder<?> builder = this.template.enrich()
+                .header("Accept", "text/event-stream")
+                .header("Cache-Control", "no-cache");
+
+        if (!this.lastEventId.isEmpty()) {
+            builder.header("Last-Event-ID", this.lastEventId);
+        }
+
+        Response<ResponseBody> response = this.client.stream(builder.build());
+
+        try (ResponseBody body = response.getValue()) {
+            synchronized (this.lock) {
+                if (this.closed) {
+                    return false;
+                }
+
+                this.currentBody = body;
+            }
+
+            // as specified, any status other than 200 or a wrong content type fails the EventSource (204 closes it)
+            if (response.getResponseCode() == HttpURLConnection.HTTP_NO_CONTENT) {
+                return false;
+            }
+
+            if (response.getResponseCode() != HttpURLConnection.HTTP_OK) {
+                this.listener.onError(new IOException("unexpected response code " + response.getResponseCode()));
+                return false;
+            }
+
+            if (!"text/event-stream".equalsIgnoreCase(trim(response.getContentType()))) {
+                this.listener.onError(new IOException("unexpected content type " + response.getContentType()));
+                return false;
+            }
+
+            this.listener.onOpen(response);
+
+            ServerSentEventReader reader = new ServerSentEventReader(body.getInputStream(), this.lastEventId);
+            ServerSentEvent event;
+
+            while ((event = reader.next()) != null) {
+                this.lastEventId = reader.getLastEventId();
+                updateRetry(reader);
+                this.listener.onEvent(event);
+            }
+
+            this.lastEventId = reader.getLastEventId();
+            updateRetry(reader);
+
+            return true;
+        } finally {
+            synchronized (this.lock) {
+                this.currentBody = null;
+            }
+        }
+    }
+
+    private void updateRetry(ServerSentEventReader reader) {
+        if (reader.getRetryMillis() != -1L) {
+            this.retryMillis = reader.getRetryMillis();
+        }
+    }
+
+    private void awaitRetry() {
+        long deadline = System.currentTimeMillis() + this.retryMillis;
+
+        synchronized (this.lock) {
+            long remaining;
+
+            while (!this.closed && (remaining = deadline - System.currentTimeMillis()) > 0) {
+                try {
+                    this.lock.wait(remaining);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    this.closed = true;
+                }
+            }
+        }
+    }
+
+    private static String trim(String str) {
+        return (str == null) ? null : str.trim();
+    }
+}
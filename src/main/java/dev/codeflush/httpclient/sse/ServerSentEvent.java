@@ -0,0 +1,31 @@
+package dev.codeflush.httpclient.sse;
+
+public class ServerSentEvent {
+
+    private final String id;
+    private final String event;
+    private final String data;
+
+    public ServerSentEvent(String id, String event, String data) {
+        this.id = id;
+        this.event = event;
+        this.data = data;
+    }
+
+    public String getId() {
+        return this.id;
+    }
+
+    public String getEvent() {
+        return this.event;
+    }
+
+    public String getData() {
+        return this.data;
+    }
+
+    @Override
+    public String toString() {
+        return "ServerSentEvent{id='" + this.id + "', event='" + this.event + "', data='" + this.data + "'}";
+    }
+}
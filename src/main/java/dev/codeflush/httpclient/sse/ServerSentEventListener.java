@@ -0,0 +1,19 @@
+package dev.codeflush.httpclient.sse;
+
+import dev.codeflush.httpclient.Response;
+import dev.codeflush.httpclient.ResponseBody;
+
+public interface ServerSentEventListener {
+
+    default void onOpen(Response<ResponseBody> response) {
+    }
+
+    void onEvent(ServerSentEvent event);
+
+    // called for every failed connection attempt, the EventSource reconnects afterwards unless closed
+    default void onError(Throwable t) {
+    }
+
+    default void onClosed() {
+    }
+}
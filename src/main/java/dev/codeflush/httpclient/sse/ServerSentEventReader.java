@@ -0,0 +1,188 @@
+package dev.codeflush.httpclient.sse;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Objects;
+
+// parses the text/event-stream format as specified in https://html.spec.whatwg.org/multipage/server-sent-events.html
+public class ServerSentEventReader {
+
+    private static final String DEFAULT_EVENT = "message";
+
+    private final InputStream in;
+    private final byte[] buffer;
+    private int position;
+    private int limit;
+    private byte[] line;
+    private int lineLength;
+    private boolean skipLF;
+    private boolean firstLine;
+
+    private final StringBuilder data;
+    private String eventType;
+    private String lastEventId;
+    private long retryMillis;
+
+    public ServerSentEventReader(InputStream in, String lastEventId) {
+        this.in = Objects.requireNonNull(in);
+        this.buffer = new byte[8192];
+        this.position = 0;
+        this.limit = 0;
+        this.line = new byte[256];
+        this.lineLength = 0;
+        this.skipLF = false;
+        this.firstLine = true;
+        this.data = new StringBuilder();
+        this.eventType = "";
+        this.lastEventId = (lastEventId == null) ? "" : lastEventId;
+        this.retryMillis = -1L;
+    }
+
+    public ServerSentEventReader(InputStream in) {
+        this(in, null);
+    }
+
+    public String getLastEventId() {
+        return this.lastEventId;
+    }
+
+    // -1 as long as the server didn't send a retry field
+    public long getRetryMillis() {
+        return this.retryMillis;
+    }
+
+    // blocks until the next event is complete, returns null at the end of the stream
+    public ServerSentEvent next() throws IOException {
+        String line;
+
+        while ((line = readLine()) != null) {
+            if (line.isEmpty()) {
+                ServerSentEvent event = dispatch();
+
+                if (event != null) {
+                    return event;
+                }
+            } else if (line.charAt(0) != ':') {
+                int colon = line.indexOf(':');
+                String field;
+                String value;
+
+                if (colon == -1) {
+                    field = line;
+                    value = "";
+                } else {
+                    field = line.substring(0, colon);
+                    int valueStart = colon + 1;
+
+                    if (valueStart < line.length() && line.charAt(valueStart) == ' ') {
+                        valueStart++;
+                    }
+
+                    value = line.substring(valueStart);
+                }
+
+                processField(field, value);
+            }
+        }
+
+        return null;
+    }
+
+    private void processField(String field, String value) {
+        switch (field) {
+            case "event":
+                this.eventType = value;
+                break;
+            case "data":
+                this.data.append(value).append('\n');
+                break;
+            case "id":
+                if (value.indexOf('\u0000') == -1) {
+                    this.lastEventId = value;
+                }
+                break;
+            case "retry":
+                if (!value.isEmpty() && value.chars().allMatch((c) -> c >= '0' && c <= '9')) {
+                    try {
+                        this.retryMillis = Long.parseLong(value);
+                    } catch (NumberFormatException ignored) {
+                    }
+                }
+                break;
+            default:
+                break;
+        }
+    }
+
+    private ServerSentEvent dispatch() {
+        if (this.data.length() == 0) {
+            this.eventType = "";
+            return null;
+        }
+
+        this.data.setLength(this.data.length() - 1);
+
+        ServerSentEvent event = new ServerSentEvent(this.lastEventId, this.eventType.isEmpty() ? DEFAULT_EVENT : this.eventType, this.data.toString());
+
+        this.data.setLength(0);
+        this.eventType = "";
+
+        return event;
+    }
+
+    // lines end with CRLF, LF or CR
+    private String readLine() throws IOException {
+        this.lineLength = 0;
+
+        while (true) {
+            if (this.position == this.limit) {
+                int bytesRead = this.in.read(this.buffer);
+
+                if (bytesRead == -1) {
+                    // an incomplete line at the end of the stream is discarded together with the pending event
+                    return null;
+                }
+
+                this.position = 0;
+                this.limit = bytesRead;
+            }
+
+            byte b = this.buffer[this.position++];
+
+            if (this.skipLF) {
+                this.skipLF = false;
+
+                if (b == '\n') {
+                    continue;
+                }
+            }
+
+            if (b == '\n' || b == '\r') {
+                this.skipLF = (b == '\r');
+                return decodeLine();
+            }
+
+            if (this.lineLength == this.line.length) {
+                this.line = Arrays.copyOf(this.line, this.line.length * 2);
+            }
+
+            this.line[this.lineLength++] = b;
+        }
+    }
+
+    private String decodeLine() {
+        String result = new String(this.line, 0, this.lineLength, StandardCharsets.UTF_8);
+
+        if (this.firstLine) {
+            this.firstLine = false;
+
+            if (!result.isEmpty() && result.charAt(0) == '\uFEFF') {
+                result = result.substring(1);
+            }
+        }
+
+        return result;
+    }
+}
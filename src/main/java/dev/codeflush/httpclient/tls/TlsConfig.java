@@ -0,0 +1,123 @@
+package dev.codeflush.httpclient.tls;
+
+import javax.net.ssl.HostnameVerifier;
+import javax.net.ssl.SSLContext;
+import java.util.Objects;
+
+public class TlsConfig {
+
+    // the JVM defaults: the default SSLSocketFactory and HostnameVerifier of HttpsURLConnection
+    public static final TlsConfig DEFAULT = builder().build();
+
+    private final SSLContext sslContext;
+    private final int sessionCacheSize;
+    private final int sessionTimeoutSeconds;
+    private final String[] protocols;
+    private final String[] cipherSuites;
+    private final HostnameVerifier hostnameVerifier;
+
+    private TlsConfig(Builder builder) {
+        this.sslContext = builder.sslContext;
+        this.sessionCacheSize = builder.sessionCacheSize;
+        this.sessionTimeoutSeconds = builder.sessionTimeoutSeconds;
+        this.protocols = builder.protocols;
+        this.cipherSuites = builder.cipherSuites;
+        this.hostnameVerifier = builder.hostnameVerifier;
+    }
+
+    // null if the default SSLSocketFactory of HttpsURLConnection is used
+    public SSLContext getSSLContext() {
+        return this.sslContext;
+    }
+
+    public int getSessionCacheSize() {
+        return this.sessionCacheSize;
+    }
+
+    public int getSessionTimeoutSeconds() {
+        return this.sessionTimeoutSeconds;
+    }
+
+    public String[] getProtocols() {
+        return (this.protocols == null) ? null : this.protocols.clone();
+    }
+
+    public String[] getCipherSuites() {
+        return (this.cipherSuites == null) ? null : this.cipherSuites.clone();
+    }
+
+    // null if the default HostnameVerifier of HttpsURLConnection is used
+    public HostnameVerifier getHostnameVerifier() {
+        return this.hostnameVerifier;
+    }
+
+    String[] protocols() {
+        return this.protocols;
+    }
+
+    String[] cipherSuites() {
+        return this.cipherSuites;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public static class Builder {
+
+        private SSLContext sslContext;
+        private int sessionCacheSize;
+        private int sessionTimeoutSeconds;
+        private String[] protocols;
+        private String[] cipherSuites;
+        private HostnameVerifier hostnameVerifier;
+
+        private Builder() {
+            this.sslContext = null;
+            this.sessionCacheSize = -1;
+            this.sessionTimeoutSeconds = -1;
+            this.protocols = null;
+            this.cipherSuites = null;
+            this.hostnameVerifier = null;
+        }
+
+        public Builder sslContext(SSLContext sslContext) {
+            this.sslContext = Objects.requireNonNull(sslContext);
+            return this;
+        }
+
+        // 0 means unlimited, requires an SSLContext
+        public Builder sessionCache(int sessionCacheSize, int sessionTimeoutSeconds) {
+            if (sessionCacheSize < 0 || sessionTimeoutSeconds < 0) {
+                throw new IllegalArgumentException("sessionCacheSize and sessionTimeoutSeconds must not be negative");
+            }
+
+            this.sessionCacheSize = sessionCacheSize;
+            this.sessionTimeoutSeconds = sessionTimeoutSeconds;
+            return this;
+        }
+
+        public Builder protocols(String... protocols) {
+            this.protocols = protocols.clone();
+            return this;
+        }
+
+        public Builder cipherSuites(String... cipherSuites) {
+            this.cipherSuites = cipherSuites.clone();
+            return this;
+        }
+
+        public Builder hostnameVerifier(HostnameVerifier hostnameVerifier) {
+            this.hostnameVerifier = Objects.requireNonNull(hostnameVerifier);
+            return this;
+        }
+
+        public TlsConfig build() {
+            if (this.sslContext == null && (this.sessionCacheSize >= 0 || this.sessionTimeoutSeconds >= 0)) {
+                throw new IllegalStateException("the session cache can only be configured for an own SSLContext");
+            }
+
+            return new TlsConfig(this);
+        }
+    }
+}
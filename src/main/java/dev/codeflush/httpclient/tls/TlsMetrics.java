@@ -0,0 +1,47 @@
+package dev.codeflush.httpclient.tls;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+public class TlsMetrics {
+
+    private final LongAdder fullHandshakes;
+    private final LongAdder resumedHandshakes;
+    private final LongAdder handshakeNanos;
+    private final LongAccumulator maxHandshakeNanos;
+
+    public TlsMetrics() {
+        this.fullHandshakes = new LongAdder();
+        this.resumedHandshakes = new LongAdder();
+        this.handshakeNanos = new LongAdder();
+        this.maxHandshakeNanos = new LongAccumulator(Math::max, 0L);
+    }
+
+    void onHandshake(long nanos, boolean resumed) {
+        (resumed ? this.resumedHandshakes : this.fullHandshakes).increment();
+        this.handshakeNanos.add(nanos);
+        this.maxHandshakeNanos.accumulate(nanos);
+    }
+
+    public long getFullHandshakes() {
+        return this.fullHandshakes.sum();
+    }
+
+    public long getResumedHandshakes() {
+        return this.resumedHandshakes.sum();
+    }
+
+    public long getHandshakes() {
+        return getFullHandshakes() + getResumedHandshakes();
+    }
+
+    public double getAverageHandshakeMillis() {
+        long handshakes = getHandshakes();
+        return (handshakes == 0L) ? 0.0 : (double) this.handshakeNanos.sum() / handshakes / TimeUnit.MILLISECONDS.toNanos(1L);
+    }
+
+    public double getMaxHandshakeMillis() {
+        return (double) this.maxHandshakeNanos.get() / TimeUnit.MILLISECONDS.toNanos(1L);
+    }
+}
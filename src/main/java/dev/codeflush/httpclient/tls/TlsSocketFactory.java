@@ -0,0 +1,142 @@
+package dev.codeflush.httpclient.tls;
+
+import javax.net.ssl.HandshakeCompletedEvent;
+import javax.net.ssl.HandshakeCompletedListener;
+import javax.net.ssl.HttpsURLConnection;
+import javax.net.ssl.SSLSession;
+import javax.net.ssl.SSLSessionContext;
+import javax.net.ssl.SSLSocket;
+import javax.net.ssl.SSLSocketFactory;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.util.Objects;
+
+// applies a TlsConfig to every socket and records its handshake.
+// createSocket() returns a plain socket, so HttpsURLConnection connects it first and layers TLS on top of it with
+// createSocket(Socket, String, int, boolean), which keeps the TCP connect out of the handshake latency
+public class TlsSocketFactory extends SSLSocketFactory {
+
+    private final TlsConfig config;
+    private final SSLSocketFactory contextFactory;
+    private final TlsMetrics metrics;
+
+    public TlsSocketFactory(TlsConfig config) {
+        this.config = Objects.requireNonNull(config);
+        this.contextFactory = (config.getSSLContext() == null) ? null : config.getSSLContext().getSocketFactory();
+        this.metrics = new TlsMetrics();
+
+        // the session cache belongs to the SSLContext, so it can only be tuned for an own context
+        if (config.getSSLContext() != null) {
+            SSLSessionContext sessions = config.getSSLContext().getClientSessionContext();
+
+            if (config.getSessionCacheSize() >= 0) {
+                sessions.setSessionCacheSize(config.getSessionCacheSize());
+            }
+
+            if (config.getSessionTimeoutSeconds() >= 0) {
+                sessions.setSessionTimeout(config.getSessionTimeoutSeconds());
+            }
+        }
+    }
+
+    public TlsConfig getConfig() {
+        return this.config;
+    }
+
+    public TlsMetrics getMetrics() {
+        return this.metrics;
+    }
+
+    @Override
+    public Socket createSocket() {
+        return new Socket();
+    }
+
+    @Override
+    public Socket createSocket(Socket s, String host, int port, boolean autoClose) throws IOException {
+        return track(delegate().createSocket(s, host, port, autoClose));
+    }
+
+    @Override
+    public Socket createSocket(String host, int port) throws IOException {
+        return track(delegate().createSocket(host, port));
+    }
+
+    @Override
+    public Socket createSocket(String host, int port, InetAddress localHost, int localPort) throws IOException {
+        return track(delegate().createSocket(host, port, localHost, localPort));
+    }
+
+    @Override
+    public Socket createSocket(InetAddress host, int port) throws IOException {
+        return track(delegate().createSocket(host, port));
+    }
+
+    @Override
+    public Socket createSocket(InetAddress address, int port, InetAddress localAddress, int localPort) throws IOException {
+        return track(delegate().createSocket(address, port, localAddress, localPort));
+    }
+
+    @Override
+    public String[] getDefaultCipherSuites() {
+        return (this.config.cipherSuites() == null) ? delegate().getDefaultCipherSuites() : this.config.getCipherSuites();
+    }
+
+    @Override
+    public String[] getSupportedCipherSuites() {
+        return delegate().getSupportedCipherSuites();
+    }
+
+    // without an own SSLContext the default is looked up every time, so changing it later still takes effect
+    private SSLSocketFactory delegate() {
+        return (this.contextFactory == null) ? HttpsURLConnection.getDefaultSSLSocketFactory() : this.contextFactory;
+    }
+
+    private Socket track(Socket socket) {
+        if (!(socket instanceof SSLSocket)) {
+            return socket;
+        }
+
+        SSLSocket sslSocket = (SSLSocket) socket;
+
+        if (this.config.protocols() != null) {
+            sslSocket.setEnabledProtocols(this.config.protocols());
+        }
+
+        if (this.config.cipherSuites() != null) {
+            sslSocket.setEnabledCipherSuites(this.config.cipherSuites());
+        }
+
+        sslSocket.addHandshakeCompletedListener(new HandshakeTimer());
+        return sslSocket;
+    }
+
+    private final class HandshakeTimer implements HandshakeCompletedListener {
+
+        private final long startNanos;
+        private final long startMillis;
+        private boolean recorded;
+
+        private HandshakeTimer() {
+            this.startNanos = System.nanoTime();
+            this.startMillis = System.currentTimeMillis();
+            this.recorded = false;
+        }
+
+        // a resumed handshake reuses a session that was created by an earlier full handshake
+        @Override
+        public synchronized void handshakeCompleted(HandshakeCompletedEvent event) {
+            // renegotiations are not counted
+            if (this.recorded) {
+                return;
+            }
+
+            this.recorded = true;
+            SSLSession session = event.getSession();
+            boolean resumed = session.getCreationTime() < this.startMillis;
+
+            TlsSocketFactory.this.metrics.onHandshake(System.nanoTime() - this.startNanos, resumed);
+        }
+    }
+}
@@ -0,0 +1,128 @@
+package dev.codeflush.httpclient;
+
+import com.github.tomakehurst.wiremock.junit.WireMockRule;
+import dev.codeflush.httpclient.client.HTTPClient;
+import dev.codeflush.httpclient.client.SimpleHTTPClient;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.*;
+import static com.github.tomakehurst.wiremock.core.WireMockConfiguration.wireMockConfig;
+import static org.junit.Assert.*;
+
+public class ResponseBodyTest {
+
+    @Rule
+    public WireMockRule wireMockRule = new WireMockRule(wireMockConfig().dynamicPort().dynamicHttpsPort(), false);
+
+    private Endpoint baseEndpoint;
+    private HTTPClient client;
+
+    @Before
+    public void setupMockServer() {
+        this.baseEndpoint = Endpoint.forHostAndPort(Endpoint.HTTP, "localhost", this.wireMockRule.port());
+        this.client = new SimpleHTTPClient();
+
+        this.wireMockRule.resetAll();
+    }
+
+    @Test
+    public void streamsTheBody() throws Exception {
+        stubFor(get(urlEqualTo("/test")).willReturn(aResponse().withStatus(200).withHeader("some-header", "some-value").withBody("Hello World")));
+
+        Response<ResponseBody> response = this.baseEndpoint.resolve("test")
+                .get()
+                .stream(this.client);
+
+        assertEquals(200, response.getResponseCode());
+        assertEquals("some-value", response.getHeaders().get("some-header").get(0));
+
+        try (ResponseBody body = response.getValue()) {
+            assertEquals("Hello World", readFully(body.getInputStream()));
+            assertTrue(body.isClosed());
+        }
+    }
+
+    @Test
+    public void streamsErrorBodies() throws Exception {
+        stubFor(get(urlEqualTo("/test")).willReturn(aResponse().withStatus(404).withBody("not found")));
+
+        Response<ResponseBody> response = this.baseEndpoint.resolve("test")
+                .get()
+                .stream(this.client);
+
+        assertEquals(404, response.getResponseCode());
+
+        try (ResponseBody body = response.getValue()) {
+            assertEquals("not found", readFully(body.getInputStream()));
+        }
+    }
+
+    @Test
+    public void channelReadsTheBody() throws Exception {
+        ResponseBody body = new ResponseBody(new ByteArrayInputStream("Hello".getBytes(StandardCharsets.UTF_8)), null);
+        ByteBuffer buffer = ByteBuffer.allocate(16);
+
+        try (ReadableByteChannel channel = body.getChannel()) {
+            while (channel.read(buffer) != -1) {
+            }
+        }
+
+        assertEquals("Hello", new String(buffer.array(), 0, buffer.position(), StandardCharsets.UTF_8));
+        assertTrue(body.isClosed());
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void bodyIsSingleUse() {
+        ResponseBody body = new ResponseBody(new ByteArrayInputStream(new byte[0]), null);
+        body.getInputStream();
+        body.getChannel();
+    }
+
+    @Test
+    public void detectsLeakedBodies() throws Exception {
+        AtomicBoolean closed = new AtomicBoolean(false);
+        long leaksBefore = ResponseBody.getLeakCount();
+
+        leak(closed);
+
+        for (int i = 0; i < 50 && !closed.get(); i++) {
+            System.gc();
+            Thread.sleep(20);
+            ResponseBody.getLeakCount();
+        }
+
+        assertTrue(closed.get());
+        assertTrue(ResponseBody.getLeakCount() > leaksBefore);
+    }
+
+    private static void leak(AtomicBoolean closed) {
+        new ResponseBody(new ByteArrayInputStream(new byte[0]) {
+            @Override
+            public void close() {
+                closed.set(true);
+            }
+        }, "leaked");
+    }
+
+    private static String readFully(InputStream in) throws IOException {
+        StringBuilder sb = new StringBuilder();
+        byte[] buffer = new byte[4];
+        int bytesRead;
+
+        while ((bytesRead = in.read(buffer)) != -1) {
+            sb.append(new String(buffer, 0, bytesRead, StandardCharsets.UTF_8));
+        }
+
+        return sb.toString();
+    }
+}
@@ -0,0 +1,123 @@
+package dev.codeflush.httpclient.buffer;
+
+import dev.codeflush.httpclient.parser.StringResponseParser;
+import dev.codeflush.httpclient.request.body.InputStreamRequestBody;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+
+import static org.junit.Assert.*;
+
+public class BufferPoolTest {
+
+    @Test
+    public void reusesBuffersOfTheSameThread() {
+        BufferPool pool = new BufferPool(false, 4096, 65536, 4, 16, false);
+        byte[] first;
+
+        try (PooledBuffer buffer = pool.acquire(8192)) {
+            first = buffer.array();
+        }
+
+        try (PooledBuffer buffer = pool.acquire(8000)) {
+            assertSame(first, buffer.array());
+        }
+
+        assertEquals(2L, pool.getMetrics().getAcquired());
+        assertEquals(1L, pool.getMetrics().getAllocated());
+        assertEquals(1L, pool.getMetrics().getThreadLocalHits());
+        assertEquals(0.5, pool.getMetrics().getHitRate(), 0.0001);
+    }
+
+    @Test
+    public void roundsUpToSizeClasses() {
+        BufferPool pool = new BufferPool(false, 4096, 65536, 4, 16, false);
+
+        try (PooledBuffer small = pool.acquire(100); PooledBuffer medium = pool.acquire(5000); PooledBuffer large = pool.acquire(100_000)) {
+            assertEquals(4096, small.capacity());
+            assertEquals(8192, medium.capacity());
+            assertEquals(100_000, large.capacity());
+        }
+
+        assertEquals(1L, pool.getMetrics().getUnpooled());
+
+        // the unpooled buffer isn't kept
+        try (PooledBuffer large = pool.acquire(100_000)) {
+            assertEquals(2L, pool.getMetrics().getUnpooled());
+        }
+    }
+
+    @Test
+    public void globalFreeListIsBounded() throws InterruptedException {
+        BufferPool pool = new BufferPool(false, 4096, 65536, 0, 1, false);
+        PooledBuffer a = pool.acquire();
+        PooledBuffer b = pool.acquire();
+
+        a.close();
+        b.close();
+        // closing twice doesn't return it twice
+        b.close();
+
+        assertEquals(2L, pool.getMetrics().getReleased());
+        assertEquals(1L, pool.getMetrics().getDropped());
+
+        // the global free list is shared between threads
+        Thread thread = new Thread(() -> pool.acquire().close());
+        thread.start();
+        thread.join();
+
+        assertEquals(1L, pool.getMetrics().getGlobalHits());
+    }
+
+    @Test
+    public void directBuffers() {
+        try (PooledBuffer buffer = BufferPool.direct().acquire(1000)) {
+            assertTrue(buffer.isDirect());
+            assertEquals(4096, buffer.byteBuffer().remaining());
+
+            try {
+                buffer.array();
+                fail("expected UnsupportedOperationException");
+            } catch (UnsupportedOperationException expected) {
+            }
+        }
+    }
+
+    @Test
+    public void detectsLeaks() throws InterruptedException {
+        BufferPool pool = new BufferPool(false, 4096, 65536, 4, 16, true);
+
+        pool.acquire().close();
+        pool.acquire();
+
+        for (int i = 0; i < 50 && pool.checkLeaks() == 0L; i++) {
+            System.gc();
+            Thread.sleep(20L);
+        }
+
+        assertEquals(1L, pool.getMetrics().getLeaks());
+        assertNotNull(pool.getLastLeak());
+    }
+
+    @Test
+    public void builtInBodiesAndParsersReturnTheirBuffers() throws IOException {
+        // not the shared pool, other tests may use it concurrently
+        BufferPool pool = new BufferPool(false, 4096, 65536, 4, 16, true);
+
+        byte[] bytes = "hello".getBytes(StandardCharsets.UTF_8);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        new InputStreamRequestBody("text/plain", () -> new ByteArrayInputStream(bytes), false, pool).write(out);
+        String value = new StringResponseParser(pool).parse(null, null, 200, new ByteArrayInputStream(out.toByteArray()), Collections.emptyMap(), "text/plain", "UTF-8");
+
+        assertEquals("hello", value);
+        assertEquals(2L, pool.getMetrics().getAcquired());
+        assertEquals(2L, pool.getMetrics().getReleased());
+        assertTrue(pool.isLeakDetection());
+        assertEquals(0L, pool.checkLeaks());
+    }
+}
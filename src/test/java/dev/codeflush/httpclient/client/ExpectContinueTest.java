@@ -0,0 +1,290 @@
+package dev.codeflush.httpclient.client;
+
+import com.github.tomakehurst.wiremock.junit.WireMockRule;
+import dev.codeflush.httpclient.Endpoint;
+import dev.codeflush.httpclient.Response;
+import dev.codeflush.httpclient.parser.StringResponseParser;
+import dev.codeflush.httpclient.request.ExpectContinue;
+import dev.codeflush.httpclient.request.Request;
+import dev.codeflush.httpclient.request.Timeouts;
+import dev.codeflush.httpclient.request.body.RequestBody;
+import dev.codeflush.httpclient.tls.TlsConfig;
+import dev.codeflush.httpclient.tls.TrustAll;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+
+import javax.net.ssl.SSLContext;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+import java.net.SocketTimeoutException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.*;
+import static com.github.tomakehurst.wiremock.core.WireMockConfiguration.wireMockConfig;
+import static org.junit.Assert.*;
+
+public class ExpectContinueTest {
+
+    @Rule
+    public WireMockRule wireMockRule = new WireMockRule(wireMockConfig().dynamicPort().dynamicHttpsPort(), false);
+
+    private Endpoint baseEndpoint;
+    private ServerSocket serverSocket;
+
+    @Before
+    public void setupMockServer() throws IOException {
+        this.baseEndpoint = Endpoint.forHostAndPort(Endpoint.HTTP, "localhost", this.wireMockRule.port());
+        this.wireMockRule.resetAll();
+        this.wireMockRule.stubFor(post(urlEqualTo("/upload")).willReturn(aResponse().withStatus(201).withBody("stored")));
+        this.serverSocket = new ServerSocket(0);
+    }
+
+    @After
+    public void closeServerSocket() throws IOException {
+        this.serverSocket.close();
+    }
+
+    private static String body(int length) {
+        return String.join("", Collections.nCopies(length, "x"));
+    }
+
+    // WireMock always accepts the headers, rejecting and silent servers are answered by hand
+    private CompletableFuture<Exchange> serveOnce(boolean reject, boolean sendContinue) {
+        return CompletableFuture.supplyAsync(() -> {
+            try (Socket socket = this.serverSocket.accept()) {
+                InputStream in = socket.getInputStream();
+                OutputStream out = socket.getOutputStream();
+                List<String> head = readHead(in);
+                int contentLength = Integer.parseInt(header(head, "Content-Length"));
+
+                if (reject) {
+                    out.write("HTTP/1.1 413 Payload Too Large\r\nContent-Type: text/plain\r\nContent-Length: 8\r\nConnection: close\r\n\r\ntoo big!".getBytes(StandardCharsets.ISO_8859_1));
+                    out.flush();
+
+                    // whatever the client sends after the rejection
+                    socket.setSoTimeout(300);
+                    return new Exchange(head, readAvailable(in));
+                }
+
+                if (sendContinue) {
+                    out.write("HTTP/1.1 100 Continue\r\n\r\n".getBytes(StandardCharsets.ISO_8859_1));
+                    out.flush();
+                }
+
+                byte[] body = new byte[contentLength];
+                for (int read = 0; read < contentLength; ) {
+                    read += in.read(body, read, contentLength - read);
+                }
+
+                out.write("HTTP/1.1 200 OK\r\nTransfer-Encoding: chunked\r\nConnection: close\r\n\r\n2\r\nok\r\n0\r\n\r\n".getBytes(StandardCharsets.ISO_8859_1));
+                out.flush();
+                return new Exchange(head, body.length);
+            } catch (IOException e) {
+                throw new RuntimeException(e);
+            }
+        });
+    }
+
+    private static List<String> readHead(InputStream in) throws IOException {
+        List<String> lines = new ArrayList<>();
+        ByteArrayOutputStream line = new ByteArrayOutputStream();
+        int b;
+
+        while ((b = in.read()) != -1) {
+            if (b == '\n') {
+                String value = new String(line.toByteArray(), StandardCharsets.ISO_8859_1).trim();
+
+                if (value.isEmpty()) {
+                    break;
+                }
+
+                lines.add(value);
+                line.reset();
+            } else {
+                line.write(b);
+            }
+        }
+
+        return lines;
+    }
+
+    private static String header(List<String> head, String name) {
+        return head.stream()
+                .filter((line) -> line.toLowerCase().startsWith(name.toLowerCase() + ":"))
+                .map((line) -> line.substring(name.length() + 1).trim())
+                .findFirst()
+                .orElse(null);
+    }
+
+    private static int readAvailable(InputStream in) throws IOException {
+        byte[] buffer = new byte[8192];
+        int total = 0;
+
+        try {
+            for (int read = in.read(buffer); read != -1; read = in.read(buffer)) {
+                total += read;
+            }
+        } catch (SocketTimeoutException | SocketException ignored) {
+        }
+
+        return total;
+    }
+
+    private Request.BuilderWithBody<?> upload(int length) {
+        return Endpoint.forHostAndPort(Endpoint.HTTP, "localhost", this.serverSocket.getLocalPort())
+                .resolve("upload")
+                .post()
+                .body(RequestBody.forText(body(length)));
+    }
+
+    @Test
+    public void skipsTheBodyWhenTheServerRejects() throws Exception {
+        CompletableFuture<Exchange> server = serveOnce(true, false);
+        SimpleHTTPClient client = new SimpleHTTPClient(Collections.emptyMap(), Timeouts.of(5000L, 5000L, 0L));
+
+        Response<String> response = upload(100_000).expectContinue(true).execute(client, new StringResponseParser());
+
+        assertEquals(413, response.getResponseCode());
+        assertEquals("too big!", response.getValue());
+        assertEquals("text/plain", response.getContentType());
+
+        Exchange exchange = server.get(5L, TimeUnit.SECONDS);
+        assertEquals("100-continue", header(exchange.head, "Expect"));
+        assertEquals("100000", header(exchange.head, "Content-Length"));
+        assertEquals(0, exchange.bodyBytes);
+    }
+
+    @Test
+    public void sendsTheBodyAfterContinue() throws Exception {
+        CompletableFuture<Exchange> server = serveOnce(false, true);
+        SimpleHTTPClient client = new SimpleHTTPClient(Collections.emptyMap(), Timeouts.of(5000L, 5000L, 0L));
+
+        Response<String> response = upload(5000).expectContinue(true).execute(client, new StringResponseParser());
+
+        assertEquals(200, response.getResponseCode());
+        assertEquals("ok", response.getValue());
+        assertEquals(5000, server.get(5L, TimeUnit.SECONDS).bodyBytes);
+    }
+
+    @Test
+    public void sendsTheBodyWhenTheServerStaysSilent() throws Exception {
+        CompletableFuture<Exchange> server = serveOnce(false, false);
+        SimpleHTTPClient client = new SimpleHTTPClient(Collections.emptyMap(), Timeouts.of(5000L, 5000L, 0L), null, TlsConfig.DEFAULT, ExpectContinue.of(0L, 200L));
+
+        // HttpURLConnection would wait 5 seconds here
+        long start = System.currentTimeMillis();
+        Response<String> response = upload(10).expectContinue(true).execute(client, new StringResponseParser());
+
+        assertEquals("ok", response.getValue());
+        assertEquals(10, server.get(5L, TimeUnit.SECONDS).bodyBytes);
+        assertTrue(System.currentTimeMillis() - start < 2000L);
+    }
+
+    @Test
+    public void largeBodiesExpectContinueAutomatically() throws IOException {
+        SimpleHTTPClient client = new SimpleHTTPClient(Collections.emptyMap(), Timeouts.of(5000L, 5000L, 0L), null, TlsConfig.DEFAULT, ExpectContinue.of(1000L, 1000L));
+
+        Response<String> large = this.baseEndpoint.resolve("upload").post().body(RequestBody.forText(body(1001))).execute(client, new StringResponseParser());
+        Response<String> small = this.baseEndpoint.resolve("upload").post().body(RequestBody.forText(body(1000))).execute(client, new StringResponseParser());
+
+        assertEquals(201, large.getResponseCode());
+        assertEquals("stored", large.getValue());
+        assertEquals("stored", small.getValue());
+
+        this.wireMockRule.verify(1, postRequestedFor(urlEqualTo("/upload")).withHeader("Expect", equalTo("100-continue")).withRequestBody(equalTo(body(1001))));
+        this.wireMockRule.verify(1, postRequestedFor(urlEqualTo("/upload")).withoutHeader("Expect").withRequestBody(equalTo(body(1000))));
+    }
+
+    @Test
+    public void requestsCanOptOut() throws IOException {
+        SimpleHTTPClient client = new SimpleHTTPClient(Collections.emptyMap(), Timeouts.of(5000L, 5000L, 0L), null, TlsConfig.DEFAULT, ExpectContinue.of(10L, 1000L));
+
+        this.baseEndpoint.resolve("upload").post()
+                .body(RequestBody.forText(body(100)))
+                .expectContinue(false)
+                .header("X-Upload", "1")
+                .execute(client, new StringResponseParser());
+
+        this.wireMockRule.verify(1, postRequestedFor(urlEqualTo("/upload")).withoutHeader("Expect").withHeader("X-Upload", equalTo("1")));
+    }
+
+    @Test
+    public void uploadsFilesOverPlainHttp() throws IOException {
+        SimpleHTTPClient client = new SimpleHTTPClient(Collections.emptyMap(), Timeouts.of(5000L, 5000L, 0L), null, TlsConfig.DEFAULT, ExpectContinue.of(1000L, 1000L));
+        File file = File.createTempFile("upload", ".txt");
+
+        try {
+            Files.write(file.toPath(), body(100_000).getBytes(StandardCharsets.UTF_8));
+
+            Response<String> response = this.baseEndpoint.resolve("upload").post().body(RequestBody.forFile(file)).execute(client, new StringResponseParser());
+
+            assertEquals("stored", response.getValue());
+            this.wireMockRule.verify(1, postRequestedFor(urlEqualTo("/upload")).withHeader("Expect", equalTo("100-continue")).withRequestBody(equalTo(body(100_000))));
+        } finally {
+            file.delete();
+        }
+    }
+
+    @Test
+    public void rejectsHeadersThatWouldInjectLines() {
+        SimpleHTTPClient client = new SimpleHTTPClient(Collections.emptyMap(), Timeouts.of(5000L, 5000L, 0L), null, TlsConfig.DEFAULT, ExpectContinue.of(10L, 1000L));
+
+        for (String[] header : new String[][]{{"X-Trace", "abc\r\nX-Injected: yes"}, {"X-Trace", "abc\nX-Injected: yes"}, {"X-Trace: abc\r\nX-Injected", "yes"}, {"X Trace", "abc"}}) {
+            try {
+                this.baseEndpoint.resolve("upload").post()
+                        .body(RequestBody.forText(body(100)))
+                        .header(header[0], header[1])
+                        .execute(client, new StringResponseParser());
+                fail("expected IllegalArgumentException for " + header[0]);
+            } catch (IllegalArgumentException expected) {
+            } catch (IOException e) {
+                throw new AssertionError(e);
+            }
+        }
+
+        // nothing was sent, not even the head
+        assertTrue(this.wireMockRule.getAllServeEvents().isEmpty());
+    }
+
+    @Test
+    public void worksOverHttps() throws Exception {
+        SSLContext context = TrustAll.context();
+        TlsConfig tlsConfig = TlsConfig.builder().sslContext(context).hostnameVerifier((hostname, session) -> "localhost".equals(hostname)).build();
+        SimpleHTTPClient client = new SimpleHTTPClient(Collections.emptyMap(), Timeouts.of(5000L, 5000L, 0L), null, tlsConfig, ExpectContinue.OPT_IN);
+
+        Response<String> response = Endpoint.forHostAndPort(Endpoint.HTTPS, "localhost", this.wireMockRule.httpsPort())
+                .resolve("upload")
+                .post()
+                .body(RequestBody.forText(body(100)))
+                .expectContinue(true)
+                .execute(client, new StringResponseParser());
+
+        assertEquals("stored", response.getValue());
+        this.wireMockRule.verify(1, postRequestedFor(urlEqualTo("/upload")).withHeader("Expect", equalTo("100-continue")).withRequestBody(equalTo(body(100))));
+    }
+
+    private static final class Exchange {
+
+        private final List<String> head;
+        private final int bodyBytes;
+
+        private Exchange(List<String> head, int bodyBytes) {
+            this.head = head;
+            this.bodyBytes = bodyBytes;
+        }
+    }
+}
@@ -0,0 +1,108 @@
+package dev.codeflush.httpclient.client;
+
+import com.github.tomakehurst.wiremock.junit.WireMockRule;
+import dev.codeflush.httpclient.Endpoint;
+import dev.codeflush.httpclient.RequestMethod;
+import dev.codeflush.httpclient.Response;
+import dev.codeflush.httpclient.parser.StringResponseParser;
+import dev.codeflush.httpclient.request.ExpectContinue;
+import dev.codeflush.httpclient.request.Timeouts;
+import dev.codeflush.httpclient.request.body.RequestBody;
+import dev.codeflush.httpclient.tls.TlsConfig;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.net.HttpURLConnection;
+import java.util.Collections;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.*;
+import static com.github.tomakehurst.wiremock.core.WireMockConfiguration.wireMockConfig;
+import static org.junit.Assert.*;
+
+public class RedirectTest {
+
+    @Rule
+    public WireMockRule wireMockRule = new WireMockRule(wireMockConfig().dynamicPort().dynamicHttpsPort(), false);
+
+    private Endpoint baseEndpoint;
+
+    @Before
+    public void setupMockServer() {
+        this.baseEndpoint = Endpoint.forHostAndPort(Endpoint.HTTP, "localhost", this.wireMockRule.port());
+        this.wireMockRule.resetAll();
+        this.wireMockRule.stubFor(post(urlEqualTo("/moved")).willReturn(aResponse().withStatus(302).withHeader("Location", "/target")));
+        this.wireMockRule.stubFor(post(urlEqualTo("/temporary")).willReturn(aResponse().withStatus(307).withHeader("Location", "/target")));
+        this.wireMockRule.stubFor(get(urlEqualTo("/target")).willReturn(aResponse().withStatus(200).withBody("ok GET")));
+        this.wireMockRule.stubFor(post(urlEqualTo("/target")).willReturn(aResponse().withStatus(200).withBody("ok POST")));
+    }
+
+    private static String body(int length) {
+        return String.join("", Collections.nCopies(length, "x"));
+    }
+
+    // without 100-continue, large bodies use the streaming mode of HttpURLConnection
+    private static SimpleHTTPClient streamingClient() {
+        return new SimpleHTTPClient(Collections.emptyMap(), Timeouts.of(5000L, 5000L, 0L), null, TlsConfig.DEFAULT, ExpectContinue.OPT_IN);
+    }
+
+    @Test
+    public void postOfASmallBodyIsRedirectedAsGet() throws IOException {
+        Response<String> response = this.baseEndpoint.resolve("moved").post().body(RequestBody.forText(body(10))).execute(new SimpleHTTPClient(), new StringResponseParser());
+
+        assertEquals(200, response.getResponseCode());
+        assertEquals("ok GET", response.getValue());
+    }
+
+    @Test
+    public void postOfAStreamedBodyIsRedirectedAsGet() throws IOException {
+        Response<String> response = this.baseEndpoint.resolve("moved").post().body(RequestBody.forText(body(2 * 1024 * 1024))).execute(streamingClient(), new StringResponseParser());
+
+        assertEquals(200, response.getResponseCode());
+        assertEquals("ok GET", response.getValue());
+        // the response belongs to the original request
+        assertEquals(RequestMethod.POST, response.getRequest().getMethod());
+        this.wireMockRule.verify(1, getRequestedFor(urlEqualTo("/target")));
+    }
+
+    @Test
+    public void temporaryRedirectRepeatsTheStreamedBody() throws IOException {
+        Response<String> response = this.baseEndpoint.resolve("temporary").post().body(RequestBody.forText(body(2 * 1024 * 1024))).execute(streamingClient(), new StringResponseParser());
+
+        assertEquals("ok POST", response.getValue());
+        this.wireMockRule.verify(1, postRequestedFor(urlEqualTo("/target")).withRequestBody(equalTo(body(2 * 1024 * 1024))));
+    }
+
+    @Test
+    public void bodiesExpectingContinueAreRedirectedTheSameWay() throws IOException {
+        SimpleHTTPClient client = new SimpleHTTPClient();
+
+        Response<String> moved = this.baseEndpoint.resolve("moved").post().body(RequestBody.forText(body(2 * 1024 * 1024))).execute(client, new StringResponseParser());
+        Response<String> temporary = this.baseEndpoint.resolve("temporary").post().body(RequestBody.forText(body(2 * 1024 * 1024))).execute(client, new StringResponseParser());
+
+        assertEquals(200, moved.getResponseCode());
+        assertEquals("ok GET", moved.getValue());
+        assertEquals("ok POST", temporary.getValue());
+        this.wireMockRule.verify(2, postRequestedFor(urlMatching("/(moved|temporary)")).withHeader("Expect", equalTo("100-continue")));
+        this.wireMockRule.verify(1, postRequestedFor(urlEqualTo("/target")).withHeader("Expect", equalTo("100-continue")).withRequestBody(equalTo(body(2 * 1024 * 1024))));
+    }
+
+    @Test
+    public void redirectsAreNotFollowedWhenDisabled() throws IOException {
+        HttpURLConnection.setFollowRedirects(false);
+
+        try {
+            Response<String> small = this.baseEndpoint.resolve("moved").post().body(RequestBody.forText(body(10))).execute(new SimpleHTTPClient(), new StringResponseParser());
+            Response<String> streamed = this.baseEndpoint.resolve("moved").post().body(RequestBody.forText(body(2 * 1024 * 1024))).execute(streamingClient(), new StringResponseParser());
+
+            Response<String> expectingContinue = this.baseEndpoint.resolve("moved").post().body(RequestBody.forText(body(2 * 1024 * 1024))).execute(new SimpleHTTPClient(), new StringResponseParser());
+
+            assertEquals(302, small.getResponseCode());
+            assertEquals(302, streamed.getResponseCode());
+            assertEquals(302, expectingContinue.getResponseCode());
+        } finally {
+            HttpURLConnection.setFollowRedirects(true);
+        }
+    }
+}
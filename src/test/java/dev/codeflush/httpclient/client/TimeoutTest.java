@@ -0,0 +1,169 @@
+package dev.codeflush.httpclient.client;
+
+import com.github.tomakehurst.wiremock.junit.WireMockRule;
+import dev.codeflush.httpclient.Deadline;
+import dev.codeflush.httpclient.DeadlineExceededException;
+import dev.codeflush.httpclient.Endpoint;
+import dev.codeflush.httpclient.Response;
+import dev.codeflush.httpclient.ResponseBody;
+import dev.codeflush.httpclient.parser.StringResponseParser;
+import dev.codeflush.httpclient.request.Request;
+import dev.codeflush.httpclient.request.Timeouts;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.SocketTimeoutException;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.*;
+import static com.github.tomakehurst.wiremock.core.WireMockConfiguration.wireMockConfig;
+import static org.junit.Assert.*;
+
+public class TimeoutTest {
+
+    @Rule
+    public WireMockRule wireMockRule = new WireMockRule(wireMockConfig().dynamicPort().dynamicHttpsPort(), false);
+
+    private Endpoint baseEndpoint;
+
+    @Before
+    public void setupMockServer() {
+        this.baseEndpoint = Endpoint.forHostAndPort(Endpoint.HTTP, "localhost", this.wireMockRule.port());
+        this.wireMockRule.resetAll();
+        this.wireMockRule.stubFor(get(urlEqualTo("/slow")).willReturn(aResponse().withStatus(200).withBody("slow").withFixedDelay(2000)));
+        this.wireMockRule.stubFor(get(urlEqualTo("/dribble")).willReturn(aResponse().withStatus(200).withBody("0123456789").withChunkedDribbleDelay(10, 2000)));
+        this.wireMockRule.stubFor(get(urlEqualTo("/fast")).willReturn(aResponse().withStatus(200).withBody("fast")));
+    }
+
+    @Test(expected = SocketTimeoutException.class)
+    public void readTimeoutPerRequest() throws IOException {
+        this.baseEndpoint.resolve("slow").get()
+                .readTimeout(100L)
+                .execute(new SimpleHTTPClient(), new StringResponseParser());
+    }
+
+    @Test
+    public void totalTimeoutCoversParsing() throws IOException {
+        // every single read is fast enough, only the whole exchange takes too long
+        SimpleHTTPClient client = new SimpleHTTPClient(Timeouts.of(1000L, 1000L, 300L));
+        long start = System.currentTimeMillis();
+
+        try {
+            this.baseEndpoint.resolve("dribble").get().execute(client, new StringResponseParser());
+            fail("expected DeadlineExceededException");
+        } catch (DeadlineExceededException e) {
+            long elapsed = System.currentTimeMillis() - start;
+            assertTrue("took " + elapsed + "ms", elapsed < 1500L);
+        }
+    }
+
+    @Test
+    public void requestOverridesClientTimeout() throws IOException {
+        this.wireMockRule.stubFor(get(urlEqualTo("/slowish")).willReturn(aResponse().withStatus(200).withBody("ok").withFixedDelay(300)));
+
+        SimpleHTTPClient client = new SimpleHTTPClient(Timeouts.of(1000L, 1000L, 100L));
+        Response<String> response = this.baseEndpoint.resolve("slowish").get()
+                .timeout(Timeouts.INFINITE)
+                .execute(client, new StringResponseParser());
+
+        assertEquals("ok", response.getValue());
+    }
+
+    @Test
+    public void templatesKeepTimeouts() {
+        Request.Template template = this.baseEndpoint.get().connectTimeout(10L).readTimeout(20L).timeout(30L).template();
+        Request request = template.enrich().readTimeout(40L).build();
+
+        assertEquals(10L, request.getTimeouts().getConnectTimeoutMillis());
+        assertEquals(40L, request.getTimeouts().getReadTimeoutMillis());
+        assertEquals(30L, request.getTimeouts().getTimeoutMillis());
+        assertEquals(Timeouts.INHERIT, this.baseEndpoint.get().build().getTimeouts().getTimeoutMillis());
+    }
+
+    @Test
+    public void deadlineIsPropagated() throws IOException {
+        long start = System.currentTimeMillis();
+
+        try (Deadline.Scope scope = Deadline.after(200L).activate()) {
+            this.baseEndpoint.resolve("slow").get().execute(new SimpleHTTPClient(), new StringResponseParser());
+            fail("expected DeadlineExceededException");
+        } catch (DeadlineExceededException e) {
+            long elapsed = System.currentTimeMillis() - start;
+            assertTrue("took " + elapsed + "ms", elapsed < 1500L);
+        }
+
+        assertNull(Deadline.current());
+    }
+
+    @Test
+    public void nestedRequestsInheritTheDeadline() throws IOException {
+        SimpleHTTPClient client = new SimpleHTTPClient();
+        Deadline deadline = Deadline.after(5000L);
+        List<Deadline> seen = new CopyOnWriteArrayList<>();
+
+        this.baseEndpoint.resolve("fast").get()
+                .deadline(deadline)
+                .execute(client, (c, request, responseCode, stream, headers, contentType, charset) -> {
+                    seen.add(Deadline.current());
+                    return null;
+                });
+
+        assertSame(deadline, seen.get(0));
+        assertNull(Deadline.current());
+    }
+
+    @Test
+    public void expiredDeadlineFailsImmediately() throws IOException {
+        try {
+            this.baseEndpoint.resolve("fast").get()
+                    .deadline(Deadline.after(-1L))
+                    .execute(new SimpleHTTPClient(), new StringResponseParser());
+            fail("expected DeadlineExceededException");
+        } catch (DeadlineExceededException expected) {
+        }
+
+        this.wireMockRule.verify(0, getRequestedFor(urlEqualTo("/fast")));
+    }
+
+    @Test
+    public void deadlineCoversStreamedBodies() throws IOException {
+        Response<ResponseBody> response = this.baseEndpoint.resolve("dribble").get()
+                .timeout(300L)
+                .stream(new SimpleHTTPClient());
+
+        try (ResponseBody body = response.getValue(); InputStream in = body.getInputStream()) {
+            while (in.read() != -1) {
+                // consume
+            }
+
+            fail("expected DeadlineExceededException");
+        } catch (DeadlineExceededException expected) {
+        }
+    }
+
+    @Test
+    public void timerWheelRunsAndCancels() throws InterruptedException {
+        TimerWheel wheel = new TimerWheel(5L, 8, "test-timer");
+        CountDownLatch latch = new CountDownLatch(2);
+        List<Integer> order = new CopyOnWriteArrayList<>();
+
+        wheel.schedule(() -> { order.add(2); latch.countDown(); }, 120L);
+        TimerWheel.Timeout cancelled = wheel.schedule(() -> order.add(-1), 30L);
+        wheel.schedule(() -> { order.add(1); latch.countDown(); }, 10L);
+
+        assertTrue(cancelled.cancel());
+        assertTrue(latch.await(5, TimeUnit.SECONDS));
+        Thread.sleep(50L);
+
+        assertEquals(2, order.size());
+        assertEquals(1, (int) order.get(0));
+        assertEquals(2, (int) order.get(1));
+        assertFalse(cancelled.isExpired());
+    }
+}
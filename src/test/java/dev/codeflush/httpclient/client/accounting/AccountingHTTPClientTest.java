@@ -0,0 +1,154 @@
+package dev.codeflush.httpclient.client.accounting;
+
+import com.github.tomakehurst.wiremock.junit.WireMockRule;
+import dev.codeflush.httpclient.Endpoint;
+import dev.codeflush.httpclient.Response;
+import dev.codeflush.httpclient.client.SimpleHTTPClient;
+import dev.codeflush.httpclient.parser.ResponseParser;
+import dev.codeflush.httpclient.parser.StringResponseParser;
+import dev.codeflush.httpclient.request.body.RequestBody;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.*;
+import static com.github.tomakehurst.wiremock.core.WireMockConfiguration.wireMockConfig;
+import static org.junit.Assert.*;
+
+public class AccountingHTTPClientTest {
+
+    private static final int MB = 1024 * 1024;
+
+    @Rule
+    public WireMockRule wireMockRule = new WireMockRule(wireMockConfig().dynamicPort().dynamicHttpsPort(), false);
+
+    private Endpoint baseEndpoint;
+    private String host;
+
+    @Before
+    public void setupMockServer() {
+        this.baseEndpoint = Endpoint.forHostAndPort(Endpoint.HTTP, "localhost", this.wireMockRule.port());
+        this.host = "localhost:" + this.wireMockRule.port();
+        this.wireMockRule.resetAll();
+        this.wireMockRule.stubFor(get(urlMatching("/.*")).willReturn(aResponse().withStatus(200).withBody("hello")));
+        this.wireMockRule.stubFor(post(urlMatching("/.*")).willReturn(aResponse().withStatus(200).withBody("ok")));
+    }
+
+    // allocates about 4MB per response
+    private static final ResponseParser<Integer> WASTEFUL = (client, request, responseCode, stream, headers, contentType, charset) -> {
+        int sum = 0;
+
+        for (int i = 0; i < 4; i++) {
+            byte[] garbage = new byte[MB];
+            garbage[i] = 1;
+            sum += garbage[i];
+        }
+
+        return sum;
+    };
+
+    @Test
+    public void aggregatesByHostAndPath() throws IOException {
+        ResourceAccounting accounting = new ResourceAccounting(1.0);
+        AccountingHTTPClient client = new AccountingHTTPClient(new SimpleHTTPClient(), accounting);
+
+        for (int i = 0; i < 3; i++) {
+            Response<Integer> response = this.baseEndpoint.resolve("heavy").get().parameter("page", String.valueOf(i)).execute(client, WASTEFUL);
+
+            assertEquals(Integer.valueOf(4), response.getValue());
+            assertSame(client, response.getClient());
+            assertSame(WASTEFUL, response.getParser());
+        }
+
+        this.baseEndpoint.resolve("light").get().execute(client, new StringResponseParser());
+
+        assertEquals(4L, accounting.getRequests());
+        assertEquals(4L, accounting.getSampledRequests());
+
+        List<ResourceUsage> snapshot = accounting.snapshot();
+        assertEquals(2, snapshot.size());
+
+        // the largest allocator comes first
+        ResourceUsage heavy = snapshot.get(0);
+        assertEquals(this.host, heavy.getHost());
+        assertEquals("/heavy", heavy.getPath());
+        assertEquals(3L, heavy.getSampledRequests());
+        assertEquals(3L, heavy.getEstimatedRequests());
+        assertTrue(heavy.getAllocatedBytes(Phase.PARSE) >= 12L * MB);
+        assertTrue(heavy.getAllocatedBytesPerRequest() >= 4.0 * MB);
+        assertTrue(heavy.getCpuNanos(Phase.PARSE) > 0L);
+
+        ResourceUsage light = accounting.get(this.host, "/light");
+        assertEquals(1L, light.getSampledRequests());
+        assertTrue(light.getAllocatedBytes(Phase.PARSE) < MB);
+    }
+
+    @Test
+    public void measuresTheBodyWrite() throws IOException {
+        ResourceAccounting accounting = new ResourceAccounting(1.0);
+        AccountingHTTPClient client = new AccountingHTTPClient(new SimpleHTTPClient(), accounting);
+
+        // serializes while it's written, like a streaming JSON writer
+        RequestBody body = new RequestBody() {
+            @Override
+            public String getContentType() {
+                return "text/plain";
+            }
+
+            @Override
+            public void write(OutputStream out) throws IOException {
+                for (int i = 0; i < 10_000; i++) {
+                    out.write(("line " + i + "\n").getBytes(StandardCharsets.UTF_8));
+                }
+            }
+        };
+
+        this.baseEndpoint.resolve("form").post().body(body).execute(client, new StringResponseParser());
+        this.wireMockRule.verify(postRequestedFor(urlEqualTo("/form")).withRequestBody(containing("line 9999")));
+
+        ResourceUsage usage = accounting.get(this.host, "/form");
+        assertTrue(usage.getAllocatedBytes(Phase.WRITE) > 0L);
+        assertTrue(usage.getCpuNanos(Phase.WRITE) > 0L);
+    }
+
+    @Test
+    public void onlySampledRequestsAreMeasured() throws IOException {
+        ResourceAccounting accounting = new ResourceAccounting(0.0);
+        AccountingHTTPClient client = new AccountingHTTPClient(new SimpleHTTPClient(), accounting);
+
+        for (int i = 0; i < 5; i++) {
+            this.baseEndpoint.resolve("hello").get().execute(client, new StringResponseParser());
+        }
+
+        assertEquals(5L, accounting.getRequests());
+        assertEquals(0L, accounting.getSampledRequests());
+        assertTrue(accounting.snapshot().isEmpty());
+    }
+
+    @Test
+    public void limitsTheNumberOfPaths() throws IOException {
+        ResourceAccounting accounting = new ResourceAccounting(1.0, 2);
+        AccountingHTTPClient client = new AccountingHTTPClient(new SimpleHTTPClient(), accounting);
+
+        for (int i = 0; i < 5; i++) {
+            this.baseEndpoint.resolve("users", String.valueOf(i)).get().execute(client, new StringResponseParser());
+        }
+
+        assertEquals(3, accounting.snapshot().size());
+        assertEquals(3L, accounting.get(this.host, ResourceAccounting.OTHER).getSampledRequests());
+
+        accounting.reset();
+        assertTrue(accounting.snapshot().isEmpty());
+        assertEquals(0L, accounting.getRequests());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsInvalidSampleRates() {
+        new ResourceAccounting(1.5);
+    }
+}
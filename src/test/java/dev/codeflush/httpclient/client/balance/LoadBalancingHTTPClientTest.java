@@ -0,0 +1,202 @@
+package dev.codeflush.httpclient.client.balance;
+
+import com.github.tomakehurst.wiremock.junit.WireMockRule;
+import dev.codeflush.httpclient.Endpoint;
+import dev.codeflush.httpclient.Response;
+import dev.codeflush.httpclient.client.HTTPClient;
+import dev.codeflush.httpclient.client.SimpleHTTPClient;
+import dev.codeflush.httpclient.parser.ResponseParser;
+import dev.codeflush.httpclient.parser.StringResponseParser;
+import dev.codeflush.httpclient.request.Request;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.net.ConnectException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.*;
+import static com.github.tomakehurst.wiremock.core.WireMockConfiguration.wireMockConfig;
+import static org.junit.Assert.*;
+
+public class LoadBalancingHTTPClientTest {
+
+    @Rule
+    public WireMockRule wireMockRule = new WireMockRule(wireMockConfig().dynamicPort().dynamicHttpsPort(), false);
+
+    private static final Endpoint A = Endpoint.forHostAndPort(Endpoint.HTTP, "a.test", 80);
+    private static final Endpoint B = Endpoint.forHostAndPort(Endpoint.HTTP, "b.test", 80);
+    private static final Endpoint C = Endpoint.forHostAndPort(Endpoint.HTTP, "c.test", 80);
+
+    @Before
+    public void setupMockServer() {
+        this.wireMockRule.resetAll();
+    }
+
+    // counts the requests per host and fails every request to one of the hosts
+    private static HTTPClient counting(Map<String, AtomicInteger> counts, Set<String> failing) {
+        return new HTTPClient() {
+            @Override
+            public <T> Response<T> execute(Request request, ResponseParser<? extends T> parser) throws IOException {
+                String host = request.getRequestURL().getHost();
+                counts.computeIfAbsent(host, (key) -> new AtomicInteger()).incrementAndGet();
+
+                if (failing.contains(host)) {
+                    throw new ConnectException(host);
+                }
+
+                T value = parser.parse(this, request, 200, new ByteArrayInputStream(host.getBytes(StandardCharsets.UTF_8)), Collections.emptyMap(), "text/plain", "UTF-8");
+                return new Response<>(this, request, parser, 200, Collections.emptyMap(), "text/plain", "UTF-8", value);
+            }
+        };
+    }
+
+    private static int count(Map<String, AtomicInteger> counts, String host) {
+        AtomicInteger count = counts.get(host);
+        return (count == null) ? 0 : count.get();
+    }
+
+    @Test
+    public void rewritesTheRequestToTheSelectedMember() throws IOException {
+        this.wireMockRule.stubFor(get(urlEqualTo("/users/1?fields=name")).willReturn(aResponse().withStatus(200).withBody("ok")));
+
+        EndpointGroup group = new EndpointGroup(Arrays.asList(
+                Endpoint.forHostAndPort(Endpoint.HTTP, "localhost", this.wireMockRule.port()),
+                Endpoint.forHostAndPort(Endpoint.HTTP, "127.0.0.1", this.wireMockRule.port())
+        ), LoadBalancingStrategy.roundRobin());
+        LoadBalancingHTTPClient client = new LoadBalancingHTTPClient(new SimpleHTTPClient(), group);
+
+        for (int i = 0; i < 4; i++) {
+            Response<String> response = group.resolve("users", "1").get().parameter("fields", "name").execute(client, new StringResponseParser());
+
+            assertEquals("ok", response.getValue());
+            assertSame(client, response.getClient());
+        }
+
+        this.wireMockRule.verify(2, getRequestedFor(urlEqualTo("/users/1?fields=name")).withHeader("Host", equalTo("localhost:" + this.wireMockRule.port())));
+        this.wireMockRule.verify(2, getRequestedFor(urlEqualTo("/users/1?fields=name")).withHeader("Host", equalTo("127.0.0.1:" + this.wireMockRule.port())));
+    }
+
+    @Test
+    public void roundRobinDistributesEvenly() throws IOException {
+        Map<String, AtomicInteger> counts = new ConcurrentHashMap<>();
+        EndpointGroup group = new EndpointGroup(Arrays.asList(A, B, C), LoadBalancingStrategy.roundRobin());
+        LoadBalancingHTTPClient client = new LoadBalancingHTTPClient(counting(counts, Collections.emptySet()), group);
+
+        for (int i = 0; i < 30; i++) {
+            group.get().execute(client, new StringResponseParser());
+        }
+
+        assertEquals(10, count(counts, "a.test"));
+        assertEquals(10, count(counts, "b.test"));
+        assertEquals(10, count(counts, "c.test"));
+    }
+
+    @Test
+    public void leastOutstandingAvoidsBusyMembers() {
+        EndpointGroup group = new EndpointGroup(Arrays.asList(A, B), LoadBalancingStrategy.leastOutstanding());
+        Member busy = group.getMembers().get(0);
+
+        group.onStart(busy);
+        group.onStart(busy);
+
+        for (int i = 0; i < 100; i++) {
+            assertEquals(B, group.select().getEndpoint());
+        }
+    }
+
+    @Test
+    public void powerOfTwoChoicesPrefersLowLatency() {
+        EndpointGroup group = new EndpointGroup(Arrays.asList(A, B), LoadBalancingStrategy.powerOfTwoChoices());
+        Member slow = group.getMembers().get(0);
+        Member fast = group.getMembers().get(1);
+
+        for (int i = 0; i < 10; i++) {
+            group.onStart(slow);
+            group.onComplete(slow, 50_000_000L, false);
+            group.onStart(fast);
+            group.onComplete(fast, 5_000_000L, false);
+        }
+
+        assertEquals(50.0, slow.getLatencyMillis(), 0.001);
+        assertEquals(5.0, fast.getLatencyMillis(), 0.001);
+
+        for (int i = 0; i < 100; i++) {
+            assertSame(fast, group.select());
+        }
+
+        // enough outstanding requests outweigh the latency difference
+        for (int i = 0; i < 10; i++) {
+            group.onStart(fast);
+        }
+
+        assertSame(slow, group.select());
+    }
+
+    @Test
+    public void ejectsAndRestoresOutliers() throws Exception {
+        Map<String, AtomicInteger> counts = new ConcurrentHashMap<>();
+        Set<String> failing = ConcurrentHashMap.newKeySet();
+        failing.add("b.test");
+
+        OutlierDetection detection = OutlierDetection.builder().consecutiveFailures(3).ejection(200L, 1000L).build();
+        EndpointGroup group = new EndpointGroup(Arrays.asList(A, B, C), LoadBalancingStrategy.roundRobin(), detection);
+        LoadBalancingHTTPClient client = new LoadBalancingHTTPClient(counting(counts, failing), group);
+
+        for (int i = 0; i < 30; i++) {
+            try {
+                group.get().execute(client, new StringResponseParser());
+            } catch (ConnectException expected) {
+            }
+        }
+
+        Member b = group.getMembers().get(1);
+        assertTrue(b.isEjected());
+        assertEquals(1, b.getEjections());
+        assertEquals(3, count(counts, "b.test"));
+        assertEquals(2, group.getAvailable().size());
+
+        failing.clear();
+        Thread.sleep(250L);
+
+        assertEquals(3, group.getAvailable().size());
+        assertFalse(b.isEjected());
+
+        for (int i = 0; i < 30; i++) {
+            group.get().execute(client, new StringResponseParser());
+        }
+
+        assertEquals(13, count(counts, "b.test"));
+    }
+
+    @Test
+    public void respectsMaxEjectionPercent() throws IOException {
+        Map<String, AtomicInteger> counts = new ConcurrentHashMap<>();
+        Set<String> failing = ConcurrentHashMap.newKeySet();
+        failing.add("a.test");
+        failing.add("b.test");
+
+        OutlierDetection detection = OutlierDetection.builder().consecutiveFailures(2).maxEjectionPercent(50).build();
+        EndpointGroup group = new EndpointGroup(Arrays.asList(A, B), LoadBalancingStrategy.roundRobin(), detection);
+        LoadBalancingHTTPClient client = new LoadBalancingHTTPClient(counting(counts, failing), group);
+
+        for (int i = 0; i < 20; i++) {
+            try {
+                group.get().execute(client, new StringResponseParser());
+            } catch (ConnectException expected) {
+            }
+        }
+
+        // only one of the two members may be ejected, the other one keeps receiving traffic
+        assertEquals(1, group.getAvailable().size());
+        assertEquals(1, group.getMembers().stream().filter(Member::isEjected).count());
+    }
+}
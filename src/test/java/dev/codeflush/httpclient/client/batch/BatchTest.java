@@ -0,0 +1,189 @@
+package dev.codeflush.httpclient.client.batch;
+
+import com.github.tomakehurst.wiremock.junit.WireMockRule;
+import dev.codeflush.httpclient.Endpoint;
+import dev.codeflush.httpclient.Response;
+import dev.codeflush.httpclient.client.SimpleHTTPClient;
+import dev.codeflush.httpclient.parser.ResponseBodyParser;
+import dev.codeflush.httpclient.parser.StringResponseParser;
+import dev.codeflush.httpclient.request.body.RequestBody;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.*;
+import static com.github.tomakehurst.wiremock.core.WireMockConfiguration.wireMockConfig;
+import static org.junit.Assert.*;
+
+public class BatchTest {
+
+    @Rule
+    public WireMockRule wireMockRule = new WireMockRule(wireMockConfig().dynamicPort().dynamicHttpsPort(), false);
+
+    private Endpoint baseEndpoint;
+    private Endpoint batchEndpoint;
+
+    @Before
+    public void setupMockServer() {
+        this.baseEndpoint = Endpoint.forHostAndPort(Endpoint.HTTP, "localhost", this.wireMockRule.port());
+        this.batchEndpoint = this.baseEndpoint.resolve("batch");
+        this.wireMockRule.resetAll();
+    }
+
+    private static String part(String contentId, String response) {
+        return "--b\r\n"
+                + "Content-Type: application/http\r\n"
+                + ((contentId == null) ? "" : "Content-ID: <" + contentId + ">\r\n")
+                + "\r\n"
+                + response + "\r\n";
+    }
+
+    private void stubBatch(int status, String body) {
+        this.wireMockRule.stubFor(post(urlEqualTo("/batch")).willReturn(aResponse()
+                .withStatus(status)
+                .withHeader("Content-Type", "multipart/mixed; boundary=b")
+                .withBody(body)));
+    }
+
+    @Test
+    public void sendsOneExchangeAndDemultiplexes() throws Exception {
+        // the responses arrive out of order, they are matched by Content-ID
+        stubBatch(200, part("response-item-1", "HTTP/1.1 201 Created\r\nContent-Type: text/plain; charset=UTF-8\r\nX-Id: 7\r\n\r\ncreated")
+                + part("response-item-0", "HTTP/1.1 200 OK\r\n\r\nuser 1")
+                + "--b--\r\n");
+
+        Batch batch = new Batch(this.batchEndpoint);
+        CompletableFuture<Response<String>> user = batch.add(this.baseEndpoint.resolve("users", "1").get().parameter("fields", "name").build(), new StringResponseParser());
+        CompletableFuture<Response<String>> created = batch.add(this.baseEndpoint.resolve("users").post().header("X-Trace", "abc").body(RequestBody.forJson("{\"name\":\"x\"}")).build(), new StringResponseParser());
+
+        batch.execute(new SimpleHTTPClient());
+
+        assertEquals(200, user.get().getResponseCode());
+        assertEquals("user 1", user.get().getValue());
+        assertEquals(201, created.get().getResponseCode());
+        assertEquals("created", created.get().getValue());
+        assertEquals("text/plain", created.get().getContentType());
+        assertEquals("7", created.get().getHeaders().get("X-Id").get(0));
+
+        this.wireMockRule.verify(1, postRequestedFor(urlEqualTo("/batch"))
+                .withHeader("Content-Type", matching("multipart/mixed; boundary=.+"))
+                .withRequestBody(containing("Content-ID: <item-0>"))
+                .withRequestBody(containing("GET /users/1?fields=name HTTP/1.1\r\nHost: localhost:" + this.wireMockRule.port() + "\r\n"))
+                .withRequestBody(containing("POST /users HTTP/1.1\r\n"))
+                .withRequestBody(containing("X-Trace: abc\r\n"))
+                .withRequestBody(containing("Content-Length: 12\r\n\r\n{\"name\":\"x\"}")));
+        this.wireMockRule.verify(0, getRequestedFor(urlMatching("/users.*")));
+    }
+
+    @Test
+    public void partsWithoutContentIdAreMatchedInOrder() throws Exception {
+        stubBatch(200, part(null, "HTTP/1.1 200 OK\r\n\r\nfirst") + part(null, "HTTP/1.1 404 Not Found\r\n\r\nsecond") + "--b--\r\n");
+
+        Batch batch = new Batch(this.batchEndpoint);
+        CompletableFuture<Response<String>> first = batch.add(this.baseEndpoint.resolve("a").get().build(), new StringResponseParser());
+        CompletableFuture<Response<String>> second = batch.add(this.baseEndpoint.resolve("b").get().build(), new StringResponseParser());
+
+        batch.execute(new SimpleHTTPClient());
+
+        assertEquals("first", first.get().getValue());
+        assertEquals(404, second.get().getResponseCode());
+        assertEquals("second", second.get().getValue());
+    }
+
+    @Test
+    public void missingOrBrokenPartsOnlyFailTheirRequest() throws Exception {
+        stubBatch(200, part("response-item-0", "garbage\r\n\r\n") + part("response-item-2", "HTTP/1.1 200 OK\r\n\r\nthird") + "--b--\r\n");
+
+        Batch batch = new Batch(this.batchEndpoint);
+        CompletableFuture<Response<String>> broken = batch.add(this.baseEndpoint.resolve("a").get().build(), new StringResponseParser());
+        CompletableFuture<Response<String>> missing = batch.add(this.baseEndpoint.resolve("b").get().build(), new StringResponseParser());
+        CompletableFuture<Response<String>> third = batch.add(this.baseEndpoint.resolve("c").get().build(), new StringResponseParser());
+
+        batch.execute(new SimpleHTTPClient());
+
+        assertEquals("third", third.get().getValue());
+        assertFailedWithIOException(broken);
+        assertFailedWithIOException(missing);
+    }
+
+    @Test
+    public void failedExchangeFailsEveryRequest() {
+        stubBatch(503, "");
+
+        Batch batch = new Batch(this.batchEndpoint);
+        CompletableFuture<Response<String>> first = batch.add(this.baseEndpoint.resolve("a").get().build(), new StringResponseParser());
+        CompletableFuture<Response<String>> second = batch.add(this.baseEndpoint.resolve("b").get().build(), new StringResponseParser());
+
+        try {
+            batch.execute(new SimpleHTTPClient());
+            fail("expected IOException");
+        } catch (IOException expected) {
+        }
+
+        assertFailedWithIOException(first);
+        assertFailedWithIOException(second);
+    }
+
+    @Test
+    public void batcherFlushesBySize() throws Exception {
+        stubBatch(200, part(null, "HTTP/1.1 200 OK\r\n\r\none") + part(null, "HTTP/1.1 200 OK\r\n\r\ntwo") + "--b--\r\n");
+
+        try (RequestBatcher batcher = new RequestBatcher(new SimpleHTTPClient(), this.batchEndpoint, 2, 60_000L)) {
+            CompletableFuture<Response<String>> one = batcher.submit(this.baseEndpoint.resolve("a").get().build(), new StringResponseParser());
+            CompletableFuture<Response<String>> two = batcher.submit(this.baseEndpoint.resolve("b").get().build(), new StringResponseParser());
+
+            assertEquals("one", one.get(5L, TimeUnit.SECONDS).getValue());
+            assertEquals("two", two.get(5L, TimeUnit.SECONDS).getValue());
+            assertEquals(1L, batcher.getBatches());
+            assertEquals(2.0, batcher.getAverageBatchSize(), 0.001);
+        }
+
+        this.wireMockRule.verify(1, postRequestedFor(urlEqualTo("/batch")));
+    }
+
+    @Test
+    public void batcherFlushesAfterTheWindow() throws Exception {
+        stubBatch(200, part(null, "HTTP/1.1 200 OK\r\n\r\nalone") + "--b--\r\n");
+
+        try (RequestBatcher batcher = new RequestBatcher(new SimpleHTTPClient(), this.batchEndpoint, 100, 50L)) {
+            CompletableFuture<Response<String>> alone = batcher.submit(this.baseEndpoint.resolve("a").get().build(), new StringResponseParser());
+
+            assertEquals("alone", alone.get(5L, TimeUnit.SECONDS).getValue());
+            assertEquals(1L, batcher.getBatches());
+            assertEquals(1L, batcher.getRequests());
+        }
+    }
+
+    @Test
+    public void batcherRejectsStreamingParsersWithoutStartingABatch() throws Exception {
+        try (RequestBatcher batcher = new RequestBatcher(new SimpleHTTPClient(), this.batchEndpoint, 100, 50L)) {
+            try {
+                batcher.submit(this.baseEndpoint.resolve("a").get().build(), new ResponseBodyParser());
+                fail("expected IllegalArgumentException");
+            } catch (IllegalArgumentException expected) {
+            }
+
+            // longer than the window, no empty batch is sent
+            Thread.sleep(200L);
+            assertEquals(0L, batcher.getBatches());
+        }
+
+        this.wireMockRule.verify(0, postRequestedFor(urlEqualTo("/batch")));
+    }
+
+    private static void assertFailedWithIOException(CompletableFuture<?> future) {
+        try {
+            future.get();
+            fail("expected the request to fail");
+        } catch (ExecutionException e) {
+            assertTrue(e.getCause() instanceof IOException);
+        } catch (InterruptedException e) {
+            throw new AssertionError(e);
+        }
+    }
+}
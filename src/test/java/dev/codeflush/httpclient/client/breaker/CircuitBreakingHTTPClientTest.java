@@ -0,0 +1,165 @@
+package dev.codeflush.httpclient.client.breaker;
+
+import com.github.tomakehurst.wiremock.junit.WireMockRule;
+import dev.codeflush.httpclient.Endpoint;
+import dev.codeflush.httpclient.client.SimpleHTTPClient;
+import dev.codeflush.httpclient.parser.NoOpResponseParser;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+
+import java.io.IOException;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.*;
+import static com.github.tomakehurst.wiremock.core.WireMockConfiguration.wireMockConfig;
+import static org.junit.Assert.*;
+
+public class CircuitBreakingHTTPClientTest {
+
+    @Rule
+    public WireMockRule wireMockRule = new WireMockRule(wireMockConfig().dynamicPort().dynamicHttpsPort(), false);
+
+    private Endpoint baseEndpoint;
+    private String host;
+
+    @Before
+    public void setupMockServer() {
+        this.baseEndpoint = Endpoint.forHostAndPort(Endpoint.HTTP, "localhost", this.wireMockRule.port());
+        this.host = "localhost:" + this.wireMockRule.port();
+        this.wireMockRule.resetAll();
+    }
+
+    private void call(CircuitBreakingHTTPClient client, String path) throws IOException {
+        this.baseEndpoint.resolve(path).get().execute(client, new NoOpResponseParser());
+    }
+
+    private void assertRejected(CircuitBreakingHTTPClient client, String path) throws IOException {
+        try {
+            call(client, path);
+            fail("expected CircuitBreakerOpenException");
+        } catch (CircuitBreakerOpenException e) {
+            assertEquals(this.host, e.getHost());
+        }
+    }
+
+    @Test
+    public void staysClosedWhileHealthy() throws IOException {
+        this.wireMockRule.stubFor(get(urlEqualTo("/ok")).willReturn(aResponse().withStatus(200)));
+
+        CircuitBreakingHTTPClient client = new CircuitBreakingHTTPClient(new SimpleHTTPClient(), CircuitBreakerConfig.builder()
+                .window(10, 5)
+                .build());
+
+        for (int i = 0; i < 20; i++) {
+            call(client, "ok");
+        }
+
+        assertEquals(CircuitBreaker.State.CLOSED, client.getCircuitBreaker(this.host).getState());
+        assertEquals(0.0, client.getCircuitBreaker(this.host).getFailureRate(), 0.0);
+    }
+
+    @Test
+    public void opensOnFailureRateAndFailsFast() throws IOException {
+        this.wireMockRule.stubFor(get(urlEqualTo("/down")).willReturn(aResponse().withStatus(500)));
+
+        CircuitBreakingHTTPClient client = new CircuitBreakingHTTPClient(new SimpleHTTPClient(), CircuitBreakerConfig.builder()
+                .failureRateThreshold(0.5)
+                .window(10, 4)
+                .openDuration(60_000L)
+                .build());
+
+        for (int i = 0; i < 4; i++) {
+            call(client, "down");
+        }
+
+        assertEquals(CircuitBreaker.State.OPEN, client.getCircuitBreaker(this.host).getState());
+        assertRejected(client, "down");
+        assertEquals(1L, client.getCircuitBreaker(this.host).getRejected());
+        this.wireMockRule.verify(4, getRequestedFor(urlEqualTo("/down")));
+    }
+
+    @Test
+    public void opensOnSlowCalls() throws IOException {
+        this.wireMockRule.stubFor(get(urlEqualTo("/slow")).willReturn(aResponse().withStatus(200).withFixedDelay(150)));
+
+        CircuitBreakingHTTPClient client = new CircuitBreakingHTTPClient(new SimpleHTTPClient(), CircuitBreakerConfig.builder()
+                .slowCallRateThreshold(0.5, 100L)
+                .window(10, 2)
+                .openDuration(60_000L)
+                .build());
+
+        call(client, "slow");
+        call(client, "slow");
+
+        assertEquals(CircuitBreaker.State.OPEN, client.getCircuitBreaker(this.host).getState());
+        assertRejected(client, "slow");
+    }
+
+    @Test
+    public void closesAfterSuccessfulProbes() throws Exception {
+        this.wireMockRule.stubFor(get(urlEqualTo("/flaky")).willReturn(aResponse().withStatus(503)));
+
+        CircuitBreakingHTTPClient client = new CircuitBreakingHTTPClient(new SimpleHTTPClient(), CircuitBreakerConfig.builder()
+                .window(10, 2)
+                .openDuration(100L)
+                .halfOpenProbes(2)
+                .build());
+
+        call(client, "flaky");
+        call(client, "flaky");
+        assertEquals(CircuitBreaker.State.OPEN, client.getCircuitBreaker(this.host).getState());
+
+        Thread.sleep(150L);
+        this.wireMockRule.stubFor(get(urlEqualTo("/flaky")).willReturn(aResponse().withStatus(200)));
+
+        call(client, "flaky");
+        assertEquals(CircuitBreaker.State.HALF_OPEN, client.getCircuitBreaker(this.host).getState());
+
+        call(client, "flaky");
+        assertEquals(CircuitBreaker.State.CLOSED, client.getCircuitBreaker(this.host).getState());
+        assertEquals(0.0, client.getCircuitBreaker(this.host).getFailureRate(), 0.0);
+    }
+
+    @Test
+    public void reopensIfAProbeFails() throws Exception {
+        this.wireMockRule.stubFor(get(urlEqualTo("/down")).willReturn(aResponse().withStatus(500)));
+
+        CircuitBreakingHTTPClient client = new CircuitBreakingHTTPClient(new SimpleHTTPClient(), CircuitBreakerConfig.builder()
+                .window(10, 2)
+                .openDuration(100L)
+                .build());
+
+        call(client, "down");
+        call(client, "down");
+        Thread.sleep(150L);
+
+        call(client, "down");
+        assertEquals(CircuitBreaker.State.OPEN, client.getCircuitBreaker(this.host).getState());
+        assertRejected(client, "down");
+        this.wireMockRule.verify(3, getRequestedFor(urlEqualTo("/down")));
+    }
+
+    @Test
+    public void limitsProbesWhileHalfOpen() throws Exception {
+        CircuitBreaker breaker = new CircuitBreaker(this.host, CircuitBreakerConfig.builder()
+                .window(10, 1)
+                .openDuration(0L)
+                .halfOpenProbes(1)
+                .build());
+
+        breaker.onResult(breaker.acquire(), 0L, true);
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+
+        CircuitBreaker.Phase probe = breaker.acquire();
+        assertEquals(CircuitBreaker.State.HALF_OPEN, breaker.getState());
+
+        try {
+            breaker.acquire();
+            fail("expected CircuitBreakerOpenException");
+        } catch (CircuitBreakerOpenException expected) {
+        }
+
+        breaker.onResult(probe, 0L, false);
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+    }
+}
@@ -0,0 +1,181 @@
+package dev.codeflush.httpclient.client.hedge;
+
+import com.github.tomakehurst.wiremock.junit.WireMockRule;
+import dev.codeflush.httpclient.Endpoint;
+import dev.codeflush.httpclient.Response;
+import dev.codeflush.httpclient.client.HTTPClient;
+import dev.codeflush.httpclient.client.SimpleHTTPClient;
+import dev.codeflush.httpclient.parser.ResponseParser;
+import dev.codeflush.httpclient.parser.StringResponseParser;
+import dev.codeflush.httpclient.request.Request;
+import dev.codeflush.httpclient.request.body.RequestBody;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.*;
+import static com.github.tomakehurst.wiremock.core.WireMockConfiguration.wireMockConfig;
+import static org.junit.Assert.*;
+
+public class HedgingHTTPClientTest {
+
+    @Rule
+    public WireMockRule wireMockRule = new WireMockRule(wireMockConfig().dynamicPort().dynamicHttpsPort(), false);
+
+    private Endpoint baseEndpoint;
+
+    @Before
+    public void setupMockServer() {
+        this.baseEndpoint = Endpoint.forHostAndPort(Endpoint.HTTP, "localhost", this.wireMockRule.port());
+        this.wireMockRule.resetAll();
+    }
+
+    // answers the first call after 2 seconds and every other call immediately
+    private static HTTPClient slowThenFast() {
+        AtomicInteger calls = new AtomicInteger();
+
+        return new HTTPClient() {
+            @Override
+            public <T> Response<T> execute(Request request, ResponseParser<? extends T> parser) throws IOException {
+                String body = "fast";
+
+                if (calls.getAndIncrement() == 0) {
+                    body = "slow";
+
+                    try {
+                        Thread.sleep(2000L);
+                    } catch (InterruptedException e) {
+                        throw new InterruptedIOException();
+                    }
+                }
+
+                T value = parser.parse(this, request, 200, new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8)), Collections.emptyMap(), "text/plain", "UTF-8");
+                return new Response<>(this, request, parser, 200, Collections.emptyMap(), "text/plain", "UTF-8", value);
+            }
+        };
+    }
+
+    @Test
+    public void hedgeWinsAgainstSlowReplica() throws IOException {
+        HedgingHTTPClient client = new HedgingHTTPClient(slowThenFast(), HedgePolicy.builder().fixedDelay(50L).build());
+
+        long start = System.currentTimeMillis();
+        Response<String> response = this.baseEndpoint.resolve("read").get().execute(client, new StringResponseParser());
+        long elapsed = System.currentTimeMillis() - start;
+
+        assertEquals("fast", response.getValue());
+        assertSame(client, response.getClient());
+        assertTrue("took " + elapsed + "ms", elapsed < 1000L);
+        assertEquals(1L, client.getHedgesFired());
+        assertEquals(1L, client.getHedgesWon());
+    }
+
+    @Test
+    public void noHedgeForFastResponses() throws IOException {
+        this.wireMockRule.stubFor(get(urlEqualTo("/fast")).willReturn(aResponse().withStatus(200).withBody("fast")));
+
+        HedgingHTTPClient client = new HedgingHTTPClient(new SimpleHTTPClient(), HedgePolicy.builder().fixedDelay(1000L).build());
+        Response<String> response = this.baseEndpoint.resolve("fast").get().execute(client, new StringResponseParser());
+
+        assertEquals("fast", response.getValue());
+        assertEquals(0L, client.getHedgesFired());
+        this.wireMockRule.verify(1, getRequestedFor(urlEqualTo("/fast")));
+    }
+
+    @Test
+    public void respectsMaxOutstandingHedges() throws IOException {
+        HedgingHTTPClient client = new HedgingHTTPClient(slowThenFast(), HedgePolicy.builder()
+                .fixedDelay(50L)
+                .maxOutstandingHedges(0)
+                .build());
+        Response<String> response = this.baseEndpoint.resolve("capped").get().execute(client, new StringResponseParser());
+
+        assertEquals("slow", response.getValue());
+        assertEquals(0L, client.getHedgesFired());
+        assertEquals(1L, client.getHedgesRejected());
+    }
+
+    @Test
+    public void doesNotHedgeNonIdempotentMethods() throws IOException {
+        this.wireMockRule.stubFor(post(urlEqualTo("/write")).willReturn(aResponse().withStatus(200).withBody("done").withFixedDelay(200)));
+
+        HedgingHTTPClient client = new HedgingHTTPClient(new SimpleHTTPClient(), HedgePolicy.builder().fixedDelay(10L).build());
+        Response<String> response = this.baseEndpoint.resolve("write").post()
+                .body(RequestBody.forText("x"))
+                .execute(client, new StringResponseParser());
+
+        assertEquals("done", response.getValue());
+        this.wireMockRule.verify(1, postRequestedFor(urlEqualTo("/write")));
+    }
+
+    @Test
+    public void delayFollowsObservedPercentile() throws IOException {
+        this.wireMockRule.stubFor(get(urlEqualTo("/fast")).willReturn(aResponse().withStatus(200)));
+
+        HedgingHTTPClient client = new HedgingHTTPClient(new SimpleHTTPClient(), HedgePolicy.builder()
+                .percentileDelay(0.95, 5L, 800L, 10)
+                .build());
+
+        assertEquals(800L, client.getHedgeDelayMillis());
+
+        for (int i = 0; i < 10; i++) {
+            this.baseEndpoint.resolve("fast").get().execute(client, new StringResponseParser());
+        }
+
+        long delay = client.getHedgeDelayMillis();
+        assertTrue("delay " + delay, delay >= 5L && delay < 800L);
+    }
+
+    @Test
+    public void closeShutsDownOnlyTheOwnExecutor() throws IOException {
+        this.wireMockRule.stubFor(get(urlEqualTo("/fast")).willReturn(aResponse().withStatus(200).withBody("fast")));
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+
+        try {
+            HedgingHTTPClient shared = new HedgingHTTPClient(new SimpleHTTPClient(), HedgePolicy.DEFAULT, executor);
+            shared.close();
+
+            assertFalse(executor.isShutdown());
+            assertEquals("fast", this.baseEndpoint.resolve("fast").get().execute(shared, new StringResponseParser()).getValue());
+        } finally {
+            executor.shutdown();
+        }
+
+        HedgingHTTPClient owning = new HedgingHTTPClient(new SimpleHTTPClient());
+        owning.close();
+
+        try {
+            this.baseEndpoint.resolve("fast").get().execute(owning, new StringResponseParser());
+            fail("expected the executor of the client to be shut down");
+        } catch (RejectedExecutionException expected) {
+        }
+    }
+
+    @Test
+    public void latencyWindowPercentile() {
+        LatencyWindow window = new LatencyWindow(128, 0.95);
+
+        for (int i = 1; i <= 128; i++) {
+            window.record(i);
+        }
+
+        assertEquals(122L, window.getPercentile());
+
+        // the ring only keeps the latest samples
+        for (int i = 0; i < 128; i++) {
+            window.record(1000L);
+        }
+
+        assertEquals(1000L, window.getPercentile());
+    }
+}
@@ -0,0 +1,196 @@
+package dev.codeflush.httpclient.client.intercept;
+
+import com.github.tomakehurst.wiremock.junit.WireMockRule;
+import com.github.tomakehurst.wiremock.stubbing.Scenario;
+import dev.codeflush.httpclient.Endpoint;
+import dev.codeflush.httpclient.Response;
+import dev.codeflush.httpclient.client.SimpleHTTPClient;
+import dev.codeflush.httpclient.client.retry.RetryPolicy;
+import dev.codeflush.httpclient.client.retry.RetryingHTTPClient;
+import dev.codeflush.httpclient.parser.StringResponseParser;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.*;
+import static com.github.tomakehurst.wiremock.core.WireMockConfiguration.wireMockConfig;
+import static org.junit.Assert.*;
+
+public class InterceptingHTTPClientTest {
+
+    @Rule
+    public WireMockRule wireMockRule = new WireMockRule(wireMockConfig().dynamicPort().dynamicHttpsPort(), false);
+
+    private Endpoint baseEndpoint;
+
+    @Before
+    public void setupMockServer() {
+        this.baseEndpoint = Endpoint.forHostAndPort(Endpoint.HTTP, "localhost", this.wireMockRule.port());
+        this.wireMockRule.resetAll();
+        this.wireMockRule.stubFor(get(urlEqualTo("/hello")).willReturn(aResponse().withStatus(200).withBody("hello")));
+    }
+
+    private static Interceptor logging(String name, List<String> log) {
+        return new Interceptor() {
+            @Override
+            public <T> Response<T> intercept(Chain<T> chain) throws IOException {
+                log.add("> " + name);
+                Response<T> response = chain.proceed(chain.request());
+                log.add("< " + name);
+
+                return response;
+            }
+
+            @Override
+            public String name() {
+                return name;
+            }
+        };
+    }
+
+    private static Interceptor sleeping(long millis) {
+        return new Interceptor() {
+            @Override
+            public <T> Response<T> intercept(Chain<T> chain) throws IOException {
+                try {
+                    Thread.sleep(millis);
+                } catch (InterruptedException e) {
+                    throw new IOException(e);
+                }
+
+                return chain.proceed(chain.request());
+            }
+
+            @Override
+            public String name() {
+                return "sleeping";
+            }
+        };
+    }
+
+    @Test
+    public void runsInOrderAndRewritesTheRequest() throws IOException {
+        List<String> log = new ArrayList<>();
+        InterceptingHTTPClient client = new InterceptingHTTPClient(new SimpleHTTPClient(),
+                logging("first", log),
+                Interceptor.header("Authorization", "Bearer token"),
+                logging("second", log));
+
+        Response<String> response = this.baseEndpoint.resolve("hello").get().execute(client, new StringResponseParser());
+
+        assertEquals("hello", response.getValue());
+        assertSame(client, response.getClient());
+        assertEquals(Arrays.asList("> first", "> second", "< second", "< first"), log);
+        this.wireMockRule.verify(getRequestedFor(urlEqualTo("/hello")).withHeader("Authorization", equalTo("Bearer token")));
+    }
+
+    @Test
+    public void shortCircuitsAndRewritesResponses() throws IOException {
+        AtomicReference<Response<?>> stamped = new AtomicReference<>();
+        Interceptor cached = new Interceptor() {
+            @Override
+            @SuppressWarnings("unchecked")
+            public <T> Response<T> intercept(Chain<T> chain) throws IOException {
+                return new Response<>(chain.client(), chain.request(), chain.parser(), 200, Collections.emptyMap(), "text/plain", "UTF-8", (T) "cached");
+            }
+        };
+        Interceptor stamping = new Interceptor() {
+            @Override
+            public <T> Response<T> intercept(Chain<T> chain) throws IOException {
+                Response<T> response = chain.proceed(chain.request());
+                Response<T> result = new Response<>(chain.client(), response.getRequest(), response.getParser(), 203, response.getHeaders(), response.getContentType(), response.getContentTypeCharset(), response.getValue());
+                stamped.set(result);
+
+                return result;
+            }
+        };
+        InterceptingHTTPClient client = new InterceptingHTTPClient(new SimpleHTTPClient(), stamping, cached);
+
+        Response<String> response = this.baseEndpoint.resolve("hello").get().execute(client, new StringResponseParser());
+
+        assertEquals("cached", response.getValue());
+        assertEquals(203, response.getResponseCode());
+        // already created for the client, so it isn't wrapped again
+        assertSame(stamped.get(), response);
+        this.wireMockRule.verify(0, getRequestedFor(urlEqualTo("/hello")));
+    }
+
+    @Test
+    public void interceptorsMayProceedMoreThanOnce() throws IOException {
+        AtomicInteger network = new AtomicInteger();
+        Interceptor twice = new Interceptor() {
+            @Override
+            public <T> Response<T> intercept(Chain<T> chain) throws IOException {
+                chain.proceed(chain.request().withHeader("X-Attempt", "1"));
+                return chain.proceed(chain.request().withHeader("X-Attempt", "2"));
+            }
+        };
+        InterceptingHTTPClient client = new InterceptingHTTPClient(new SimpleHTTPClient(), twice, Interceptor.onRequest("count", (request) -> {
+            network.incrementAndGet();
+            return request;
+        }));
+
+        assertEquals("hello", this.baseEndpoint.resolve("hello").get().execute(client, new StringResponseParser()).getValue());
+        assertEquals(2, network.get());
+        this.wireMockRule.verify(getRequestedFor(urlEqualTo("/hello")).withHeader("X-Attempt", equalTo("1")));
+        this.wireMockRule.verify(getRequestedFor(urlEqualTo("/hello")).withHeader("X-Attempt", equalTo("2")));
+    }
+
+    @Test
+    public void networkInterceptorsSeeEveryAttempt() throws IOException {
+        this.wireMockRule.stubFor(get(urlEqualTo("/flaky")).inScenario("flaky").whenScenarioStateIs(Scenario.STARTED)
+                .willReturn(aResponse().withStatus(503)).willSetStateTo("recovered"));
+        this.wireMockRule.stubFor(get(urlEqualTo("/flaky")).inScenario("flaky").whenScenarioStateIs("recovered")
+                .willReturn(aResponse().withStatus(200).withBody("ok")));
+
+        List<Integer> applicationCodes = new ArrayList<>();
+        List<Integer> networkCodes = new ArrayList<>();
+        InterceptingHTTPClient client = InterceptingHTTPClient.builder(new SimpleHTTPClient())
+                .addNetworkInterceptor(Interceptor.onResponse("network", (response) -> networkCodes.add(response.getResponseCode())))
+                .decorate((network) -> new RetryingHTTPClient(network, RetryPolicy.builder().delay(0L, 0L).build()))
+                .addInterceptor(Interceptor.onResponse("application", (response) -> applicationCodes.add(response.getResponseCode())))
+                .build();
+
+        assertEquals("ok", this.baseEndpoint.resolve("flaky").get().execute(client, new StringResponseParser()).getValue());
+        assertEquals(Collections.singletonList(200), applicationCodes);
+        assertEquals(Arrays.asList(503, 200), networkCodes);
+
+        List<StageTiming> timings = client.getTimings();
+        assertEquals(4, timings.size());
+        assertEquals("application", timings.get(0).getName());
+        assertEquals("RetryingHTTPClient", timings.get(1).getName());
+        assertEquals("network", timings.get(2).getName());
+        assertTrue(timings.get(2).isNetwork());
+        assertEquals(2L, timings.get(2).getCalls());
+        assertEquals("SimpleHTTPClient", timings.get(3).getName());
+        assertEquals(2L, timings.get(3).getCalls());
+    }
+
+    @Test
+    public void timesEveryStageWithoutItsDownstream() throws IOException {
+        InterceptingHTTPClient client = new InterceptingHTTPClient(new SimpleHTTPClient(), logging("outer", new ArrayList<>()), sleeping(100L));
+
+        this.baseEndpoint.resolve("hello").get().execute(client, new StringResponseParser());
+
+        List<StageTiming> timings = client.getTimings();
+        assertEquals(3, timings.size());
+
+        StageTiming outer = timings.get(0);
+        StageTiming sleeping = timings.get(1);
+        assertEquals("outer", outer.getName());
+        assertEquals(1L, outer.getCalls());
+        assertTrue(outer.getSelfNanos() < TimeUnit.MILLISECONDS.toNanos(50L));
+        assertEquals("sleeping", sleeping.getName());
+        assertTrue(sleeping.getAverageSelfMillis() >= 100.0);
+        assertEquals("SimpleHTTPClient", timings.get(2).getName());
+    }
+}
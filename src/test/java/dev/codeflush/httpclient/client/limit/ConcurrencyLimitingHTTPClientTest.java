@@ -0,0 +1,182 @@
+package dev.codeflush.httpclient.client.limit;
+
+import com.github.tomakehurst.wiremock.junit.WireMockRule;
+import dev.codeflush.httpclient.Endpoint;
+import dev.codeflush.httpclient.Response;
+import dev.codeflush.httpclient.client.HTTPClient;
+import dev.codeflush.httpclient.client.SimpleHTTPClient;
+import dev.codeflush.httpclient.parser.NoOpResponseParser;
+import dev.codeflush.httpclient.parser.ResponseParser;
+import dev.codeflush.httpclient.request.Request;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.*;
+import static com.github.tomakehurst.wiremock.core.WireMockConfiguration.wireMockConfig;
+import static org.junit.Assert.*;
+
+public class ConcurrencyLimitingHTTPClientTest {
+
+    @Rule
+    public WireMockRule wireMockRule = new WireMockRule(wireMockConfig().dynamicPort().dynamicHttpsPort(), false);
+
+    private Endpoint baseEndpoint;
+
+    @Before
+    public void setupMockServer() {
+        this.baseEndpoint = Endpoint.forHostAndPort(Endpoint.HTTP, "localhost", this.wireMockRule.port());
+        this.wireMockRule.resetAll();
+    }
+
+    // blocks every request until the latch is released
+    private static HTTPClient blocking(CountDownLatch started, CountDownLatch release) {
+        return new HTTPClient() {
+            @Override
+            public <T> Response<T> execute(Request request, ResponseParser<? extends T> parser) throws IOException {
+                started.countDown();
+
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    throw new IOException(e);
+                }
+
+                return new Response<>(this, request, parser, 200, Collections.emptyMap(), null, null, null);
+            }
+        };
+    }
+
+    @Test
+    public void rejectsExcessRequestsImmediately() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ConcurrencyLimitingHTTPClient client = new ConcurrencyLimitingHTTPClient(
+                blocking(started, release),
+                () -> new AIMDLimit(1, 1, 1, 0.5, 1000L),
+                0,
+                0L
+        );
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+
+        try {
+            Future<?> first = executor.submit(() -> this.baseEndpoint.get().execute(client, new NoOpResponseParser()));
+            assertTrue(started.await(5, TimeUnit.SECONDS));
+
+            HostLimiter limiter = client.getLimiter("localhost:" + this.wireMockRule.port());
+            assertEquals(1, limiter.getInFlight());
+            assertEquals(1, limiter.getLimit());
+
+            try {
+                this.baseEndpoint.get().execute(client, new NoOpResponseParser());
+                fail("expected LimitExceededException");
+            } catch (LimitExceededException e) {
+                assertEquals(1, e.getLimit());
+            }
+
+            release.countDown();
+            first.get(5, TimeUnit.SECONDS);
+            assertEquals(0, limiter.getInFlight());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void queuesUpToMaxQueueSize() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ConcurrencyLimitingHTTPClient client = new ConcurrencyLimitingHTTPClient(
+                blocking(started, release),
+                () -> new AIMDLimit(1, 1, 1, 0.5, 1000L),
+                1,
+                5000L
+        );
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+
+        try {
+            Future<?> first = executor.submit(() -> this.baseEndpoint.get().execute(client, new NoOpResponseParser()));
+            assertTrue(started.await(5, TimeUnit.SECONDS));
+
+            Future<?> queued = executor.submit(() -> this.baseEndpoint.get().execute(client, new NoOpResponseParser()));
+            HostLimiter limiter = client.getLimiter("localhost:" + this.wireMockRule.port());
+
+            long deadline = System.currentTimeMillis() + 5000L;
+            while (limiter.getQueueDepth() < 1 && System.currentTimeMillis() < deadline) {
+                Thread.sleep(5L);
+            }
+
+            assertEquals(1, limiter.getQueueDepth());
+
+            try {
+                this.baseEndpoint.get().execute(client, new NoOpResponseParser());
+                fail("expected LimitExceededException");
+            } catch (LimitExceededException expected) {
+            }
+
+            release.countDown();
+            first.get(5, TimeUnit.SECONDS);
+            queued.get(5, TimeUnit.SECONDS);
+            assertEquals(0, limiter.getQueueDepth());
+            assertEquals(0, limiter.getInFlight());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void overloadResponsesLowerTheLimit() throws IOException {
+        this.wireMockRule.stubFor(get(urlEqualTo("/busy")).willReturn(aResponse().withStatus(503)));
+
+        ConcurrencyLimitingHTTPClient client = new ConcurrencyLimitingHTTPClient(new SimpleHTTPClient(), () -> new AIMDLimit(10, 1, 10, 0.5, 1000L));
+
+        this.baseEndpoint.resolve("busy").get().execute(client, new NoOpResponseParser());
+        assertEquals(5, client.getLimiter("localhost:" + this.wireMockRule.port()).getLimit());
+
+        this.baseEndpoint.resolve("busy").get().execute(client, new NoOpResponseParser());
+        assertEquals(2, client.getLimiter("localhost:" + this.wireMockRule.port()).getLimit());
+    }
+
+    @Test
+    public void aimdGrowsOnlyWhileTheLimitIsUsed() {
+        AIMDLimit limit = new AIMDLimit(10, 1, 12, 0.5, 1000L);
+
+        limit.onSample(1_000_000L, 1, false);
+        assertEquals(10, limit.getLimit());
+
+        limit.onSample(1_000_000L, 8, false);
+        limit.onSample(1_000_000L, 8, false);
+        limit.onSample(1_000_000L, 8, false);
+        assertEquals(12, limit.getLimit());
+
+        // slower than the timeout counts as a drop
+        limit.onSample(TimeUnit.SECONDS.toNanos(2), 8, false);
+        assertEquals(6, limit.getLimit());
+    }
+
+    @Test
+    public void gradientShrinksWhenLatencyRises() {
+        GradientLimit limit = new GradientLimit(20, 1, 100, 5, 100, 1.5);
+
+        for (int i = 0; i < 200; i++) {
+            limit.onSample(TimeUnit.MILLISECONDS.toNanos(10), 20, false);
+        }
+
+        int grown = limit.getLimit();
+        assertTrue("limit " + grown, grown > 20);
+
+        for (int i = 0; i < 50; i++) {
+            limit.onSample(TimeUnit.MILLISECONDS.toNanos(100), grown, false);
+        }
+
+        assertTrue("limit " + limit.getLimit(), limit.getLimit() < grown);
+    }
+}
@@ -0,0 +1,268 @@
+package dev.codeflush.httpclient.client.progress;
+
+import com.github.tomakehurst.wiremock.junit.WireMockRule;
+import dev.codeflush.httpclient.Endpoint;
+import dev.codeflush.httpclient.Response;
+import dev.codeflush.httpclient.client.SimpleHTTPClient;
+import dev.codeflush.httpclient.client.shaping.BandwidthShapingHTTPClient;
+import dev.codeflush.httpclient.client.shaping.ShapingPolicy;
+import dev.codeflush.httpclient.client.shaping.TrafficClass;
+import dev.codeflush.httpclient.parser.StringResponseParser;
+import dev.codeflush.httpclient.request.body.RequestBody;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.*;
+import static com.github.tomakehurst.wiremock.core.WireMockConfiguration.wireMockConfig;
+import static org.junit.Assert.*;
+
+public class ProgressHTTPClientTest {
+
+    @Rule
+    public WireMockRule wireMockRule = new WireMockRule(wireMockConfig().dynamicPort().dynamicHttpsPort(), false);
+
+    private Endpoint baseEndpoint;
+    private ServerSocket serverSocket;
+    private List<Progress> events;
+
+    @Before
+    public void setupMockServer() throws IOException {
+        this.baseEndpoint = Endpoint.forHostAndPort(Endpoint.HTTP, "localhost", this.wireMockRule.port());
+        this.wireMockRule.resetAll();
+        this.wireMockRule.stubFor(get(urlEqualTo("/file")).willReturn(aResponse().withStatus(200).withHeader("Content-Length", "200000").withBody(body(200_000))));
+        this.wireMockRule.stubFor(get(urlEqualTo("/dribble")).willReturn(aResponse().withStatus(200).withBody(body(100_000)).withChunkedDribbleDelay(20, 1000)));
+        this.wireMockRule.stubFor(post(urlEqualTo("/upload")).willReturn(aResponse().withStatus(200).withBody("ok")));
+        this.serverSocket = new ServerSocket(0);
+        this.events = new CopyOnWriteArrayList<>();
+    }
+
+    @After
+    public void closeServerSocket() throws IOException {
+        this.serverSocket.close();
+    }
+
+    private static String body(int length) {
+        return String.join("", Collections.nCopies(length, "x"));
+    }
+
+    private Progress last() {
+        return this.events.get(this.events.size() - 1);
+    }
+
+    // answers with the headers and a bit of the body, then neither reads nor writes anymore
+    private void stallingServer() {
+        Thread thread = new Thread(() -> {
+            try (Socket socket = this.serverSocket.accept()) {
+                socket.getInputStream().read(new byte[1024]);
+                OutputStream out = socket.getOutputStream();
+                out.write(("HTTP/1.1 200 OK\r\nContent-Length: 1000000\r\n\r\n" + body(100)).getBytes(StandardCharsets.ISO_8859_1));
+                out.flush();
+                Thread.sleep(10_000L);
+            } catch (IOException | InterruptedException ignored) {
+            }
+        });
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    // takes longer than the stall window to answer, then sends the whole response
+    private void slowServer(long delayMillis) {
+        Thread thread = new Thread(() -> {
+            try (Socket socket = this.serverSocket.accept()) {
+                socket.getInputStream().read(new byte[1024]);
+                Thread.sleep(delayMillis);
+                OutputStream out = socket.getOutputStream();
+                out.write("HTTP/1.1 200 OK\r\nContent-Length: 2\r\nConnection: close\r\n\r\nok".getBytes(StandardCharsets.ISO_8859_1));
+                out.flush();
+            } catch (IOException | InterruptedException ignored) {
+            }
+        });
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    @Test
+    public void reportsDownloadProgress() throws IOException {
+        ProgressHTTPClient client = new ProgressHTTPClient(new SimpleHTTPClient(), this.events::add);
+
+        Response<String> response = this.baseEndpoint.resolve("file").get().execute(client, new StringResponseParser());
+
+        assertEquals(200_000, response.getValue().length());
+        assertSame(client, response.getClient());
+
+        Progress done = last();
+        assertTrue(done.isDone());
+        assertEquals(Progress.Direction.DOWNLOAD, done.getDirection());
+        assertEquals(200_000L, done.getBytes());
+        assertEquals(200_000L, done.getTotalBytes());
+        assertEquals(1.0, done.getFraction(), 0.0);
+        assertTrue(done.getAverageBytesPerSecond() > 0.0);
+    }
+
+    @Test
+    public void rateLimitsTheNotifications() throws IOException {
+        ProgressHTTPClient client = new ProgressHTTPClient(new SimpleHTTPClient(), ProgressPolicy.builder().interval(200L).build(), this.events::add);
+
+        this.baseEndpoint.resolve("dribble").get().execute(client, new StringResponseParser());
+
+        // 20 chunks, at most one notification per 200ms plus the final one, however long the transfer took
+        assertTrue(this.events.toString(), this.events.size() <= last().getElapsedMillis() / 200L + 2L);
+        assertTrue(last().isDone());
+        assertEquals(Progress.UNKNOWN, last().getTotalBytes());
+        assertEquals(-1.0, last().getFraction(), 0.0);
+        assertEquals(100_000L, last().getBytes());
+
+        for (int i = 1; i < this.events.size(); i++) {
+            assertFalse(this.events.get(i - 1).isDone());
+            assertTrue(this.events.get(i).getBytes() >= this.events.get(i - 1).getBytes());
+        }
+    }
+
+    @Test
+    public void reportsUploadProgress() throws IOException {
+        ProgressHTTPClient client = new ProgressHTTPClient(new SimpleHTTPClient(), this.events::add);
+
+        this.baseEndpoint.resolve("upload").post().body(RequestBody.forText(body(500_000))).execute(client, new StringResponseParser());
+
+        Progress upload = this.events.stream().filter((progress) -> progress.getDirection() == Progress.Direction.UPLOAD && progress.isDone()).findFirst().get();
+        assertEquals(500_000L, upload.getBytes());
+        assertEquals(500_000L, upload.getTotalBytes());
+        assertTrue(last().isDone());
+        assertEquals(Progress.Direction.DOWNLOAD, last().getDirection());
+    }
+
+    @Test
+    public void listenerOfTheCallReplacesTheOneOfTheClient() throws IOException {
+        ProgressHTTPClient client = new ProgressHTTPClient(new SimpleHTTPClient(), this.events::add);
+        List<Progress> own = new CopyOnWriteArrayList<>();
+
+        client.execute(this.baseEndpoint.resolve("file").get().build(), new StringResponseParser(), own::add);
+
+        assertTrue(this.events.isEmpty());
+        assertTrue(own.get(own.size() - 1).isDone());
+    }
+
+    @Test
+    public void smoothedRateFollowsTheShapedRate() throws IOException {
+        ShapingPolicy shapingPolicy = ShapingPolicy.builder()
+                .hostRate(TrafficClass.UNLIMITED, 400_000L)
+                .burst(0L)
+                .classifier((request, parser) -> TrafficClass.BULK)
+                .build();
+        ProgressHTTPClient client = new ProgressHTTPClient(new BandwidthShapingHTTPClient(new SimpleHTTPClient(), shapingPolicy), ProgressPolicy.builder().interval(100L).build(), this.events::add);
+
+        client.execute(this.baseEndpoint.resolve("file").get().build(), new StringResponseParser());
+
+        // 200_000 bytes at 400_000 B/s take at least about 500ms, a slow machine only lowers the rates
+        assertTrue(last().isDone());
+        assertTrue(last().getElapsedMillis() >= 400L);
+        assertTrue(last().getBytesPerSecond() > 0.0);
+
+        for (Progress progress : this.events) {
+            assertTrue(progress.toString(), progress.getBytesPerSecond() <= 500_000.0);
+            assertTrue(progress.toString(), progress.getAverageBytesPerSecond() <= 500_000.0);
+        }
+    }
+
+    @Test
+    public void abortsAStalledDownload() {
+        stallingServer();
+        ProgressHTTPClient client = new ProgressHTTPClient(new SimpleHTTPClient(), ProgressPolicy.builder().stallDetection(1000L, 300L).build(), this.events::add);
+        long start = System.currentTimeMillis();
+
+        try {
+            // a blocked read of the response stream fails with the stall once the read timeout fires
+            Endpoint.forHostAndPort(Endpoint.HTTP, "localhost", this.serverSocket.getLocalPort()).get().readTimeout(2000L).execute(client, new StringResponseParser());
+            fail("expected TransferStalledException");
+        } catch (TransferStalledException e) {
+            assertEquals(Progress.Direction.DOWNLOAD, e.getProgress().getDirection());
+            assertEquals(100L, e.getProgress().getBytes());
+            assertEquals(1_000_000L, e.getProgress().getTotalBytes());
+            assertTrue(e.getBytesPerSecond() < 1000.0);
+        } catch (IOException e) {
+            throw new AssertionError(e);
+        }
+
+        // long before the server gave up
+        assertTrue(System.currentTimeMillis() - start < 5000L);
+    }
+
+    @Test
+    public void slowResponseIsNotAStall() throws IOException {
+        slowServer(1000L);
+        ProgressHTTPClient client = new ProgressHTTPClient(new SimpleHTTPClient(), ProgressPolicy.builder().stallDetection(1000L, 300L).build(), this.events::add);
+
+        Response<String> response = Endpoint.forHostAndPort(Endpoint.HTTP, "localhost", this.serverSocket.getLocalPort()).get().execute(client, new StringResponseParser());
+
+        assertEquals("ok", response.getValue());
+        assertTrue(last().isDone());
+    }
+
+    @Test
+    public void abortsAStalledUpload() {
+        stallingServer();
+        ProgressHTTPClient client = new ProgressHTTPClient(new SimpleHTTPClient(), ProgressPolicy.builder().stallDetection(1000L, 300L).build(), this.events::add);
+        long start = System.currentTimeMillis();
+
+        try {
+            Endpoint.forHostAndPort(Endpoint.HTTP, "localhost", this.serverSocket.getLocalPort())
+                    .post()
+                    .body(new EndlessBody(256 * 1024 * 1024))
+                    .expectContinue(false)
+                    .execute(client, new StringResponseParser());
+            fail("expected TransferStalledException");
+        } catch (TransferStalledException e) {
+            assertEquals(Progress.Direction.UPLOAD, e.getProgress().getDirection());
+        } catch (IOException e) {
+            throw new AssertionError(e);
+        }
+
+        assertTrue(System.currentTimeMillis() - start < 5000L);
+    }
+
+    // more than the socket buffers can take while the server doesn't read
+    private static final class EndlessBody implements RequestBody {
+
+        private final int length;
+
+        private EndlessBody(int length) {
+            this.length = length;
+        }
+
+        @Override
+        public String getContentType() {
+            return "application/octet-stream";
+        }
+
+        @Override
+        public Optional<Integer> getContentLength() {
+            return Optional.of(this.length);
+        }
+
+        @Override
+        public void write(OutputStream out) throws IOException {
+            byte[] buffer = new byte[64 * 1024];
+
+            for (int written = 0; written < this.length; written += buffer.length) {
+                out.write(buffer);
+            }
+        }
+
+        @Override
+        public boolean isRepeatable() {
+            return false;
+        }
+    }
+}
@@ -0,0 +1,185 @@
+package dev.codeflush.httpclient.client.retry;
+
+import com.github.tomakehurst.wiremock.http.Fault;
+import com.github.tomakehurst.wiremock.junit.WireMockRule;
+import com.github.tomakehurst.wiremock.stubbing.Scenario;
+import dev.codeflush.httpclient.Endpoint;
+import dev.codeflush.httpclient.Response;
+import dev.codeflush.httpclient.ResponseBody;
+import dev.codeflush.httpclient.client.SimpleHTTPClient;
+import dev.codeflush.httpclient.parser.StringResponseParser;
+import dev.codeflush.httpclient.request.body.RequestBody;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.*;
+import static com.github.tomakehurst.wiremock.core.WireMockConfiguration.wireMockConfig;
+import static org.junit.Assert.*;
+
+public class RetryingHTTPClientTest {
+
+    @Rule
+    public WireMockRule wireMockRule = new WireMockRule(wireMockConfig().dynamicPort().dynamicHttpsPort(), false);
+
+    private Endpoint baseEndpoint;
+    private RetryPolicy policy;
+
+    @Before
+    public void setupMockServer() {
+        this.baseEndpoint = Endpoint.forHostAndPort(Endpoint.HTTP, "localhost", this.wireMockRule.port());
+        this.policy = RetryPolicy.builder().maxAttempts(3).delay(1L, 20L).build();
+        this.wireMockRule.resetAll();
+    }
+
+    private void stubFailingOnce(String path, int status) {
+        this.wireMockRule.stubFor(get(urlEqualTo(path)).inScenario(path)
+                .whenScenarioStateIs(Scenario.STARTED)
+                .willReturn(aResponse().withStatus(status).withHeader("Retry-After", "0"))
+                .willSetStateTo("recovered"));
+        this.wireMockRule.stubFor(get(urlEqualTo(path)).inScenario(path)
+                .whenScenarioStateIs("recovered")
+                .willReturn(aResponse().withStatus(200).withBody("ok")));
+    }
+
+    @Test
+    public void retriesRetryableStatus() throws IOException {
+        stubFailingOnce("/flaky", 503);
+
+        RetryingHTTPClient client = new RetryingHTTPClient(new SimpleHTTPClient(), this.policy);
+        Response<String> response = this.baseEndpoint.resolve("flaky").get().execute(client, new StringResponseParser());
+
+        assertEquals(200, response.getResponseCode());
+        assertEquals("ok", response.getValue());
+        assertSame(client, response.getClient());
+        assertEquals(1L, client.getMetrics().getRetries());
+        assertEquals(1L, client.getMetrics().getRequestsWithAttempts(2));
+        this.wireMockRule.verify(2, getRequestedFor(urlEqualTo("/flaky")));
+    }
+
+    @Test
+    public void retriesConnectionResets() throws IOException {
+        this.wireMockRule.stubFor(get(urlEqualTo("/reset")).inScenario("reset")
+                .whenScenarioStateIs(Scenario.STARTED)
+                .willReturn(aResponse().withFault(Fault.CONNECTION_RESET_BY_PEER))
+                .willSetStateTo("recovered"));
+        this.wireMockRule.stubFor(get(urlEqualTo("/reset")).inScenario("reset")
+                .whenScenarioStateIs("recovered")
+                .willReturn(aResponse().withStatus(200).withBody("ok")));
+
+        RetryingHTTPClient client = new RetryingHTTPClient(new SimpleHTTPClient(), this.policy);
+        Response<String> response = this.baseEndpoint.resolve("reset").get().execute(client, new StringResponseParser());
+
+        assertEquals("ok", response.getValue());
+    }
+
+    @Test
+    public void givesUpAfterMaxAttempts() throws IOException {
+        this.wireMockRule.stubFor(get(urlEqualTo("/down")).willReturn(aResponse().withStatus(502)));
+
+        RetryingHTTPClient client = new RetryingHTTPClient(new SimpleHTTPClient(), this.policy);
+        Response<String> response = this.baseEndpoint.resolve("down").get().execute(client, new StringResponseParser());
+
+        assertEquals(502, response.getResponseCode());
+        assertEquals(1L, client.getMetrics().getRequestsWithAttempts(3));
+        this.wireMockRule.verify(3, getRequestedFor(urlEqualTo("/down")));
+    }
+
+    @Test
+    public void doesNotRetryNonIdempotentMethods() throws IOException {
+        this.wireMockRule.stubFor(post(urlEqualTo("/post")).willReturn(aResponse().withStatus(503)));
+
+        RetryingHTTPClient client = new RetryingHTTPClient(new SimpleHTTPClient(), this.policy);
+        Response<String> response = this.baseEndpoint.resolve("post").post()
+                .body(RequestBody.forText("hello"))
+                .execute(client, new StringResponseParser());
+
+        assertEquals(503, response.getResponseCode());
+        this.wireMockRule.verify(1, postRequestedFor(urlEqualTo("/post")));
+    }
+
+    @Test
+    public void doesNotRetryOneShotBodies() throws IOException {
+        this.wireMockRule.stubFor(put(urlEqualTo("/put")).willReturn(aResponse().withStatus(503)));
+
+        RetryingHTTPClient client = new RetryingHTTPClient(new SimpleHTTPClient(), this.policy);
+        RequestBody body = RequestBody.forStream("text/plain", new ByteArrayInputStream("hello".getBytes(StandardCharsets.UTF_8)));
+        Response<String> response = this.baseEndpoint.resolve("put").put()
+                .body(body)
+                .execute(client, new StringResponseParser());
+
+        assertEquals(503, response.getResponseCode());
+        assertEquals(1L, client.getMetrics().getNotRepeatable());
+        this.wireMockRule.verify(1, putRequestedFor(urlEqualTo("/put")));
+    }
+
+    @Test
+    public void respectsRetryBudget() throws IOException {
+        this.wireMockRule.stubFor(get(urlEqualTo("/down")).willReturn(aResponse().withStatus(503)));
+
+        RetryingHTTPClient client = new RetryingHTTPClient(new SimpleHTTPClient(), this.policy, new RetryBudget(0.0, 0, 1));
+
+        this.baseEndpoint.resolve("down").get().execute(client, new StringResponseParser());
+        this.baseEndpoint.resolve("down").get().execute(client, new StringResponseParser());
+
+        // the budget allowed a single retry in total
+        this.wireMockRule.verify(3, getRequestedFor(urlEqualTo("/down")));
+        assertEquals(1L, client.getMetrics().getRetries());
+        assertEquals(2L, client.getMetrics().getDeniedByBudget());
+    }
+
+    @Test
+    public void givesUpIfRetryAfterExceedsMaxDelay() throws IOException {
+        this.wireMockRule.stubFor(get(urlEqualTo("/later")).willReturn(aResponse().withStatus(429).withHeader("Retry-After", "3600")));
+
+        RetryingHTTPClient client = new RetryingHTTPClient(new SimpleHTTPClient(), this.policy);
+        Response<String> response = this.baseEndpoint.resolve("later").get().execute(client, new StringResponseParser());
+
+        assertEquals(429, response.getResponseCode());
+        this.wireMockRule.verify(1, getRequestedFor(urlEqualTo("/later")));
+    }
+
+    @Test
+    public void closesStreamedBodiesOfDiscardedAttempts() throws IOException {
+        stubFailingOnce("/stream", 503);
+
+        RetryingHTTPClient client = new RetryingHTTPClient(new SimpleHTTPClient(), this.policy);
+        Response<ResponseBody> response = this.baseEndpoint.resolve("stream").get().stream(client);
+
+        try (ResponseBody body = response.getValue()) {
+            assertEquals(200, response.getResponseCode());
+            assertFalse(body.isClosed());
+        }
+    }
+
+    @Test
+    public void parsesRetryAfter() {
+        assertEquals(-1L, RetryingHTTPClient.parseRetryAfter(null));
+        assertEquals(-1L, RetryingHTTPClient.parseRetryAfter("soon"));
+        assertEquals(120_000L, RetryingHTTPClient.parseRetryAfter(" 120 "));
+        assertEquals(0L, RetryingHTTPClient.parseRetryAfter("Wed, 21 Oct 2015 07:28:00 GMT"));
+
+        String future = DateTimeFormatter.RFC_1123_DATE_TIME.format(ZonedDateTime.now(ZoneOffset.UTC).plusMinutes(10));
+        long delay = RetryingHTTPClient.parseRetryAfter(future);
+        assertTrue(delay > 500_000L && delay <= 600_000L);
+    }
+
+    @Test
+    public void decorrelatedJitterStaysInBounds() {
+        RetryPolicy policy = RetryPolicy.builder().delay(10L, 1000L).build();
+        long delay = policy.getBaseDelayMillis();
+
+        for (int i = 0; i < 1000; i++) {
+            long next = policy.nextDelayMillis(delay);
+            assertTrue(next >= 10L && next <= Math.min(1000L, delay * 3L));
+            delay = next;
+        }
+    }
+}
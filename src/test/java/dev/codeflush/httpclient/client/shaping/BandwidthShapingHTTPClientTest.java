@@ -0,0 +1,198 @@
+package dev.codeflush.httpclient.client.shaping;
+
+import com.github.tomakehurst.wiremock.junit.WireMockRule;
+import dev.codeflush.httpclient.Endpoint;
+import dev.codeflush.httpclient.Response;
+import dev.codeflush.httpclient.client.SimpleHTTPClient;
+import dev.codeflush.httpclient.client.accounting.AccountingHTTPClient;
+import dev.codeflush.httpclient.client.accounting.ResourceAccounting;
+import dev.codeflush.httpclient.client.progress.ProgressHTTPClient;
+import dev.codeflush.httpclient.parser.SaveFileResponseParser;
+import dev.codeflush.httpclient.parser.StringResponseParser;
+import dev.codeflush.httpclient.request.Request;
+import dev.codeflush.httpclient.request.body.FormDataParameter;
+import dev.codeflush.httpclient.request.body.FormDataRequestBody;
+import dev.codeflush.httpclient.request.body.RequestBody;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.*;
+import static com.github.tomakehurst.wiremock.core.WireMockConfiguration.wireMockConfig;
+import static org.junit.Assert.*;
+
+public class BandwidthShapingHTTPClientTest {
+
+    @Rule
+    public WireMockRule wireMockRule = new WireMockRule(wireMockConfig().dynamicPort().dynamicHttpsPort(), false);
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private Endpoint baseEndpoint;
+
+    @Before
+    public void setupMockServer() {
+        this.baseEndpoint = Endpoint.forHostAndPort(Endpoint.HTTP, "localhost", this.wireMockRule.port());
+        this.wireMockRule.resetAll();
+        this.wireMockRule.stubFor(get(urlEqualTo("/small")).willReturn(aResponse().withStatus(200).withBody(body(10_000))));
+        this.wireMockRule.stubFor(get(urlEqualTo("/large")).willReturn(aResponse().withStatus(200).withBody(body(200_000))));
+        this.wireMockRule.stubFor(post(urlEqualTo("/upload")).willReturn(aResponse().withStatus(200).withBody("ok")));
+    }
+
+    private static String body(int length) {
+        return String.join("", Collections.nCopies(length, "x"));
+    }
+
+    @Test
+    public void bucketIsLockFree() throws Exception {
+        // no burst, every byte is owed
+        TokenBucket bucket = new TokenBucket(1_000_000L, 0L);
+        List<CompletableFuture<Void>> threads = new ArrayList<>();
+
+        for (int i = 0; i < 8; i++) {
+            threads.add(CompletableFuture.runAsync(() -> {
+                for (int j = 0; j < 1000; j++) {
+                    bucket.take(100L);
+                }
+            }));
+        }
+
+        CompletableFuture.allOf(threads.toArray(new CompletableFuture[0])).get(5L, TimeUnit.SECONDS);
+
+        // 800 KB at 1 MB/s: no take got lost between the threads
+        assertEquals(800_000L, bucket.getBytes());
+        long waitMillis = TimeUnit.NANOSECONDS.toMillis(bucket.take(0L));
+        assertTrue(waitMillis > 500L && waitMillis <= 800L);
+        assertTrue(bucket.getAvailableBytes() < -500_000L);
+    }
+
+    @Test
+    public void idleBucketOnlyKeepsTheBurst() throws InterruptedException {
+        TokenBucket bucket = new TokenBucket(1_000_000L, 10_000L);
+        Thread.sleep(50L);
+
+        assertEquals(10_000L, bucket.getAvailableBytes(), 100L);
+        assertEquals(0L, bucket.take(10_000L));
+        assertTrue(bucket.take(10_000L) > TimeUnit.MILLISECONDS.toNanos(5L));
+    }
+
+    @Test
+    public void limitsDownloadsPerHost() throws IOException {
+        BandwidthShapingHTTPClient client = new BandwidthShapingHTTPClient(new SimpleHTTPClient(), ShapingPolicy.builder()
+                .hostRate(TrafficClass.UNLIMITED, 400_000L)
+                .burst(16_000L)
+                .build());
+
+        long start = System.currentTimeMillis();
+        Response<String> response = client.execute(this.baseEndpoint.resolve("large").get().build(), new StringResponseParser(), TrafficClass.BULK);
+
+        assertEquals(200_000, response.getValue().length());
+        assertSame(client, response.getClient());
+        // (200 KB - 16 KB burst) / 400 KB/s
+        assertTrue(System.currentTimeMillis() - start >= 400L);
+
+        Link host = client.getHost("localhost");
+        assertNull(host.getUpload());
+        assertEquals(200_000L, host.getDownload().getBytes());
+        assertTrue(host.getDownload().getThrottledMillis() > 0.0);
+    }
+
+    @Test
+    public void limitsUploadsPerRequest() throws IOException {
+        BandwidthShapingHTTPClient client = new BandwidthShapingHTTPClient(new SimpleHTTPClient(), ShapingPolicy.builder().burst(0L).build());
+        Request request = this.baseEndpoint.resolve("upload").post().body(RequestBody.forText(body(100_000))).build();
+
+        long start = System.currentTimeMillis();
+        client.execute(request, new StringResponseParser(), TrafficClass.bulk(200_000L));
+
+        assertTrue(System.currentTimeMillis() - start >= 400L);
+        assertNull(client.getHost("localhost"));
+        this.wireMockRule.verify(postRequestedFor(urlEqualTo("/upload")).withRequestBody(equalTo(body(100_000))));
+    }
+
+    @Test
+    public void interactiveTrafficIsNotThrottledBehindBulk() throws Exception {
+        BandwidthShapingHTTPClient client = new BandwidthShapingHTTPClient(new SimpleHTTPClient(), ShapingPolicy.builder()
+                .globalRate(TrafficClass.UNLIMITED, 200_000L)
+                .burst(16_000L)
+                .build());
+
+        // the first request to WireMock is slow on its own
+        this.baseEndpoint.resolve("small").get().execute(client, new StringResponseParser());
+
+        // classified as bulk by the parser, takes about a second
+        File file = this.folder.newFile();
+        CompletableFuture<Response<File>> bulk = CompletableFuture.supplyAsync(() -> {
+            try {
+                return this.baseEndpoint.resolve("large").get().execute(client, new SaveFileResponseParser(file));
+            } catch (IOException e) {
+                throw new RuntimeException(e);
+            }
+        });
+
+        Thread.sleep(200L);
+
+        for (int i = 0; i < 5; i++) {
+            long start = System.currentTimeMillis();
+            Response<String> response = this.baseEndpoint.resolve("small").get().execute(client, new StringResponseParser());
+
+            assertEquals(10_000, response.getValue().length());
+            assertTrue(System.currentTimeMillis() - start < 300L);
+        }
+
+        bulk.get(10L, TimeUnit.SECONDS);
+        assertEquals(200_000L, file.length());
+        // the interactive bytes were charged to the shared bucket
+        assertEquals(260_000L, client.getGlobal().getDownload().getBytes());
+    }
+
+    @Test
+    public void classifiesMultipartBodiesByTheirParts() throws IOException {
+        ShapingPolicy policy = ShapingPolicy.builder().build();
+        File file = this.folder.newFile();
+        FormDataParameter text = FormDataParameter.forText("name", "value");
+
+        assertEquals(TrafficClass.INTERACTIVE, policy.classify(upload(new FormDataRequestBody(Collections.singletonList(text))), new StringResponseParser()));
+        assertEquals(TrafficClass.BULK, policy.classify(upload(new FormDataRequestBody(Arrays.asList(text, FormDataParameter.forFile("file", file)))), new StringResponseParser()));
+        assertEquals(TrafficClass.BULK, policy.classify(upload(new FormDataRequestBody(Arrays.asList(text, FormDataParameter.forStream("stream", "text/plain", new ByteArrayInputStream(new byte[10]))))), new StringResponseParser()));
+        assertEquals(TrafficClass.BULK, policy.classify(upload(RequestBody.forText(body(2 * 1024 * 1024))), new StringResponseParser()));
+    }
+
+    @Test
+    public void classifiesDecoratedBodiesAndParsers() throws IOException {
+        List<TrafficClass> classes = new CopyOnWriteArrayList<>();
+        BandwidthShapingHTTPClient shaping = new BandwidthShapingHTTPClient(new SimpleHTTPClient(), ShapingPolicy.builder()
+                .classifier((request, parser) -> {
+                    TrafficClass trafficClass = ShapingPolicy.DEFAULT_CLASSIFIER.apply(request, parser);
+                    classes.add(trafficClass);
+                    return trafficClass;
+                })
+                .build());
+        // both wrap the body and the parser before the shaping client sees them
+        ProgressHTTPClient client = new ProgressHTTPClient(new AccountingHTTPClient(shaping, new ResourceAccounting(1.0)), (progress) -> {});
+        File file = this.folder.newFile();
+
+        this.baseEndpoint.resolve("upload").post().body(RequestBody.forFile(file)).execute(client, new StringResponseParser());
+        this.baseEndpoint.resolve("large").get().execute(client, new SaveFileResponseParser(file));
+        this.baseEndpoint.resolve("small").get().execute(client, new StringResponseParser());
+
+        assertEquals(Arrays.asList(TrafficClass.BULK, TrafficClass.BULK, TrafficClass.INTERACTIVE), classes);
+    }
+
+    private Request upload(RequestBody body) {
+        return this.baseEndpoint.resolve("upload").post().body(body).build();
+    }
+}
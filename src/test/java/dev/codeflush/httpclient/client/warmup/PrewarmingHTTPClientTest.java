@@ -0,0 +1,143 @@
+package dev.codeflush.httpclient.client.warmup;
+
+import com.github.tomakehurst.wiremock.junit.WireMockRule;
+import dev.codeflush.httpclient.Endpoint;
+import dev.codeflush.httpclient.client.SimpleHTTPClient;
+import dev.codeflush.httpclient.parser.StringResponseParser;
+import dev.codeflush.httpclient.request.Timeouts;
+import dev.codeflush.httpclient.resolver.StaticResolver;
+import dev.codeflush.httpclient.tls.TlsConfig;
+import dev.codeflush.httpclient.tls.TrustAll;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+
+import javax.net.ssl.SSLContext;
+import java.net.ConnectException;
+import java.net.ServerSocket;
+import java.net.UnknownHostException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.*;
+import static com.github.tomakehurst.wiremock.core.WireMockConfiguration.wireMockConfig;
+import static org.junit.Assert.*;
+
+public class PrewarmingHTTPClientTest {
+
+    @Rule
+    public WireMockRule wireMockRule = new WireMockRule(wireMockConfig().dynamicPort().dynamicHttpsPort(), false);
+
+    private Endpoint localhost;
+    private Endpoint loopback;
+
+    @Before
+    public void setupMockServer() {
+        this.localhost = Endpoint.forHostAndPort(Endpoint.HTTP, "localhost", this.wireMockRule.port());
+        this.loopback = Endpoint.forHostAndPort(Endpoint.HTTP, "127.0.0.1", this.wireMockRule.port());
+        this.wireMockRule.resetAll();
+        this.wireMockRule.stubFor(any(urlEqualTo("/")).willReturn(aResponse().withStatus(200)));
+        this.wireMockRule.stubFor(get(urlEqualTo("/hello")).willReturn(aResponse().withStatus(200).withBody("hello")));
+    }
+
+    private int heads() {
+        return this.wireMockRule.findAll(headRequestedFor(urlEqualTo("/"))).size();
+    }
+
+    @Test
+    public void warmsEveryHostWithHeadRequests() throws Exception {
+        try (PrewarmingHTTPClient client = new PrewarmingHTTPClient(new SimpleHTTPClient(), WarmupPolicy.builder().connectionsPerHost(3).refresh(0L).build())) {
+            WarmupReport report = client.warm(this.localhost, this.loopback);
+
+            assertTrue(report.toString(), report.allSucceeded());
+            assertEquals(6, report.getSucceeded());
+            assertEquals(2, report.getHosts().size());
+
+            HostWarmup host = report.getHosts().get(0);
+            assertEquals("localhost:" + this.wireMockRule.port(), host.getHostAndPort());
+            assertEquals(3, host.getSucceeded());
+            assertEquals(0, host.getFailed());
+            assertNull(host.getFailure());
+            assertTrue(host.getElapsedMillis() >= host.getResolveMillis());
+            assertEquals(6, heads());
+
+            // nothing to refresh
+            assertTrue(client.getUnusedHosts().isEmpty());
+            assertEquals("hello", this.localhost.resolve("hello").get().execute(client, new StringResponseParser()).getValue());
+        }
+    }
+
+    @Test
+    public void refreshesUntilTheFirstRequest() throws Exception {
+        try (PrewarmingHTTPClient client = new PrewarmingHTTPClient(new SimpleHTTPClient(), WarmupPolicy.builder().connectionsPerHost(1).refresh(100L).build())) {
+            assertTrue(client.warm(this.localhost, this.loopback).allSucceeded());
+            assertEquals(new HashSet<>(Arrays.asList("localhost:" + this.wireMockRule.port(), "127.0.0.1:" + this.wireMockRule.port())), client.getUnusedHosts());
+
+            Thread.sleep(450L);
+            assertTrue(heads() > 4);
+
+            this.localhost.resolve("hello").get().execute(client, new StringResponseParser());
+            this.loopback.resolve("hello").get().execute(client, new StringResponseParser());
+            assertTrue(client.getUnusedHosts().isEmpty());
+
+            // a refresh may still be running
+            Thread.sleep(200L);
+            int heads = heads();
+            Thread.sleep(300L);
+            assertEquals(heads, heads());
+        }
+    }
+
+    @Test
+    public void handshakesWithoutRequests() throws Exception {
+        SSLContext context = TrustAll.context();
+        SimpleHTTPClient transport = new SimpleHTTPClient(Collections.emptyMap(), Timeouts.NONE, TlsConfig.builder().sslContext(context).build());
+
+        try (PrewarmingHTTPClient client = new PrewarmingHTTPClient(transport, WarmupPolicy.builder().connectionsPerHost(2).head(false).build())) {
+            WarmupReport report = client.warm(Endpoint.forHostAndPort(Endpoint.HTTPS, "localhost", this.wireMockRule.httpsPort()));
+
+            assertTrue(report.toString(), report.allSucceeded());
+            assertEquals(2, report.getSucceeded());
+            assertTrue(client.getUnusedHosts().isEmpty());
+        }
+
+        // the handshakes went through the factory of the client
+        for (int i = 0; i < 100 && transport.getTlsMetrics().getHandshakes() < 2L; i++) {
+            Thread.sleep(10L);
+        }
+
+        assertEquals(2L, transport.getTlsMetrics().getHandshakes());
+        assertEquals(0, this.wireMockRule.getAllServeEvents().size());
+    }
+
+    @Test
+    public void reportsFailedHosts() throws Exception {
+        int closedPort;
+        try (ServerSocket socket = new ServerSocket(0)) {
+            closedPort = socket.getLocalPort();
+        }
+
+        SimpleHTTPClient transport = new SimpleHTTPClient(Collections.emptyMap(), Timeouts.NONE, new StaticResolver().add("known.test", "127.0.0.1"));
+
+        try (PrewarmingHTTPClient client = new PrewarmingHTTPClient(transport, WarmupPolicy.builder().connectionsPerHost(2).head(false).build())) {
+            WarmupReport report = client.warm(
+                    Endpoint.forHostAndPort(Endpoint.HTTP, "known.test", closedPort),
+                    Endpoint.forHostAndPort(Endpoint.HTTP, "unknown.test", this.wireMockRule.port()),
+                    Endpoint.forHostAndPort(Endpoint.HTTP, "known.test", this.wireMockRule.port()));
+
+            assertFalse(report.allSucceeded());
+            assertEquals(2, report.getSucceeded());
+
+            HostWarmup refused = report.getHosts().get(0);
+            assertEquals(2, refused.getFailed());
+            assertTrue(refused.getFailure() instanceof ConnectException);
+
+            HostWarmup unknown = report.getHosts().get(1);
+            assertEquals(0, unknown.getSucceeded());
+            assertTrue(unknown.getFailure() instanceof UnknownHostException);
+
+            assertTrue(report.getHosts().get(2).allSucceeded());
+        }
+    }
+}
@@ -0,0 +1,130 @@
+package dev.codeflush.httpclient.jfr;
+
+import com.github.tomakehurst.wiremock.junit.WireMockRule;
+import dev.codeflush.httpclient.Endpoint;
+import dev.codeflush.httpclient.client.SimpleHTTPClient;
+import dev.codeflush.httpclient.parser.StringResponseParser;
+import dev.codeflush.httpclient.request.body.RequestBody;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.*;
+import static com.github.tomakehurst.wiremock.core.WireMockConfiguration.wireMockConfig;
+import static org.junit.Assert.*;
+
+public class ExchangeEventsTest {
+
+    private static final String EVENT = "dev.codeflush.httpclient.HttpExchange";
+
+    @Rule
+    public WireMockRule wireMockRule = new WireMockRule(wireMockConfig().dynamicPort().dynamicHttpsPort(), false);
+
+    private Endpoint baseEndpoint;
+
+    @Before
+    public void setupMockServer() {
+        this.baseEndpoint = Endpoint.forHostAndPort(Endpoint.HTTP, "localhost", this.wireMockRule.port());
+        this.wireMockRule.resetAll();
+        this.wireMockRule.stubFor(get(urlEqualTo("/users/1?fields=name")).willReturn(aResponse().withStatus(200).withBody("hello")));
+        this.wireMockRule.stubFor(post(urlEqualTo("/users")).willReturn(aResponse().withStatus(201).withBody("created")));
+    }
+
+    private static List<RecordedEvent> record(IOExceptionRunnable exchanges) throws IOException {
+        Path file = Files.createTempFile("exchanges", ".jfr");
+
+        try (Recording recording = new Recording()) {
+            recording.enable(EVENT).withThreshold(Duration.ZERO);
+            recording.start();
+            exchanges.run();
+            recording.stop();
+            recording.dump(file);
+
+            return RecordingFile.readAllEvents(file).stream()
+                    .filter((event) -> EVENT.equals(event.getEventType().getName()))
+                    .collect(Collectors.toList());
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    @Test
+    public void recordsEveryExchange() throws IOException {
+        SimpleHTTPClient client = new SimpleHTTPClient();
+
+        List<RecordedEvent> events = record(() -> {
+            this.baseEndpoint.resolve("users", "1").get().parameter("fields", "name").execute(client, new StringResponseParser());
+            this.baseEndpoint.resolve("users", "1").get().parameter("fields", "name").execute(client, new StringResponseParser());
+            this.baseEndpoint.resolve("users").post().body(RequestBody.forText("abc")).execute(client, new StringResponseParser());
+        });
+
+        assertEquals(3, events.size());
+
+        RecordedEvent first = events.get(0);
+        assertEquals("GET", first.getString("method"));
+        assertEquals("localhost:" + this.wireMockRule.port(), first.getString("host"));
+        assertEquals("/users/1", first.getString("path"));
+        assertEquals(200, first.getInt("status"));
+        assertEquals(0L, first.getLong("bytesSent"));
+        assertEquals(5L, first.getLong("bytesReceived"));
+        assertFalse(first.getBoolean("connectionReused"));
+        assertNull(first.getString("error"));
+
+        for (String phase : new String[]{"connectDuration", "sendDuration", "waitDuration", "parseDuration"}) {
+            assertFalse(first.getDuration(phase).isNegative());
+        }
+
+        assertTrue(first.getDuration().compareTo(first.getDuration("waitDuration")) >= 0);
+
+        // the keep-alive connection of the first request
+        assertTrue(events.get(1).getBoolean("connectionReused"));
+
+        RecordedEvent post = events.get(2);
+        assertEquals("POST", post.getString("method"));
+        assertEquals(201, post.getInt("status"));
+        assertEquals(3L, post.getLong("bytesSent"));
+        assertEquals(7L, post.getLong("bytesReceived"));
+    }
+
+    @Test
+    public void recordsFailedExchanges() throws IOException {
+        int closedPort;
+        try (ServerSocket socket = new ServerSocket(0)) {
+            closedPort = socket.getLocalPort();
+        }
+
+        List<RecordedEvent> events = record(() -> {
+            try {
+                Endpoint.forHostAndPort(Endpoint.HTTP, "localhost", closedPort).get().execute(new SimpleHTTPClient(), new StringResponseParser());
+                fail("expected IOException");
+            } catch (IOException expected) {
+            }
+        });
+
+        assertEquals(1, events.size());
+        assertEquals(-1, events.get(0).getInt("status"));
+        assertTrue(events.get(0).getString("error").startsWith("java.net.ConnectException"));
+    }
+
+    @Test
+    public void disabledWithoutRecording() {
+        assertTrue(ExchangeEvents.isAvailable());
+        assertFalse(ExchangeEvents.begin(this.baseEndpoint.get().build()).isEnabled());
+    }
+
+    private interface IOExceptionRunnable {
+
+        void run() throws IOException;
+    }
+}
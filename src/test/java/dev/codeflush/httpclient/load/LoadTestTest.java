@@ -0,0 +1,148 @@
+package dev.codeflush.httpclient.load;
+
+import com.github.tomakehurst.wiremock.junit.WireMockRule;
+import dev.codeflush.httpclient.Endpoint;
+import dev.codeflush.httpclient.Response;
+import dev.codeflush.httpclient.client.HTTPClient;
+import dev.codeflush.httpclient.client.SimpleHTTPClient;
+import dev.codeflush.httpclient.parser.ResponseParser;
+import dev.codeflush.httpclient.request.Request;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.Collections;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.*;
+import static com.github.tomakehurst.wiremock.core.WireMockConfiguration.wireMockConfig;
+import static org.junit.Assert.*;
+
+public class LoadTestTest {
+
+    @Rule
+    public WireMockRule wireMockRule = new WireMockRule(wireMockConfig().dynamicPort().dynamicHttpsPort(), false);
+
+    private Endpoint baseEndpoint;
+
+    @Before
+    public void setupMockServer() {
+        this.baseEndpoint = Endpoint.forHostAndPort(Endpoint.HTTP, "localhost", this.wireMockRule.port());
+        this.wireMockRule.resetAll();
+        this.wireMockRule.stubFor(get(urlEqualTo("/hello")).willReturn(aResponse().withStatus(200).withBody("hello")));
+    }
+
+    // every request takes serviceMillis
+    private static HTTPClient slow(long serviceMillis) {
+        return new HTTPClient() {
+            @Override
+            public <T> Response<T> execute(Request request, ResponseParser<? extends T> parser) throws IOException {
+                try {
+                    Thread.sleep(serviceMillis);
+                } catch (InterruptedException e) {
+                    throw new InterruptedIOException();
+                }
+
+                T value = parser.parse(this, request, 200, new ByteArrayInputStream(new byte[0]), Collections.emptyMap(), "text/plain", "UTF-8");
+                return new Response<>(this, request, parser, 200, Collections.emptyMap(), "text/plain", "UTF-8", value);
+            }
+        };
+    }
+
+    @Test
+    public void histogramPercentilesStayWithinTheBucketError() {
+        LatencyHistogram histogram = new LatencyHistogram();
+
+        for (long micros = 1L; micros <= 10_000L; micros++) {
+            histogram.recordMicros(micros);
+        }
+
+        assertEquals(10_000L, histogram.getCount());
+        assertEquals(0.001, histogram.getMinMillis(), 0.0);
+        assertEquals(10.0, histogram.getMaxMillis(), 0.0);
+        assertEquals(5.0005, histogram.getMeanMillis(), 0.0001);
+        assertEquals(5.0, histogram.getPercentileMillis(50.0), 5.0 / 64);
+        assertEquals(9.9, histogram.getPercentileMillis(99.0), 9.9 / 64);
+        assertEquals(10.0, histogram.getPercentileMillis(100.0), 0.0);
+    }
+
+    @Test
+    public void bucketsAreContiguous() {
+        long previousHighest = -1L;
+
+        for (int index = 0; index <= LatencyHistogram.indexOf(Long.MAX_VALUE); index++) {
+            long highest = LatencyHistogram.highestEquivalentValue(index);
+
+            assertTrue(highest > previousHighest);
+            assertEquals(index, LatencyHistogram.indexOf(previousHighest + 1));
+            assertEquals(index, LatencyHistogram.indexOf(highest));
+            previousHighest = highest;
+        }
+
+        assertEquals(Long.MAX_VALUE, previousHighest);
+    }
+
+    @Test
+    public void runsAtTheFixedArrivalRate() throws InterruptedException {
+        LoadReport report = LoadTest.builder(new SimpleHTTPClient(), this.baseEndpoint.resolve("hello").get().template())
+                .rate(200.0)
+                .warmup(200L)
+                .duration(500L)
+                .maxConcurrency(8)
+                .build()
+                .run();
+
+        assertEquals(40L, report.getWarmupRequests());
+        assertEquals(100L, report.getResponses());
+        assertEquals(0L, report.getErrors());
+        assertEquals(0L, report.getUnfinished());
+        assertEquals(Long.valueOf(100L), report.getStatusCounts().get(200));
+        assertEquals(200.0, report.getThroughput(), 0.001);
+        assertTrue(report.getPercentileMillis(50.0) <= report.getPercentileMillis(99.0));
+        this.wireMockRule.verify(140, getRequestedFor(urlEqualTo("/hello")));
+    }
+
+    @Test
+    public void queuingDelayIsNotOmitted() throws InterruptedException {
+        // one worker needs 20ms per request but one arrives every 10ms, the backlog grows for the whole run
+        LoadReport report = LoadTest.builder(slow(20L), this.baseEndpoint.resolve("hello").get().template())
+                .rate(100.0)
+                .warmup(0L)
+                .duration(300L)
+                .maxConcurrency(1)
+                .build()
+                .run();
+
+        assertEquals(30L, report.getResponses());
+        assertTrue(report.getPercentileMillis(50.0) > 100.0);
+        // the last request was intended at 290ms and finishes at about 600ms
+        assertTrue(report.getPercentileMillis(100.0) > 250.0);
+    }
+
+    @Test
+    public void exportsCsvAndJson() throws InterruptedException {
+        this.wireMockRule.stubFor(get(urlEqualTo("/missing")).willReturn(aResponse().withStatus(404)));
+
+        LoadReport report = LoadTest.builder(new SimpleHTTPClient(), this.baseEndpoint.resolve("missing").get().template())
+                .rate(100.0)
+                .warmup(0L)
+                .duration(100L)
+                .build()
+                .run();
+
+        String[] csv = report.toCsv().split("\n");
+        assertEquals("percentile,latency_ms", csv[0]);
+        assertEquals(LoadReport.PERCENTILES.length + 1, csv.length);
+        assertTrue(csv[1].startsWith("50,"));
+        assertTrue(csv[csv.length - 1].startsWith("100,"));
+
+        String json = report.toJson();
+        assertTrue(json, json.startsWith("{\"targetRate\":100,"));
+        assertTrue(json, json.contains("\"responses\":10,"));
+        assertTrue(json, json.contains("\"99.9\":"));
+        assertTrue(json, json.endsWith("\"statusCounts\":{\"404\":10}}"));
+        assertTrue(report.toString().contains("99.99%"));
+    }
+}
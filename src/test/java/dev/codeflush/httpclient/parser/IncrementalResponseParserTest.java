@@ -0,0 +1,108 @@
+package dev.codeflush.httpclient.parser;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+public class IncrementalResponseParserTest {
+
+    @Test
+    public void adapterFeedsAllChunks() throws Exception {
+        byte[] bytes = new byte[20000];
+        for (int i = 0; i < bytes.length; i++) {
+            bytes[i] = (byte) i;
+        }
+
+        CountingParser counting = new CountingParser(IncrementalResponseParser.UNBOUNDED);
+        ResponseParser<Long> parser = IncrementalResponseParser.toResponseParser(() -> counting);
+        Long result = parser.parse(null, null, 200, new ByteArrayInputStream(bytes), Collections.emptyMap(), "application/octet-stream", null);
+
+        assertEquals(Long.valueOf(bytes.length), result);
+        assertEquals(200, counting.responseCode);
+        assertTrue(counting.chunks > 1);
+    }
+
+    @Test
+    public void adapterRespectsDemand() throws Exception {
+        CountingParser counting = new CountingParser(8192 + 10);
+        ResponseParser<Long> parser = IncrementalResponseParser.toResponseParser(() -> counting);
+        Long result = parser.parse(null, null, 200, new ByteArrayInputStream(new byte[100000]), Collections.emptyMap(), "application/octet-stream", null);
+
+        assertEquals(Long.valueOf(8192 + 10), result);
+        assertEquals(2, counting.chunks);
+    }
+
+    @Test
+    public void adapterReportsErrors() throws Exception {
+        CountingParser counting = new CountingParser(IncrementalResponseParser.UNBOUNDED);
+        ResponseParser<Long> parser = IncrementalResponseParser.toResponseParser(() -> counting);
+        ByteArrayInputStream failing = new ByteArrayInputStream(new byte[0]) {
+            @Override
+            public synchronized int read(byte[] b, int off, int len) {
+                throw new IllegalStateException("broken");
+            }
+        };
+
+        try {
+            parser.parse(null, null, 200, failing, Collections.emptyMap(), "application/octet-stream", null);
+            fail();
+        } catch (IllegalStateException e) {
+            assertSame(e, counting.error);
+        }
+    }
+
+    @Test
+    public void existingParsersCanBeFedWithChunks() throws Exception {
+        IncrementalResponseParser<String> parser = IncrementalResponseParser.fromResponseParser(null, null, new StringResponseParser());
+        parser.onHeaders(200, Collections.emptyMap(), "text/plain", "UTF-8");
+        parser.onChunk(ByteBuffer.wrap("Hello ".getBytes(StandardCharsets.UTF_8)));
+        parser.onChunk(ByteBuffer.wrap("World".getBytes(StandardCharsets.UTF_8)));
+
+        assertEquals("Hello World", parser.onComplete());
+    }
+
+    private static class CountingParser implements IncrementalResponseParser<Long> {
+
+        private final long limit;
+        private int responseCode;
+        private long count;
+        private int chunks;
+        private Throwable error;
+
+        private CountingParser(long limit) {
+            this.limit = limit;
+        }
+
+        @Override
+        public void onHeaders(int responseCode, Map<String, List<String>> headers, String contentType, String charset) throws IOException {
+            this.responseCode = responseCode;
+        }
+
+        @Override
+        public long onChunk(ByteBuffer chunk) {
+            this.count += chunk.remaining();
+            this.chunks++;
+            chunk.position(chunk.limit());
+
+            return this.limit == UNBOUNDED ? UNBOUNDED : this.limit - this.count;
+        }
+
+        @Override
+        public Long onComplete() {
+            return this.count;
+        }
+
+        @Override
+        public void onError(Throwable t) {
+            this.error = t;
+        }
+    }
+}
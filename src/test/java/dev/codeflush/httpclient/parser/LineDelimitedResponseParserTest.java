@@ -0,0 +1,191 @@
+package dev.codeflush.httpclient.parser;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.Assert.*;
+
+public class LineDelimitedResponseParserTest {
+
+    // 2 GiB by default, can be changed with e.g. -Dndjson.test.bytes=8589934592
+    private static final long LARGE_STREAM_BYTES = Long.getLong("ndjson.test.bytes", 2L * 1024 * 1024 * 1024);
+
+    @Test
+    public void splitsRecords() throws Exception {
+        List<String> records = new ArrayList<>();
+        ResponseParser<Long> parser = new LineDelimitedResponseParser((batch) -> {
+            for (int i = 0; i < batch.size(); i++) {
+                records.add(batch.getString(i, StandardCharsets.UTF_8));
+            }
+        }, 2, 16);
+
+        Long count = parse(parser, "{\"a\":1}\r\n\n{\"b\":2}\n{\"c\":3}\n{\"d\":\"ä\"}");
+
+        assertEquals(Long.valueOf(4), count);
+        assertEquals(java.util.Arrays.asList("{\"a\":1}", "{\"b\":2}", "{\"c\":3}", "{\"d\":\"ä\"}"), records);
+    }
+
+    @Test
+    public void emptyBody() throws Exception {
+        AtomicInteger batches = new AtomicInteger();
+        Long count = parse(new LineDelimitedResponseParser((batch) -> batches.incrementAndGet()), "");
+
+        assertEquals(Long.valueOf(0), count);
+        assertEquals(0, batches.get());
+    }
+
+    @Test(expected = IOException.class)
+    public void rejectsTooLongRecords() throws Exception {
+        parse(new LineDelimitedResponseParser((batch) -> {
+        }, 10, 8), "short\nthis record is too long\n");
+    }
+
+    @Test
+    public void recordAfterEmptyLinesFillingTheBuffer() throws Exception {
+        List<String> records = new ArrayList<>();
+        ResponseParser<Long> parser = new LineDelimitedResponseParser((batch) -> {
+            for (int i = 0; i < batch.size(); i++) {
+                records.add(batch.getString(i, StandardCharsets.UTF_8));
+            }
+        }, 10, 16);
+
+        // the empty lines and the start of the 15 byte record fill the buffer before a record was added
+        Long count = parse(parser, "\n\n\n\n\n\n0123456789abcde\n\n\nxyz");
+
+        assertEquals(Long.valueOf(2), count);
+        assertEquals(java.util.Arrays.asList("0123456789abcde", "xyz"), records);
+    }
+
+    @Test
+    public void parallelDispatch() throws Exception {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < 10000; i++) {
+            sb.append(i).append('\n');
+        }
+
+        AtomicLong sum = new AtomicLong();
+        ForkJoinPool pool = new ForkJoinPool(4);
+
+        try {
+            ResponseParser<Long> parser = new LineDelimitedResponseParser((batch) -> {
+                for (int i = 0; i < batch.size(); i++) {
+                    sum.addAndGet(Long.parseLong(batch.getString(i, StandardCharsets.US_ASCII)));
+                }
+            }, 100, 4096, pool, 2);
+
+            assertEquals(Long.valueOf(10000), parse(parser, sb.toString()));
+            assertEquals(10000L * 9999 / 2, sum.get());
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    public void consumerFailuresArePropagated() throws Exception {
+        ForkJoinPool pool = new ForkJoinPool(2);
+
+        try {
+            ResponseParser<Long> parser = new LineDelimitedResponseParser((batch) -> {
+                throw new IllegalStateException("failed");
+            }, 1, 64, pool, 1);
+
+            parse(parser, "a\nb\nc\n");
+            fail();
+        } catch (IllegalStateException expected) {
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    public void constantMemoryForLargeStreams() throws Exception {
+        MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+        System.gc();
+        long baseline = memory.getHeapMemoryUsage().getUsed();
+        AtomicLong maxUsed = new AtomicLong();
+        AtomicLong bytes = new AtomicLong();
+        ForkJoinPool pool = new ForkJoinPool(4);
+
+        try {
+            ResponseParser<Long> parser = new LineDelimitedResponseParser((batch) -> {
+                for (int i = 0; i < batch.size(); i++) {
+                    bytes.addAndGet(batch.get(i).remaining());
+                }
+
+                if (batch.getSequence() % 256 == 0) {
+                    System.gc();
+                    maxUsed.accumulateAndGet(memory.getHeapMemoryUsage().getUsed(), Math::max);
+                }
+            }, 4096, 1024 * 1024, pool, 4);
+
+            byte[] record = "{\"id\":123456,\"name\":\"some synthetic record\",\"values\":[1,2,3,4,5]}\n".getBytes(StandardCharsets.UTF_8);
+            long recordCount = LARGE_STREAM_BYTES / record.length;
+
+            Long count = parser.parse(null, null, 200, new RepeatingInputStream(record, recordCount), Collections.emptyMap(), "application/x-ndjson", null);
+
+            assertEquals(Long.valueOf(recordCount), count);
+            assertEquals(recordCount * (record.length - 1), bytes.get());
+            assertTrue("heap grew by " + (maxUsed.get() - baseline) + " bytes", maxUsed.get() - baseline < 64L * 1024 * 1024);
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    private static Long parse(ResponseParser<Long> parser, String body) throws IOException {
+        return parser.parse(null, null, 200, new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8)), Collections.emptyMap(), "application/x-ndjson", null);
+    }
+
+    private static class RepeatingInputStream extends InputStream {
+
+        private final byte[] record;
+        private long remaining;
+        private int position;
+
+        private RepeatingInputStream(byte[] record, long count) {
+            this.record = record;
+            this.remaining = count;
+            this.position = 0;
+        }
+
+        @Override
+        public int read() {
+            byte[] b = new byte[1];
+            return read(b, 0, 1) == -1 ? -1 : b[0] & 0xFF;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) {
+            if (this.remaining == 0) {
+                return -1;
+            }
+
+            int written = 0;
+
+            while (written < len && this.remaining > 0) {
+                int n = Math.min(len - written, this.record.length - this.position);
+                System.arraycopy(this.record, this.position, b, off + written, n);
+                written += n;
+                this.position += n;
+
+                if (this.position == this.record.length) {
+                    this.position = 0;
+                    this.remaining--;
+                }
+            }
+
+            return written;
+        }
+    }
+}
@@ -1,5 +1,6 @@
 package dev.codeflush.httpclient.parser;
 
+import dev.codeflush.httpclient.buffer.BufferPool;
 import org.junit.Test;
 
 import java.io.ByteArrayInputStream;
@@ -41,4 +42,9 @@ public class StringResponseParserTest {
 
         assertEquals(src, result);
     }
-}
\ No newline at end of file
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsDirectBuffers() {
+        new StringResponseParser(BufferPool.direct());
+    }
+}
@@ -0,0 +1,249 @@
+package dev.codeflush.httpclient.parser.json;
+
+import dev.codeflush.httpclient.parser.ResponseParser;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.SequenceInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class JsonTokenizerTest {
+
+    @Test
+    public void tokenizesDocument() throws Exception {
+        JsonTokenizer tokenizer = tokenizer("{\"a\": [1, -2.5e3, true, false, null], \"b\": {\"c\": \"d\"}, \"e\": []}", 3);
+
+        assertEquals(JsonToken.START_OBJECT, tokenizer.next());
+        assertEquals(JsonToken.FIELD_NAME, tokenizer.next());
+        assertEquals("a", tokenizer.getText());
+        assertEquals(JsonToken.START_ARRAY, tokenizer.next());
+        assertEquals(JsonToken.NUMBER, tokenizer.next());
+        assertEquals(1L, tokenizer.getLong());
+        assertEquals(JsonToken.NUMBER, tokenizer.next());
+        assertEquals(-2500.0, tokenizer.getDouble(), 0.0);
+        assertEquals(JsonToken.TRUE, tokenizer.next());
+        assertEquals(JsonToken.FALSE, tokenizer.next());
+        assertEquals(JsonToken.NULL, tokenizer.next());
+        assertEquals(JsonToken.END_ARRAY, tokenizer.next());
+        assertEquals(JsonToken.FIELD_NAME, tokenizer.next());
+        assertTrue(tokenizer.textEquals("b"));
+        assertEquals(JsonToken.START_OBJECT, tokenizer.next());
+        assertEquals(2, tokenizer.getDepth());
+        assertEquals(JsonToken.FIELD_NAME, tokenizer.next());
+        assertEquals(JsonToken.STRING, tokenizer.next());
+        assertEquals("d", tokenizer.getText());
+        assertEquals(JsonToken.END_OBJECT, tokenizer.next());
+        assertEquals(JsonToken.FIELD_NAME, tokenizer.next());
+        assertEquals(JsonToken.START_ARRAY, tokenizer.next());
+        assertEquals(JsonToken.END_ARRAY, tokenizer.next());
+        assertEquals(JsonToken.END_OBJECT, tokenizer.next());
+        assertEquals(JsonToken.END_DOCUMENT, tokenizer.next());
+        assertEquals(JsonToken.END_DOCUMENT, tokenizer.next());
+    }
+
+    @Test
+    public void decodesStrings() throws Exception {
+        String value = "plain \"quoted\" \\ / \b\f\n\r\t äöü € 😀";
+        String json = "[\"plain \\\"quoted\\\" \\\\ \\/ \\b\\f\\n\\r\\t äöü \\u20ac 😀\"]";
+
+        for (int bufferSize = 1; bufferSize < 8; bufferSize++) {
+            JsonTokenizer tokenizer = tokenizer(json, bufferSize);
+
+            assertEquals(JsonToken.START_ARRAY, tokenizer.next());
+            assertEquals(JsonToken.STRING, tokenizer.next());
+            assertEquals(value, tokenizer.getText());
+        }
+    }
+
+    @Test
+    public void parsesLargeNumbers() throws Exception {
+        JsonTokenizer tokenizer = tokenizer("[9223372036854775807, 12345678901234567890.5, 0]", 8192);
+
+        tokenizer.next();
+        tokenizer.next();
+        assertEquals(Long.MAX_VALUE, tokenizer.getLong());
+        tokenizer.next();
+        assertEquals("12345678901234567890.5", tokenizer.getDecimal().toPlainString());
+        tokenizer.next();
+        assertEquals(0, tokenizer.getInt());
+    }
+
+    @Test
+    public void rejectsInvalidDocuments() throws Exception {
+        String[] invalid = {"", "{", "[1,]", "{\"a\" 1}", "[01]", "[1.]", "[tru]", "{\"a\":1}}", "[\"\u0001\"]", "[1] 2", "{1: 2}"};
+
+        for (String json : invalid) {
+            try {
+                JsonTokenizer tokenizer = tokenizer(json, 8192);
+                while (tokenizer.next() != JsonToken.END_DOCUMENT) {
+                }
+
+                fail("accepted " + json);
+            } catch (JsonParseException expected) {
+            }
+        }
+    }
+
+    @Test
+    public void rejectsInvalidUTF8() throws Exception {
+        byte[] bytes = new byte[]{'[', '"', (byte) 0xC3, '"', ']'};
+        JsonTokenizer tokenizer = new JsonTokenizer(new ByteArrayInputStream(bytes));
+        tokenizer.next();
+
+        try {
+            tokenizer.next();
+            fail();
+        } catch (JsonParseException expected) {
+        }
+    }
+
+    @Test
+    public void skipsChildren() throws Exception {
+        JsonTokenizer tokenizer = tokenizer("{\"skip\": {\"a\": [\"}]\", {\"b\": \"\\\"\"}]}, \"keep\": 1}", 4);
+
+        tokenizer.next();
+        tokenizer.next();
+        assertEquals(JsonToken.START_OBJECT, tokenizer.next());
+        tokenizer.skipChildren();
+        assertEquals(JsonToken.END_OBJECT, tokenizer.current());
+        assertEquals(1, tokenizer.getDepth());
+        assertEquals(JsonToken.FIELD_NAME, tokenizer.next());
+        assertEquals("keep", tokenizer.getText());
+    }
+
+    @Test
+    public void selectsPath() throws Exception {
+        String json = "{\"total\": 3, \"items\": [{\"id\": 1, \"tags\": [\"x\"]}, {\"name\": \"no id\"}, {\"nested\": {\"id\": 99}, \"id\": 2}, {\"id\": 3}], \"id\": 100}";
+        JsonTokenizer tokenizer = tokenizer(json, 5);
+        JsonSelector selector = tokenizer.select(JsonPath.compile("$.items[*].id"));
+        List<Long> ids = new ArrayList<>();
+
+        while (selector.next()) {
+            ids.add(tokenizer.getLong());
+        }
+
+        assertEquals(java.util.Arrays.asList(1L, 2L, 3L), ids);
+    }
+
+    @Test
+    public void selectsContainersAndIndices() throws Exception {
+        String json = "{\"items\": [{\"id\": 1}, {\"id\": 2, \"more\": [1, 2]}], \"other\": [\"a\"]}";
+        JsonTokenizer tokenizer = tokenizer(json, 8192);
+        JsonSelector selector = tokenizer.select(JsonPath.compile("$['items'][1]"));
+
+        assertTrue(selector.next());
+        assertEquals(JsonToken.START_OBJECT, tokenizer.current());
+        assertFalse(selector.next());
+    }
+
+    @Test
+    public void visitorParserWithPath() throws Exception {
+        ResponseParser<CollectingVisitor> parser = new JsonVisitorResponseParser<>(CollectingVisitor::new, "$.items[*].id");
+        String json = "{\"items\": [{\"id\": \"a\"}, {\"id\": {\"deep\": true}}]}";
+
+        CollectingVisitor visitor = parser.parse(null, null, 200, new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8)), Collections.emptyMap(), "application/json", "UTF-8");
+
+        assertEquals(java.util.Arrays.asList("a", "{", "deep", "true", "}"), visitor.events);
+    }
+
+    @Test
+    public void tokenParser() throws Exception {
+        ResponseParser<Integer> parser = new JsonResponseParser<>((tokenizer) -> {
+            int count = 0;
+            JsonSelector selector = tokenizer.select(JsonPath.compile("$.*"));
+
+            while (selector.next()) {
+                count++;
+            }
+
+            return count;
+        });
+
+        Integer count = parser.parse(null, null, 200, new ByteArrayInputStream("{\"a\": 1, \"b\": [1, 2], \"c\": {}}".getBytes(StandardCharsets.UTF_8)), Collections.emptyMap(), "application/json", null);
+
+        assertEquals(Integer.valueOf(3), count);
+    }
+
+    @Test(expected = IOException.class)
+    public void rejectsOtherCharsets() throws Exception {
+        new JsonResponseParser<>(JsonTokenizer::next).parse(null, null, 200, new ByteArrayInputStream(new byte[0]), Collections.emptyMap(), "application/json", "UTF-16");
+    }
+
+    @Test
+    public void streamsLargeDocuments() throws Exception {
+        int count = 500000;
+        InputStream items = new InputStream() {
+            private final byte[] item = "{\"id\": 42, \"payload\": \"some longer payload that is skipped\"},".getBytes(StandardCharsets.UTF_8);
+            private int written = 0;
+            private int position = 0;
+
+            @Override
+            public int read() {
+                if (this.written == count) {
+                    return -1;
+                }
+
+                int b = this.item[this.position++];
+
+                if (this.position == this.item.length) {
+                    this.position = 0;
+                    this.written++;
+                }
+
+                return b;
+            }
+        };
+
+        InputStream stream = new SequenceInputStream(Collections.enumeration(java.util.Arrays.asList(
+                new ByteArrayInputStream("{\"items\": [".getBytes(StandardCharsets.UTF_8)),
+                items,
+                new ByteArrayInputStream("{\"id\": 42}]}".getBytes(StandardCharsets.UTF_8))
+        )));
+
+        JsonTokenizer tokenizer = new JsonTokenizer(stream);
+        JsonSelector selector = tokenizer.select(JsonPath.compile("$.items[*].id"));
+        long sum = 0;
+
+        while (selector.next()) {
+            sum += tokenizer.getLong();
+        }
+
+        assertEquals(42L * (count + 1), sum);
+    }
+
+    private static JsonTokenizer tokenizer(String json, int bufferSize) {
+        return new JsonTokenizer(new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8)), bufferSize);
+    }
+
+    private static class CollectingVisitor implements JsonVisitor {
+
+        private final List<String> events = new ArrayList<>();
+
+        @Override
+        public void onStartObject() {
+            this.events.add("{");
+        }
+
+        @Override
+        public void onEndObject() {
+            this.events.add("}");
+        }
+
+        @Override
+        public void onFieldName(JsonTokenizer tokenizer) {
+            this.events.add(tokenizer.getText());
+        }
+
+        @Override
+        public void onValue(JsonToken token, JsonTokenizer tokenizer) {
+            this.events.add(tokenizer.getText());
+        }
+    }
+}
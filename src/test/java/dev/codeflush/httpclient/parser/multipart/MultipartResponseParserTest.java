@@ -0,0 +1,177 @@
+package dev.codeflush.httpclient.parser.multipart;
+
+import com.github.tomakehurst.wiremock.junit.WireMockRule;
+import dev.codeflush.httpclient.Endpoint;
+import dev.codeflush.httpclient.Response;
+import dev.codeflush.httpclient.client.HTTPClient;
+import dev.codeflush.httpclient.client.SimpleHTTPClient;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.*;
+import static com.github.tomakehurst.wiremock.core.WireMockConfiguration.wireMockConfig;
+import static org.junit.Assert.*;
+
+public class MultipartResponseParserTest {
+
+    @Rule
+    public WireMockRule wireMockRule = new WireMockRule(wireMockConfig().dynamicPort().dynamicHttpsPort(), false);
+
+    private Endpoint baseEndpoint;
+    private HTTPClient client;
+
+    @Before
+    public void setupMockServer() {
+        this.baseEndpoint = Endpoint.forHostAndPort(Endpoint.HTTP, "localhost", this.wireMockRule.port());
+        this.client = new SimpleHTTPClient();
+        this.wireMockRule.resetAll();
+    }
+
+    private static String read(Part part) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        byte[] buffer = new byte[7];
+        int bytesRead;
+
+        while ((bytesRead = part.getInputStream().read(buffer)) != -1) {
+            out.write(buffer, 0, bytesRead);
+        }
+
+        return new String(out.toByteArray(), StandardCharsets.UTF_8);
+    }
+
+    // returns at most one byte per read, so every delimiter is split across reads
+    private static InputStream trickle(byte[] bytes) {
+        return new FilterInputStream(new ByteArrayInputStream(bytes)) {
+            @Override
+            public int read(byte[] b, int off, int len) throws IOException {
+                return super.read(b, off, Math.min(len, 1));
+            }
+        };
+    }
+
+    @Test
+    public void parsesMultipartMixed() throws IOException {
+        String body = "this is the preamble\r\n"
+                + "--batch_1\r\n"
+                + "Content-Type: application/json; charset=UTF-8\r\n"
+                + "X-Id: 1\r\n"
+                + "\r\n"
+                + "{\"id\":1}\r\n"
+                + "--batch_1  \r\n"
+                + "Content-Type: text/plain\r\n"
+                + "\r\n"
+                + "line 1\r\nline 2 --batch_ is not the boundary\r\n"
+                + "--batch_1--\r\n"
+                + "this is the epilogue";
+
+        this.wireMockRule.stubFor(get(urlEqualTo("/batch")).willReturn(aResponse()
+                .withStatus(200)
+                .withHeader("Content-Type", "multipart/mixed; boundary=\"batch_1\"")
+                .withBody(body)));
+
+        List<String> headers = new ArrayList<>();
+        Response<List<String>> response = this.baseEndpoint.resolve("batch").get().execute(this.client, new MultipartResponseParser<>((part) -> {
+            headers.add(part.getIndex() + ":" + part.getContentType() + ":" + part.getCharset() + ":" + part.getHeader("x-id"));
+            return read(part);
+        }));
+
+        assertEquals(Arrays.asList("{\"id\":1}", "line 1\r\nline 2 --batch_ is not the boundary"), response.getValue());
+        assertEquals(Arrays.asList("0:application/json:UTF-8:1", "1:text/plain:null:null"), headers);
+    }
+
+    @Test
+    public void parsesByteRanges() throws IOException {
+        String body = "--THIS_STRING_SEPARATES\r\n"
+                + "Content-Type: application/octet-stream\r\n"
+                + "Content-Range: bytes 0-4/100\r\n"
+                + "\r\n"
+                + "01234\r\n"
+                + "--THIS_STRING_SEPARATES\r\n"
+                + "Content-Type: application/octet-stream\r\n"
+                + "Content-Range: bytes 95-99/100\r\n"
+                + "\r\n"
+                + "56789\r\n"
+                + "--THIS_STRING_SEPARATES--\r\n";
+
+        this.wireMockRule.stubFor(get(urlEqualTo("/file")).willReturn(aResponse()
+                .withStatus(206)
+                .withHeader("Content-Type", "multipart/byteranges; boundary=THIS_STRING_SEPARATES")
+                .withBody(body)));
+
+        Response<List<String>> response = this.baseEndpoint.resolve("file").get()
+                .header("Range", "bytes=0-4,95-99")
+                .execute(this.client, new MultipartResponseParser<>((part) -> part.getHeader("Content-Range") + "=" + read(part)));
+
+        assertEquals(206, response.getResponseCode());
+        assertEquals(Arrays.asList("bytes 0-4/100=01234", "bytes 95-99/100=56789"), response.getValue());
+    }
+
+    @Test
+    public void handlesDelimitersSplitAcrossReads() throws IOException {
+        String body = "--b\r\n\r\n\r\n-\r\n--\r\n--c\r\n--b\r\nA: b\r\n\r\nsecond\r\n--b--";
+        List<String> parts = new ArrayList<>();
+
+        try (MultipartReader reader = new MultipartReader(trickle(body.getBytes(StandardCharsets.UTF_8)), "b")) {
+            Part part;
+
+            while ((part = reader.next()) != null) {
+                parts.add(read(part));
+            }
+        }
+
+        assertEquals(Arrays.asList("\r\n-\r\n--\r\n--c", "second"), parts);
+    }
+
+    @Test
+    public void skipsUnreadParts() throws IOException {
+        byte[] large = new byte[1024 * 1024];
+        Arrays.fill(large, (byte) 'x');
+
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+        body.write("--boundary\r\n\r\n".getBytes(StandardCharsets.UTF_8));
+        body.write(large);
+        body.write("\r\n--boundary\r\nX-Id: 2\r\n\r\nsmall\r\n--boundary--".getBytes(StandardCharsets.UTF_8));
+
+        List<String> parts = new ArrayList<>();
+
+        try (MultipartReader reader = new MultipartReader(new ByteArrayInputStream(body.toByteArray()), "boundary")) {
+            Part first = reader.next();
+            assertEquals('x', first.getInputStream().read());
+
+            Part second = reader.next();
+            assertEquals(-1, first.getInputStream().read());
+            assertEquals("2", second.getHeader("X-Id"));
+            parts.add(read(second));
+
+            assertNull(reader.next());
+        }
+
+        assertEquals(Arrays.asList("small"), parts);
+    }
+
+    @Test(expected = IOException.class)
+    public void failsWithoutClosingDelimiter() throws IOException {
+        try (MultipartReader reader = new MultipartReader(new ByteArrayInputStream("--b\r\n\r\nunterminated".getBytes(StandardCharsets.UTF_8)), "b")) {
+            read(reader.next());
+        }
+    }
+
+    @Test
+    public void findsTheBoundary() {
+        assertEquals("abc", MultipartReader.boundaryOf("multipart/mixed; boundary=abc"));
+        assertEquals("a b;c", MultipartReader.boundaryOf("multipart/mixed; charset=UTF-8; BOUNDARY=\"a b;c\""));
+        assertNull(MultipartReader.boundaryOf("multipart/mixed"));
+        assertNull(MultipartReader.boundaryOf(null));
+    }
+}
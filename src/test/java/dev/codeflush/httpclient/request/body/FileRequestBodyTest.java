@@ -0,0 +1,109 @@
+package dev.codeflush.httpclient.request.body;
+
+import com.github.tomakehurst.wiremock.junit.WireMockRule;
+import dev.codeflush.httpclient.Endpoint;
+import dev.codeflush.httpclient.client.HTTPClient;
+import dev.codeflush.httpclient.client.SimpleHTTPClient;
+import dev.codeflush.httpclient.parser.NoOpResponseParser;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Optional;
+import java.util.Random;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.*;
+import static com.github.tomakehurst.wiremock.core.WireMockConfiguration.wireMockConfig;
+import static org.junit.Assert.*;
+
+public class FileRequestBodyTest {
+
+    @Rule
+    public WireMockRule wireMockRule = new WireMockRule(wireMockConfig().dynamicPort().dynamicHttpsPort(), false);
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private Endpoint baseEndpoint;
+    private HTTPClient client;
+    private byte[] bytes;
+    private File file;
+
+    @Before
+    public void setup() throws IOException {
+        this.baseEndpoint = Endpoint.forHostAndPort(Endpoint.HTTP, "localhost", this.wireMockRule.port());
+        this.client = new SimpleHTTPClient();
+        this.wireMockRule.resetAll();
+
+        this.bytes = new byte[100_000];
+        new Random(42L).nextBytes(this.bytes);
+        this.file = this.folder.newFile("upload.bin");
+        Files.write(this.file.toPath(), this.bytes);
+    }
+
+    @Test
+    public void uploadsTheFileWithItsLength() throws IOException {
+        this.baseEndpoint.resolve("upload")
+                .post()
+                .body(RequestBody.forFile(this.file))
+                .execute(this.client, new NoOpResponseParser());
+
+        this.wireMockRule.verify(postRequestedFor(urlEqualTo("/upload"))
+                .withHeader("Content-Length", equalTo(String.valueOf(this.bytes.length)))
+                .withRequestBody(binaryEqualTo(this.bytes)));
+    }
+
+    @Test
+    public void transfersToChannels() throws IOException {
+        File target = this.folder.newFile("copy.bin");
+
+        try (FileChannel channel = FileChannel.open(target.toPath(), StandardOpenOption.WRITE)) {
+            RequestBody.forFile(this.file).write(channel);
+        }
+
+        assertArrayEquals(this.bytes, Files.readAllBytes(target.toPath()));
+    }
+
+    @Test
+    public void unknownLengthOfMissingFiles() {
+        assertEquals(Optional.of(this.bytes.length), RequestBody.forFile(this.file).getContentLength());
+        assertEquals(Optional.empty(), RequestBody.forFile(new File(this.folder.getRoot(), "missing.bin")).getContentLength());
+    }
+
+    @Test
+    public void multipartChannelAndStreamPathsAreEqual() throws IOException {
+        RequestBody body = new FormDataRequestBody(Arrays.asList(
+                FormDataParameter.forText("some-field", "some-value"),
+                FormDataParameter.forFile("some-file", this.file)
+        ));
+
+        ByteArrayOutputStream stream = new ByteArrayOutputStream();
+        body.write(stream);
+
+        ByteArrayOutputStream channel = new ByteArrayOutputStream();
+        body.write(Channels.newChannel(channel));
+
+        assertArrayEquals(stream.toByteArray(), channel.toByteArray());
+        assertEquals(Optional.of(stream.size()), body.getContentLength());
+    }
+
+    @Test
+    public void multipartWithStreamHasUnknownLength() {
+        RequestBody body = new FormDataRequestBody(Arrays.asList(
+                FormDataParameter.forText("some-field", "some-value"),
+                FormDataParameter.forStream("some-stream", "application/octet-stream", new ByteArrayInputStream(this.bytes))
+        ));
+
+        assertFalse(body.getContentLength().isPresent());
+    }
+}
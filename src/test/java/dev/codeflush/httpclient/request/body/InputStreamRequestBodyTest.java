@@ -2,6 +2,7 @@ package dev.codeflush.httpclient.request.body;
 
 import com.github.tomakehurst.wiremock.junit.WireMockRule;
 import dev.codeflush.httpclient.Endpoint;
+import dev.codeflush.httpclient.buffer.BufferPool;
 import dev.codeflush.httpclient.client.SimpleHTTPClient;
 import dev.codeflush.httpclient.parser.NoOpResponseParser;
 import dev.codeflush.httpclient.client.HTTPClient;
@@ -14,6 +15,7 @@ import java.io.ByteArrayInputStream;
 
 import static com.github.tomakehurst.wiremock.client.WireMock.*;
 import static com.github.tomakehurst.wiremock.core.WireMockConfiguration.wireMockConfig;
+import static org.junit.Assert.*;
 
 public class InputStreamRequestBodyTest {
 
@@ -46,4 +48,16 @@ public class InputStreamRequestBodyTest {
         verify(exactly(1), postRequestedFor(urlEqualTo("/test"))
                 .withRequestBody(binaryEqualTo(bytes)));
     }
-}
\ No newline at end of file
+
+    @Test
+    public void streamsAreOneShotUnlessDeclaredRepeatable() {
+        assertFalse(new InputStreamRequestBody("application/octet-stream", () -> new ByteArrayInputStream(new byte[0])).isRepeatable());
+        assertFalse(new InputStreamFormDataParameter("file", "application/octet-stream", () -> new ByteArrayInputStream(new byte[0])).isRepeatable());
+        assertTrue(new InputStreamRequestBody("application/octet-stream", () -> new ByteArrayInputStream(new byte[0]), true).isRepeatable());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsDirectBuffers() {
+        new InputStreamRequestBody("application/octet-stream", () -> new ByteArrayInputStream(new byte[0]), false, BufferPool.direct());
+    }
+}
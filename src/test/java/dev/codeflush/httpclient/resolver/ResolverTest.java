@@ -0,0 +1,221 @@
+package dev.codeflush.httpclient.resolver;
+
+import com.github.tomakehurst.wiremock.junit.WireMockRule;
+import dev.codeflush.httpclient.Endpoint;
+import dev.codeflush.httpclient.Response;
+import dev.codeflush.httpclient.client.SimpleHTTPClient;
+import dev.codeflush.httpclient.parser.StringResponseParser;
+import dev.codeflush.httpclient.request.Timeouts;
+import dev.codeflush.httpclient.request.body.RequestBody;
+import dev.codeflush.httpclient.tls.TrustAll;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+
+import javax.net.ssl.HostnameVerifier;
+import javax.net.ssl.HttpsURLConnection;
+import javax.net.ssl.SSLContext;
+import javax.net.ssl.SSLSocketFactory;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.net.UnknownHostException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.*;
+import static com.github.tomakehurst.wiremock.core.WireMockConfiguration.wireMockConfig;
+import static org.junit.Assert.*;
+
+public class ResolverTest {
+
+    // TEST-NET-1, connecting to it either hangs or fails
+    private static final String UNREACHABLE = "192.0.2.1";
+
+    @Rule
+    public WireMockRule wireMockRule = new WireMockRule(wireMockConfig().dynamicPort().dynamicHttpsPort(), false);
+
+    private SSLSocketFactory defaultSocketFactory;
+    private HostnameVerifier defaultHostnameVerifier;
+
+    @Before
+    public void setupMockServer() {
+        this.wireMockRule.resetAll();
+        this.wireMockRule.stubFor(get(urlEqualTo("/hello")).willReturn(aResponse().withStatus(200).withBody("hello")));
+        this.defaultSocketFactory = HttpsURLConnection.getDefaultSSLSocketFactory();
+        this.defaultHostnameVerifier = HttpsURLConnection.getDefaultHostnameVerifier();
+    }
+
+    @After
+    public void restoreDefaults() {
+        HttpsURLConnection.setDefaultSSLSocketFactory(this.defaultSocketFactory);
+        HttpsURLConnection.setDefaultHostnameVerifier(this.defaultHostnameVerifier);
+    }
+
+    @Test
+    public void staticResolverForPlainHttp() throws IOException {
+        StaticResolver resolver = new StaticResolver().add("backend.test", "127.0.0.1");
+        SimpleHTTPClient client = new SimpleHTTPClient(Collections.emptyMap(), Timeouts.NONE, resolver);
+
+        Response<String> response = Endpoint.forHostAndPort(Endpoint.HTTP, "backend.test", this.wireMockRule.port())
+                .resolve("hello")
+                .get()
+                .execute(client, new StringResponseParser());
+
+        assertEquals("hello", response.getValue());
+        this.wireMockRule.verify(getRequestedFor(urlEqualTo("/hello")).withHeader("Host", equalTo("backend.test:" + this.wireMockRule.port())));
+    }
+
+    @Test
+    public void staticResolverWithRequestBody() throws IOException {
+        this.wireMockRule.stubFor(post(urlEqualTo("/echo")).willReturn(aResponse().withStatus(200).withBody("ok")));
+        StaticResolver resolver = new StaticResolver().add("backend.test", "127.0.0.1");
+        SimpleHTTPClient client = new SimpleHTTPClient(Collections.emptyMap(), Timeouts.NONE, resolver);
+
+        // the connection is connected before the body is written
+        Response<String> response = Endpoint.forHostAndPort(Endpoint.HTTP, "backend.test", this.wireMockRule.port())
+                .resolve("echo")
+                .post()
+                .body(RequestBody.forText("abc"))
+                .execute(client, new StringResponseParser());
+
+        assertEquals("ok", response.getValue());
+        this.wireMockRule.verify(postRequestedFor(urlEqualTo("/echo")).withRequestBody(equalTo("abc")));
+    }
+
+    @Test
+    public void failsOverToTheNextAddress() throws IOException {
+        StaticResolver resolver = new StaticResolver().add("backend.test", UNREACHABLE, "127.0.0.1");
+        SimpleHTTPClient client = new SimpleHTTPClient(Collections.emptyMap(), Timeouts.of(200L, 2000L, 0L), resolver);
+
+        Response<String> response = Endpoint.forHostAndPort(Endpoint.HTTP, "backend.test", this.wireMockRule.port())
+                .resolve("hello")
+                .get()
+                .execute(client, new StringResponseParser());
+
+        assertEquals("hello", response.getValue());
+    }
+
+    @Test
+    public void racesTheAddressesInParallel() throws IOException {
+        StaticResolver resolver = new StaticResolver().add("backend.test", UNREACHABLE, "127.0.0.1");
+        SimpleHTTPClient client = new SimpleHTTPClient(Collections.emptyMap(), Timeouts.of(10_000L, 2000L, 0L), resolver);
+        long start = System.currentTimeMillis();
+
+        Response<String> response = Endpoint.forHostAndPort(Endpoint.HTTP, "backend.test", this.wireMockRule.port())
+                .resolve("hello")
+                .get()
+                .execute(client, new StringResponseParser());
+
+        // the second address is tried after the attempt delay, not after the connect timeout of the first one
+        assertEquals("hello", response.getValue());
+        assertTrue(System.currentTimeMillis() - start < 5000L);
+    }
+
+    @Test(expected = UnknownHostException.class)
+    public void unknownHost() throws IOException {
+        SimpleHTTPClient client = new SimpleHTTPClient(Collections.emptyMap(), Timeouts.NONE, new StaticResolver());
+
+        Endpoint.forHostAndPort(Endpoint.HTTP, "unknown.test", this.wireMockRule.port())
+                .get()
+                .execute(client, new StringResponseParser());
+    }
+
+    @Test
+    public void staticResolverForHttps() throws Exception {
+        SSLContext context = TrustAll.context();
+        HttpsURLConnection.setDefaultSSLSocketFactory(context.getSocketFactory());
+        HttpsURLConnection.setDefaultHostnameVerifier((hostname, session) -> true);
+
+        // both addresses are raced, the unreachable one must not delay the request
+        StaticResolver resolver = new StaticResolver().add("secure.test", UNREACHABLE, "127.0.0.1");
+        SimpleHTTPClient client = new SimpleHTTPClient(Collections.emptyMap(), Timeouts.of(5000L, 5000L, 0L), resolver);
+
+        long start = System.currentTimeMillis();
+        Response<String> response = Endpoint.forHostAndPort(Endpoint.HTTPS, "secure.test", this.wireMockRule.httpsPort())
+                .resolve("hello")
+                .get()
+                .execute(client, new StringResponseParser());
+
+        assertEquals("hello", response.getValue());
+        assertTrue(System.currentTimeMillis() - start < 4000L);
+        this.wireMockRule.verify(getRequestedFor(urlEqualTo("/hello")).withHeader("Host", equalTo("secure.test:" + this.wireMockRule.httpsPort())));
+    }
+
+    @Test
+    public void happyEyeballsInterleavesFamilies() throws UnknownHostException {
+        InetAddress v6a = InetAddress.getByName("::1");
+        InetAddress v6b = InetAddress.getByName("::2");
+        InetAddress v4a = InetAddress.getByName("127.0.0.1");
+        InetAddress v4b = InetAddress.getByName("127.0.0.2");
+        InetAddress v4c = InetAddress.getByName("127.0.0.3");
+
+        assertEquals(Arrays.asList(v6a, v4a, v6b, v4b, v4c), HappyEyeballs.interleave(Arrays.asList(v6a, v6b, v4a, v4b, v4c)));
+        assertEquals(Arrays.asList(v4a, v6a, v4b, v6b), HappyEyeballs.interleave(Arrays.asList(v4a, v4b, v6a, v6b)));
+    }
+
+    @Test
+    public void happyEyeballsRacesAddresses() throws IOException {
+        List<InetAddress> addresses = Arrays.asList(InetAddress.getByName(UNREACHABLE), InetAddress.getByName("127.0.0.1"));
+
+        try (Socket socket = HappyEyeballs.connect(addresses, this.wireMockRule.port(), 5000, 50L)) {
+            assertTrue(socket.isConnected());
+            assertEquals(InetAddress.getByName("127.0.0.1"), socket.getInetAddress());
+        }
+    }
+
+    @Test
+    public void cachingResolverServesStaleWhileRefreshing() throws Exception {
+        AtomicInteger lookups = new AtomicInteger();
+        AtomicBoolean failing = new AtomicBoolean(false);
+        Resolver delegate = (host) -> {
+            lookups.incrementAndGet();
+
+            if (failing.get()) {
+                throw new UnknownHostException(host);
+            }
+
+            return Collections.singletonList(InetAddress.getByName("127.0.0.1"));
+        };
+        CachingResolver resolver = new CachingResolver(delegate, 50L, 300L, true, Runnable::run);
+
+        resolver.resolve("cached.test");
+        resolver.resolve("CACHED.test");
+        assertEquals(1, lookups.get());
+        assertEquals(1L, resolver.getMisses());
+        assertEquals(1L, resolver.getHits());
+
+        Thread.sleep(80L);
+        failing.set(true);
+
+        // expired, the refresh fails but the stale entry is still served
+        assertEquals(1, resolver.resolve("cached.test").size());
+        assertEquals(2, lookups.get());
+        assertEquals(1L, resolver.getStaleHits());
+        assertEquals(1L, resolver.getRefreshFailures());
+
+        Thread.sleep(350L);
+
+        try {
+            resolver.resolve("cached.test");
+            fail("expected UnknownHostException");
+        } catch (UnknownHostException expected) {
+        }
+    }
+
+    @Test
+    public void cachingResolverRotatesAddresses() throws Exception {
+        StaticResolver delegate = new StaticResolver().add("pool.test", "10.0.0.1", "10.0.0.2", "10.0.0.3");
+        CachingResolver resolver = new CachingResolver(delegate);
+
+        assertEquals("10.0.0.1", resolver.resolve("pool.test").get(0).getHostAddress());
+        assertEquals("10.0.0.2", resolver.resolve("pool.test").get(0).getHostAddress());
+        assertEquals("10.0.0.3", resolver.resolve("pool.test").get(0).getHostAddress());
+        assertEquals("10.0.0.1", resolver.resolve("pool.test").get(0).getHostAddress());
+        assertEquals(3, resolver.resolve("pool.test").size());
+    }
+}
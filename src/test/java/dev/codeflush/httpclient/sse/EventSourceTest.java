@@ -0,0 +1,167 @@
+package dev.codeflush.httpclient.sse;
+
+import com.github.tomakehurst.wiremock.junit.WireMockRule;
+import com.github.tomakehurst.wiremock.stubbing.Scenario;
+import dev.codeflush.httpclient.Endpoint;
+import dev.codeflush.httpclient.client.SimpleHTTPClient;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.*;
+import static com.github.tomakehurst.wiremock.core.WireMockConfiguration.wireMockConfig;
+import static org.junit.Assert.*;
+
+public class EventSourceTest {
+
+    @Rule
+    public WireMockRule wireMockRule = new WireMockRule(wireMockConfig().dynamicPort().dynamicHttpsPort(), false);
+
+    private Endpoint baseEndpoint;
+
+    @Before
+    public void setupMockServer() {
+        this.baseEndpoint = Endpoint.forHostAndPort(Endpoint.HTTP, "localhost", this.wireMockRule.port());
+        this.wireMockRule.resetAll();
+    }
+
+    @Test
+    public void parsesFields() throws Exception {
+        String stream = "\uFEFF: comment\r\n"
+                + "data: first\r\n"
+                + "data:second line\r\n"
+                + "\r\n"
+                + "event: update\rid: 7\rdata\r\r"
+                + "retry: 1500\nretry: soon\nid: with\u0000nul\nunknown: field\n\n"
+                + "data: {\"a\": 1}\n\n"
+                + "data: incomplete";
+        ServerSentEventReader reader = new ServerSentEventReader(new ByteArrayInputStream(stream.getBytes(StandardCharsets.UTF_8)));
+
+        ServerSentEvent event = reader.next();
+        assertEquals("message", event.getEvent());
+        assertEquals("first\nsecond line", event.getData());
+        assertEquals("", event.getId());
+
+        event = reader.next();
+        assertEquals("update", event.getEvent());
+        assertEquals("", event.getData());
+        assertEquals("7", event.getId());
+
+        event = reader.next();
+        assertEquals("{\"a\": 1}", event.getData());
+        assertEquals("7", event.getId());
+        assertEquals(1500L, reader.getRetryMillis());
+
+        assertNull(reader.next());
+    }
+
+    @Test
+    public void reconnectsWithLastEventId() throws Exception {
+        stubFor(get(urlEqualTo("/events")).inScenario("sse")
+                .whenScenarioStateIs(Scenario.STARTED)
+                .willReturn(aResponse()
+                        .withHeader("Content-Type", "text/event-stream; charset=utf-8")
+                        .withBody("retry: 10\nid: 1\ndata: one\n\n"))
+                .willSetStateTo("reconnected"));
+
+        stubFor(get(urlEqualTo("/events")).inScenario("sse")
+                .whenScenarioStateIs("reconnected")
+                .withHeader("Last-Event-ID", equalTo("1"))
+                .willReturn(aResponse()
+                        .withHeader("Content-Type", "text/event-stream")
+                        .withBody("id: 2\nevent: custom\ndata: two\n\n"))
+                .willSetStateTo("done"));
+
+        stubFor(get(urlEqualTo("/events")).inScenario("sse")
+                .whenScenarioStateIs("done")
+                .willReturn(aResponse().withStatus(204)));
+
+        List<ServerSentEvent> events = new CopyOnWriteArrayList<>();
+        CountDownLatch closed = new CountDownLatch(1);
+
+        EventSource source = new EventSource(new SimpleHTTPClient(), this.baseEndpoint.resolve("events").get().template(), new ServerSentEventListener() {
+            @Override
+            public void onEvent(ServerSentEvent event) {
+                events.add(event);
+            }
+
+            @Override
+            public void onClosed() {
+                closed.countDown();
+            }
+        });
+
+        Thread thread = new Thread(source);
+        thread.start();
+
+        assertTrue(closed.await(10, TimeUnit.SECONDS));
+        assertEquals(2, events.size());
+        assertEquals("one", events.get(0).getData());
+        assertEquals("custom", events.get(1).getEvent());
+        assertEquals("2", source.getLastEventId());
+        assertEquals(10L, source.getRetryMillis());
+
+        verify(exactly(3), getRequestedFor(urlEqualTo("/events")).withHeader("Accept", equalTo("text/event-stream")));
+    }
+
+    @Test
+    public void closeStopsReconnecting() throws Exception {
+        stubFor(get(urlEqualTo("/events")).willReturn(aResponse()
+                .withHeader("Content-Type", "text/event-stream")
+                .withBody("retry: 60000\ndata: one\n\n")));
+
+        CountDownLatch received = new CountDownLatch(1);
+        CountDownLatch closed = new CountDownLatch(1);
+
+        EventSource source = new EventSource(new SimpleHTTPClient(), this.baseEndpoint.resolve("events").get().template(), new ServerSentEventListener() {
+            @Override
+            public void onEvent(ServerSentEvent event) {
+                received.countDown();
+            }
+
+            @Override
+            public void onClosed() {
+                closed.countDown();
+            }
+        });
+
+        new Thread(source).start();
+
+        assertTrue(received.await(10, TimeUnit.SECONDS));
+        source.close();
+        assertTrue(closed.await(10, TimeUnit.SECONDS));
+        assertTrue(source.isClosed());
+    }
+
+    @Test
+    public void failsOnWrongContentType() throws Exception {
+        stubFor(get(urlEqualTo("/events")).willReturn(aResponse()
+                .withHeader("Content-Type", "text/plain")
+                .withBody("data: one\n\n")));
+
+        List<Throwable> errors = new CopyOnWriteArrayList<>();
+        EventSource source = new EventSource(new SimpleHTTPClient(), this.baseEndpoint.resolve("events").get().template(), new ServerSentEventListener() {
+            @Override
+            public void onEvent(ServerSentEvent event) {
+                fail();
+            }
+
+            @Override
+            public void onError(Throwable t) {
+                errors.add(t);
+            }
+        });
+
+        source.run();
+
+        assertEquals(1, errors.size());
+        assertTrue(source.isClosed());
+    }
+}
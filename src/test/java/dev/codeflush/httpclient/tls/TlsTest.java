@@ -0,0 +1,132 @@
+package dev.codeflush.httpclient.tls;
+
+import com.github.tomakehurst.wiremock.junit.WireMockRule;
+import dev.codeflush.httpclient.Endpoint;
+import dev.codeflush.httpclient.Response;
+import dev.codeflush.httpclient.client.SimpleHTTPClient;
+import dev.codeflush.httpclient.parser.StringResponseParser;
+import dev.codeflush.httpclient.request.Timeouts;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+
+import javax.net.ssl.SSLContext;
+import javax.net.ssl.SSLHandshakeException;
+import java.io.IOException;
+import java.util.Collections;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.*;
+import static com.github.tomakehurst.wiremock.core.WireMockConfiguration.wireMockConfig;
+import static org.junit.Assert.*;
+
+public class TlsTest {
+
+    @Rule
+    public WireMockRule wireMockRule = new WireMockRule(wireMockConfig().dynamicPort().dynamicHttpsPort(), false);
+
+    private Endpoint baseEndpoint;
+
+    @Before
+    public void setupMockServer() {
+        this.baseEndpoint = Endpoint.forHostAndPort(Endpoint.HTTPS, "localhost", this.wireMockRule.httpsPort());
+        this.wireMockRule.resetAll();
+        // every request needs a new connection and therefore a new handshake
+        this.wireMockRule.stubFor(get(urlEqualTo("/hello")).willReturn(aResponse().withStatus(200).withHeader("Connection", "close").withBody("hello")));
+    }
+
+    private static SimpleHTTPClient client(TlsConfig config) {
+        return new SimpleHTTPClient(Collections.emptyMap(), Timeouts.of(5000L, 5000L, 0L), config);
+    }
+
+    private String hello(SimpleHTTPClient client) throws IOException {
+        Response<String> response = this.baseEndpoint.resolve("hello").get().execute(client, new StringResponseParser());
+        return response.getValue();
+    }
+
+    private static void awaitHandshakes(TlsMetrics metrics, long handshakes) throws InterruptedException {
+        // the listeners are notified asynchronously
+        for (int i = 0; i < 100 && metrics.getHandshakes() < handshakes; i++) {
+            Thread.sleep(10L);
+        }
+    }
+
+    @Test
+    public void countsFullAndResumedHandshakes() throws Exception {
+        SimpleHTTPClient client = client(TlsConfig.builder()
+                .sslContext(TrustAll.context())
+                .sessionCache(100, 3600)
+                .protocols("TLSv1.2")
+                .hostnameVerifier((hostname, session) -> true)
+                .build());
+
+        for (int i = 0; i < 3; i++) {
+            assertEquals("hello", hello(client));
+        }
+
+        TlsMetrics metrics = client.getTlsMetrics();
+        awaitHandshakes(metrics, 3L);
+
+        assertEquals(1L, metrics.getFullHandshakes());
+        assertEquals(2L, metrics.getResumedHandshakes());
+        assertTrue(metrics.getAverageHandshakeMillis() > 0.0);
+        assertTrue(metrics.getMaxHandshakeMillis() >= metrics.getAverageHandshakeMillis());
+    }
+
+    @Test
+    public void withoutSessionCacheEveryHandshakeIsFull() throws Exception {
+        SSLContext context = TrustAll.context();
+        SimpleHTTPClient client = client(TlsConfig.builder()
+                .sslContext(context)
+                .protocols("TLSv1.2")
+                .hostnameVerifier((hostname, session) -> true)
+                .build());
+
+        for (int i = 0; i < 2; i++) {
+            assertEquals("hello", hello(client));
+            // drop the cached session between the requests
+            Collections.list(context.getClientSessionContext().getIds()).forEach((id) -> context.getClientSessionContext().getSession(id).invalidate());
+        }
+
+        TlsMetrics metrics = client.getTlsMetrics();
+        awaitHandshakes(metrics, 2L);
+
+        assertEquals(2L, metrics.getFullHandshakes());
+        assertEquals(0L, metrics.getResumedHandshakes());
+    }
+
+    @Test
+    public void usesTheHostnameVerifier() throws Exception {
+        AtomicInteger verified = new AtomicInteger();
+        SimpleHTTPClient client = client(TlsConfig.builder()
+                .sslContext(TrustAll.context())
+                .hostnameVerifier((hostname, session) -> {
+                    verified.incrementAndGet();
+                    return "localhost".equals(hostname);
+                })
+                .build());
+
+        assertEquals("hello", hello(client));
+        assertEquals(1, verified.get());
+    }
+
+    @Test(expected = IOException.class)
+    public void rejectingHostnameVerifierFailsTheRequest() throws Exception {
+        SimpleHTTPClient client = client(TlsConfig.builder()
+                .sslContext(TrustAll.context())
+                .hostnameVerifier((hostname, session) -> false)
+                .build());
+
+        hello(client);
+    }
+
+    @Test(expected = SSLHandshakeException.class)
+    public void untrustedCertificateFailsWithTheDefaultContext() throws IOException {
+        hello(client(TlsConfig.DEFAULT));
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void sessionCacheRequiresAnOwnContext() {
+        TlsConfig.builder().sessionCache(100, 60).build();
+    }
+}